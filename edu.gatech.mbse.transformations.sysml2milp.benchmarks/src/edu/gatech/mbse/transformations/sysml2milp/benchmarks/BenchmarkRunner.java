@@ -0,0 +1,95 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.benchmarks;
+
+import java.util.ArrayList;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkFixture;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+
+/**
+ * Runs the benchmarks with GC and allocation profiling enabled.
+ * <P>
+ * Launch this as a plain Java application (no Eclipse workbench or MATLAB required)
+ * with the benchmarks project as working directory. Any arguments are passed on to
+ * JMH (e.g., "HotPathBenchmark.toProcess -p fixture=PARALLEL_PROCESS" to only run
+ * one benchmark on one model); all benchmarks are run if no benchmark is given.
+ * <P>
+ * The system properties sysml.profile.path and benchmark.resources.path are passed on
+ * to the forked JVMs.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class BenchmarkRunner {
+	
+	/**
+	 * Run the benchmarks.
+	 * 
+	 * @param args Command line arguments passed on to JMH.
+	 * @throws RunnerException If running the benchmarks failed.
+	 * @throws CommandLineOptionException If the arguments could not be parsed.
+	 */
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.parent(commandLineOptions)
+				.addProfiler(GCProfiler.class)
+				.forks(1)
+				.warmupIterations(5)
+				.measurementIterations(5);
+		
+		if (commandLineOptions.getIncludes().isEmpty()) {
+			options = options
+					.include(TransformationBenchmark.class.getSimpleName())
+					.include(HotPathBenchmark.class.getSimpleName())
+					.include(ScalingBenchmark.class.getSimpleName());
+		}
+		
+		// Forked JVMs have to find the SysML profile and the test resources as well
+		ArrayList<String> jvmArgs = new ArrayList<String>();
+		
+		for (String property : new String[] { BenchmarkModel.SYSML_PROFILE_PATH_PROPERTY, BenchmarkFixture.RESOURCES_PATH_PROPERTY }) {
+			if (System.getProperty(property) != null)
+				jvmArgs.add("-D" + property + "=" + System.getProperty(property));
+		}
+		
+		if (!jvmArgs.isEmpty())
+			options = options.jvmArgsAppend(jvmArgs.toArray(new String[jvmArgs.size()]));
+		
+		new Runner(options.build()).run();
+	}
+
+}
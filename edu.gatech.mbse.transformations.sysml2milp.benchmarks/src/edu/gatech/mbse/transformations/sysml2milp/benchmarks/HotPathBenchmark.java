@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Map.Entry;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Constraint;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Property;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import edu.gatech.mbse.transformations.sysml2milp.InternalCorrespondences;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+import edu.gatech.mbse.transformations.sysml2milp.model.Process;
+import edu.gatech.mbse.transformations.sysml2milp.model.ProcessFlattener;
+import edu.gatech.mbse.transformations.sysml2milp.ocl.MiniOCLInterpretor;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkFixture;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
+
+/**
+ * Micro-benchmarks of individual steps of the transformation, for each of the
+ * models in the test resources.
+ * <P>
+ * All benchmarks except for {@link #rebuildCache()} operate on a context that has
+ * been prepared as by the transformation (see
+ * {@link SysML2MILPTransformation#prepareContext(Activity, Element, boolean)}). As
+ * during a transformation run, the context is active (see
+ * {@link TransformationContext#activate()}) while the benchmarks run, so the
+ * per-run caches of element roles, generalizations and classifier features are
+ * used. The benchmarks are meant to be run with a single thread, since the context
+ * is activated on the thread running the setup.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HotPathBenchmark {
+	
+	/** The model to benchmark on. */
+	@Param
+	public BenchmarkFixture fixture;
+	
+	/** The loaded model. */
+	private BenchmarkModel model = null;
+	
+	/** The process (functional specification). */
+	private Activity process = null;
+	
+	/** The prepared context. */
+	private TransformationContext context = null;
+	
+	/** The context that was active before the prepared context was activated. */
+	private TransformationContext previousContext = null;
+	
+	/** Resource types in the allocation matrix. */
+	private Element[] resources = null;
+	
+	/** Number of instances of each resource type in {@link #resources}. */
+	private int[] numInstances = null;
+	
+	/** Elements that own an expression. */
+	private Element[] expressionOwners = null;
+	
+	/** The expressions of the elements in {@link #expressionOwners}. */
+	private String[] expressions = null;
+	
+	/**
+	 * Load the model, prepare the context and collect the arguments of the
+	 * micro-benchmarks.
+	 * 
+	 * @throws Exception If the system under design could not be found.
+	 */
+	@Setup(Level.Trial)
+	public void setup() throws Exception {
+		model = fixture.load();
+		process = fixture.getProcess(model);
+		context = new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true);
+		
+		// All resource types with their instances
+		int numResources = context.getCorrespondences().getResourceTypeInstanceIDMapping().size();
+		resources = new Element[numResources];
+		numInstances = new int[numResources];
+		
+		int i = 0;
+		for (Entry<Element, ArrayList<Integer>> entry : context.getCorrespondences().getResourceTypeInstanceIDMapping().entrySet()) {
+			resources[i] = entry.getKey();
+			numInstances[i] = entry.getValue().size();
+			i++;
+		}
+		
+		// The expressions of the system under design (constraints, default values and
+		// the objective) - these are interpreted before the process is translated, as
+		// in the transformation
+		Classifier systemUnderDesign = DSEMLUtils.getSystemUnderDesign(model.getRootPackage());
+		
+		if (systemUnderDesign == null)
+			throw new Exception("Could not find system under design in model.");
+		
+		ArrayList<Element> owners = new ArrayList<Element>();
+		ArrayList<String> specs = new ArrayList<String>();
+		
+		for (Constraint c : systemUnderDesign.getOwnedRules()) {
+			String spec = UMLModelUtils.getStringValue(c.getSpecification());
+			
+			if (spec != null && !spec.equals("") && !spec.equals("null")) {
+				owners.add(c);
+				specs.add(spec);
+			}
+		}
+		
+		for (Property p : systemUnderDesign.getAttributes()) {
+			String defValue = UMLModelUtils.getDefaultValue(p);
+			
+			if (defValue != null && !defValue.equals("") && !defValue.equals("null")) {
+				owners.add(p);
+				specs.add(defValue);
+			}
+		}
+		
+		expressionOwners = owners.toArray(new Element[owners.size()]);
+		expressions = specs.toArray(new String[specs.size()]);
+		
+		previousContext = context.activate();
+	}
+	
+	/**
+	 * Stop using the per-run caches of the prepared context.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.deactivate(previousContext);
+	}
+	
+	/**
+	 * Rebuild the transformation cache from scratch, in a new context (as at the start
+	 * of a transformation run, i.e. with empty per-run caches).
+	 * 
+	 * @return The rebuilt cache.
+	 */
+	@Benchmark
+	public TransformationCache rebuildCache() {
+		TransformationContext fresh = new TransformationContext(model.getRootPackage(), process, true);
+		TransformationContext previous = fresh.activate();
+		
+		try {
+			fresh.getCache().rebuildCache(model.getRootPackage(), process);
+		} finally {
+			fresh.deactivate(previous);
+		}
+		
+		return fresh.getCache();
+	}
+	
+	/**
+	 * Look up the allocation matrix row of every instance of every resource type.
+	 * 
+	 * @param blackhole Consumes the looked up indices.
+	 */
+	@Benchmark
+	public void getAllocationMatrixResourceInstanceIndex(Blackhole blackhole) {
+		InternalCorrespondences correspondences = context.getCorrespondences();
+		
+		for (int i=0; i<resources.length; i++) {
+			for (int instance=1; instance<=numInstances[i]; instance++)
+				blackhole.consume(correspondences.getAllocationMatrixResourceInstanceIndex(resources[i], instance));
+		}
+	}
+	
+	/**
+	 * Interpret the expressions of the system under design.
+	 * 
+	 * @param blackhole Consumes the interpreted expressions.
+	 */
+	@Benchmark
+	public void interpretExpression(Blackhole blackhole) {
+		for (int i=0; i<expressions.length; i++)
+			blackhole.consume(MiniOCLInterpretor.interpretExpression(expressionOwners[i], expressions[i], context));
+	}
+	
+	/**
+	 * Flatten the process into its internal representation.
+	 * 
+	 * @return The process.
+	 */
+	@Benchmark
+	public Process toProcess() {
+		return ProcessFlattener.toProcess(process, context);
+	}
+
+}
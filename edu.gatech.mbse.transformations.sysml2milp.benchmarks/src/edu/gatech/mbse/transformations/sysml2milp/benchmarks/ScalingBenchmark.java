@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Benchmark of the complete SysML to MILP transformation on synthetic models (see
+ * {@link SyntheticModelGenerator}) of increasing size, to study how the
+ * transformation scales with the number of resource types, functions and parallel
+ * branches.
+ * <P>
+ * As in {@link TransformationBenchmark}, the result cache is disabled and MILP code
+ * is generated in testing mode.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScalingBenchmark {
+	
+	/** Number of abstract resource types. */
+	@Param({ "4", "16", "64" })
+	public int numResourceTypes;
+	
+	/** Number of functions in the process. */
+	@Param({ "4", "16" })
+	public int numFunctions;
+	
+	/** Number of parallel branches in the process. */
+	@Param({ "1", "4" })
+	public int numParallelBranches;
+	
+	/** Number of abstract levels below each resource type. */
+	@Param({ "1" })
+	public int inheritanceDepth;
+	
+	/** Number of composite resources. */
+	@Param({ "0" })
+	public int numCompositeResources;
+	
+	/** The generated model. */
+	private BenchmarkModel model = null;
+	
+	/** The process to transform. */
+	private Activity process = null;
+	
+	/** The transformation. */
+	private SysML2MILPTransformation transformation = null;
+	
+	/**
+	 * Generate the model and set up the transformation.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumResourceTypes(numResourceTypes);
+		generator.setNumFunctions(numFunctions);
+		generator.setNumParallelBranches(numParallelBranches);
+		generator.setInheritanceDepth(inheritanceDepth);
+		generator.setNumCompositeResources(numCompositeResources);
+		
+		model = generator.generate(URI.createURI("synthetic.uml"));
+		process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		transformation = new SysML2MILPTransformation();
+		transformation.setResultCache(null);
+	}
+	
+	/**
+	 * Transform the process of the generated model.
+	 * 
+	 * @return The generated MILP code.
+	 * @throws Exception If the transformation failed.
+	 */
+	@Benchmark
+	public String transform() throws Exception {
+		return transformation.transform(process, model.getRootPackage(), 1, true);
+	}
+
+}
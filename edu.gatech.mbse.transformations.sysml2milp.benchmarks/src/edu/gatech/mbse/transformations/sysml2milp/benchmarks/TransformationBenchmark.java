@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.uml2.uml.Activity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkFixture;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+
+/**
+ * Benchmark of the complete SysML to MILP transformation, for each of the models in
+ * the test resources.
+ * <P>
+ * The result cache is disabled, so that every invocation runs the mappings. MILP
+ * code is generated in testing mode (as in the tests), but not executed.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransformationBenchmark {
+	
+	/** The model to transform. */
+	@Param
+	public BenchmarkFixture fixture;
+	
+	/** The loaded model. */
+	private BenchmarkModel model = null;
+	
+	/** The process to transform. */
+	private Activity process = null;
+	
+	/** The transformation. */
+	private SysML2MILPTransformation transformation = null;
+	
+	/**
+	 * Load the model and set up the transformation.
+	 */
+	@Setup(Level.Trial)
+	public void setup() {
+		model = fixture.load();
+		process = fixture.getProcess(model);
+		
+		transformation = new SysML2MILPTransformation();
+		transformation.setResultCache(null);
+	}
+	
+	/**
+	 * Transform the process of the model.
+	 * 
+	 * @return The generated MILP code.
+	 * @throws Exception If the transformation failed.
+	 */
+	@Benchmark
+	public String transform() throws Exception {
+		return transformation.transform(process, model.getRootPackage(), 1, true);
+	}
+
+}
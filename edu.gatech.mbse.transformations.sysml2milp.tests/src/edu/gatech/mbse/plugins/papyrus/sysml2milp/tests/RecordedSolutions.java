@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+
+/**
+ * Stand-in for executing generated MILP code in Matlab: replays solutions that were
+ * recorded in an earlier run with Matlab, such that the transformation tests can be
+ * run without a Matlab installation.
+ * <P>
+ * A recording is a copy of the output file that the generated code writes in testing
+ * mode (see the postamble of MILPModel2TextUtilsYALMIP), preceded by a fingerprint
+ * of the MILP code it was produced from. When replaying, the output file is written
+ * exactly as the generated code would, but only if the fingerprint of the MILP code
+ * is unchanged - otherwise, the solution would have to be recorded again. Recordings
+ * without a fingerprint are refused, since nothing ties them to the MILP code they
+ * are replayed for. Lines starting with "%" are comments.
+ * <P>
+ * Recordings are made by running the tests with Matlab and -Dmilp.executor=record
+ * (which sets the system property tycho.milp.executor, see {@link TestBase}).
+ * They are only replayed with -Dmilp.executor=replay, to compare the solutions found
+ * by Matlab with the ones found by the embedded YALMIPInterpreter, which is used by
+ * default.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class RecordedSolutions {
+	
+	/** Default location of the recordings. */
+	public static final String DEFAULT_RECORDINGS_FOLDER = "test-resources/recorded-solutions";
+	
+	/** Name of the output file written by the generated code in testing mode. */
+	public static final String RESULTS_FILE_NAME = "tmp_milp_results.txt";
+	
+	/** Maven property selecting the executor (passed on as tycho.milp.executor). */
+	private static final String RECORD_PROPERTY = "milp.executor";
+	
+	/** Prefix of the line holding the fingerprint of the MILP code. */
+	private static final String FINGERPRINT_PREFIX = "% fingerprint: ";
+	
+	/** Folder holding the recordings. */
+	private final File folder;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param folder Folder holding the recordings.
+	 */
+	public RecordedSolutions(File folder) {
+		this.folder = folder;
+	}
+	
+	/**
+	 * Replay a recorded solution, writing the output file as the generated code would.
+	 * 
+	 * @param name Name of the recording (e.g., the name of the test).
+	 * @param code The generated MILP code.
+	 * @throws IOException If there is no recording, or the output file could not be
+	 * 			written.
+	 * @throws IllegalStateException If the recording has no fingerprint, or the MILP
+	 * 			code changed since the solution was recorded.
+	 */
+	public void replay(String name, String code) throws IOException {
+		File recording = getRecording(name);
+		
+		if (!recording.exists())
+			throw new FileNotFoundException("No recorded solution for " + name + " in " + folder.getAbsolutePath());
+		
+		ArrayList<String> lines = new ArrayList<String>();
+		String recordedFingerprint = null;
+		
+		BufferedReader br = new BufferedReader(new FileReader(recording));
+		try {
+			String line = br.readLine();
+			
+			while (line != null) {
+				if (line.startsWith(FINGERPRINT_PREFIX))
+					recordedFingerprint = line.substring(FINGERPRINT_PREFIX.length()).trim();
+				else if (!line.startsWith("%") && !line.trim().equals(""))
+					lines.add(line);
+				
+				line = br.readLine();
+			}
+		} finally {
+			br.close();
+		}
+		
+		if (recordedFingerprint == null)
+			throw new IllegalStateException("The recorded solution of " + name + " has no fingerprint - "
+					+ "record it by running the test with Matlab and -D" + RECORD_PROPERTY + "=record");
+		
+		if (!recordedFingerprint.equals(fingerprint(code)))
+			throw new IllegalStateException("The MILP code of " + name + " changed since its solution was recorded - "
+					+ "record it again by running the test with Matlab and -D" + RECORD_PROPERTY + "=record");
+		
+		BufferedWriter bw = new BufferedWriter(new FileWriter(getResultsFile()));
+		try {
+			for (String line : lines)
+				bw.write(line + "\r\n");
+		} finally {
+			bw.close();
+		}
+	}
+	
+	/**
+	 * Record the solution written by the generated code into the output file.
+	 * 
+	 * @param name Name of the recording (e.g., the name of the test).
+	 * @param code The generated MILP code.
+	 * @throws IOException If the output file could not be read, or the recording could
+	 * 			not be written.
+	 */
+	public void record(String name, String code) throws IOException {
+		folder.mkdirs();
+		
+		BufferedReader br = new BufferedReader(new FileReader(getResultsFile()));
+		BufferedWriter bw = new BufferedWriter(new FileWriter(getRecording(name)));
+		try {
+			bw.write(FINGERPRINT_PREFIX + fingerprint(code) + "\r\n");
+			
+			String line = br.readLine();
+			
+			while (line != null) {
+				bw.write(line + "\r\n");
+				line = br.readLine();
+			}
+		} finally {
+			br.close();
+			bw.close();
+		}
+	}
+	
+	/**
+	 * Compute the fingerprint of generated MILP code.
+	 * <P>
+	 * Lines that depend on the environment rather than on the model (the location of
+	 * the output file and the solver settings) are ignored.
+	 * 
+	 * @param code The generated MILP code.
+	 * @return The SHA-1 hash of the relevant lines, as a hexadecimal string.
+	 */
+	public static String fingerprint(String code) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-1");
+			
+			for (String line : code.split("\r\n")) {
+				if (line.trim().startsWith("home = ") || line.contains("sdpsettings("))
+					continue;
+				
+				digest.update(line.getBytes("UTF-8"));
+				digest.update((byte) '\n');
+			}
+			
+			StringBuilder hex = new StringBuilder();
+			for (byte b : digest.digest())
+				hex.append(String.format("%02x", b));
+			
+			return hex.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * @return the output file written by the generated code in testing mode
+	 */
+	public static File getResultsFile() {
+		return new File(System.getProperty("java.io.tmpdir") + "/" + RESULTS_FILE_NAME);
+	}
+	
+	/**
+	 * @param name Name of the recording.
+	 * @return the file holding the recording
+	 */
+	private File getRecording(String name) {
+		return new File(folder, name + ".txt");
+	}
+
+}
@@ -62,6 +62,7 @@ import org.eclipse.uml2.uml.Package;
 import org.eclipse.uml2.uml.UMLPackage;
 import org.eclipse.uml2.uml.resources.util.UMLResourcesUtil;
 
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPInterpreter;
 import edu.gatech.mbse.transformations.sysml2milp.SolverType;
 import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
 import edu.gatech.mbse.transformations.sysml2milp.TransformationConfig;
@@ -202,10 +203,48 @@ public class TestBase {
 	 * Execute a Matlab script.
 	 * <P>
 	 * This function now sets up OPTI and YALMIP automatically as well.
+	 * <P>
+	 * Which executor is used depends on the system property tycho.milp.executor (set with
+	 * -Dmilp.executor when running Maven). By default, the code is executed by the embedded
+	 * {@link YALMIPInterpreter}, which does not require Matlab. If it is "matlab", the code
+	 * is executed in Matlab; if it is "record", the solution produced by Matlab is recorded
+	 * as well. If it is "replay", the solution recorded for this test (see
+	 * {@link RecordedSolutions}) is written to the output file instead.
 	 * 
 	 * @param code A string representation of the matlab code.
 	 */
 	protected void executeMatlabScript(String code) {
+		String executor = System.getProperty("tycho.milp.executor");
+		RecordedSolutions recordedSolutions = new RecordedSolutions(new File(RecordedSolutions.DEFAULT_RECORDINGS_FOLDER));
+		
+		// Replay a recorded solution instead, if requested
+		if ("replay".equals(executor)) {
+			try {
+				recordedSolutions.replay(getClass().getSimpleName(), code);
+			} catch (IOException e) {
+				e.printStackTrace();
+				
+				fail("Could not replay recorded solution!\n\n" + e.getLocalizedMessage());
+			} catch (IllegalStateException e) {
+				fail(e.getLocalizedMessage());
+			}
+			
+			return;
+		}
+		
+		// Execute the code with the embedded solver, unless Matlab is requested
+		if (!"matlab".equals(executor) && !"record".equals(executor)) {
+			try {
+				new YALMIPInterpreter().execute(code);
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				
+				fail("Could not execute MILP code!\n\n" + e.getLocalizedMessage());
+			}
+			
+			return;
+		}
+		
 		Builder optionsBuilder = new Builder();
 		
 		// Default options
@@ -270,6 +309,17 @@ public class TestBase {
 			
 			fail();
 		}
+		
+		// Record the solution, if requested
+		if ("record".equals(executor)) {
+			try {
+				recordedSolutions.record(getClass().getSimpleName(), code);
+			} catch (IOException e) {
+				e.printStackTrace();
+				
+				fail("Could not record solution!\n\n" + e.getLocalizedMessage());
+			}
+		}
 	}
 	
 	/**
@@ -281,7 +331,7 @@ public class TestBase {
 	 */
 	protected void compareActualToExpectedOutput(Map<String,String> expectedMappings) {
 		// Matlab script writes to an output file, which we then parse
-		File tempFile = new File(System.getProperty("java.io.tmpdir") + "/tmp_milp_results.txt");
+		File tempFile = RecordedSolutions.getResultsFile();
 		
 		// Parse the result to see whether (a) a feasible solution was found and (b) whether the output is as expected
 		try {
@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.concurrency;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Test case - concurrent transformation of several process alternatives of the same
+ * model with {@link SysML2MILPTransformation#transformAll(java.util.Collection,
+ * org.eclipse.uml2.uml.Element, int, boolean, ExecutorService)}.
+ * <P>
+ * The results must be returned in the order of the process alternatives, and be the
+ * same as the MILP code generated by transforming each alternative on its own. The
+ * result cache is disabled, such that every result is actually generated.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformAllTest {
+	
+	/** Number of process alternatives in the generated model. */
+	private static final int NUM_PROCESS_ALTERNATIVES = 3;
+	
+	@Test
+	public void matchesSerialTransformation() throws Exception {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumResourceTypes(6);
+		generator.setNumCompositeResources(2);
+		generator.setNumFunctions(5);
+		generator.setNumParallelBranches(2);
+		generator.setNumProcessAlternatives(NUM_PROCESS_ALTERNATIVES);
+		
+		BenchmarkModel model = generator.generate(URI.createURI("TransformAllTest.uml"));
+		
+		List<Activity> processAlternatives = new ArrayList<Activity>();
+		for (int k = 1; k <= NUM_PROCESS_ALTERNATIVES; k++) {
+			Activity process = (Activity) model.findElementByName(
+					SyntheticModelGenerator.PROCESS_NAME + (k > 1 ? k + "" : ""));
+			
+			assertNotNull(process);
+			processAlternatives.add(process);
+		}
+		
+		// Transform the process alternatives concurrently (first, such that transformAll
+		// reads the model as generated)
+		SysML2MILPTransformation transformation = new SysML2MILPTransformation();
+		transformation.setResultCache(null);
+		
+		ExecutorService executor = Executors.newFixedThreadPool(NUM_PROCESS_ALTERNATIVES);
+		
+		List<String> actual = new ArrayList<String>();
+		
+		try {
+			List<Future<String>> results = transformation.transformAll(processAlternatives,
+					model.getRootPackage(), 1, true, executor);
+			
+			for (Future<String> result : results)
+				actual.add(result.get());
+		} finally {
+			executor.shutdown();
+		}
+		
+		// Transform each process alternative on its own
+		List<String> expected = new ArrayList<String>();
+		for (Activity process : processAlternatives) {
+			StringWriter milpCode = new StringWriter();
+			
+			SysML2MILPTransformation serial = new SysML2MILPTransformation();
+			serial.setResultCache(null);
+			serial.transform(process, model.getRootPackage(), 1, true, milpCode);
+			
+			expected.add(milpCode.toString());
+		}
+		
+		// The alternatives differ, so that the order of the results is actually checked
+		assertFalse(expected.get(0).equals(expected.get(1)));
+		
+		assertEquals(NUM_PROCESS_ALTERNATIVES, actual.size());
+		
+		for (int i = 0; i < NUM_PROCESS_ALTERNATIVES; i++)
+			assertEquals("Result " + i + " differs from the serial transformation of "
+					+ processAlternatives.get(i).getName(), expected.get(i), actual.get(i));
+	}
+
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.concurrency;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+
+/**
+ * Test case - activation of {@link TransformationContext}s on the current thread: a
+ * context activated while another one is active (e.g., a context prepared during a
+ * run) must give the per-run caches back to the outer context when it is deactivated.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformationContextTest {
+	
+	@Test
+	public void deactivateRestoresThePreviousContext() {
+		TransformationContext outer = new TransformationContext(null, null, true);
+		TransformationContext inner = new TransformationContext(null, null, true);
+		
+		assertNull(outer.activate());
+		
+		try {
+			assertSame(outer, TransformationContext.getActive());
+			assertSame(outer, inner.activate());
+			
+			try {
+				assertSame(inner, TransformationContext.getActive());
+			} finally {
+				inner.deactivate(outer);
+			}
+			
+			assertSame(outer, TransformationContext.getActive());
+			assertSame(outer.getElementRoles(), TransformationContext.getActive().getElementRoles());
+			assertSame(outer.getGeneralizationClosure(), TransformationContext.getActive().getGeneralizationClosure());
+			assertSame(outer.getClassifierFeatures(), TransformationContext.getActive().getClassifierFeatures());
+		} finally {
+			outer.deactivate(null);
+		}
+		
+		assertNull(TransformationContext.getActive());
+	}
+
+}
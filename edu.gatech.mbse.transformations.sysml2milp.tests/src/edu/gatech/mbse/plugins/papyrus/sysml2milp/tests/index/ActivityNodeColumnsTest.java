@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.ActivityNode;
+import org.eclipse.uml2.uml.CallBehaviorAction;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.InternalCorrespondences;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Test case - {@link InternalCorrespondences#getColumns(ActivityNode)} and
+ * {@link InternalCorrespondences#getColumnSumExpression(ActivityNode)}: the columns of
+ * an activity node are the columns of matrix A whose combination belongs to the node,
+ * in ascending order, and their sum lists them in the same order.
+ * <P>
+ * The generated process has four actions (two of them in parallel branches between a
+ * fork and a join), each calling a function with two working principles, i.e. eight
+ * columns.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ActivityNodeColumnsTest {
+	
+	@Test
+	public void listsColumnsInAscendingOrder() {
+		BenchmarkModel model = generateModel();
+		InternalCorrespondences correspondences = prepareCorrespondences(model);
+		
+		assertArrayEquals(new int[] { 1, 2 }, correspondences.getColumns(getAction(model, "action0")));
+		assertArrayEquals(new int[] { 7, 8 }, correspondences.getColumns(getAction(model, "action3")));
+		
+		assertEquals("A(:,1) + A(:,2)", correspondences.getColumnSumExpression(getAction(model, "action0")));
+		assertEquals("A(:,5) + A(:,6)", correspondences.getColumnSumExpression(getAction(model, "action2")));
+	}
+	
+	@Test
+	public void matchesScanOfColumns() {
+		BenchmarkModel model = generateModel();
+		InternalCorrespondences correspondences = prepareCorrespondences(model);
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		// Same columns (in ascending order) as scanning all columns, for every node
+		for (ActivityNode node : process.getNodes()) {
+			List<Integer> expected = new ArrayList<Integer>();
+			StringBuilder sum = new StringBuilder();
+			
+			for (int column = 1; column <= correspondences.getNumColumns(); column++) {
+				if (correspondences.getColumnActivityNode(column) == node) {
+					if (!expected.isEmpty())
+						sum.append(" + ");
+					
+					expected.add(Integer.valueOf(column));
+					sum.append("A(:," + column + ")");
+				}
+			}
+			
+			int[] columns = correspondences.getColumns(node);
+			
+			assertEquals(node.getName(), expected.size(), columns.length);
+			for (int i = 0; i < columns.length; i++)
+				assertEquals(node.getName(), expected.get(i).intValue(), columns[i]);
+			
+			assertEquals(node.getName(), sum.toString(), correspondences.getColumnSumExpression(node));
+		}
+	}
+	
+	@Test
+	public void rendersSumsOnce() {
+		BenchmarkModel model = generateModel();
+		InternalCorrespondences correspondences = prepareCorrespondences(model);
+		CallBehaviorAction action = getAction(model, "action1");
+		
+		assertSame(correspondences.getColumnSumExpression(action), correspondences.getColumnSumExpression(action));
+		
+		// Nodes without columns
+		ActivityNode fork = (ActivityNode) model.findElementByName("fork");
+		assertEquals(0, correspondences.getColumns(fork).length);
+		assertEquals("", correspondences.getColumnSumExpression(fork));
+	}
+	
+	/**
+	 * Generate the model with two parallel branches.
+	 * 
+	 * @return The generated model.
+	 */
+	private BenchmarkModel generateModel() {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumParallelBranches(2);
+		
+		return generator.generate(URI.createURI("ActivityNodeColumnsTest.uml"));
+	}
+	
+	/**
+	 * Prepare the internal correspondences for the process of a generated model.
+	 * 
+	 * @param model The generated model.
+	 * @return The correspondences of the prepared context.
+	 */
+	private InternalCorrespondences prepareCorrespondences(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true).getCorrespondences();
+	}
+	
+	/**
+	 * Returns an action of the generated process.
+	 * 
+	 * @param model The generated model.
+	 * @param name The name of the action.
+	 * @return The action.
+	 */
+	private CallBehaviorAction getAction(BenchmarkModel model, String name) {
+		return (CallBehaviorAction) model.findElementByName(name);
+	}
+
+}
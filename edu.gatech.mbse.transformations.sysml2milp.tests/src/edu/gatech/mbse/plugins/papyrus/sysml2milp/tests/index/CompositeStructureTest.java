@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Element;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.CompositeStructure;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * Test case - {@link CompositeStructure}: the composite parents of a part are the
+ * concrete specializations of the (abstract) composites owning it, and a resource is
+ * part of a composite if it is or specializes one of the part types, as computed by
+ * {@link DSEMLUtils#getCompositeParents(Element, java.util.ArrayList, java.util.ArrayList)}
+ * and {@link DSEMLUtils#isPartOfAnyComposite(Classifier, java.util.ArrayList)}.
+ * <P>
+ * The generated model has two abstract composites CompositeType0 (parts ResourceType0
+ * and ResourceType1) and CompositeType1 (parts ResourceType2 and ResourceType3), with
+ * the concrete composites Composite0 and Composite1.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class CompositeStructureTest {
+	
+	@Test
+	public void findsConcreteParentsOfParts() {
+		BenchmarkModel model = generateModel();
+		CompositeStructure structure = prepareContext(model).getCache().getCompositeStructure();
+		
+		Element composite0 = model.findElementByName("Composite0");
+		Element composite1 = model.findElementByName("Composite1");
+		
+		// Abstract owners are replaced by their concrete specializations
+		assertEquals(Arrays.asList(new Element[] { composite0 }),
+				structure.getCompositeParents(model.findElementByName("ResourceType0")));
+		assertEquals(Arrays.asList(new Element[] { composite0 }),
+				structure.getCompositeParents(model.findElementByName("ResourceType1")));
+		assertEquals(Arrays.asList(new Element[] { composite1 }),
+				structure.getCompositeParents(model.findElementByName("ResourceType2")));
+		
+		// Only immediate part types have parents
+		assertTrue(structure.getCompositeParents(model.findElementByName("Resource0_0")).isEmpty());
+		assertTrue(structure.getCompositeParents(composite0).isEmpty());
+	}
+	
+	@Test
+	public void findsPartsAtAnyHierarchyLevel() {
+		BenchmarkModel model = generateModel();
+		CompositeStructure structure = prepareContext(model).getCache().getCompositeStructure();
+		
+		assertTrue(structure.isPartOfAnyComposite(model.findElementByName("ResourceType0")));
+		assertTrue(structure.isPartOfAnyComposite(model.findElementByName("ResourceType3_L1")));
+		assertTrue(structure.isPartOfAnyComposite(model.findElementByName("Resource0_0")));
+		
+		assertFalse(structure.isPartOfAnyComposite(model.findElementByName("Composite0")));
+		assertFalse(structure.isPartOfAnyComposite(model.findElementByName("CompositeType1")));
+	}
+	
+	@Test
+	public void matchesSearchInModel() {
+		TransformationContext context = prepareContext(generateModel());
+		TransformationCache cache = context.getCache();
+		CompositeStructure structure = cache.getCompositeStructure();
+		
+		// Same results as searching the relevant resources (the context is not active
+		// here), with the parents in the same order
+		for (Element resource : cache.getAllResources()) {
+			assertEquals(DSEMLUtils.getCompositeParents(resource, cache.getAllResources(), cache.getResources()),
+					structure.getCompositeParents(resource));
+			assertEquals(DSEMLUtils.isPartOfAnyComposite((Classifier) resource, cache.getCompositeResources()),
+					structure.isPartOfAnyComposite(resource));
+		}
+	}
+	
+	/**
+	 * Generate the model with two composites.
+	 * 
+	 * @return The generated model.
+	 */
+	private BenchmarkModel generateModel() {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumCompositeResources(2);
+		
+		return generator.generate(URI.createURI("CompositeStructureTest.uml"));
+	}
+	
+	/**
+	 * Prepare the transformation context for the process of a generated model.
+	 * 
+	 * @param model The generated model.
+	 * @return The prepared context.
+	 */
+	private TransformationContext prepareContext(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true);
+	}
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Package;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.ConcreteResourceTable;
+import edu.gatech.mbse.transformations.sysml2milp.InternalCorrespondences;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * Test case - {@link ConcreteResourceTable}: the concrete resources of a type are the
+ * type itself first (if not abstract), followed by its concrete specializations in the
+ * order of the relevant resources, as computed by
+ * {@link DSEMLUtils#getConcreteResourcesForAbstractResourceType(java.util.ArrayList, Element)}.
+ * <P>
+ * A concrete specialization of the concrete resource Resource0_0 is added in front of
+ * all other elements of the model, such that it precedes Resource0_0 in the model.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ConcreteResourceTableTest {
+	
+	@Test
+	public void listsConcreteTypeBeforeItsSpecializations() {
+		BenchmarkModel model = new SyntheticModelGenerator().generate(URI.createURI("ConcreteResourceTableTest.uml"));
+		Package root = model.getRootPackage();
+		
+		Class resource = (Class) model.findElementByName("Resource0_0");
+		Class special = root.createOwnedClass("Resource0_0Special", false);
+		special.applyStereotype(root.getAppliedProfiles().get(0).getOwnedStereotype("Resource"));
+		special.createGeneralization(resource);
+		root.getPackagedElements().move(0, special);
+		
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		TransformationContext context = new SysML2MILPTransformation().prepareContext(process, root, true);
+		ConcreteResourceTable table = context.getCorrespondences().getConcreteResourceTable();
+		
+		// Concrete type first, although its specialization comes first in the model
+		assertEquals(Arrays.asList(new Element[] { resource, special }), table.getConcreteResources(resource));
+		
+		// Abstract types are not part of their concrete resources
+		Element abstractType = model.findElementByName("ResourceType0");
+		assertFalse(table.getConcreteResources(abstractType).contains(abstractType));
+		
+		// Same lists as computed by filtering the relevant resources (the context is
+		// not active here)
+		for (Element type : context.getCache().getAllResources()) {
+			List<Element> expected = DSEMLUtils.getConcreteResourcesForAbstractResourceType(
+					context.getCache().getResources(), type);
+			
+			assertEquals(expected, table.getConcreteResources(type));
+		}
+	}
+	
+	@Test
+	public void replacingTheInstanceMappingDropsTheTable() {
+		BenchmarkModel model = new SyntheticModelGenerator().generate(URI.createURI("ConcreteResourceTableTest.uml"));
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		TransformationContext context = new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true);
+		InternalCorrespondences correspondences = context.getCorrespondences();
+		
+		// Same resource types in reverse order, with a single instance each
+		List<Element> types = new ArrayList<Element>(correspondences.getResourceTypeInstanceIDMapping().keySet());
+		LinkedHashMap<Element, ArrayList<Integer>> mapping = new LinkedHashMap<Element, ArrayList<Integer>>();
+		
+		for (int i=types.size()-1; i>=0; i--)
+			mapping.put(types.get(i), new ArrayList<Integer>(Arrays.asList(new Integer[] { 1 })));
+		
+		correspondences.setResourceTypeInstanceIDMapping(mapping);
+		
+		// Rows follow the new mapping, not the table built from the old one
+		assertNull(correspondences.getConcreteResourceTable());
+		assertEquals(1, correspondences.getAllocationMatrixResourceInstanceIndex(types.get(types.size()-1), 1));
+		assertEquals(types.size(), correspondences.getAllocationMatrixResourceInstanceIndex(types.get(0), 1));
+	}
+
+}
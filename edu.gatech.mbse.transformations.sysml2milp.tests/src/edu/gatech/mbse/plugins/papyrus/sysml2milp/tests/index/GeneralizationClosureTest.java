@@ -0,0 +1,75 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Element;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+import edu.gatech.mbse.transformations.sysml2milp.utils.GeneralizationClosure;
+
+/**
+ * Test case - {@link GeneralizationClosure}: the specifics of a classifier among a
+ * list of candidates are computed again when the version of the list changes, also
+ * if the list is modified in place.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class GeneralizationClosureTest {
+	
+	@Test
+	public void specificsFollowTheVersionOfTheCandidates() {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumResourceTypes(2);
+		
+		BenchmarkModel model = generator.generate(URI.createURI("GeneralizationClosureTest.uml"));
+		Class type = (Class) model.findElementByName("ResourceType0");
+		Element resource = model.findElementByName("Resource0_0");
+		Element other = model.findElementByName("Resource1_0");
+		
+		GeneralizationClosure closure = new GeneralizationClosure();
+		List<Element> candidates = new ArrayList<Element>(Arrays.asList(new Element[] { other }));
+		
+		assertEquals(0, closure.getSpecifics(candidates, 1, type).size());
+		
+		// Same list, modified in place
+		candidates.add(resource);
+		
+		assertEquals(Arrays.asList(new Element[] { resource }), closure.getSpecifics(candidates, 2, type));
+		assertEquals(Arrays.asList(new Element[] { resource }), closure.getSpecifics(candidates, 2, type));
+	}
+
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.ActivityEdge;
+import org.eclipse.uml2.uml.ActivityNode;
+import org.eclipse.uml2.uml.CallBehaviorAction;
+import org.eclipse.uml2.uml.ObjectFlow;
+import org.eclipse.uml2.uml.UMLPackage;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.ObjectFlowIndex;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Test case - {@link ObjectFlowIndex}: the outgoing and incoming flows of a node are
+ * the flows found by a scan of the object flows, in the same order, and the flows
+ * of a parameter of an action are the flows (with a source) into the pin of that
+ * name.
+ * <P>
+ * The generated process has two parallel branches: action0 feeds a fork, action1 and
+ * action2 run in parallel, and a join feeds action3. Every action has an input and an
+ * output pin, both named "workpiece".
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ObjectFlowIndexTest {
+	
+	@Test
+	public void matchesScanOfFlows() {
+		BenchmarkModel model = generateModel();
+		TransformationCache cache = prepareCache(model);
+		ObjectFlowIndex index = cache.getObjectFlowIndex();
+		
+		LinkedHashSet<ActivityNode> nodes = new LinkedHashSet<ActivityNode>();
+		for (ObjectFlow flow : cache.getObjectFlowList()) {
+			nodes.add(flow.getSource());
+			nodes.add(flow.getTarget());
+		}
+		
+		for (ActivityNode node : nodes) {
+			List<ObjectFlow> outgoing = new ArrayList<ObjectFlow>();
+			List<ObjectFlow> incoming = new ArrayList<ObjectFlow>();
+			
+			for (ObjectFlow flow : cache.getObjectFlowList()) {
+				if (flow.getSource() == node)
+					outgoing.add(flow);
+				if (flow.getTarget() == node)
+					incoming.add(flow);
+			}
+			
+			assertEquals(outgoing, index.getOutgoingFlows(node));
+			assertEquals(incoming, index.getIncomingFlows(node));
+		}
+	}
+	
+	@Test
+	public void keepsOrderOfForkBranches() {
+		BenchmarkModel model = generateModel();
+		ObjectFlowIndex index = prepareCache(model).getObjectFlowIndex();
+		
+		ActivityNode fork = (ActivityNode) model.findElementByName("fork");
+		List<ObjectFlow> outgoing = index.getOutgoingFlows(fork);
+		
+		assertEquals(2, outgoing.size());
+		assertEquals(getInputPin(model, "action1"), outgoing.get(0).getTarget());
+		assertEquals(getInputPin(model, "action2"), outgoing.get(1).getTarget());
+		
+		ActivityNode join = (ActivityNode) model.findElementByName("join");
+		assertEquals(2, index.getIncomingFlows(join).size());
+		assertEquals(1, index.getOutgoingFlows(join).size());
+	}
+	
+	@Test
+	public void parameterFlowsOnlyEnterPins() {
+		BenchmarkModel model = generateModel();
+		ObjectFlowIndex index = prepareCache(model).getObjectFlowIndex();
+		
+		CallBehaviorAction action = (CallBehaviorAction) model.findElementByName("action0");
+		
+		// The output pin of the same name is not a target, hence not a parameter flow
+		List<ObjectFlow> flows = index.getParameterFlows(action, "workpiece");
+		
+		assertEquals(1, flows.size());
+		assertEquals(action.getArguments().get(0), flows.get(0).getTarget());
+		assertEquals(model.findElementByName("workpieceIn"), flows.get(0).getSource());
+		
+		assertTrue(index.getParameterFlows(action, "unknown").isEmpty());
+		assertTrue(index.getParameterFlows(model.findElementByName("Function0"), "workpiece").isEmpty());
+	}
+	
+	@Test
+	public void flowsWithoutSourceAreOnlyIncoming() {
+		BenchmarkModel model = generateModel();
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		CallBehaviorAction action = (CallBehaviorAction) model.findElementByName("action1");
+		ActivityNode pin = action.getArguments().get(0);
+		
+		ObjectFlow dangling = (ObjectFlow) process.createEdge(null, UMLPackage.Literals.OBJECT_FLOW);
+		dangling.setTarget(pin);
+		
+		List<ObjectFlow> flows = new ArrayList<ObjectFlow>();
+		for (ActivityEdge edge : process.getEdges())
+			if (edge instanceof ObjectFlow)
+				flows.add((ObjectFlow) edge);
+		flows.add(null);
+		
+		ObjectFlowIndex index = ObjectFlowIndex.build(flows);
+		
+		List<ObjectFlow> incoming = index.getIncomingFlows(pin);
+		assertEquals(2, incoming.size());
+		assertEquals(dangling, incoming.get(1));
+		
+		// Only the flow from the fork passes a value to the parameter
+		List<ObjectFlow> parameterFlows = index.getParameterFlows(action, "workpiece");
+		assertEquals(Arrays.asList(new ObjectFlow[] { incoming.get(0) }), parameterFlows);
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void returnsUnmodifiableLists() {
+		BenchmarkModel model = generateModel();
+		ObjectFlowIndex index = prepareCache(model).getObjectFlowIndex();
+		
+		index.getOutgoingFlows((ActivityNode) model.findElementByName("fork")).clear();
+	}
+	
+	/**
+	 * Generate the model with two parallel branches.
+	 * 
+	 * @return The generated model.
+	 */
+	private BenchmarkModel generateModel() {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumParallelBranches(2);
+		
+		return generator.generate(URI.createURI("ObjectFlowIndexTest.uml"));
+	}
+	
+	/**
+	 * Prepare the transformation cache for the process of a generated model.
+	 * 
+	 * @param model The generated model.
+	 * @return The cache of the prepared context.
+	 */
+	private TransformationCache prepareCache(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true).getCache();
+	}
+	
+	/**
+	 * Returns the input pin of an action.
+	 * 
+	 * @param model The generated model.
+	 * @param actionName The name of the action.
+	 * @return The (only) input pin of the action.
+	 */
+	private ActivityNode getInputPin(BenchmarkModel model, String actionName) {
+		return ((CallBehaviorAction) model.findElementByName(actionName)).getArguments().get(0);
+	}
+
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Class;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.RelevantResources;
+
+/**
+ * Test case - {@link RelevantResources}: a resource is relevant if it is a resource
+ * type of a working principle, a general of one, or a specialization of one, but not
+ * if it only shares a general with one.
+ * <P>
+ * The generated process has a single function with two working principles, requiring
+ * ResourceType0 and ResourceType1. The first is changed to require the level below
+ * ResourceType0 instead, such that relevance is checked up and down the hierarchy.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class RelevantResourcesTest {
+	
+	@Test
+	public void followsGeneralizationsInBothDirections() {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumFunctions(1);
+		
+		BenchmarkModel model = generator.generate(URI.createURI("RelevantResourcesTest.uml"));
+		
+		// WP0_0 requires ResourceType0_L1 (between ResourceType0 and Resource0_0)
+		Activity wp = (Activity) model.findElementByName("WP0_0");
+		wp.getOwnedAttribute("resource", null).setType((Class) model.findElementByName("ResourceType0_L1"));
+		
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		RelevantResources relevant = new RelevantResources(process,
+				DSEMLUtils.getWorkingPrinciples(model.getRootPackage()));
+		
+		// Required resource type
+		assertTrue(relevant.isRelevant(model.findElementByName("ResourceType0_L1")));
+		
+		// Generals
+		assertTrue(relevant.isRelevant(model.findElementByName("ResourceType0")));
+		assertTrue(relevant.isRelevant(model.findElementByName("ManufacturingComponent")));
+		
+		// Specializations
+		assertTrue(relevant.isRelevant(model.findElementByName("Resource0_0")));
+		assertTrue(relevant.isRelevant(model.findElementByName("Resource1_2")));
+		
+		// Only sharing a general with a required resource type
+		assertFalse(relevant.isRelevant(model.findElementByName("ResourceType2")));
+		assertFalse(relevant.isRelevant(model.findElementByName("ResourceType2_L1")));
+		assertFalse(relevant.isRelevant(model.findElementByName("Resource3_0")));
+	}
+
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.AggregationKind;
+import org.eclipse.uml2.uml.Element;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.InternalCorrespondences;
+import edu.gatech.mbse.transformations.sysml2milp.ResourceCompatibility;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPMappingsHelper;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * Test case - {@link ResourceCompatibility}: the combinations are listed in the order
+ * of {@link InternalCorrespondences#getColumnsInIDOrder()}, and a resource is
+ * non-shareable within a combination if the working principle owns it as a part, as
+ * searched for by
+ * {@link SysML2MILPMappingsHelper#isNonShareableWithinContext(Element, String, TransformationContext)}.
+ * <P>
+ * In the generated model, working principles refer to their resource type by a shared
+ * attribute. The attribute of WP0_0 (referring to ResourceType0) is made a composite
+ * one, i.e. ResourceType0 is non-shareable within the combinations of WP0_0 only.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ResourceCompatibilityTest {
+	
+	@Test
+	public void listsCombinationsInIDOrder() {
+		InternalCorrespondences correspondences = prepareContext(generateModel()).getCorrespondences();
+		ResourceCompatibility compatibility = correspondences.getResourceCompatibility();
+		int[] columns = correspondences.getColumnsInIDOrder();
+		
+		assertEquals(correspondences.getNumColumns(), compatibility.getNumColumns());
+		assertEquals(columns.length, compatibility.getNumColumns());
+		
+		for (int i = 0; i < compatibility.getNumColumns(); i++) {
+			assertEquals(columns[i], compatibility.getColumnIndex(i));
+			assertEquals(correspondences.getColumnID(columns[i]), compatibility.getColumnID(i));
+		}
+	}
+	
+	@Test
+	public void keepsAssociatedResourceTypes() {
+		BenchmarkModel model = generateModel();
+		InternalCorrespondences correspondences = prepareContext(model).getCorrespondences();
+		ResourceCompatibility compatibility = correspondences.getResourceCompatibility();
+		
+		for (int i = 0; i < compatibility.getNumColumns(); i++) {
+			Activity wp = correspondences.getColumnWorkingPrinciple(compatibility.getColumnIndex(i));
+			
+			assertEquals(DSEMLUtils.getAllAssociatedResourceTypes(wp), compatibility.getResourceTypes(wp));
+		}
+		
+		// Functions are not working principles of any combination
+		assertNull(compatibility.getResourceTypes((Activity) model.findElementByName("Function0")));
+	}
+	
+	@Test
+	public void findsPartsOfWorkingPrinciples() {
+		BenchmarkModel model = generateModel();
+		TransformationContext context = prepareContext(model);
+		InternalCorrespondences correspondences = context.getCorrespondences();
+		ResourceCompatibility compatibility = correspondences.getResourceCompatibility();
+		
+		Element wp00 = model.findElementByName("WP0_0");
+		Element resourceType0 = model.findElementByName("ResourceType0");
+		
+		for (int i = 0; i < compatibility.getNumColumns(); i++) {
+			String id = compatibility.getColumnID(i);
+			Activity wp = correspondences.getColumnWorkingPrinciple(compatibility.getColumnIndex(i));
+			
+			for (Element resource : context.getCache().getAllResources()) {
+				boolean expected = wp == wp00 && resource == resourceType0;
+				
+				assertEquals(id + " " + resource, Boolean.valueOf(expected), compatibility.isNonShareable(resource, id));
+			}
+		}
+	}
+	
+	@Test
+	public void matchesSearchInWorkingPrinciples() {
+		TransformationContext context = prepareContext(generateModel());
+		InternalCorrespondences correspondences = context.getCorrespondences();
+		ResourceCompatibility compatibility = correspondences.getResourceCompatibility();
+		
+		// Without the relation, the attributes of the working principles are searched
+		correspondences.setResourceCompatibility(null);
+		
+		for (int i = 0; i < compatibility.getNumColumns(); i++) {
+			String id = compatibility.getColumnID(i);
+			
+			for (Element resource : context.getCache().getAllResources())
+				assertEquals(Boolean.valueOf(SysML2MILPMappingsHelper.isNonShareableWithinContext(resource, id, context)),
+						compatibility.isNonShareable(resource, id));
+		}
+	}
+	
+	@Test
+	public void knowsNothingAboutOtherElements() {
+		BenchmarkModel model = generateModel();
+		ResourceCompatibility compatibility = prepareContext(model).getCorrespondences().getResourceCompatibility();
+		String id = compatibility.getColumnID(0);
+		
+		assertNull(compatibility.isNonShareable(model.findElementByName(SyntheticModelGenerator.SYSTEM_UNDER_DESIGN_NAME), id));
+		assertNull(compatibility.isNonShareable(model.findElementByName("ResourceType0"), "IA99W1"));
+	}
+	
+	/**
+	 * Generate the model and make the resource of WP0_0 a part of it.
+	 * 
+	 * @return The generated model.
+	 */
+	private BenchmarkModel generateModel() {
+		BenchmarkModel model = new SyntheticModelGenerator().generate(URI.createURI("ResourceCompatibilityTest.uml"));
+		
+		Activity wp00 = (Activity) model.findElementByName("WP0_0");
+		wp00.getOwnedAttribute("resource", null).setAggregation(AggregationKind.COMPOSITE_LITERAL);
+		
+		return model;
+	}
+	
+	/**
+	 * Prepare the transformation context for the process of a generated model.
+	 * 
+	 * @param model The generated model.
+	 * @return The prepared context.
+	 */
+	private TransformationContext prepareContext(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true);
+	}
+
+}
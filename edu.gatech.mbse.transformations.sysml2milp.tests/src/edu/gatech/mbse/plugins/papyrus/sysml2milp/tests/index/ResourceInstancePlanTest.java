@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.AggregationKind;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Property;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.ResourceInstancePlan;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Test case - {@link ResourceInstancePlan}: processing order of nested and cyclic
+ * composite resources.
+ * <P>
+ * The generated model has two composite resources, Composite0 and Composite1, which
+ * are processed in reverse order (Composite1 first) unless nested. Parts are typed
+ * with the abstract composite types, as in the generated model.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ResourceInstancePlanTest {
+	
+	@Test
+	public void processesNestedCompositeFirst() {
+		BenchmarkModel model = generate("ResourceInstancePlanNestedTest.uml");
+		
+		// Composite1 contains a Composite0
+		createPart(model, "CompositeType1", "nested", "CompositeType0");
+		
+		ResourceInstancePlan plan = plan(model);
+		
+		assertTrue(position(plan, model, "Composite0") < position(plan, model, "Composite1"));
+	}
+	
+	@Test
+	public void keepsOrderOfCyclicComposites() {
+		BenchmarkModel model = generate("ResourceInstancePlanCyclicTest.uml");
+		
+		// Composite1 contains a Composite0, and Composite0 a Composite1
+		createPart(model, "CompositeType1", "nested", "CompositeType0");
+		createPart(model, "CompositeType0", "nested", "CompositeType1");
+		
+		ResourceInstancePlan plan = plan(model);
+		
+		assertTrue(position(plan, model, "Composite1") < position(plan, model, "Composite0"));
+		
+		// Every resource is planned exactly once
+		for (int i = 0; i < plan.getNumResources(); i++)
+			assertEquals(i, plan.getPosition(plan.getResource(i)));
+	}
+	
+	/**
+	 * Generate a model with two composite resources, both required by a working
+	 * principle.
+	 * 
+	 * @param name Name of the model resource.
+	 * @return The model.
+	 */
+	private BenchmarkModel generate(String name) {
+		SyntheticModelGenerator generator = new SyntheticModelGenerator();
+		generator.setNumCompositeResources(2);
+		
+		return generator.generate(URI.createURI(name));
+	}
+	
+	/**
+	 * Add a composite part to a resource.
+	 * 
+	 * @param model The model.
+	 * @param ownerName Name of the resource to add the part to.
+	 * @param partName Name of the part.
+	 * @param typeName Name of the type of the part.
+	 */
+	private void createPart(BenchmarkModel model, String ownerName, String partName, String typeName) {
+		Class owner = (Class) model.findElementByName(ownerName);
+		Property part = owner.createOwnedAttribute(partName, (Class) model.findElementByName(typeName));
+		part.setAggregation(AggregationKind.COMPOSITE_LITERAL);
+	}
+	
+	/**
+	 * Plan the resource instances of the generated process.
+	 * 
+	 * @param model The model.
+	 * @return The plan.
+	 */
+	private ResourceInstancePlan plan(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true)
+				.getCorrespondences().getResourceInstancePlan();
+	}
+	
+	/**
+	 * Returns the position of a resource in the plan, failing if it is not planned.
+	 * 
+	 * @param plan The plan.
+	 * @param model The model.
+	 * @param name Name of the resource.
+	 * @return The position of the resource.
+	 */
+	private int position(ResourceInstancePlan plan, BenchmarkModel model, String name) {
+		Element resource = model.findElementByName(name);
+		int position = plan.getPosition(resource);
+		
+		assertTrue(name + " is not planned", position >= 0);
+		
+		return position;
+	}
+
+}
@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.index;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Package;
+import org.eclipse.uml2.uml.UMLPackage;
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.WorkingPrincipleIndex;
+
+/**
+ * Test case - {@link WorkingPrincipleIndex}: the working principles of an activity
+ * are the activity itself if it is a working principle, followed by the working
+ * principles specializing it at any level, as computed by
+ * {@link DSEMLUtils#getWorkingPrinciples(Activity, ArrayList)}.
+ * <P>
+ * The generated model has the functions Function0 to Function3, each implemented by
+ * the working principles WPi_0 and WPi_1. A working principle WP0_0Special
+ * specializing WP0_0 (i.e., a second level implementation of Function0) and a
+ * function Unimplemented without working principles are added to the model.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class WorkingPrincipleIndexTest {
+	
+	@Test
+	public void findsWorkingPrinciplesAtAnyLevel() {
+		BenchmarkModel model = generateModel();
+		WorkingPrincipleIndex index = prepareCache(model).getWorkingPrincipleIndex();
+		
+		Activity wp00 = (Activity) model.findElementByName("WP0_0");
+		Activity wp01 = (Activity) model.findElementByName("WP0_1");
+		Activity special = (Activity) model.findElementByName("WP0_0Special");
+		
+		// Direct implementations in the order of the model, then the second level
+		assertEquals(Arrays.asList(new Activity[] { wp00, wp01, special }),
+				index.getWorkingPrinciples((Activity) model.findElementByName("Function0")));
+		assertEquals(Arrays.asList(new Activity[] { (Activity) model.findElementByName("WP1_0"),
+				(Activity) model.findElementByName("WP1_1") }),
+				index.getWorkingPrinciples((Activity) model.findElementByName("Function1")));
+		
+		// A working principle is implemented by itself and its specializations
+		ArrayList<Activity> wps = index.getWorkingPrinciples(wp00);
+		assertEquals(wp00, wps.get(0));
+		assertEquals(special, wps.get(wps.size() - 1));
+		assertTrue(index.getWorkingPrinciples(special).contains(special));
+		assertFalse(index.getWorkingPrinciples(special).contains(wp00));
+	}
+	
+	@Test
+	public void findsNothingForUnimplementedFunctions() {
+		BenchmarkModel model = generateModel();
+		WorkingPrincipleIndex index = prepareCache(model).getWorkingPrincipleIndex();
+		
+		assertTrue(index.getWorkingPrinciples((Activity) model.findElementByName("Unimplemented")).isEmpty());
+		
+		// Also for working principles not known to the index
+		Activity wp00 = (Activity) model.findElementByName("WP0_0");
+		assertTrue(new WorkingPrincipleIndex(new ArrayList<Activity>()).getWorkingPrinciples(wp00).contains(wp00));
+	}
+	
+	@Test
+	public void matchesSearchInModel() {
+		BenchmarkModel model = generateModel();
+		TransformationCache cache = prepareCache(model);
+		WorkingPrincipleIndex index = cache.getWorkingPrincipleIndex();
+		
+		// Same lists as searching all working principles (the context is not active
+		// here), for every activity of the model
+		for (Element e : model.getRootPackage().getPackagedElements()) {
+			if (!(e instanceof Activity))
+				continue;
+			
+			Activity act = (Activity) e;
+			
+			assertEquals(act.getName(), DSEMLUtils.getWorkingPrinciples(act, cache.getAllWorkingPrinciples()),
+					index.getWorkingPrinciples(act));
+		}
+	}
+	
+	/**
+	 * Generate the model and add a second level working principle and a function
+	 * without working principles.
+	 * 
+	 * @return The generated model.
+	 */
+	private BenchmarkModel generateModel() {
+		BenchmarkModel model = new SyntheticModelGenerator().generate(URI.createURI("WorkingPrincipleIndexTest.uml"));
+		Package root = model.getRootPackage();
+		
+		Activity special = (Activity) root.createPackagedElement("WP0_0Special", UMLPackage.Literals.ACTIVITY);
+		special.applyStereotype(root.getAppliedProfiles().get(0).getOwnedStereotype("WorkingPrinciple"));
+		special.createGeneralization((Activity) model.findElementByName("WP0_0"));
+		
+		Activity unimplemented = (Activity) root.createPackagedElement("Unimplemented", UMLPackage.Literals.ACTIVITY);
+		unimplemented.setIsAbstract(true);
+		
+		return model;
+	}
+	
+	/**
+	 * Prepare the transformation cache for the process of a generated model.
+	 * 
+	 * @param model The generated model.
+	 * @return The cache of the prepared context.
+	 */
+	private TransformationCache prepareCache(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return new SysML2MILPTransformation().prepareContext(process, model.getRootPackage(), true).getCache();
+	}
+
+}
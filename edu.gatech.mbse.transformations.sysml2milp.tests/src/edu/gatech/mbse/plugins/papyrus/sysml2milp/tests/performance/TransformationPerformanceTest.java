@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.performance;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationMetrics;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkFixture;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Performance regression test: transforms each of the models of the transformation
+ * tests, as well as a set of large synthetic models, and compares the wall time, the
+ * number of allocated bytes and the number of generated variables and constraints
+ * to a recorded baseline.
+ * <P>
+ * The baseline is kept in test-resources/performance-budgets.properties, together
+ * with the tolerances (relative to the baseline) beyond which a measurement is
+ * considered a regression. Wall time and allocated bytes are the minimum over a
+ * number of runs (after a warmup). The wall time is noisy on shared build agents, so
+ * its tolerance is generous and an absolute slack is added to its limit; it still
+ * catches a transformation that becomes several times slower.
+ * <P>
+ * These tests are only run with the Maven profile "performance" (-Pperformance),
+ * on a machine comparable to the one the baseline was recorded on. A measurement
+ * without a baseline is skipped (with a message naming the missing budget) rather
+ * than failed. To record a new baseline (e.g., for a new model, or after an
+ * intentional change of the generated MILP), run the tests with
+ * -Pperformance -Dperformance.record=true (which sets the system property
+ * tycho.performance.record).
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+@RunWith(Parameterized.class)
+public class TransformationPerformanceTest {
+	
+	/** Location of the baseline and tolerances. */
+	private static final File BUDGETS_FILE = new File("test-resources/performance-budgets.properties");
+	
+	/** Number of warmup runs. */
+	private static final int WARMUP_RUNS = 3;
+	
+	/** Number of measured runs. */
+	private static final int MEASURED_RUNS = 5;
+	
+	/** Suffix of wall time budgets (milliseconds). */
+	private static final String WALL_TIME = ".wallTimeMillis";
+	
+	/** Suffix of allocation budgets (bytes). */
+	private static final String ALLOCATED_BYTES = ".allocatedBytes";
+	
+	/** Suffix of variable count budgets. */
+	private static final String VARIABLES = ".variables";
+	
+	/** Suffix of constraint count budgets. */
+	private static final String CONSTRAINTS = ".constraints";
+	
+	/** Baseline and tolerances. */
+	private static Properties budgets = null;
+	
+	/** Measurements to record (if recording a new baseline). */
+	private static TreeMap<String,String> recorded = new TreeMap<String,String>();
+	
+	/** Name of the model (prefix of its budgets). */
+	private final String name;
+	
+	/** Fixture of the model, or null for a synthetic model. */
+	private final BenchmarkFixture fixture;
+	
+	/** Generator of the model, or null for a fixture. */
+	private final SyntheticModelGenerator generator;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param name Name of the model (prefix of its budgets).
+	 * @param fixture Fixture of the model, or null for a synthetic model.
+	 * @param generator Generator of the model, or null for a fixture.
+	 */
+	public TransformationPerformanceTest(String name, BenchmarkFixture fixture, SyntheticModelGenerator generator) {
+		this.name = name;
+		this.fixture = fixture;
+		this.generator = generator;
+	}
+	
+	/**
+	 * @return the models to transform: all fixtures and a set of synthetic models
+	 */
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> models() {
+		ArrayList<Object[]> models = new ArrayList<Object[]>();
+		
+		for (BenchmarkFixture fixture : BenchmarkFixture.values())
+			models.add(new Object[] { fixture.name(), fixture, null });
+		
+		// Synthetic models: resource types x functions x parallel branches
+		int[][] sizes = new int[][] { { 16, 8, 1 }, { 16, 8, 4 }, { 64, 16, 1 }, { 64, 16, 4 } };
+		for (int[] size : sizes) {
+			SyntheticModelGenerator generator = new SyntheticModelGenerator();
+			generator.setNumResourceTypes(size[0]);
+			generator.setNumFunctions(size[1]);
+			generator.setNumParallelBranches(size[2]);
+			
+			models.add(new Object[] { "SYNTHETIC_" + size[0] + "_" + size[1] + "_" + size[2], null, generator });
+		}
+		
+		return models;
+	}
+	
+	/**
+	 * Load the baseline and tolerances.
+	 * 
+	 * @throws IOException If the budgets file could not be read.
+	 */
+	@BeforeClass
+	public static void loadBudgets() throws IOException {
+		budgets = new Properties();
+		
+		InputStream in = new FileInputStream(BUDGETS_FILE);
+		try {
+			budgets.load(in);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Write the recorded baseline (if recording), keeping the tolerances.
+	 * 
+	 * @throws IOException If the budgets file could not be written.
+	 */
+	@AfterClass
+	public static void storeBudgets() throws IOException {
+		if (!isRecording())
+			return;
+		
+		TreeMap<String,String> all = new TreeMap<String,String>();
+		for (String key : budgets.stringPropertyNames())
+			all.put(key, budgets.getProperty(key));
+		all.putAll(recorded);
+		
+		BufferedWriter bw = new BufferedWriter(new FileWriter(BUDGETS_FILE));
+		try {
+			bw.write("# Baseline and tolerances of TransformationPerformanceTest - record a new baseline by\n");
+			bw.write("# running the tests with -Pperformance -Dperformance.record=true\n");
+			
+			for (Entry<String,String> entry : all.entrySet())
+				bw.write(entry.getKey() + " = " + entry.getValue() + "\n");
+		} finally {
+			bw.close();
+		}
+	}
+	
+	/**
+	 * Transform the model and compare the measurements to the baseline.
+	 * 
+	 * @throws Exception If the transformation failed.
+	 */
+	@Test
+	public void staysWithinBudget() throws Exception {
+		BenchmarkModel model;
+		Activity process;
+		
+		if (fixture != null) {
+			model = fixture.load();
+			process = fixture.getProcess(model);
+		}
+		else {
+			model = generator.generate(URI.createURI(name + ".uml"));
+			process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		}
+		
+		SysML2MILPTransformation transformation = new SysML2MILPTransformation();
+		transformation.setResultCache(null);
+		
+		for (int i = 0; i < WARMUP_RUNS; i++)
+			transformation.transform(process, model.getRootPackage(), 1, true, new StringWriter());
+		
+		long wallTime = Long.MAX_VALUE;
+		long allocatedBytes = Long.MAX_VALUE;
+		TransformationMetrics metrics = null;
+		
+		for (int i = 0; i < MEASURED_RUNS; i++) {
+			metrics = transformation.transform(process, model.getRootPackage(), 1, true, new StringWriter());
+			
+			wallTime = Math.min(wallTime, metrics.getTotalWallTime() / 1000000);
+			allocatedBytes = Math.min(allocatedBytes, metrics.getTotalAllocatedBytes());
+		}
+		
+		if (isRecording()) {
+			recorded.put(name + WALL_TIME, wallTime + "");
+			recorded.put(name + ALLOCATED_BYTES, allocatedBytes + "");
+			recorded.put(name + VARIABLES, metrics.getTotalNumVariables() + "");
+			recorded.put(name + CONSTRAINTS, metrics.getTotalNumConstraints() + "");
+			
+			return;
+		}
+		
+		reportWallTime(wallTime);
+		assertWithinBudget(WALL_TIME, wallTime, "tolerance.wallTime", "slack.wallTimeMillis");
+		
+		// Not every JVM supports measuring allocations
+		if (allocatedBytes >= 0)
+			assertWithinBudget(ALLOCATED_BYTES, allocatedBytes, "tolerance.allocatedBytes", null);
+		
+		assertWithinBudget(VARIABLES, metrics.getTotalNumVariables(), "tolerance.counts", null);
+		assertWithinBudget(CONSTRAINTS, metrics.getTotalNumConstraints(), "tolerance.counts", null);
+	}
+	
+	/**
+	 * Check a measurement against its baseline. The test is skipped if there is no
+	 * baseline for the measurement.
+	 * 
+	 * @param suffix Suffix of the budget.
+	 * @param measured The measured value.
+	 * @param tolerance Name of the tolerance (relative to the baseline).
+	 * @param slack Name of the absolute slack added to the limit, or null if none.
+	 */
+	private void assertWithinBudget(String suffix, long measured, String tolerance, String slack) {
+		String baseline = budgets.getProperty(name + suffix);
+		
+		assumeTrue("No baseline recorded for " + name + suffix + " - record one with -Pperformance -Dperformance.record=true",
+				baseline != null);
+		
+		double limit = Long.parseLong(baseline.trim()) * (1.0 + Double.parseDouble(budgets.getProperty(tolerance, "0").trim()));
+		
+		if (slack != null)
+			limit += Long.parseLong(budgets.getProperty(slack, "0").trim());
+		
+		assertTrue(name + suffix + " regressed: " + measured + " exceeds the baseline of " + baseline.trim()
+				+ " (limit " + (long) limit + ")", measured <= limit);
+	}
+	
+	/**
+	 * Report the wall time, together with its baseline (if any).
+	 * 
+	 * @param wallTime The measured wall time (milliseconds).
+	 */
+	private void reportWallTime(long wallTime) {
+		String baseline = budgets.getProperty(name + WALL_TIME);
+		
+		System.out.println(name + WALL_TIME + " = " + wallTime
+				+ (baseline != null ? " (baseline " + baseline.trim() + ")" : " (no baseline)"));
+	}
+	
+	/**
+	 * @return true if a new baseline is to be recorded
+	 */
+	private static boolean isRecording() {
+		return "true".equals(System.getProperty("tycho.performance.record"));
+	}
+
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.transformation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.TestBase;
+import edu.gatech.mbse.transformations.sysml2milp.SolverType;
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationConfig;
+
+/**
+ * Golden output test: transforms the model of each transformation test and compares
+ * the generated MILP code to the code recorded in test-resources/golden-output. No
+ * solver is needed, so any change to the generated code is caught on every build.
+ * <P>
+ * The golden files hold the output of the transformation as of the baseline commit
+ * (before the transformation was optimized), so that optimizations can be shown to
+ * leave the output unchanged. A model without a golden file fails the test. To record
+ * the golden files, run the tests with -Dgolden.record=true (which sets the system
+ * property tycho.golden.record). The test only uses what the transformation and
+ * {@link TestBase} offered at the baseline commit, so it can be copied into a checkout
+ * of that commit to record the golden files there. Intentional changes to the output
+ * are recorded the same way, on the current tree.
+ * <P>
+ * Intentional changes to the output since the baseline commit:<BR />
+ * 1) The MILP model is serialized from linear rows, so the constraint that exactly one
+ * working principle is chosen for a function lists the variables of the working
+ * principles ("IA1W1 + IA1W2 == 1" instead of "sum(IA1W) == 1"). This affects every
+ * model.<BR />
+ * 2) The column sums of an activity node in the resource sharing constraints
+ * ("A(:,i) + A(:,j)") are in ascending column order. At the baseline commit, their
+ * order followed identity hash codes and varied between runs. This affects models
+ * whose process has parallel branches.<BR />
+ * 3) Every package is traversed once, even if it is both owned and imported, so its
+ * resources no longer appear twice. No test model owns a package it imports, so the
+ * golden files are not affected.<BR />
+ * 4) A composite resource is processed before the composites containing it, also
+ * when the part is typed with a general of the composite. No composite resource of
+ * the test models contains another, so the golden files are not affected.
+ * <P>
+ * The code is generated for the CBC solver, and the temporary directory (written in
+ * testing mode) and the home directory (where results are written) are replaced with
+ * placeholders, so the golden files do not depend on the machine.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+@RunWith(Parameterized.class)
+public class GoldenOutputTest extends TestBase {
+	
+	/** Location of the golden files. */
+	private static final File GOLDEN_OUTPUT_FOLDER = new File("test-resources/golden-output");
+	
+	/** Namespace URI of the DSE profile used by the test models. */
+	private static final String DSE_PROFILE_NAMESPACE_URI = "http:///schemas/DSEProfile/_xhIlkBUWEeWdZqvVzWkEVA/9";
+	
+	/** Placeholder for the temporary directory in the golden files. */
+	private static final String TMP_DIR_PLACEHOLDER = "${java.io.tmpdir}";
+	
+	/** Placeholder for the home directory in the golden files. */
+	private static final String HOME_DIR_PLACEHOLDER = "${user.home}";
+	
+	/** Name of the folder of the model in the test resources. */
+	private final String folderName;
+	
+	/** Name of process to look for in UML model. */
+	private final String processName;
+	
+	/** Solver configured before the test. */
+	private SolverType configuredSolver;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param folderName Name of the folder of the model in the test resources.
+	 * @param processName Name of process to look for in UML model.
+	 */
+	public GoldenOutputTest(String folderName, String processName) {
+		this.folderName = folderName;
+		this.processName = processName;
+	}
+	
+	/**
+	 * @return the models of the transformation tests, with their processes
+	 */
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> models() {
+		ArrayList<Object[]> models = new ArrayList<Object[]>();
+		
+		models.add(new Object[] { "ExpertKnowledgeLimitingInstancesTest", "ManufacturingProcess" });
+		models.add(new Object[] { "ExpertKnowledgeTest", "ManufacturingProcess" });
+		models.add(new Object[] { "ParallelProcessTest", "ProcessAlternative1" });
+		models.add(new Object[] { "ResourceSetSizeConstraintTest", "ManufacturingProcess" });
+		models.add(new Object[] { "SequentialProcessTest", "ProcessAlternative1" });
+		models.add(new Object[] { "ThroughputConstraintTest", "ManufacturingProcess" });
+		models.add(new Object[] { "ThroughputOptimizationTest", "ManufacturingProcess" });
+		
+		return models;
+	}
+	
+	@Before
+	public void setup() {
+		// Set up profiles to register
+		Map<String,URI> profiles = new HashMap<String,URI>();
+		profiles.put(DSE_PROFILE_NAMESPACE_URI, URI.createFileURI(
+				new File("test-resources/" + folderName + "/DSEProfile/DSEProfile.profile.uml").getAbsolutePath()));
+		
+		// Load project
+		loadProject(URI.createFileURI(new File("test-resources/" + folderName + "/Model/model.uml").getAbsolutePath()),
+				profiles);
+		
+		// Other tests may configure a different solver
+		configuredSolver = TransformationConfig.CONFIG_SOLVER;
+		TransformationConfig.CONFIG_SOLVER = SolverType.CBC;
+	}
+	
+	@After
+	public void tearDown() {
+		TransformationConfig.CONFIG_SOLVER = configuredSolver;
+	}
+	
+	/**
+	 * Transform the model and compare the generated code to the golden file.
+	 * 
+	 * @throws Exception If the transformation failed.
+	 */
+	@Test
+	public void matchesGoldenOutput() throws Exception {
+		Activity process = (Activity) findElementByName(processName);
+		assertNotNull("Could not find process " + processName, process);
+		
+		String milpCode = new SysML2MILPTransformation().transform(process, getRootPackage(), 1, true)
+				.replace(System.getProperty("java.io.tmpdir"), TMP_DIR_PLACEHOLDER)
+				.replace(System.getProperty("user.home"), HOME_DIR_PLACEHOLDER);
+		
+		File golden = new File(GOLDEN_OUTPUT_FOLDER, folderName + ".txt");
+		
+		if (isRecording()) {
+			write(golden, milpCode);
+			
+			return;
+		}
+		
+		if (!golden.exists())
+			fail("No golden output recorded for " + folderName + " - record it with -Dgolden.record=true");
+		
+		assertEquals("MILP code of " + folderName + " differs from the golden output", read(golden), milpCode);
+	}
+	
+	/**
+	 * Read a golden file.
+	 * 
+	 * @param file The file.
+	 * @return The content of the file.
+	 * @throws IOException If the file could not be read.
+	 */
+	private static String read(File file) throws IOException {
+		StringBuilder content = new StringBuilder();
+		char[] buffer = new char[8192];
+		
+		Reader in = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		try {
+			int n;
+			while ((n = in.read(buffer)) != -1)
+				content.append(buffer, 0, n);
+		} finally {
+			in.close();
+		}
+		
+		return content.toString();
+	}
+	
+	/**
+	 * Write a golden file.
+	 * 
+	 * @param file The file.
+	 * @param content The content of the file.
+	 * @throws IOException If the file could not be written.
+	 */
+	private static void write(File file, String content) throws IOException {
+		file.getParentFile().mkdirs();
+		
+		Writer out = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+		try {
+			out.write(content);
+		} finally {
+			out.close();
+		}
+	}
+	
+	/**
+	 * @return true if the golden files are to be recorded
+	 */
+	private static boolean isRecording() {
+		return "true".equals(System.getProperty("tycho.golden.record"));
+	}
+
+}
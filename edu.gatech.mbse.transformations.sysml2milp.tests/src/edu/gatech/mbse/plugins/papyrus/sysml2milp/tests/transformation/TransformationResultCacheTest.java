@@ -0,0 +1,276 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.transformation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.NamedElement;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationResultCache;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.BenchmarkModel;
+import edu.gatech.mbse.transformations.sysml2milp.testsupport.SyntheticModelGenerator;
+
+/**
+ * Test case - {@link TransformationResultCache}: keys, the memory and disk tiers, and
+ * the fingerprint that the keys include.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformationResultCacheTest {
+	
+	/** Directory of the disk tier. */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void sameModelHits() {
+		BenchmarkModel model = generate("TransformationResultCacheSameTest.uml");
+		TransformationResultCache cache = new TransformationResultCache(2, null);
+		TransformationResultCache.Entry entry = new TransformationResultCache.Entry("code", "visualization");
+		
+		cache.put(key(model), entry);
+		
+		assertEquals(key(model), key(model));
+		assertSame(entry, cache.get(key(model)));
+	}
+	
+	@Test
+	public void changedModelMisses() {
+		BenchmarkModel model = generate("TransformationResultCacheChangedTest.uml");
+		TransformationResultCache cache = new TransformationResultCache(2, null);
+		String key = key(model);
+		
+		cache.put(key, new TransformationResultCache.Entry("code", "visualization"));
+		
+		NamedElement systemUnderDesign = (NamedElement) model.findElementByName(SyntheticModelGenerator.SYSTEM_UNDER_DESIGN_NAME);
+		systemUnderDesign.setName(systemUnderDesign.getName() + "Changed");
+		
+		assertFalse(key.equals(key(model)));
+		assertNull(cache.get(key(model)));
+	}
+	
+	@Test
+	public void changedFormatVersionMisses() {
+		BenchmarkModel model = generate("TransformationResultCacheVersionTest.uml");
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		TransformationResultCache cache = new TransformationResultCache(2, null);
+		String key = TransformationResultCache.computeKey(process, model.getRootPackage(), true, "1.1.0-a");
+		
+		cache.put(key, new TransformationResultCache.Entry("code", "visualization"));
+		
+		String otherKey = TransformationResultCache.computeKey(process, model.getRootPackage(), true, "1.1.0-b");
+		
+		assertFalse(key.equals(otherKey));
+		assertNull(cache.get(otherKey));
+		assertEquals(TransformationResultCache.computeKey(process, model.getRootPackage(), true,
+				TransformationResultCache.getFormatVersion()), key(model));
+	}
+	
+	@Test
+	public void hitGeneratesIdenticalCode() throws Exception {
+		BenchmarkModel model = generate("TransformationResultCacheHitTest.uml");
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		File directory = folder.newFolder("cache");
+		
+		SysML2MILPTransformation transformation = new SysML2MILPTransformation();
+		transformation.setResultCache(new TransformationResultCache(2, directory));
+		String milpCode = transformation.transform(process, model.getRootPackage(), 1, true);
+		
+		assertFalse(transformation.getLastMetrics().isCacheHit());
+		
+		// Memory tier
+		assertEquals(milpCode, transformation.transform(process, model.getRootPackage(), 1, true));
+		assertTrue(transformation.getLastMetrics().isCacheHit());
+		
+		// Disk tier only
+		transformation.setResultCache(new TransformationResultCache(0, directory));
+		
+		assertEquals(milpCode, transformation.transform(process, model.getRootPackage(), 1, true));
+		assertTrue(transformation.getLastMetrics().isCacheHit());
+	}
+	
+	@Test
+	public void evictsLeastRecentlyUsedAtCapacity() {
+		TransformationResultCache cache = new TransformationResultCache(2, null);
+		
+		cache.put("a", new TransformationResultCache.Entry("a", ""));
+		cache.put("b", new TransformationResultCache.Entry("b", ""));
+		cache.get("a");
+		cache.put("c", new TransformationResultCache.Entry("c", ""));
+		
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+	}
+	
+	@Test
+	public void readsResultsFromDisk() throws IOException {
+		File directory = folder.newFolder("cache");
+		new TransformationResultCache(1, directory).put("key", new TransformationResultCache.Entry("code ä", "visualization"));
+		
+		TransformationResultCache.Entry entry = new TransformationResultCache(1, directory).get("key");
+		
+		assertEquals("code ä", entry.getMilpModelCode());
+		assertEquals("visualization", entry.getResultsVisualizationBuffer());
+	}
+	
+	@Test
+	public void ignoresCorruptResults() throws IOException {
+		File directory = folder.newFolder("cache");
+		new TransformationResultCache(1, directory).put("key", new TransformationResultCache.Entry("code", "visualization"));
+		
+		RandomAccessFile file = new RandomAccessFile(new File(directory, "key.milp"), "rw");
+		try {
+			file.seek(file.length() - 1);
+			file.write('X');
+		} finally {
+			file.close();
+		}
+		
+		assertNull(new TransformationResultCache(1, directory).get("key"));
+	}
+	
+	@Test
+	public void ignoresPartiallyWrittenResults() throws IOException {
+		File directory = folder.newFolder("cache");
+		TransformationResultCache cache = new TransformationResultCache(0, directory);
+		cache.put("truncated", new TransformationResultCache.Entry("code", "visualization"));
+		cache.put("incomplete", new TransformationResultCache.Entry("code", "visualization"));
+		
+		RandomAccessFile file = new RandomAccessFile(new File(directory, "truncated.vis"), "rw");
+		try {
+			file.setLength(file.length() - 3);
+		} finally {
+			file.close();
+		}
+		
+		// The MILP code file is written last
+		assertTrue(new File(directory, "incomplete.milp").delete());
+		
+		assertNull(cache.get("truncated"));
+		assertNull(cache.get("incomplete"));
+	}
+	
+	@Test
+	public void fingerprintDependsOnContentOnly() throws IOException {
+		File a = write("a.class", "a");
+		File b = write("b.class", "b");
+		
+		String fingerprint = TransformationResultCache.computeFingerprint(urls(a, b));
+		
+		assertEquals(fingerprint, TransformationResultCache.computeFingerprint(urls(b, a)));
+		
+		write("b.class", "c");
+		
+		assertFalse(fingerprint.equals(TransformationResultCache.computeFingerprint(urls(a, b))));
+	}
+	
+	@Test
+	public void formatVersionIncludesFingerprint() {
+		String formatVersion = TransformationResultCache.getFormatVersion();
+		
+		assertEquals(formatVersion, TransformationResultCache.getFormatVersion());
+		assertTrue(formatVersion.matches(".+-[0-9a-f]{40}"));
+	}
+	
+	/**
+	 * Generate a model with the default settings of the generator.
+	 * 
+	 * @param name Name of the model resource.
+	 * @return The model.
+	 */
+	private BenchmarkModel generate(String name) {
+		return new SyntheticModelGenerator().generate(URI.createURI(name));
+	}
+	
+	/**
+	 * Compute the key of the generated process.
+	 * 
+	 * @param model The model.
+	 * @return The key.
+	 */
+	private String key(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(SyntheticModelGenerator.PROCESS_NAME);
+		
+		return TransformationResultCache.computeKey(process, model.getRootPackage(), true);
+	}
+	
+	/**
+	 * Write a file in the temporary folder.
+	 * 
+	 * @param name Name of the file.
+	 * @param content Content of the file.
+	 * @return The file.
+	 * @throws IOException If writing failed.
+	 */
+	private File write(String name, String content) throws IOException {
+		File file = new File(folder.getRoot(), name);
+		OutputStream out = new FileOutputStream(file);
+		
+		try {
+			out.write(content.getBytes("UTF-8"));
+		} finally {
+			out.close();
+		}
+		
+		return file;
+	}
+	
+	/**
+	 * @param files The files.
+	 * @return the URLs of the files
+	 * @throws IOException If a file name could not be converted.
+	 */
+	private List<URL> urls(File... files) throws IOException {
+		List<URL> urls = new ArrayList<URL>();
+		for (File file : files)
+			urls.add(file.toURI().toURL());
+		
+		return urls;
+	}
+
+}
@@ -0,0 +1,665 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map.Entry;
+
+/**
+ * Scalar expression over the decision variables of a YALMIP program (see
+ * {@link YALMIPInterpreter}): a constant, a variable, a linear combination, or one of
+ * the nonlinear and logical operators that the generated MILP code uses (products,
+ * quotients, max / min, negation, conjunction / disjunction, comparisons and
+ * implications).
+ * <P>
+ * Expressions are built with the static factory methods, which fold constants and
+ * keep linear combinations flat. They are evaluated directly from the values of the
+ * variables (as YALMIP's value() does), and translated into rows of a
+ * {@link MILPSolver} by the {@link Linearizer}. Logical expressions evaluate to 0 or 1.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public abstract class Expression {
+	
+	/** Tolerance used when comparisons are evaluated. */
+	private static final double EVALUATION_TOLERANCE = 1e-6;
+	
+	/** The constant 0. */
+	public static final Constant ZERO = new Constant(0);
+	
+	/** The constant 1. */
+	public static final Constant ONE = new Constant(1);
+	
+	/**
+	 * Evaluate the expression.
+	 * 
+	 * @param values The values of the variables, by index (NaN if unknown).
+	 * @return The value of the expression.
+	 */
+	public abstract double evaluate(double[] values);
+	
+	/**
+	 * @return whether this expression is a constant
+	 */
+	public boolean isConstant() {
+		return false;
+	}
+	
+	/**
+	 * @param value The value.
+	 * @return a constant
+	 */
+	public static Constant constant(double value) {
+		if (value == 0)
+			return ZERO;
+		
+		if (value == 1)
+			return ONE;
+		
+		return new Constant(value);
+	}
+	
+	/**
+	 * @param left The left operand.
+	 * @param right The right operand.
+	 * @return left + right
+	 */
+	public static Expression add(Expression left, Expression right) {
+		return combine(left, 1, right, 1);
+	}
+	
+	/**
+	 * @param left The left operand.
+	 * @param right The right operand.
+	 * @return left - right
+	 */
+	public static Expression subtract(Expression left, Expression right) {
+		return combine(left, 1, right, -1);
+	}
+	
+	/**
+	 * @param operand The operand.
+	 * @return -operand
+	 */
+	public static Expression negate(Expression operand) {
+		return scale(operand, -1);
+	}
+	
+	/**
+	 * @param operand The operand.
+	 * @param factor The factor.
+	 * @return factor * operand
+	 */
+	public static Expression scale(Expression operand, double factor) {
+		return combine(operand, factor, ZERO, 0);
+	}
+	
+	/**
+	 * Linear combination of two expressions. Sums are flattened, and terms that are
+	 * the same expression (e.g., the same variable) are merged.
+	 * 
+	 * @param left The left operand.
+	 * @param leftFactor The factor of the left operand.
+	 * @param right The right operand.
+	 * @param rightFactor The factor of the right operand.
+	 * @return leftFactor * left + rightFactor * right
+	 */
+	public static Expression combine(Expression left, double leftFactor, Expression right, double rightFactor) {
+		return sum(new Expression[] { left, right }, new double[] { leftFactor, rightFactor });
+	}
+	
+	/**
+	 * Linear combination of expressions. Sums are flattened, and terms that are the same
+	 * expression (e.g., the same variable) are merged.
+	 * 
+	 * @param operands The operands.
+	 * @param operandFactors The factors of the operands.
+	 * @return operandFactors(1) * operands(1) + operandFactors(2) * operands(2) + ...
+	 */
+	public static Expression sum(Expression[] operands, double[] operandFactors) {
+		LinkedHashMap<Expression,Double> terms = new LinkedHashMap<Expression,Double>();
+		double constant = 0;
+		
+		for (int i = 0; i < operands.length; i++)
+			constant += collect(operands[i], operandFactors[i], terms);
+		
+		ArrayList<Expression> nonZeroTerms = new ArrayList<Expression>(terms.size());
+		ArrayList<Double> nonZeroFactors = new ArrayList<Double>(terms.size());
+		
+		for (Entry<Expression,Double> term : terms.entrySet()) {
+			if (term.getValue() != 0) {
+				nonZeroTerms.add(term.getKey());
+				nonZeroFactors.add(term.getValue());
+			}
+		}
+		
+		if (nonZeroTerms.isEmpty())
+			return constant(constant);
+		
+		if (nonZeroTerms.size() == 1 && nonZeroFactors.get(0) == 1 && constant == 0)
+			return nonZeroTerms.get(0);
+		
+		double[] factors = new double[nonZeroFactors.size()];
+		for (int i = 0; i < factors.length; i++)
+			factors[i] = nonZeroFactors.get(i);
+		
+		return new Sum(nonZeroTerms.toArray(new Expression[nonZeroTerms.size()]), factors, constant);
+	}
+	
+	/**
+	 * Add the terms of an expression to a map of terms.
+	 * 
+	 * @param expression The expression.
+	 * @param factor The factor of the expression.
+	 * @param terms The terms (updated).
+	 * @return The constant part of the expression (times the factor).
+	 */
+	private static double collect(Expression expression, double factor, LinkedHashMap<Expression,Double> terms) {
+		if (factor == 0)
+			return 0;
+		
+		if (expression instanceof Constant)
+			return factor * ((Constant) expression).value;
+		
+		if (expression instanceof Sum) {
+			Sum sum = (Sum) expression;
+			
+			for (int i = 0; i < sum.terms.length; i++)
+				collect(sum.terms[i], factor * sum.factors[i], terms);
+			
+			return factor * sum.constant;
+		}
+		
+		Double current = terms.get(expression);
+		terms.put(expression, (current == null ? 0 : current) + factor);
+		
+		return 0;
+	}
+	
+	/**
+	 * @param left The left operand.
+	 * @param right The right operand.
+	 * @return left * right
+	 */
+	public static Expression multiply(Expression left, Expression right) {
+		if (left.isConstant())
+			return scale(right, ((Constant) left).value);
+		
+		if (right.isConstant())
+			return scale(left, ((Constant) right).value);
+		
+		return new Product(left, right);
+	}
+	
+	/**
+	 * @param numerator The numerator.
+	 * @param denominator The denominator.
+	 * @return numerator / denominator
+	 */
+	public static Expression divide(Expression numerator, Expression denominator) {
+		if (denominator.isConstant())
+			return scale(numerator, 1 / ((Constant) denominator).value);
+		
+		// a / (k / b) = a * b / k (e.g., the throughput objective 1 / TH with TH = 1 / MaxBusyTime)
+		if (denominator instanceof Quotient && ((Quotient) denominator).numerator.isConstant())
+			return multiply(numerator, divide(((Quotient) denominator).denominator, ((Quotient) denominator).numerator));
+		
+		return new Quotient(numerator, denominator);
+	}
+	
+	/**
+	 * @param arguments The arguments (at least one).
+	 * @param maximum Whether this is the maximum (or the minimum).
+	 * @return max(arguments) or min(arguments)
+	 */
+	public static Expression extremum(Expression[] arguments, boolean maximum) {
+		boolean constant = true;
+		
+		for (Expression argument : arguments)
+			constant &= argument.isConstant();
+		
+		if (arguments.length == 1)
+			return arguments[0];
+		
+		Extremum extremum = new Extremum(arguments, maximum);
+		
+		return (constant ? constant(extremum.evaluate(null)) : extremum);
+	}
+	
+	/**
+	 * @param operand The operand.
+	 * @return ~operand
+	 */
+	public static Expression not(Expression operand) {
+		if (operand.isConstant())
+			return (((Constant) operand).value == 0 ? ONE : ZERO);
+		
+		if (operand instanceof Not)
+			return new Junction(new Expression[] { ((Not) operand).operand }, true);
+		
+		return new Not(operand);
+	}
+	
+	/**
+	 * @param operands The operands.
+	 * @param conjunction Whether this is a conjunction (or a disjunction).
+	 * @return operands(1) &amp; operands(2) &amp; ... or operands(1) | operands(2) | ...
+	 */
+	public static Expression junction(Expression[] operands, boolean conjunction) {
+		ArrayList<Expression> remaining = new ArrayList<Expression>(operands.length);
+		
+		for (Expression operand : operands) {
+			if (operand.isConstant()) {
+				boolean value = ((Constant) operand).value != 0;
+				
+				// false & ... is false, true | ... is true - otherwise, the operand has no effect
+				if (value != conjunction)
+					return (value ? ONE : ZERO);
+			}
+			else
+				remaining.add(operand);
+		}
+		
+		if (remaining.isEmpty())
+			return (conjunction ? ONE : ZERO);
+		
+		return new Junction(remaining.toArray(new Expression[remaining.size()]), conjunction);
+	}
+	
+	/**
+	 * Comparison. Comparing two constants yields a constant (as in Matlab) - otherwise,
+	 * this is a constraint (as in YALMIP).
+	 * 
+	 * @param left The left hand side.
+	 * @param operator The relational operator (one of &lt;, &lt;=, &gt;, &gt;=, == and ~=).
+	 * @param right The right hand side.
+	 * @return left operator right
+	 */
+	public static Expression compare(Expression left, String operator, Expression right) {
+		Comparison comparison = new Comparison(left, operator, right);
+		
+		if (left.isConstant() && right.isConstant())
+			return constant(comparison.evaluate(null));
+		
+		return comparison;
+	}
+	
+	/**
+	 * @param premise The premise.
+	 * @param conclusion The conclusion.
+	 * @return implies(premise, conclusion)
+	 */
+	public static Expression implies(Expression premise, Expression conclusion) {
+		if (premise.isConstant())
+			return (((Constant) premise).value == 0 ? ONE : conclusion);
+		
+		return new Implication(premise, conclusion);
+	}
+	
+	/**
+	 * A constant.
+	 */
+	public static class Constant extends Expression {
+		
+		/** The value. */
+		final double value;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param value The value.
+		 */
+		Constant(double value) {
+			this.value = value;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			return value;
+		}
+		
+		@Override
+		public boolean isConstant() {
+			return true;
+		}
+		
+		/**
+		 * @return the value
+		 */
+		public double getValue() {
+			return value;
+		}
+		
+	}
+	
+	/**
+	 * A decision variable (one per variable - expressions rely on this identity).
+	 */
+	public static class Variable extends Expression {
+		
+		/** Index of the variable. */
+		final int index;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param index Index of the variable.
+		 */
+		Variable(int index) {
+			this.index = index;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			return values[index];
+		}
+		
+		/**
+		 * @return the index of the variable
+		 */
+		public int getIndex() {
+			return index;
+		}
+		
+	}
+	
+	/**
+	 * A linear combination of expressions, plus a constant.
+	 */
+	public static class Sum extends Expression {
+		
+		/** The terms (neither constants nor sums). */
+		final Expression[] terms;
+		
+		/** The factors of the terms. */
+		final double[] factors;
+		
+		/** The constant. */
+		final double constant;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param terms The terms.
+		 * @param factors The factors of the terms.
+		 * @param constant The constant.
+		 */
+		Sum(Expression[] terms, double[] factors, double constant) {
+			this.terms = terms;
+			this.factors = factors;
+			this.constant = constant;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			double value = constant;
+			
+			for (int i = 0; i < terms.length; i++)
+				value += factors[i] * terms[i].evaluate(values);
+			
+			return value;
+		}
+		
+	}
+	
+	/**
+	 * The product of two (non-constant) expressions.
+	 */
+	public static class Product extends Expression {
+		
+		/** The left operand. */
+		final Expression left;
+		
+		/** The right operand. */
+		final Expression right;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param left The left operand.
+		 * @param right The right operand.
+		 */
+		Product(Expression left, Expression right) {
+			this.left = left;
+			this.right = right;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			return left.evaluate(values) * right.evaluate(values);
+		}
+		
+	}
+	
+	/**
+	 * The quotient of two expressions (the denominator is not constant).
+	 */
+	public static class Quotient extends Expression {
+		
+		/** The numerator. */
+		final Expression numerator;
+		
+		/** The denominator. */
+		final Expression denominator;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param numerator The numerator.
+		 * @param denominator The denominator.
+		 */
+		Quotient(Expression numerator, Expression denominator) {
+			this.numerator = numerator;
+			this.denominator = denominator;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			return numerator.evaluate(values) / denominator.evaluate(values);
+		}
+		
+	}
+	
+	/**
+	 * The maximum or minimum of a list of expressions.
+	 */
+	public static class Extremum extends Expression {
+		
+		/** The arguments. */
+		final Expression[] arguments;
+		
+		/** Whether this is the maximum (or the minimum). */
+		final boolean maximum;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param arguments The arguments.
+		 * @param maximum Whether this is the maximum (or the minimum).
+		 */
+		Extremum(Expression[] arguments, boolean maximum) {
+			this.arguments = arguments;
+			this.maximum = maximum;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			double value = arguments[0].evaluate(values);
+			
+			for (int i = 1; i < arguments.length; i++)
+				value = (maximum ? Math.max(value, arguments[i].evaluate(values)) : Math.min(value, arguments[i].evaluate(values)));
+			
+			return value;
+		}
+		
+	}
+	
+	/**
+	 * Logical negation.
+	 */
+	public static class Not extends Expression {
+		
+		/** The operand. */
+		final Expression operand;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param operand The operand.
+		 */
+		Not(Expression operand) {
+			this.operand = operand;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			return (operand.evaluate(values) == 0 ? 1 : 0);
+		}
+		
+	}
+	
+	/**
+	 * Logical conjunction or disjunction.
+	 */
+	public static class Junction extends Expression {
+		
+		/** The operands. */
+		final Expression[] operands;
+		
+		/** Whether this is a conjunction (or a disjunction). */
+		final boolean conjunction;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param operands The operands.
+		 * @param conjunction Whether this is a conjunction (or a disjunction).
+		 */
+		Junction(Expression[] operands, boolean conjunction) {
+			this.operands = operands;
+			this.conjunction = conjunction;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			for (Expression operand : operands)
+				if ((operand.evaluate(values) != 0) != conjunction)
+					return (conjunction ? 0 : 1);
+			
+			return (conjunction ? 1 : 0);
+		}
+		
+	}
+	
+	/**
+	 * A comparison (a constraint, when required to hold).
+	 */
+	public static class Comparison extends Expression {
+		
+		/** The left hand side. */
+		final Expression left;
+		
+		/** The relational operator. */
+		final String operator;
+		
+		/** The right hand side. */
+		final Expression right;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param left The left hand side.
+		 * @param operator The relational operator.
+		 * @param right The right hand side.
+		 */
+		Comparison(Expression left, String operator, Expression right) {
+			this.left = left;
+			this.operator = operator;
+			this.right = right;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			double difference = left.evaluate(values) - right.evaluate(values);
+			boolean holds;
+			
+			if (operator.equals(">="))
+				holds = difference >= -EVALUATION_TOLERANCE;
+			else if (operator.equals("<="))
+				holds = difference <= EVALUATION_TOLERANCE;
+			else if (operator.equals(">"))
+				holds = difference > EVALUATION_TOLERANCE;
+			else if (operator.equals("<"))
+				holds = difference < -EVALUATION_TOLERANCE;
+			else if (operator.equals("=="))
+				holds = Math.abs(difference) <= EVALUATION_TOLERANCE;
+			else
+				holds = Math.abs(difference) > EVALUATION_TOLERANCE;
+			
+			return (holds ? 1 : 0);
+		}
+		
+		/**
+		 * @return the right hand side
+		 */
+		public Expression getRight() {
+			return right;
+		}
+		
+	}
+	
+	/**
+	 * Logical implication.
+	 */
+	public static class Implication extends Expression {
+		
+		/** The premise. */
+		final Expression premise;
+		
+		/** The conclusion. */
+		final Expression conclusion;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param premise The premise.
+		 * @param conclusion The conclusion.
+		 */
+		Implication(Expression premise, Expression conclusion) {
+			this.premise = premise;
+			this.conclusion = conclusion;
+		}
+		
+		@Override
+		public double evaluate(double[] values) {
+			return (premise.evaluate(values) == 0 || conclusion.evaluate(values) != 0 ? 1 : 0);
+		}
+		
+	}
+
+}
@@ -0,0 +1,901 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Comparison;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Constant;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Extremum;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Implication;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Junction;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Not;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Product;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Quotient;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Sum;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Variable;
+import edu.gatech.mbse.transformations.sysml2milp.MILPVariableType;
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPConstraintSense;
+
+/**
+ * Translates {@link Expression}s into the rows of a {@link MILPSolver}, the way
+ * YALMIP's MILP modelling does: products involving a binary variable, max / min,
+ * logical operators and implications are replaced by auxiliary variables and big-M
+ * constraints.
+ * <P>
+ * The big-M constants are derived from the bounds of the variables, which are taken
+ * from the constraints that bound a single variable (e.g., 0 &lt;= TH &lt;= 1) before
+ * anything else is translated. Where a bound is missing, {@link #DEFAULT_BIG_M} is
+ * used instead - YALMIP warns about this case, and it is exact as long as the
+ * expressions involved stay within that range.
+ * <P>
+ * Strict inequalities are treated as non-strict ones (as in YALMIP), except when a
+ * comparison is reified: then, x &gt; y means x &gt;= y + 1 if both sides are integral,
+ * and x &gt;= y + {@link #STRICTNESS} otherwise.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class Linearizer {
+	
+	/** Big-M constant used for expressions without a finite bound. */
+	public static final double DEFAULT_BIG_M = 1e4;
+	
+	/** Margin used for reified strict inequalities between continuous expressions. */
+	public static final double STRICTNESS = 1e-5;
+	
+	/** Tolerance used when deciding whether a number is integral. */
+	private static final double INTEGRALITY_TOLERANCE = 1e-9;
+	
+	/** The solver receiving the variables and rows. */
+	private final MILPSolver solver;
+	
+	/** Types of the variables of the program, by index. */
+	private final List<MILPVariableType> variableTypes;
+	
+	/** Solver variables of the variables of the program, by index. */
+	private final HashMap<Integer,Integer> columns = new HashMap<Integer,Integer>();
+	
+	/** Bounds of the variables of the program, by index (from single variable constraints). */
+	private final HashMap<Integer,double[]> bounds = new HashMap<Integer,double[]>();
+	
+	/** Auxiliary solver variables that are binary, but not declared as integers. */
+	private final HashSet<Integer> binaryColumns = new HashSet<Integer>();
+	
+	/** Linear forms of nonlinear expressions already translated. */
+	private final IdentityHashMap<Expression,LinearForm> affineForms = new IdentityHashMap<Expression,LinearForm>();
+	
+	/** Indicators of logical expressions already translated. */
+	private final IdentityHashMap<Expression,LinearForm> indicators = new IdentityHashMap<Expression,LinearForm>();
+	
+	/** Solver variables holding the product of two solver variables, keyed by "i,j". */
+	private final HashMap<String,Integer> products = new HashMap<String,Integer>();
+	
+	/** Whether a constraint that can never hold was enforced. */
+	private boolean triviallyInfeasible = false;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param solver The solver receiving the variables and rows.
+	 * @param variableTypes Types of the variables of the program, by index.
+	 */
+	public Linearizer(MILPSolver solver, List<MILPVariableType> variableTypes) {
+		this.solver = solver;
+		this.variableTypes = variableTypes;
+	}
+	
+	/**
+	 * Collect the bounds of the variables from the constraints that bound a single
+	 * variable. Must be called before anything else is translated.
+	 * 
+	 * @param constraints The constraints.
+	 */
+	public void deriveBounds(List<Expression> constraints) {
+		for (Expression constraint : constraints) {
+			if (constraint instanceof Junction && ((Junction) constraint).conjunction) {
+				deriveBounds(Arrays.asList(((Junction) constraint).operands));
+				continue;
+			}
+			
+			if (!(constraint instanceof Comparison) || ((Comparison) constraint).operator.equals("~="))
+				continue;
+			
+			Comparison comparison = (Comparison) constraint;
+			Expression difference = Expression.subtract(comparison.left, comparison.right);
+			Variable variable;
+			double factor = 1;
+			double constant = 0;
+			
+			if (difference instanceof Variable)
+				variable = (Variable) difference;
+			else if (difference instanceof Sum && ((Sum) difference).terms.length == 1 && ((Sum) difference).terms[0] instanceof Variable) {
+				variable = (Variable) ((Sum) difference).terms[0];
+				factor = ((Sum) difference).factors[0];
+				constant = ((Sum) difference).constant;
+			}
+			else
+				continue;
+			
+			// factor * x + constant (operator) 0
+			double value = -constant / factor;
+			boolean lower = comparison.operator.startsWith(">") == (factor > 0);
+			double[] variableBounds = bounds.get(variable.index);
+			
+			if (variableBounds == null) {
+				variableBounds = new double[] { Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY };
+				bounds.put(variable.index, variableBounds);
+			}
+			
+			if (comparison.operator.equals("==") || lower)
+				variableBounds[0] = Math.max(variableBounds[0], value);
+			
+			if (comparison.operator.equals("==") || !lower)
+				variableBounds[1] = Math.min(variableBounds[1], value);
+		}
+	}
+	
+	/**
+	 * Require an expression to hold (to be non-zero).
+	 * 
+	 * @param expression The expression.
+	 */
+	public void enforce(Expression expression) {
+		if (expression instanceof Constant) {
+			if (((Constant) expression).value == 0)
+				triviallyInfeasible = true;
+		}
+		else if (expression instanceof Comparison && !((Comparison) expression).operator.equals("~=")) {
+			Comparison comparison = (Comparison) expression;
+			LinearForm difference = combine(affine(comparison.left), 1, affine(comparison.right), -1);
+			
+			addRow(difference, sense(comparison.operator), 0);
+		}
+		else if (expression instanceof Junction && ((Junction) expression).conjunction) {
+			for (Expression operand : ((Junction) expression).operands)
+				enforce(operand);
+		}
+		else if (expression instanceof Not)
+			addRow(indicator(((Not) expression).operand), MILPConstraintSense.LESS_OR_EQUAL, 0);
+		else if (expression instanceof Implication)
+			enforceIf(((Implication) expression).conclusion, indicator(((Implication) expression).premise));
+		else
+			addRow(indicator(expression), MILPConstraintSense.GREATER_OR_EQUAL, 1);
+	}
+	
+	/**
+	 * Require an expression to hold (to be non-zero) whenever a binary condition is 1.
+	 * 
+	 * @param expression The expression.
+	 * @param condition The condition (its value is 0 or 1).
+	 */
+	private void enforceIf(Expression expression, LinearForm condition) {
+		if (condition.isConstant()) {
+			if (condition.constant != 0)
+				enforce(expression);
+		}
+		else if (expression instanceof Constant) {
+			if (((Constant) expression).value == 0)
+				addRow(condition, MILPConstraintSense.LESS_OR_EQUAL, 0);
+		}
+		else if (expression instanceof Comparison && !((Comparison) expression).operator.equals("~=")) {
+			Comparison comparison = (Comparison) expression;
+			LinearForm difference = combine(affine(comparison.left), 1, affine(comparison.right), -1);
+			
+			if (!comparison.operator.startsWith("<"))
+				addNonNegativeIf(difference, condition);
+			
+			if (!comparison.operator.startsWith(">"))
+				addNonNegativeIf(scale(difference, -1), condition);
+		}
+		else if (expression instanceof Junction && ((Junction) expression).conjunction) {
+			for (Expression operand : ((Junction) expression).operands)
+				enforceIf(operand, condition);
+		}
+		else if (expression instanceof Implication) {
+			LinearForm premise = indicator(((Implication) expression).premise);
+			
+			enforceIf(((Implication) expression).conclusion, junction(new LinearForm[] { condition, premise }, true));
+		}
+		else
+			addRow(combine(indicator(expression), 1, condition, -1), MILPConstraintSense.GREATER_OR_EQUAL, 0);
+	}
+	
+	/**
+	 * Add the row form &gt;= 0 that only needs to hold when the condition is 1.
+	 * 
+	 * @param form The linear form.
+	 * @param condition The condition.
+	 */
+	private void addNonNegativeIf(LinearForm form, LinearForm condition) {
+		double lower = lowerBound(form);
+		
+		if (lower >= 0)
+			return;
+		
+		double bigM = bigM(lower);
+		
+		// form >= lower * (1 - condition)
+		addRow(combine(form, 1, condition, bigM), MILPConstraintSense.GREATER_OR_EQUAL, bigM);
+	}
+	
+	/**
+	 * Set the objective (to be minimized). An objective k / e, where k &gt; 0 is a
+	 * constant and e is positive, is minimized by maximizing e.
+	 * 
+	 * @param objective The objective.
+	 */
+	public void setObjective(Expression objective) {
+		LinearForm form;
+		
+		if (objective instanceof Quotient && ((Quotient) objective).numerator.isConstant()
+				&& ((Constant) ((Quotient) objective).numerator).value > 0)
+			form = scale(affine(((Quotient) objective).denominator), -1);
+		else
+			form = affine(objective);
+		
+		int[] variables = new int[form.terms.size()];
+		double[] coefficients = new double[form.terms.size()];
+		int i = 0;
+		
+		for (Entry<Integer,Double> term : form.terms.entrySet()) {
+			variables[i] = term.getKey();
+			coefficients[i++] = term.getValue();
+		}
+		
+		solver.setObjective(variables, coefficients, form.constant);
+	}
+	
+	/**
+	 * @return whether a constraint that can never hold was enforced
+	 */
+	public boolean isTriviallyInfeasible() {
+		return triviallyInfeasible;
+	}
+	
+	/**
+	 * Copy the solution of the solver to the variables of the program. Variables that
+	 * are not part of the problem are set to NaN.
+	 * 
+	 * @param values The values of the variables of the program, by index (updated).
+	 */
+	public void readSolution(double[] values) {
+		for (int i = 0; i < values.length; i++) {
+			Integer column = columns.get(i);
+			
+			if (column == null)
+				values[i] = Double.NaN;
+			else if (solver.isInteger(column))
+				values[i] = Math.round(solver.getValue(column));
+			else
+				values[i] = solver.getValue(column);
+		}
+	}
+	
+	/**
+	 * Linear form of an expression.
+	 * 
+	 * @param expression The expression.
+	 * @return the linear form
+	 */
+	private LinearForm affine(Expression expression) {
+		if (expression instanceof Constant)
+			return LinearForm.constant(((Constant) expression).value);
+		
+		if (expression instanceof Variable)
+			return LinearForm.column(column((Variable) expression));
+		
+		if (expression instanceof Sum) {
+			Sum sum = (Sum) expression;
+			LinearForm form = LinearForm.constant(sum.constant);
+			
+			for (int i = 0; i < sum.terms.length; i++) {
+				LinearForm term = affine(sum.terms[i]);
+				
+				form.constant += sum.factors[i] * term.constant;
+				form.add(term.terms, sum.factors[i]);
+			}
+			
+			return form;
+		}
+		
+		LinearForm form = affineForms.get(expression);
+		
+		if (form != null)
+			return form;
+		
+		if (expression instanceof Product)
+			form = product(affine(((Product) expression).left), affine(((Product) expression).right));
+		else if (expression instanceof Quotient) {
+			LinearForm denominator = affine(((Quotient) expression).denominator);
+			
+			if (!denominator.isConstant())
+				throw new UnsupportedOperationException("Division by a decision variable is not supported (other than in an objective k / x)");
+			
+			form = scale(affine(((Quotient) expression).numerator), 1 / denominator.constant);
+		}
+		else if (expression instanceof Extremum)
+			form = extremum((Extremum) expression);
+		else
+			form = indicator(expression);
+		
+		affineForms.put(expression, form);
+		
+		return form;
+	}
+	
+	/**
+	 * Linear form of the product of two linear forms: each product of two solver
+	 * variables, of which one must be binary, is replaced by an auxiliary variable.
+	 * 
+	 * @param left The left operand.
+	 * @param right The right operand.
+	 * @return the linear form
+	 */
+	private LinearForm product(LinearForm left, LinearForm right) {
+		LinearForm form = LinearForm.constant(left.constant * right.constant);
+		
+		form = combine(form, 1, LinearForm.terms(left.terms), right.constant);
+		form = combine(form, 1, LinearForm.terms(right.terms), left.constant);
+		
+		for (Entry<Integer,Double> leftTerm : left.terms.entrySet())
+			for (Entry<Integer,Double> rightTerm : right.terms.entrySet())
+				form = combine(form, 1, LinearForm.column(productColumn(leftTerm.getKey(), rightTerm.getKey())), leftTerm.getValue() * rightTerm.getValue());
+		
+		return form;
+	}
+	
+	/**
+	 * Solver variable holding the product of two solver variables, of which one must be
+	 * binary.
+	 * 
+	 * @param first The first solver variable.
+	 * @param second The second solver variable.
+	 * @return the solver variable
+	 */
+	private int productColumn(int first, int second) {
+		if (first == second && isBinary(first))
+			return first;
+		
+		String key = Math.min(first, second) + "," + Math.max(first, second);
+		Integer product = products.get(key);
+		
+		if (product != null)
+			return product;
+		
+		int binary = first;
+		int other = second;
+		
+		if (!isBinary(binary)) {
+			binary = second;
+			other = first;
+		}
+		
+		if (!isBinary(binary))
+			throw new UnsupportedOperationException("Products of two non-binary decision variables are not supported");
+		
+		double lower = finite(solver.getLowerBound(other), -DEFAULT_BIG_M);
+		double upper = finite(solver.getUpperBound(other), DEFAULT_BIG_M);
+		// The product of a binary and an integral variable is integral as well
+		int column = solver.addVariable(Math.min(0, lower), Math.max(0, upper), solver.isInteger(other));
+		
+		if (isBinary(other))
+			binaryColumns.add(column);
+		
+		// column = binary * other
+		addRow(LinearForm.of(column, 1, binary, -upper), MILPConstraintSense.LESS_OR_EQUAL, 0);
+		addRow(LinearForm.of(column, 1, binary, -lower), MILPConstraintSense.GREATER_OR_EQUAL, 0);
+		addRow(combine(LinearForm.of(column, 1, binary, -lower), 1, LinearForm.column(other), -1), MILPConstraintSense.LESS_OR_EQUAL, -lower);
+		addRow(combine(LinearForm.of(column, 1, binary, -upper), 1, LinearForm.column(other), -1), MILPConstraintSense.GREATER_OR_EQUAL, -upper);
+		
+		products.put(key, column);
+		
+		return column;
+	}
+	
+	/**
+	 * Linear form of a maximum or minimum: an auxiliary variable that is at least as
+	 * large (small) as all arguments, and equal to the one selected by a binary variable.
+	 * 
+	 * @param extremum The maximum or minimum.
+	 * @return the linear form
+	 */
+	private LinearForm extremum(Extremum extremum) {
+		double sign = (extremum.maximum ? 1 : -1);
+		LinearForm[] arguments = new LinearForm[extremum.arguments.length];
+		double largestLower = Double.NEGATIVE_INFINITY;
+		double largestUpper = Double.NEGATIVE_INFINITY;
+		boolean integral = true;
+		
+		// A minimum is the negated maximum of the negated arguments
+		for (int i = 0; i < arguments.length; i++) {
+			arguments[i] = scale(affine(extremum.arguments[i]), sign);
+			largestLower = Math.max(largestLower, lowerBound(arguments[i]));
+			largestUpper = Math.max(largestUpper, upperBound(arguments[i]));
+			integral &= isIntegral(arguments[i]);
+		}
+		
+		// An argument that is never smaller than the others is the maximum
+		for (LinearForm argument : arguments) {
+			boolean dominates = true;
+			
+			for (LinearForm other : arguments)
+				dominates &= (argument == other || lowerBound(argument) >= upperBound(other));
+			
+			if (dominates)
+				return scale(argument, sign);
+		}
+		
+		int column = solver.addVariable(largestLower, largestUpper, integral);
+		LinearForm selection = LinearForm.constant(0);
+		
+		for (LinearForm argument : arguments) {
+			int selected = solver.addVariable(0, 1, true);
+			double bigM = finite(largestUpper, DEFAULT_BIG_M) - finite(lowerBound(argument), -DEFAULT_BIG_M);
+			LinearForm difference = combine(LinearForm.column(column), 1, argument, -1);
+			
+			// column >= argument, and column <= argument + bigM * (1 - selected)
+			addRow(difference, MILPConstraintSense.GREATER_OR_EQUAL, 0);
+			addRow(combine(difference, 1, LinearForm.column(selected), bigM), MILPConstraintSense.LESS_OR_EQUAL, bigM);
+			
+			selection = combine(selection, 1, LinearForm.column(selected), 1);
+		}
+		
+		addRow(selection, MILPConstraintSense.EQUAL, 1);
+		
+		return scale(LinearForm.column(column), sign);
+	}
+	
+	/**
+	 * Indicator of an expression: a linear form that is 1 if the expression holds (is
+	 * non-zero), and 0 otherwise.
+	 * 
+	 * @param expression The expression.
+	 * @return the indicator
+	 */
+	private LinearForm indicator(Expression expression) {
+		if (expression instanceof Constant)
+			return LinearForm.constant(((Constant) expression).value != 0 ? 1 : 0);
+		
+		LinearForm indicator = indicators.get(expression);
+		
+		if (indicator != null)
+			return indicator;
+		
+		if (expression instanceof Comparison) {
+			Comparison comparison = (Comparison) expression;
+			LinearForm difference = combine(affine(comparison.left), 1, affine(comparison.right), -1);
+			
+			if (comparison.operator.equals("==") || comparison.operator.equals("~=")) {
+				indicator = junction(new LinearForm[] { nonNegative(difference, false), nonNegative(scale(difference, -1), false) }, true);
+				
+				if (comparison.operator.equals("~="))
+					indicator = complement(indicator);
+			}
+			else if (comparison.operator.startsWith(">"))
+				indicator = nonNegative(difference, comparison.operator.equals(">"));
+			else
+				indicator = nonNegative(scale(difference, -1), comparison.operator.equals("<"));
+		}
+		else if (expression instanceof Not)
+			indicator = complement(indicator(((Not) expression).operand));
+		else if (expression instanceof Junction) {
+			Expression[] operands = ((Junction) expression).operands;
+			LinearForm[] operandIndicators = new LinearForm[operands.length];
+			
+			for (int i = 0; i < operands.length; i++)
+				operandIndicators[i] = indicator(operands[i]);
+			
+			indicator = junction(operandIndicators, ((Junction) expression).conjunction);
+		}
+		else if (expression instanceof Implication) {
+			LinearForm premise = indicator(((Implication) expression).premise);
+			LinearForm conclusion = indicator(((Implication) expression).conclusion);
+			
+			indicator = junction(new LinearForm[] { complement(premise), conclusion }, false);
+		}
+		else {
+			LinearForm form = affine(expression);
+			
+			if (isIntegral(form) && lowerBound(form) >= 0 && upperBound(form) <= 1)
+				indicator = form;
+			else
+				indicator = complement(junction(new LinearForm[] { nonNegative(form, false), nonNegative(scale(form, -1), false) }, true));
+		}
+		
+		indicators.put(expression, indicator);
+		
+		return indicator;
+	}
+	
+	/**
+	 * Indicator of form &gt;= 0 (or form &gt; 0).
+	 * 
+	 * @param form The linear form.
+	 * @param strict Whether the inequality is strict.
+	 * @return the indicator
+	 */
+	private LinearForm nonNegative(LinearForm form, boolean strict) {
+		double margin = (isIntegral(form) ? 1 : STRICTNESS);
+		
+		if (strict)
+			form = combine(form, 1, LinearForm.constant(-margin), 1);
+		
+		double lower = lowerBound(form);
+		double upper = upperBound(form);
+		
+		if (lower >= 0)
+			return LinearForm.constant(1);
+		
+		if (upper < 0)
+			return LinearForm.constant(0);
+		
+		double lowerM = bigM(lower);
+		double upperM = -bigM(-upper);
+		int indicator = solver.addVariable(0, 1, true);
+		
+		// indicator = 1 -> form >= 0, indicator = 0 -> form <= -margin
+		addRow(combine(form, 1, LinearForm.column(indicator), lowerM), MILPConstraintSense.GREATER_OR_EQUAL, lowerM);
+		addRow(combine(form, 1, LinearForm.column(indicator), -(upperM + margin)), MILPConstraintSense.LESS_OR_EQUAL, -margin);
+		
+		return LinearForm.column(indicator);
+	}
+	
+	/**
+	 * Conjunction or disjunction of indicators.
+	 * 
+	 * @param operands The indicators.
+	 * @param conjunction Whether this is a conjunction (or a disjunction).
+	 * @return the indicator
+	 */
+	private LinearForm junction(LinearForm[] operands, boolean conjunction) {
+		ArrayList<LinearForm> remaining = new ArrayList<LinearForm>(operands.length);
+		
+		for (LinearForm operand : operands) {
+			if (operand.isConstant()) {
+				if ((operand.constant != 0) != conjunction)
+					return LinearForm.constant(conjunction ? 0 : 1);
+			}
+			else
+				remaining.add(operand);
+		}
+		
+		if (remaining.isEmpty())
+			return LinearForm.constant(conjunction ? 1 : 0);
+		
+		if (remaining.size() == 1)
+			return remaining.get(0);
+		
+		int column = solver.addVariable(0, 1, false);
+		LinearForm total = LinearForm.constant(0);
+		
+		binaryColumns.add(column);
+		
+		// Conjunction: column <= each, column >= sum - (n - 1); disjunction: column >= each, column <= sum
+		for (LinearForm operand : remaining) {
+			addRow(combine(LinearForm.column(column), 1, operand, -1), (conjunction ? MILPConstraintSense.LESS_OR_EQUAL : MILPConstraintSense.GREATER_OR_EQUAL), 0);
+			total = combine(total, 1, operand, 1);
+		}
+		
+		if (conjunction)
+			addRow(combine(LinearForm.column(column), 1, total, -1), MILPConstraintSense.GREATER_OR_EQUAL, 1 - remaining.size());
+		else
+			addRow(combine(LinearForm.column(column), 1, total, -1), MILPConstraintSense.LESS_OR_EQUAL, 0);
+		
+		return LinearForm.column(column);
+	}
+	
+	/**
+	 * @param indicator An indicator.
+	 * @return 1 - indicator
+	 */
+	private LinearForm complement(LinearForm indicator) {
+		return combine(LinearForm.constant(1), 1, indicator, -1);
+	}
+	
+	/**
+	 * Solver variable of a variable of the program (created on first use).
+	 * 
+	 * @param variable The variable.
+	 * @return the solver variable
+	 */
+	private int column(Variable variable) {
+		Integer column = columns.get(variable.index);
+		
+		if (column != null)
+			return column;
+		
+		double[] variableBounds = bounds.get(variable.index);
+		double lower = (variableBounds == null ? Double.NEGATIVE_INFINITY : variableBounds[0]);
+		double upper = (variableBounds == null ? Double.POSITIVE_INFINITY : variableBounds[1]);
+		MILPVariableType type = variableTypes.get(variable.index);
+		
+		if (type == MILPVariableType.BINVAR) {
+			lower = Math.max(0, lower);
+			upper = Math.min(1, upper);
+		}
+		
+		if (type != MILPVariableType.SDPVAR) {
+			lower = Math.ceil(lower - INTEGRALITY_TOLERANCE);
+			upper = Math.floor(upper + INTEGRALITY_TOLERANCE);
+		}
+		
+		// Contradictory bounds make the problem infeasible (the variable keeps its kind)
+		if (lower > upper) {
+			triviallyInfeasible = true;
+			lower = (type == MILPVariableType.BINVAR ? 0 : lower);
+			upper = lower;
+		}
+		
+		column = solver.addVariable(lower, upper, type != MILPVariableType.SDPVAR);
+		columns.put(variable.index, column);
+		
+		return column;
+	}
+	
+	/**
+	 * Add a row form (sense) rightHandSide.
+	 * 
+	 * @param form The linear form.
+	 * @param sense The sense.
+	 * @param rightHandSide The right hand side.
+	 */
+	private void addRow(LinearForm form, MILPConstraintSense sense, double rightHandSide) {
+		double bound = rightHandSide - form.constant;
+		
+		if (form.isConstant()) {
+			if ((sense != MILPConstraintSense.LESS_OR_EQUAL && bound > INTEGRALITY_TOLERANCE)
+					|| (sense != MILPConstraintSense.GREATER_OR_EQUAL && bound < -INTEGRALITY_TOLERANCE))
+				triviallyInfeasible = true;
+			
+			return;
+		}
+		
+		int[] variables = new int[form.terms.size()];
+		double[] coefficients = new double[form.terms.size()];
+		int i = 0;
+		
+		for (Entry<Integer,Double> term : form.terms.entrySet()) {
+			variables[i] = term.getKey();
+			coefficients[i++] = term.getValue();
+		}
+		
+		solver.addConstraint(variables, coefficients, sense, bound);
+	}
+	
+	/**
+	 * @param operator A relational operator (other than ~=).
+	 * @return the corresponding sense
+	 */
+	private static MILPConstraintSense sense(String operator) {
+		if (operator.equals("=="))
+			return MILPConstraintSense.EQUAL;
+		
+		return (operator.startsWith(">") ? MILPConstraintSense.GREATER_OR_EQUAL : MILPConstraintSense.LESS_OR_EQUAL);
+	}
+	
+	/**
+	 * @param column A solver variable.
+	 * @return whether the variable is binary
+	 */
+	private boolean isBinary(int column) {
+		return binaryColumns.contains(column)
+				|| (solver.isInteger(column) && solver.getLowerBound(column) >= 0 && solver.getUpperBound(column) <= 1);
+	}
+	
+	/**
+	 * @param form A linear form.
+	 * @return whether the form only takes integral values
+	 */
+	private boolean isIntegral(LinearForm form) {
+		if (!isIntegral(form.constant))
+			return false;
+		
+		for (Entry<Integer,Double> term : form.terms.entrySet())
+			if (!isIntegral(term.getValue()) || !(solver.isInteger(term.getKey()) || binaryColumns.contains(term.getKey())))
+				return false;
+		
+		return true;
+	}
+	
+	/**
+	 * @param value A number.
+	 * @return whether the number is integral
+	 */
+	private static boolean isIntegral(double value) {
+		return Math.abs(value - Math.rint(value)) <= INTEGRALITY_TOLERANCE;
+	}
+	
+	/**
+	 * @param form A linear form.
+	 * @return the smallest value of the form within the bounds of the solver variables
+	 */
+	private double lowerBound(LinearForm form) {
+		double bound = form.constant;
+		
+		for (Entry<Integer,Double> term : form.terms.entrySet())
+			bound += term.getValue() * (term.getValue() > 0 ? solver.getLowerBound(term.getKey()) : solver.getUpperBound(term.getKey()));
+		
+		return bound;
+	}
+	
+	/**
+	 * @param form A linear form.
+	 * @return the largest value of the form within the bounds of the solver variables
+	 */
+	private double upperBound(LinearForm form) {
+		return -lowerBound(scale(form, -1));
+	}
+	
+	/**
+	 * @param lowerBound A (negative) lower bound.
+	 * @return the lower bound, or -{@link #DEFAULT_BIG_M} if it is not finite
+	 */
+	private static double bigM(double lowerBound) {
+		return finite(lowerBound, -DEFAULT_BIG_M);
+	}
+	
+	/**
+	 * @param value A number.
+	 * @param replacement The replacement for an infinite number.
+	 * @return the number, or the replacement if it is not finite
+	 */
+	private static double finite(double value, double replacement) {
+		return (Double.isInfinite(value) ? replacement : value);
+	}
+	
+	/**
+	 * @param form A linear form.
+	 * @param factor The factor.
+	 * @return factor * form
+	 */
+	private static LinearForm scale(LinearForm form, double factor) {
+		return combine(LinearForm.constant(0), 1, form, factor);
+	}
+	
+	/**
+	 * @param left The left operand.
+	 * @param leftFactor The factor of the left operand.
+	 * @param right The right operand.
+	 * @param rightFactor The factor of the right operand.
+	 * @return leftFactor * left + rightFactor * right
+	 */
+	private static LinearForm combine(LinearForm left, double leftFactor, LinearForm right, double rightFactor) {
+		LinearForm form = LinearForm.constant(leftFactor * left.constant + rightFactor * right.constant);
+		
+		form.add(left.terms, leftFactor);
+		form.add(right.terms, rightFactor);
+		
+		return form;
+	}
+	
+	/**
+	 * Linear combination of solver variables, plus a constant.
+	 */
+	private static class LinearForm {
+		
+		/** Coefficients of the solver variables (none is 0). */
+		final LinkedHashMap<Integer,Double> terms = new LinkedHashMap<Integer,Double>();
+		
+		/** The constant. */
+		double constant;
+		
+		/**
+		 * @param constant The constant.
+		 * @return a constant form
+		 */
+		static LinearForm constant(double constant) {
+			LinearForm form = new LinearForm();
+			
+			form.constant = constant;
+			
+			return form;
+		}
+		
+		/**
+		 * @param column A solver variable.
+		 * @return the form 1 * column
+		 */
+		static LinearForm column(int column) {
+			LinearForm form = new LinearForm();
+			
+			form.terms.put(column, 1.0);
+			
+			return form;
+		}
+		
+		/**
+		 * @param first The first solver variable.
+		 * @param firstCoefficient Its coefficient.
+		 * @param second The second solver variable.
+		 * @param secondCoefficient Its coefficient.
+		 * @return the form firstCoefficient * first + secondCoefficient * second
+		 */
+		static LinearForm of(int first, double firstCoefficient, int second, double secondCoefficient) {
+			LinearForm form = new LinearForm();
+			
+			form.add(first, firstCoefficient);
+			form.add(second, secondCoefficient);
+			
+			return form;
+		}
+		
+		/**
+		 * @param terms Coefficients of solver variables.
+		 * @return the form without a constant
+		 */
+		static LinearForm terms(LinkedHashMap<Integer,Double> terms) {
+			LinearForm form = new LinearForm();
+			
+			form.add(terms, 1);
+			
+			return form;
+		}
+		
+		/**
+		 * @return whether the form is constant
+		 */
+		boolean isConstant() {
+			return terms.isEmpty();
+		}
+		
+		/**
+		 * Add factor * terms to this form.
+		 * 
+		 * @param terms Coefficients of solver variables.
+		 * @param factor The factor.
+		 */
+		void add(LinkedHashMap<Integer,Double> terms, double factor) {
+			for (Entry<Integer,Double> term : terms.entrySet())
+				add(term.getKey(), factor * term.getValue());
+		}
+		
+		/**
+		 * Add coefficient * column to this form.
+		 * 
+		 * @param column A solver variable.
+		 * @param coefficient The coefficient.
+		 */
+		void add(int column, double coefficient) {
+			Double current = terms.get(column);
+			double sum = (current == null ? 0 : current) + coefficient;
+			
+			if (sum == 0)
+				terms.remove(column);
+			else
+				terms.put(column, sum);
+		}
+		
+	}
+
+}
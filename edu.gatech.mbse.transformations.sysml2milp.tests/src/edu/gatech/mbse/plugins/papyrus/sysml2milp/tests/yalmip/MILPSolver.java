@@ -0,0 +1,700 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPConstraintSense;
+
+/**
+ * Small solver for mixed-integer linear programs: minimizes a linear objective subject
+ * to linear constraint rows and bounds on the variables, some of which may be
+ * required to be integral.
+ * <P>
+ * The LP relaxations are solved with a two-phase, bounded-variable primal simplex on
+ * a dense tableau, and the integer variables are enforced by depth-first branch and
+ * bound. This is meant for the small MILPs of the transformation tests (see
+ * {@link YALMIPInterpreter}), not for large problems: every node of the branch and
+ * bound tree solves its relaxation from scratch.
+ * <P>
+ * The status codes are those of the "problem" field of the result of YALMIP's
+ * optimize, so they can be passed on to the generated code unchanged.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class MILPSolver {
+	
+	/** Status: an optimal solution was found. */
+	public static final int OPTIMAL = 0;
+	
+	/** Status: the problem is infeasible. */
+	public static final int INFEASIBLE = 1;
+	
+	/** Status: the problem is unbounded. */
+	public static final int UNBOUNDED = 2;
+	
+	/** Status: the node or iteration limit was reached before optimality was proven. */
+	public static final int LIMIT_REACHED = 3;
+	
+	/** Tolerance on the violation of bounds (of variables and slacks). */
+	private static final double FEASIBILITY_TOLERANCE = 1e-7;
+	
+	/** Tolerance on reduced costs. */
+	private static final double OPTIMALITY_TOLERANCE = 1e-9;
+	
+	/** Smallest absolute value of a pivot element. */
+	private static final double PIVOT_TOLERANCE = 1e-9;
+	
+	/** Tolerance on the fractional part of integer variables. */
+	private static final double INTEGRALITY_TOLERANCE = 1e-6;
+	
+	/** Number of consecutive degenerate pivots after which Bland's rule is used (avoids cycling). */
+	private static final int DEGENERATE_PIVOTS_BEFORE_BLAND = 50;
+	
+	/** Maximum number of branch and bound nodes. */
+	private int maxNodes = 200000;
+	
+	/** Maximum number of simplex iterations per LP relaxation. */
+	private int maxIterations = 100000;
+	
+	/** Number of variables. */
+	private int numVariables = 0;
+	
+	/** Lower bounds of the variables. */
+	private double[] lower = new double[16];
+	
+	/** Upper bounds of the variables. */
+	private double[] upper = new double[16];
+	
+	/** Whether the variables are integral. */
+	private boolean[] integer = new boolean[16];
+	
+	/** Objective coefficients of the variables. */
+	private double[] objective = new double[16];
+	
+	/** Constant term of the objective. */
+	private double objectiveConstant = 0;
+	
+	/** Variables of the constraint rows. */
+	private ArrayList<int[]> rowVariables = new ArrayList<int[]>();
+	
+	/** Coefficients of the constraint rows. */
+	private ArrayList<double[]> rowCoefficients = new ArrayList<double[]>();
+	
+	/** Senses of the constraint rows. */
+	private ArrayList<MILPConstraintSense> rowSenses = new ArrayList<MILPConstraintSense>();
+	
+	/** Right hand sides of the constraint rows. */
+	private ArrayList<Double> rowRightHandSides = new ArrayList<Double>();
+	
+	/** The best solution found by the last call of {@link #solve()}, or null. */
+	private double[] solution = null;
+	
+	/** Objective value of the best solution. */
+	private double objectiveValue = Double.NaN;
+	
+	/** Number of branch and bound nodes of the last call of {@link #solve()}. */
+	private int numNodes = 0;
+	
+	/** Values of the variables in the last solved LP relaxation. */
+	private double[] relaxationValues;
+	
+	/** Objective value of the last solved LP relaxation. */
+	private double relaxationObjective;
+	
+	/**
+	 * Add a variable.
+	 * 
+	 * @param lowerBound The lower bound (may be negative infinity).
+	 * @param upperBound The upper bound (may be positive infinity).
+	 * @param isInteger Whether the variable must be integral.
+	 * @return The index of the variable.
+	 */
+	public int addVariable(double lowerBound, double upperBound, boolean isInteger) {
+		if (numVariables == lower.length) {
+			lower = Arrays.copyOf(lower, 2 * numVariables);
+			upper = Arrays.copyOf(upper, 2 * numVariables);
+			integer = Arrays.copyOf(integer, 2 * numVariables);
+			objective = Arrays.copyOf(objective, 2 * numVariables);
+		}
+		
+		lower[numVariables] = lowerBound;
+		upper[numVariables] = upperBound;
+		integer[numVariables] = isInteger;
+		objective[numVariables] = 0;
+		
+		return numVariables++;
+	}
+	
+	/**
+	 * Tighten the bounds of a variable (bounds are only ever tightened).
+	 * 
+	 * @param variable The index of the variable.
+	 * @param lowerBound The new lower bound.
+	 * @param upperBound The new upper bound.
+	 */
+	public void tightenBounds(int variable, double lowerBound, double upperBound) {
+		lower[variable] = Math.max(lower[variable], lowerBound);
+		upper[variable] = Math.min(upper[variable], upperBound);
+	}
+	
+	/**
+	 * Add a constraint row: sum(coefficients[i] * variables[i]) sense rightHandSide.
+	 * 
+	 * @param variables The indexes of the variables.
+	 * @param coefficients The coefficients of the variables.
+	 * @param sense The sense of the row.
+	 * @param rightHandSide The right hand side.
+	 */
+	public void addConstraint(int[] variables, double[] coefficients, MILPConstraintSense sense, double rightHandSide) {
+		rowVariables.add(variables.clone());
+		rowCoefficients.add(coefficients.clone());
+		rowSenses.add(sense);
+		rowRightHandSides.add(rightHandSide);
+	}
+	
+	/**
+	 * Set the objective, which is minimized.
+	 * 
+	 * @param variables The indexes of the variables.
+	 * @param coefficients The coefficients of the variables.
+	 * @param constant The constant term.
+	 */
+	public void setObjective(int[] variables, double[] coefficients, double constant) {
+		Arrays.fill(objective, 0);
+		
+		for (int i = 0; i < variables.length; i++)
+			objective[variables[i]] += coefficients[i];
+		
+		objectiveConstant = constant;
+	}
+	
+	/**
+	 * Solve the problem.
+	 * 
+	 * @return The status ({@link #OPTIMAL}, {@link #INFEASIBLE}, {@link #UNBOUNDED}
+	 * 			or {@link #LIMIT_REACHED}).
+	 */
+	public int solve() {
+		double[] rootLower = Arrays.copyOf(lower, numVariables);
+		double[] rootUpper = Arrays.copyOf(upper, numVariables);
+		
+		for (int j = 0; j < numVariables; j++) {
+			if (integer[j]) {
+				rootLower[j] = Math.ceil(rootLower[j] - INTEGRALITY_TOLERANCE);
+				rootUpper[j] = Math.floor(rootUpper[j] + INTEGRALITY_TOLERANCE);
+			}
+		}
+		
+		solution = null;
+		objectiveValue = Double.NaN;
+		numNodes = 0;
+		
+		ArrayList<double[][]> open = new ArrayList<double[][]>();
+		open.add(new double[][] { rootLower, rootUpper });
+		
+		double incumbent = Double.POSITIVE_INFINITY;
+		boolean limitReached = false;
+		
+		while (!open.isEmpty()) {
+			if (numNodes >= maxNodes) {
+				limitReached = true;
+				break;
+			}
+			
+			double[][] node = open.remove(open.size() - 1);
+			int status = solveRelaxation(node[0], node[1]);
+			numNodes++;
+			
+			if (status == UNBOUNDED && numNodes == 1)
+				return UNBOUNDED;
+			
+			if (status == LIMIT_REACHED) {
+				limitReached = true;
+				continue;
+			}
+			
+			if (status != OPTIMAL
+					|| relaxationObjective >= incumbent - OPTIMALITY_TOLERANCE * (1 + Math.abs(incumbent)))
+				continue;
+			
+			// Branch on the most fractional integer variable
+			int branchVariable = -1;
+			double mostFractional = INTEGRALITY_TOLERANCE;
+			
+			for (int j = 0; j < numVariables; j++) {
+				if (!integer[j])
+					continue;
+				
+				double fraction = Math.abs(relaxationValues[j] - Math.rint(relaxationValues[j]));
+				
+				if (fraction > mostFractional) {
+					mostFractional = fraction;
+					branchVariable = j;
+				}
+			}
+			
+			if (branchVariable == -1) {
+				incumbent = relaxationObjective;
+				objectiveValue = relaxationObjective;
+				solution = relaxationValues.clone();
+				
+				for (int j = 0; j < numVariables; j++)
+					if (integer[j])
+						solution[j] = Math.rint(solution[j]);
+				
+				continue;
+			}
+			
+			double value = relaxationValues[branchVariable];
+			
+			double[][] down = new double[][] { node[0].clone(), node[1].clone() };
+			down[1][branchVariable] = Math.floor(value);
+			
+			double[][] up = new double[][] { node[0].clone(), node[1].clone() };
+			up[0][branchVariable] = Math.ceil(value);
+			
+			// Explore the side closer to the value first (it is added last)
+			if (value - Math.floor(value) >= 0.5) {
+				open.add(down);
+				open.add(up);
+			} else {
+				open.add(up);
+				open.add(down);
+			}
+		}
+		
+		if (limitReached)
+			return LIMIT_REACHED;
+		
+		return (solution == null ? INFEASIBLE : OPTIMAL);
+	}
+	
+	/**
+	 * Solve the LP relaxation of the problem with the given bounds. If an optimum is
+	 * found, it is stored in {@link #relaxationValues} and {@link #relaxationObjective}.
+	 * 
+	 * @param variableLower The lower bounds of the variables.
+	 * @param variableUpper The upper bounds of the variables.
+	 * @return The status.
+	 */
+	private int solveRelaxation(double[] variableLower, double[] variableUpper) {
+		int n = numVariables;
+		int m = rowVariables.size();
+		
+		for (int j = 0; j < n; j++)
+			if (variableLower[j] > variableUpper[j] + FEASIBILITY_TOLERANCE)
+				return INFEASIBLE;
+		
+		// Columns: variables, one slack per row (a x + s = b) and an artificial for each
+		// row whose slack would violate its bounds initially
+		double[] value = new double[n + 2 * m];
+		double[] columnLower = new double[n + 2 * m];
+		double[] columnUpper = new double[n + 2 * m];
+		
+		for (int j = 0; j < n; j++) {
+			columnLower[j] = variableLower[j];
+			columnUpper[j] = Math.max(variableLower[j], variableUpper[j]);
+			
+			if (!Double.isInfinite(columnLower[j]))
+				value[j] = columnLower[j];
+			else if (!Double.isInfinite(columnUpper[j]))
+				value[j] = columnUpper[j];
+			else
+				value[j] = 0;
+		}
+		
+		int numArtificials = 0;
+		int[] artificialOfRow = new int[m];
+		double[] residual = new double[m];
+		
+		for (int i = 0; i < m; i++) {
+			int[] variables = rowVariables.get(i);
+			double[] coefficients = rowCoefficients.get(i);
+			
+			residual[i] = rowRightHandSides.get(i);
+			
+			for (int k = 0; k < variables.length; k++)
+				residual[i] -= coefficients[k] * value[variables[k]];
+			
+			int slack = n + i;
+			
+			switch (rowSenses.get(i)) {
+				case LESS_OR_EQUAL:
+					columnLower[slack] = 0;
+					columnUpper[slack] = Double.POSITIVE_INFINITY;
+					break;
+					
+				case GREATER_OR_EQUAL:
+					columnLower[slack] = Double.NEGATIVE_INFINITY;
+					columnUpper[slack] = 0;
+					break;
+					
+				default:
+					// Fall through
+				case EQUAL:
+					columnLower[slack] = 0;
+					columnUpper[slack] = 0;
+					break;
+			}
+			
+			if (residual[i] < columnLower[slack] - FEASIBILITY_TOLERANCE
+					|| residual[i] > columnUpper[slack] + FEASIBILITY_TOLERANCE)
+				artificialOfRow[i] = n + m + numArtificials++;
+			else
+				artificialOfRow[i] = -1;
+		}
+		
+		int numColumns = n + m + numArtificials;
+		double[][] tableau = new double[m][numColumns];
+		int[] basis = new int[m];
+		boolean[] basic = new boolean[numColumns];
+		
+		for (int i = 0; i < m; i++) {
+			int[] variables = rowVariables.get(i);
+			double[] coefficients = rowCoefficients.get(i);
+			int slack = n + i;
+			
+			for (int k = 0; k < variables.length; k++)
+				tableau[i][variables[k]] += coefficients[k];
+			
+			tableau[i][slack] = 1;
+			
+			if (artificialOfRow[i] == -1) {
+				value[slack] = residual[i];
+				basis[i] = slack;
+			}
+			else {
+				// The slack stays at its bound closest to the residual, the artificial
+				// (with a coefficient of the sign of the rest) makes up for the difference
+				int artificial = artificialOfRow[i];
+				
+				value[slack] = Math.max(columnLower[slack], Math.min(columnUpper[slack], residual[i]));
+				
+				double difference = residual[i] - value[slack];
+				double sign = (difference > 0 ? 1 : -1);
+				
+				columnLower[artificial] = 0;
+				columnUpper[artificial] = Double.POSITIVE_INFINITY;
+				value[artificial] = Math.abs(difference);
+				basis[i] = artificial;
+				
+				// Scale the row such that the basic artificial has a coefficient of 1
+				tableau[i][artificial] = 1;
+				
+				if (sign < 0)
+					for (int j = 0; j < n + m; j++)
+						tableau[i][j] = -tableau[i][j];
+			}
+			
+			basic[basis[i]] = true;
+		}
+		
+		// Phase 1: minimize the sum of the artificials
+		if (numArtificials > 0) {
+			double[] cost = new double[numColumns];
+			
+			for (int j = n + m; j < numColumns; j++)
+				cost[j] = 1;
+			
+			int status = iterate(tableau, basis, basic, value, columnLower, columnUpper, cost);
+			
+			if (status == LIMIT_REACHED)
+				return LIMIT_REACHED;
+			
+			double infeasibility = 0;
+			
+			for (int j = n + m; j < numColumns; j++)
+				infeasibility += value[j];
+			
+			if (infeasibility > FEASIBILITY_TOLERANCE * Math.max(1, m))
+				return INFEASIBLE;
+			
+			// Artificials must stay at zero from now on
+			for (int j = n + m; j < numColumns; j++) {
+				columnUpper[j] = 0;
+				value[j] = 0;
+			}
+		}
+		
+		// Phase 2: minimize the objective
+		double[] cost = new double[numColumns];
+		System.arraycopy(objective, 0, cost, 0, n);
+		
+		int status = iterate(tableau, basis, basic, value, columnLower, columnUpper, cost);
+		
+		if (status != OPTIMAL)
+			return status;
+		
+		relaxationValues = Arrays.copyOf(value, n);
+		relaxationObjective = objectiveConstant;
+		
+		for (int j = 0; j < n; j++)
+			relaxationObjective += objective[j] * value[j];
+		
+		return OPTIMAL;
+	}
+	
+	/**
+	 * Simplex iterations from a feasible basis until the cost is minimal.
+	 * 
+	 * @param tableau The tableau (the constraint matrix in the current basis).
+	 * @param basis The basic column of each row.
+	 * @param basic Whether each column is basic (one entry per column).
+	 * @param value The values of the columns (updated).
+	 * @param columnLower The lower bounds of the columns.
+	 * @param columnUpper The upper bounds of the columns.
+	 * @param cost The cost of each column.
+	 * @return {@link #OPTIMAL}, {@link #UNBOUNDED} or {@link #LIMIT_REACHED}.
+	 */
+	private int iterate(double[][] tableau, int[] basis, boolean[] basic, double[] value,
+			double[] columnLower, double[] columnUpper, double[] cost) {
+		int m = tableau.length;
+		int numColumns = basic.length;
+		
+		// Reduced costs
+		double[] reducedCost = new double[numColumns];
+		
+		for (int j = 0; j < numColumns; j++) {
+			reducedCost[j] = cost[j];
+			
+			for (int i = 0; i < m; i++)
+				reducedCost[j] -= cost[basis[i]] * tableau[i][j];
+		}
+		
+		int degeneratePivots = 0;
+		
+		for (int iteration = 0; iteration < maxIterations; iteration++) {
+			boolean bland = degeneratePivots > DEGENERATE_PIVOTS_BEFORE_BLAND;
+			
+			// Entering column
+			int entering = -1;
+			double direction = 0;
+			double best = 0;
+			
+			for (int j = 0; j < numColumns; j++) {
+				if (basic[j] || columnUpper[j] - columnLower[j] <= 0)
+					continue;
+				
+				double score = 0;
+				double candidateDirection = 0;
+				
+				if (reducedCost[j] < -OPTIMALITY_TOLERANCE && value[j] < columnUpper[j] - FEASIBILITY_TOLERANCE) {
+					score = -reducedCost[j];
+					candidateDirection = 1;
+				}
+				else if (reducedCost[j] > OPTIMALITY_TOLERANCE && value[j] > columnLower[j] + FEASIBILITY_TOLERANCE) {
+					score = reducedCost[j];
+					candidateDirection = -1;
+				}
+				
+				if (candidateDirection != 0 && score > best) {
+					entering = j;
+					direction = candidateDirection;
+					best = score;
+					
+					if (bland)
+						break;
+				}
+			}
+			
+			if (entering == -1)
+				return OPTIMAL;
+			
+			// Ratio test - the entering column may also just move to its other bound
+			double step = columnUpper[entering] - columnLower[entering];
+			int leavingRow = -1;
+			double leavingPivot = 0;
+			
+			for (int i = 0; i < m; i++) {
+				double alpha = direction * tableau[i][entering];
+				int column = basis[i];
+				double limit;
+				
+				if (alpha > PIVOT_TOLERANCE && !Double.isInfinite(columnLower[column]))
+					limit = Math.max(0, (value[column] - columnLower[column]) / alpha);
+				else if (alpha < -PIVOT_TOLERANCE && !Double.isInfinite(columnUpper[column]))
+					limit = Math.max(0, (columnUpper[column] - value[column]) / -alpha);
+				else
+					continue;
+				
+				if (limit < step
+						|| (limit == step && leavingRow != -1 && Math.abs(alpha) > leavingPivot)) {
+					step = limit;
+					leavingRow = i;
+					leavingPivot = Math.abs(alpha);
+				}
+			}
+			
+			if (Double.isInfinite(step))
+				return UNBOUNDED;
+			
+			degeneratePivots = (step < FEASIBILITY_TOLERANCE ? degeneratePivots + 1 : 0);
+			
+			for (int i = 0; i < m; i++)
+				value[basis[i]] -= step * direction * tableau[i][entering];
+			
+			value[entering] += step * direction;
+			
+			if (leavingRow == -1)
+				continue;
+			
+			// The leaving column is put exactly on the bound it reached
+			int leaving = basis[leavingRow];
+			
+			if (direction * tableau[leavingRow][entering] > 0)
+				value[leaving] = columnLower[leaving];
+			else
+				value[leaving] = columnUpper[leaving];
+			
+			pivot(tableau, reducedCost, leavingRow, entering);
+			
+			basic[leaving] = false;
+			basic[entering] = true;
+			basis[leavingRow] = entering;
+		}
+		
+		return LIMIT_REACHED;
+	}
+	
+	/**
+	 * Pivot the tableau (and the reduced costs) on the given element.
+	 * 
+	 * @param tableau The tableau.
+	 * @param reducedCost The reduced costs.
+	 * @param row The pivot row.
+	 * @param column The pivot column.
+	 */
+	private void pivot(double[][] tableau, double[] reducedCost, int row, int column) {
+		double[] pivotRow = tableau[row];
+		double pivot = pivotRow[column];
+		int numColumns = pivotRow.length;
+		
+		for (int j = 0; j < numColumns; j++)
+			pivotRow[j] /= pivot;
+		
+		pivotRow[column] = 1;
+		
+		for (int i = 0; i < tableau.length; i++) {
+			if (i == row)
+				continue;
+			
+			double factor = tableau[i][column];
+			
+			if (factor == 0)
+				continue;
+			
+			double[] currentRow = tableau[i];
+			
+			for (int j = 0; j < numColumns; j++)
+				if (pivotRow[j] != 0)
+					currentRow[j] -= factor * pivotRow[j];
+			
+			currentRow[column] = 0;
+		}
+		
+		double factor = reducedCost[column];
+		
+		if (factor != 0) {
+			for (int j = 0; j < numColumns; j++)
+				reducedCost[j] -= factor * pivotRow[j];
+			
+			reducedCost[column] = 0;
+		}
+	}
+	
+	/**
+	 * @param variable The index of the variable.
+	 * @return the value of the variable in the solution found by {@link #solve()}
+	 * 			(NaN if there is none)
+	 */
+	public double getValue(int variable) {
+		return (solution == null ? Double.NaN : solution[variable]);
+	}
+	
+	/**
+	 * @return the objective value of the solution found by {@link #solve()} (NaN if
+	 * 			there is none)
+	 */
+	public double getObjectiveValue() {
+		return objectiveValue;
+	}
+	
+	/**
+	 * @param variable The index of the variable.
+	 * @return the lower bound of the variable
+	 */
+	public double getLowerBound(int variable) {
+		return lower[variable];
+	}
+	
+	/**
+	 * @param variable The index of the variable.
+	 * @return the upper bound of the variable
+	 */
+	public double getUpperBound(int variable) {
+		return upper[variable];
+	}
+	
+	/**
+	 * @param variable The index of the variable.
+	 * @return whether the variable must be integral
+	 */
+	public boolean isInteger(int variable) {
+		return integer[variable];
+	}
+	
+	/**
+	 * @return the number of variables
+	 */
+	public int getNumVariables() {
+		return numVariables;
+	}
+	
+	/**
+	 * @return the number of constraint rows
+	 */
+	public int getNumConstraints() {
+		return rowVariables.size();
+	}
+	
+	/**
+	 * @return the number of branch and bound nodes of the last call of {@link #solve()}
+	 */
+	public int getNumNodes() {
+		return numNodes;
+	}
+	
+	/**
+	 * @param maxNodes the maximum number of branch and bound nodes to set
+	 */
+	public void setMaxNodes(int maxNodes) {
+		this.maxNodes = maxNodes;
+	}
+
+}
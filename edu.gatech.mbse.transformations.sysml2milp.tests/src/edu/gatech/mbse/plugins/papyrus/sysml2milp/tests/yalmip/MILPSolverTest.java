@@ -0,0 +1,160 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPConstraintSense;
+
+/**
+ * Test case - {@link MILPSolver}: LP optima at a vertex, free variables, infeasible and
+ * unbounded problems, and integer variables whose LP relaxation is fractional.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class MILPSolverTest {
+	
+	/** Tolerance on values and objectives. */
+	private static final double TOLERANCE = 1e-6;
+	
+	/** Unbounded. */
+	private static final double INF = Double.POSITIVE_INFINITY;
+	
+	@Test
+	public void findsTheOptimalVertexOfAnLP() {
+		// min -x - y s.t. x + 2y <= 4, 3x + y <= 6, x, y >= 0
+		MILPSolver solver = new MILPSolver();
+		int x = solver.addVariable(0, INF, false);
+		int y = solver.addVariable(0, INF, false);
+		
+		solver.addConstraint(new int[] { x, y }, new double[] { 1, 2 }, MILPConstraintSense.LESS_OR_EQUAL, 4);
+		solver.addConstraint(new int[] { x, y }, new double[] { 3, 1 }, MILPConstraintSense.LESS_OR_EQUAL, 6);
+		solver.setObjective(new int[] { x, y }, new double[] { -1, -1 }, 0);
+		
+		assertEquals(MILPSolver.OPTIMAL, solver.solve());
+		assertEquals(1.6, solver.getValue(x), TOLERANCE);
+		assertEquals(1.2, solver.getValue(y), TOLERANCE);
+		assertEquals(-2.8, solver.getObjectiveValue(), TOLERANCE);
+	}
+	
+	@Test
+	public void handlesFreeVariablesAndEqualities() {
+		// min x + 10 s.t. x - y == 2, y >= -3 (both free)
+		MILPSolver solver = new MILPSolver();
+		int x = solver.addVariable(-INF, INF, false);
+		int y = solver.addVariable(-INF, INF, false);
+		
+		solver.addConstraint(new int[] { x, y }, new double[] { 1, -1 }, MILPConstraintSense.EQUAL, 2);
+		solver.addConstraint(new int[] { y }, new double[] { 1 }, MILPConstraintSense.GREATER_OR_EQUAL, -3);
+		solver.setObjective(new int[] { x }, new double[] { 1 }, 10);
+		
+		assertEquals(MILPSolver.OPTIMAL, solver.solve());
+		assertEquals(-1, solver.getValue(x), TOLERANCE);
+		assertEquals(-3, solver.getValue(y), TOLERANCE);
+		assertEquals(9, solver.getObjectiveValue(), TOLERANCE);
+	}
+	
+	@Test
+	public void detectsInfeasibility() {
+		MILPSolver solver = new MILPSolver();
+		int x = solver.addVariable(0, INF, false);
+		
+		solver.addConstraint(new int[] { x }, new double[] { 1 }, MILPConstraintSense.GREATER_OR_EQUAL, 2);
+		solver.addConstraint(new int[] { x }, new double[] { 1 }, MILPConstraintSense.LESS_OR_EQUAL, 1);
+		
+		assertEquals(MILPSolver.INFEASIBLE, solver.solve());
+		
+		// Feasible as an LP, but not with an integral x
+		solver = new MILPSolver();
+		x = solver.addVariable(0, 10, true);
+		
+		solver.addConstraint(new int[] { x }, new double[] { 2 }, MILPConstraintSense.EQUAL, 1);
+		
+		assertEquals(MILPSolver.INFEASIBLE, solver.solve());
+	}
+	
+	@Test
+	public void detectsUnboundedness() {
+		MILPSolver solver = new MILPSolver();
+		int x = solver.addVariable(0, INF, false);
+		int y = solver.addVariable(0, INF, false);
+		
+		solver.addConstraint(new int[] { x, y }, new double[] { 1, -1 }, MILPConstraintSense.LESS_OR_EQUAL, 1);
+		solver.setObjective(new int[] { x }, new double[] { -1 }, 0);
+		
+		assertEquals(MILPSolver.UNBOUNDED, solver.solve());
+	}
+	
+	@Test
+	public void branchesOnFractionalRelaxations() {
+		// Knapsack: max 10a + 13b + 7c s.t. 4a + 6b + 3c <= 9 (the relaxation takes a third of b)
+		MILPSolver solver = new MILPSolver();
+		int a = solver.addVariable(0, 1, true);
+		int b = solver.addVariable(0, 1, true);
+		int c = solver.addVariable(0, 1, true);
+		
+		solver.addConstraint(new int[] { a, b, c }, new double[] { 4, 6, 3 }, MILPConstraintSense.LESS_OR_EQUAL, 9);
+		solver.setObjective(new int[] { a, b, c }, new double[] { -10, -13, -7 }, 0);
+		
+		assertEquals(MILPSolver.OPTIMAL, solver.solve());
+		assertEquals(0, solver.getValue(a), 0);
+		assertEquals(1, solver.getValue(b), 0);
+		assertEquals(1, solver.getValue(c), 0);
+		assertEquals(-20, solver.getObjectiveValue(), TOLERANCE);
+		
+		// General integers: max x + y s.t. 2x + 2y <= 3, 0 <= x, y <= 5
+		solver = new MILPSolver();
+		int x = solver.addVariable(0, 5, true);
+		int y = solver.addVariable(0, 5, true);
+		
+		solver.addConstraint(new int[] { x, y }, new double[] { 2, 2 }, MILPConstraintSense.LESS_OR_EQUAL, 3);
+		solver.setObjective(new int[] { x, y }, new double[] { -1, -1 }, 0);
+		
+		assertEquals(MILPSolver.OPTIMAL, solver.solve());
+		assertEquals(-1, solver.getObjectiveValue(), TOLERANCE);
+	}
+	
+	@Test
+	public void mixesIntegerAndContinuousVariables() {
+		// min t s.t. t >= 4 - 10z, t >= 1 + 2z, z binary: z = 0 gives t = 4, z = 1 gives t = 3
+		// (the relaxation takes z = 0.25, t = 1.5)
+		MILPSolver solver = new MILPSolver();
+		int t = solver.addVariable(-INF, INF, false);
+		int z = solver.addVariable(0, 1, true);
+		
+		solver.addConstraint(new int[] { t, z }, new double[] { 1, 10 }, MILPConstraintSense.GREATER_OR_EQUAL, 4);
+		solver.addConstraint(new int[] { t, z }, new double[] { 1, -2 }, MILPConstraintSense.GREATER_OR_EQUAL, 1);
+		solver.setObjective(new int[] { t }, new double[] { 1 }, 0);
+		
+		assertEquals(MILPSolver.OPTIMAL, solver.solve());
+		assertEquals(1, solver.getValue(z), 0);
+		assertEquals(3, solver.getValue(t), TOLERANCE);
+	}
+
+}
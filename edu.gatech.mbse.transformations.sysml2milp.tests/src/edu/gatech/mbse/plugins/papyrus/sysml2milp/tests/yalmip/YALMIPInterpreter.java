@@ -0,0 +1,1872 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Comparison;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.Expression.Variable;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Assignment;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Binary;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Break;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Colon;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Command;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.ExpressionStatement;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Field;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.If;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Index;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.MatrixLiteral;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Name;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Node;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.NumberLiteral;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Parenthesized;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Range;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Statement;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.TextLiteral;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.Unary;
+import edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip.YALMIPParser.While;
+import edu.gatech.mbse.transformations.sysml2milp.MILPVariableType;
+
+/**
+ * Interpreter for the YALMIP code generated by the transformation, so that the
+ * transformation tests can solve the generated MILPs without Matlab.
+ * <P>
+ * Only the subset of Matlab and YALMIP that the generator emits is supported (see
+ * {@link YALMIPParser}): decision variables (sdpvar, binvar, intvar), matrices of
+ * expressions, cell arrays of strings, constraint lists, the logical operators and
+ * implies / exclude, and optimize, whose MILPs are solved by a {@link MILPSolver}
+ * (see {@link Linearizer} for how nonlinear operators are modelled). The functions
+ * used to print results (disp, sprintf, fprintf, fopen, ...) behave like their Matlab
+ * counterparts, so the results file written by the generated code in testing mode
+ * can be compared as before. Anything else is rejected with an exception naming the
+ * line of the code.
+ * <P>
+ * Values are {@link Matrix}es (numbers are constant expressions), Strings,
+ * {@link Cell}s, {@link ConstraintList}s, and Maps (structures). Statements without a
+ * trailing semicolon do not echo their value.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class YALMIPInterpreter {
+	
+	/** Conversion specifications of sprintf / fprintf. */
+	private static final Pattern FORMAT_SPECIFICATION = Pattern.compile("%([-+ 0#]*)(\\d+)?(?:\\.(\\d+))?([diuoxXfeEgGcs])");
+	
+	/** Messages of the status codes returned by optimize (the "info" field). */
+	private static final String[] STATUS_MESSAGES = {
+		"Successfully solved", "Infeasible problem", "Unbounded objective function", "Maximum iterations or time limit exceeded"
+	};
+	
+	/** Variables of the workspace. */
+	private final HashMap<String,Object> workspace = new HashMap<String,Object>();
+	
+	/** Types of the decision variables, by index. */
+	private final ArrayList<MILPVariableType> variableTypes = new ArrayList<MILPVariableType>();
+	
+	/** Values of the decision variables, by index (NaN before they are solved for). */
+	private double[] values = new double[0];
+	
+	/** Open files, by file ID. */
+	private final TreeMap<Integer,Writer> files = new TreeMap<Integer,Writer>();
+	
+	/** File ID of the next file opened. */
+	private int nextFileID = 3;
+	
+	/** Stream for output to the console (file ID 1). */
+	private PrintStream console = System.out;
+	
+	/**
+	 * Execute Matlab code. Files left open by the code are closed afterwards.
+	 * 
+	 * @param code The code.
+	 */
+	public void execute(String code) {
+		try {
+			execute(YALMIPParser.parse(code));
+		}
+		finally {
+			closeFiles();
+		}
+	}
+	
+	/**
+	 * @param name The name of a variable of the workspace.
+	 * @return the value of the variable (null if undefined)
+	 */
+	public Object getVariable(String name) {
+		return workspace.get(name);
+	}
+	
+	/**
+	 * @param name The name of a variable of the workspace (a matrix).
+	 * @return the current numeric values of its elements, column by column
+	 */
+	public double[] getValue(String name) {
+		Object value = workspace.get(name);
+		
+		if (!(value instanceof Matrix))
+			throw new IllegalArgumentException(name + " is not a matrix");
+		
+		Matrix matrix = (Matrix) value;
+		double[] result = new double[matrix.size()];
+		
+		for (int i = 0; i < result.length; i++)
+			result[i] = matrix.get(i).evaluate(values);
+		
+		return result;
+	}
+	
+	/**
+	 * @param console The stream for output to the console.
+	 */
+	public void setConsole(PrintStream console) {
+		this.console = console;
+	}
+	
+	/**
+	 * Execute statements.
+	 * 
+	 * @param statements The statements.
+	 * @return Whether a break statement was executed.
+	 */
+	private boolean execute(List<Statement> statements) {
+		for (Statement statement : statements) {
+			try {
+				if (statement instanceof Assignment) {
+					Object value = evaluate(((Assignment) statement).value);
+					
+					if (value == null)
+						throw new IllegalArgumentException("The expression assigned to " + ((Assignment) statement).name + " has no value");
+					
+					workspace.put(((Assignment) statement).name, value);
+				}
+				else if (statement instanceof ExpressionStatement)
+					evaluate(((ExpressionStatement) statement).expression);
+				else if (statement instanceof While) {
+					While loop = (While) statement;
+					
+					while (isTrue(evaluate(loop.condition)))
+						if (execute(loop.body))
+							break;
+				}
+				else if (statement instanceof If) {
+					If branch = (If) statement;
+					List<Statement> body = branch.otherwise;
+					
+					for (int i = 0; i < branch.conditions.size(); i++) {
+						if (isTrue(evaluate(branch.conditions.get(i)))) {
+							body = branch.bodies.get(i);
+							break;
+						}
+					}
+					
+					if (execute(body))
+						return true;
+				}
+				else if (statement instanceof Break)
+					return true;
+				else
+					command(((Command) statement).name, ((Command) statement).arguments);
+			}
+			catch (ExecutionException e) {
+				throw e;
+			}
+			catch (RuntimeException e) {
+				throw new ExecutionException(statement.line, e);
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Execute a command (command syntax, e.g., "clear all").
+	 * 
+	 * @param name The name of the command.
+	 * @param arguments The arguments.
+	 */
+	private void command(String name, List<String> arguments) {
+		if (!name.equals("clear"))
+			return;
+		
+		if (arguments.isEmpty() || arguments.contains("all") || arguments.contains("variables"))
+			workspace.clear();
+		else
+			for (String argument : arguments)
+				workspace.remove(argument);
+	}
+	
+	/**
+	 * Evaluate an expression.
+	 * 
+	 * @param node The expression.
+	 * @return The value (null for functions without output).
+	 */
+	private Object evaluate(Node node) {
+		if (node instanceof NumberLiteral)
+			return Matrix.scalar(((NumberLiteral) node).value);
+		
+		if (node instanceof TextLiteral)
+			return ((TextLiteral) node).value;
+		
+		if (node instanceof Name) {
+			String name = ((Name) node).name;
+			
+			if (workspace.containsKey(name))
+				return workspace.get(name);
+			
+			return call(name, new ArrayList<Object>());
+		}
+		
+		if (node instanceof Parenthesized)
+			return evaluate(((Parenthesized) node).expression);
+		
+		if (node instanceof Index) {
+			List<Object> result = evaluateList(node);
+			
+			if (result.size() != 1)
+				throw new IllegalArgumentException("Expected a single value, not a list of " + result.size());
+			
+			return result.get(0);
+		}
+		
+		if (node instanceof Field) {
+			Object target = evaluate(((Field) node).target);
+			
+			if (!(target instanceof Map) || !((Map<?,?>) target).containsKey(((Field) node).name))
+				throw new IllegalArgumentException("Unknown field " + ((Field) node).name);
+			
+			return ((Map<?,?>) target).get(((Field) node).name);
+		}
+		
+		if (node instanceof Range)
+			return range((Range) node);
+		
+		if (node instanceof Unary)
+			return unary(((Unary) node).operator, evaluate(((Unary) node).operand));
+		
+		if (node instanceof Binary)
+			return binary((Binary) node);
+		
+		if (node instanceof MatrixLiteral)
+			return concatenate((MatrixLiteral) node);
+		
+		throw new IllegalArgumentException("':' can only be used as an index");
+	}
+	
+	/**
+	 * Evaluate an expression that may produce a list of values (indexing a cell array
+	 * with braces).
+	 * 
+	 * @param node The expression.
+	 * @return The values.
+	 */
+	private List<Object> evaluateList(Node node) {
+		ArrayList<Object> result = new ArrayList<Object>();
+		
+		if (!(node instanceof Index)) {
+			result.add(evaluate(node));
+			
+			return result;
+		}
+		
+		Index index = (Index) node;
+		
+		// Function call
+		if (index.target instanceof Name && !workspace.containsKey(((Name) index.target).name)) {
+			ArrayList<Object> arguments = new ArrayList<Object>();
+			
+			for (Node argument : index.arguments)
+				arguments.addAll(evaluateList(argument));
+			
+			result.add(call(((Name) index.target).name, arguments));
+			
+			return result;
+		}
+		
+		Object target = evaluate(index.target);
+		ArrayList<Object> indices = new ArrayList<Object>(index.arguments.size());
+		
+		for (Node argument : index.arguments)
+			indices.add(argument instanceof Colon ? null : toMatrix(evaluate(argument)));
+		
+		if (target instanceof String) {
+			String text = (String) target;
+			Selection selection = select(1, text.length(), indices);
+			StringBuilder characters = new StringBuilder();
+			
+			for (int i : selection.indices)
+				characters.append(text.charAt(i));
+			
+			result.add(characters.toString());
+		}
+		else if (target instanceof Grid) {
+			Grid grid = (Grid) target;
+			Selection selection = select(grid.rows, grid.columns, indices);
+			Object[] elements = new Object[selection.indices.length];
+			
+			for (int i = 0; i < elements.length; i++)
+				elements[i] = grid.elements[selection.indices[i]];
+			
+			if (index.braces) {
+				if (!(grid instanceof Cell))
+					throw new IllegalArgumentException("Braces can only index cell arrays");
+				
+				result.addAll(Arrays.asList(elements));
+			}
+			else
+				result.add(grid.create(selection.rows, selection.columns, elements));
+		}
+		else
+			throw new IllegalArgumentException("This value cannot be indexed");
+		
+		return result;
+	}
+	
+	/**
+	 * Select elements of a matrix (linear indexing or row / column indexing).
+	 * 
+	 * @param rows The number of rows.
+	 * @param columns The number of columns.
+	 * @param indices The indices (matrices, or null for ":").
+	 * @return The selection.
+	 */
+	private Selection select(int rows, int columns, List<Object> indices) {
+		Selection selection = new Selection();
+		
+		if (indices.size() == 1) {
+			int[] positions = positions((Matrix) indices.get(0), rows * columns);
+			Matrix index = (Matrix) indices.get(0);
+			
+			selection.indices = positions;
+			
+			if (index == null) {
+				selection.rows = positions.length;
+				selection.columns = 1;
+			}
+			else if ((rows == 1 || columns == 1) && (index.rows == 1 || index.columns == 1)) {
+				// A vector indexed by a vector keeps its orientation
+				selection.rows = (rows == 1 ? 1 : positions.length);
+				selection.columns = (rows == 1 ? positions.length : 1);
+			}
+			else {
+				selection.rows = index.rows;
+				selection.columns = index.columns;
+			}
+		}
+		else if (indices.size() == 2) {
+			int[] selectedRows = positions((Matrix) indices.get(0), rows);
+			int[] selectedColumns = positions((Matrix) indices.get(1), columns);
+			
+			selection.indices = new int[selectedRows.length * selectedColumns.length];
+			selection.rows = selectedRows.length;
+			selection.columns = selectedColumns.length;
+			
+			for (int j = 0; j < selectedColumns.length; j++)
+				for (int i = 0; i < selectedRows.length; i++)
+					selection.indices[j * selectedRows.length + i] = selectedColumns[j] * rows + selectedRows[i];
+		}
+		else
+			throw new IllegalArgumentException("Only one or two indices are supported");
+		
+		return selection;
+	}
+	
+	/**
+	 * @param index An index (null for ":").
+	 * @param size The size of the indexed dimension.
+	 * @return the selected positions (0-based)
+	 */
+	private int[] positions(Matrix index, int size) {
+		if (index == null) {
+			int[] positions = new int[size];
+			
+			for (int i = 0; i < size; i++)
+				positions[i] = i;
+			
+			return positions;
+		}
+		
+		int[] positions = new int[index.size()];
+		
+		for (int i = 0; i < positions.length; i++) {
+			double position = index.number(i);
+			
+			if (position != Math.rint(position) || position < 1 || position > size)
+				throw new IllegalArgumentException("Index " + format(position) + " is out of bounds (1 to " + size + ")");
+			
+			positions[i] = (int) position - 1;
+		}
+		
+		return positions;
+	}
+	
+	/**
+	 * @param range A range.
+	 * @return the row vector of its values
+	 */
+	private Matrix range(Range range) {
+		double from = toMatrix(evaluate(range.from)).scalarNumber();
+		double step = (range.step == null ? 1 : toMatrix(evaluate(range.step)).scalarNumber());
+		double to = toMatrix(evaluate(range.to)).scalarNumber();
+		int count = (step == 0 || (to - from) / step < 0 ? 0 : (int) Math.floor((to - from) / step + 1e-10) + 1);
+		Expression[] elements = new Expression[count];
+		
+		for (int i = 0; i < count; i++)
+			elements[i] = Expression.constant(from + i * step);
+		
+		return new Matrix(1, count, elements);
+	}
+	
+	/**
+	 * @param operator The operator.
+	 * @param operand The operand.
+	 * @return the result of a unary operator
+	 */
+	private Object unary(String operator, Object operand) {
+		if (operator.equals("'")) {
+			Grid grid = toGrid(operand);
+			Object[] elements = new Object[grid.elements.length];
+			
+			for (int i = 0; i < grid.rows; i++)
+				for (int j = 0; j < grid.columns; j++)
+					elements[i * grid.columns + j] = grid.elements[j * grid.rows + i];
+			
+			return grid.create(grid.columns, grid.rows, elements);
+		}
+		
+		Matrix matrix = toMatrix(operand);
+		Expression[] elements = new Expression[matrix.size()];
+		
+		for (int i = 0; i < elements.length; i++) {
+			if (operator.equals("-"))
+				elements[i] = Expression.negate(matrix.get(i));
+			else if (operator.equals("~"))
+				elements[i] = Expression.not(matrix.get(i));
+			else
+				elements[i] = matrix.get(i);
+		}
+		
+		return new Matrix(matrix.rows, matrix.columns, elements);
+	}
+	
+	/**
+	 * @param node A binary operator.
+	 * @return the result of the operator
+	 */
+	private Object binary(Binary node) {
+		String operator = node.operator;
+		
+		if (operator.equals("&&") || operator.equals("||")) {
+			boolean left = isTrue(evaluate(node.left));
+			
+			if (left == operator.equals("||"))
+				return Matrix.scalar(left ? 1 : 0);
+			
+			return Matrix.scalar(isTrue(evaluate(node.right)) ? 1 : 0);
+		}
+		
+		Matrix left = toMatrix(evaluate(node.left));
+		Matrix right = toMatrix(evaluate(node.right));
+		
+		// Chained comparisons (e.g., 0 <= TH <= 1) constrain the middle expression twice, as in YALMIP
+		boolean chained = isRelational(operator) && node.left instanceof Binary && isRelational(((Binary) node.left).operator);
+		
+		if (operator.equals("*") && !left.isScalar() && !right.isScalar())
+			return multiply(left, right);
+		
+		if (operator.equals("/") && !right.isScalar())
+			throw new UnsupportedOperationException("Matrix division is not supported");
+		
+		if (operator.equals("\\"))
+			throw new UnsupportedOperationException("Left division is not supported");
+		
+		if (!left.isScalar() && !right.isScalar() && (left.rows != right.rows || left.columns != right.columns))
+			throw new IllegalArgumentException("Matrix dimensions must agree for " + operator
+					+ " (" + left.rows + "x" + left.columns + " and " + right.rows + "x" + right.columns + ")");
+		
+		Matrix shape = (left.isScalar() ? right : left);
+		Expression[] elements = new Expression[shape.size()];
+		
+		for (int i = 0; i < elements.length; i++) {
+			Expression l = left.get(left.isScalar() ? 0 : i);
+			Expression r = right.get(right.isScalar() ? 0 : i);
+			
+			if (chained && l instanceof Comparison)
+				elements[i] = Expression.junction(new Expression[] { l, Expression.compare(((Comparison) l).getRight(), operator, r) }, true);
+			else
+				elements[i] = elementwise(operator, l, r);
+		}
+		
+		return new Matrix(shape.rows, shape.columns, elements);
+	}
+	
+	/**
+	 * @param operator A binary operator (applied to scalars).
+	 * @param left The left operand.
+	 * @param right The right operand.
+	 * @return the result of the operator
+	 */
+	private static Expression elementwise(String operator, Expression left, Expression right) {
+		if (operator.equals("+"))
+			return Expression.add(left, right);
+		
+		if (operator.equals("-"))
+			return Expression.subtract(left, right);
+		
+		if (operator.equals("*") || operator.equals(".*"))
+			return Expression.multiply(left, right);
+		
+		if (operator.equals("/") || operator.equals("./"))
+			return Expression.divide(left, right);
+		
+		if (operator.equals("&") || operator.equals("|"))
+			return Expression.junction(new Expression[] { left, right }, operator.equals("&"));
+		
+		if (isRelational(operator))
+			return Expression.compare(left, operator, right);
+		
+		// Power
+		if (left.isConstant() && right.isConstant())
+			return Expression.constant(Math.pow(left.evaluate(null), right.evaluate(null)));
+		
+		if (!right.isConstant() || right.evaluate(null) < 0 || right.evaluate(null) != Math.rint(right.evaluate(null)))
+			throw new UnsupportedOperationException("Only non-negative integral powers of decision variables are supported");
+		
+		Expression power = Expression.ONE;
+		
+		for (int i = 0; i < (int) right.evaluate(null); i++)
+			power = Expression.multiply(power, left);
+		
+		return power;
+	}
+	
+	/**
+	 * @param operator An operator.
+	 * @return whether the operator is relational
+	 */
+	private static boolean isRelational(String operator) {
+		return operator.equals("<") || operator.equals("<=") || operator.equals(">") || operator.equals(">=")
+				|| operator.equals("==") || operator.equals("~=");
+	}
+	
+	/**
+	 * @param left The left operand.
+	 * @param right The right operand.
+	 * @return the matrix product
+	 */
+	private static Matrix multiply(Matrix left, Matrix right) {
+		if (left.columns != right.rows)
+			throw new IllegalArgumentException("Inner matrix dimensions must agree");
+		
+		Expression[] elements = new Expression[left.rows * right.columns];
+		
+		for (int i = 0; i < left.rows; i++) {
+			for (int j = 0; j < right.columns; j++) {
+				Expression[] products = new Expression[left.columns];
+				double[] factors = new double[left.columns];
+				
+				for (int k = 0; k < left.columns; k++) {
+					products[k] = Expression.multiply(left.get(k * left.rows + i), right.get(j * right.rows + k));
+					factors[k] = 1;
+				}
+				
+				elements[j * left.rows + i] = Expression.sum(products, factors);
+			}
+		}
+		
+		return new Matrix(left.rows, right.columns, elements);
+	}
+	
+	/**
+	 * Evaluate a matrix or cell literal.
+	 * 
+	 * @param literal The literal.
+	 * @return The value.
+	 */
+	private Object concatenate(MatrixLiteral literal) {
+		ArrayList<List<Object>> rows = new ArrayList<List<Object>>();
+		boolean constraints = false;
+		boolean cells = literal.cell;
+		boolean text = false;
+		
+		for (List<Node> row : literal.rows) {
+			ArrayList<Object> values = new ArrayList<Object>();
+			
+			for (Node element : row) {
+				for (Object value : evaluateList(element)) {
+					// The elements of a cell literal are wrapped in cells
+					if (literal.cell)
+						value = new Cell(1, 1, new Object[] { value });
+					
+					constraints |= (value instanceof ConstraintList);
+					cells |= (value instanceof Cell);
+					text |= (value instanceof String);
+					values.add(value);
+				}
+			}
+			
+			rows.add(values);
+		}
+		
+		if (constraints) {
+			ConstraintList list = new ConstraintList();
+			
+			for (List<Object> row : rows)
+				for (Object value : row)
+					list.add(value);
+			
+			return list;
+		}
+		
+		if (text && !cells) {
+			if (rows.size() > 1)
+				throw new UnsupportedOperationException("Character matrices are not supported");
+			
+			StringBuilder concatenation = new StringBuilder();
+			
+			for (Object value : rows.get(0)) {
+				if (value instanceof String)
+					concatenation.append((String) value);
+				else if (!(value instanceof Matrix) || !((Matrix) value).isEmpty())
+					throw new UnsupportedOperationException("Numbers and text cannot be concatenated");
+			}
+			
+			return concatenation.toString();
+		}
+		
+		Grid result = null;
+		
+		for (List<Object> row : rows) {
+			Grid rowResult = null;
+			
+			for (Object value : row) {
+				Grid grid = toGrid(value);
+				
+				if (cells && !(grid instanceof Cell) && !grid.isEmpty())
+					throw new IllegalArgumentException("Cell arrays can only be concatenated with cell arrays");
+				
+				rowResult = (rowResult == null ? grid : rowResult.concatenate(grid, true));
+			}
+			
+			if (rowResult != null)
+				result = (result == null ? rowResult : result.concatenate(rowResult, false));
+		}
+		
+		if (result == null || (cells && !(result instanceof Cell)))
+			return (cells ? new Cell(0, 0, new Object[0]) : Matrix.EMPTY);
+		
+		return result;
+	}
+	
+	/**
+	 * Call a function.
+	 * 
+	 * @param name The name of the function.
+	 * @param arguments The arguments.
+	 * @return The value (null for functions without output).
+	 */
+	private Object call(String name, List<Object> arguments) {
+		if (name.equals("sdpvar") || name.equals("binvar") || name.equals("intvar"))
+			return declare(name.equals("sdpvar") ? MILPVariableType.SDPVAR : (name.equals("binvar") ? MILPVariableType.BINVAR : MILPVariableType.INTVAR), arguments);
+		
+		if (name.equals("yalmip")) {
+			if (!arguments.isEmpty() && "clear".equals(arguments.get(0))) {
+				variableTypes.clear();
+				values = new double[0];
+			}
+			
+			return null;
+		}
+		
+		if (name.equals("clc") || name.equals("close") || name.equals("format") || name.equals("warning") || name.equals("more") || name.equals("assign"))
+			return null;
+		
+		if (name.equals("clear")) {
+			ArrayList<String> names = new ArrayList<String>();
+			
+			for (Object argument : arguments)
+				names.add((String) argument);
+			
+			command(name, names);
+			
+			return null;
+		}
+		
+		if (name.equals("binary") || name.equals("integer")) {
+			Matrix matrix = toMatrix(argument(arguments, 0));
+			
+			for (int i = 0; i < matrix.size(); i++) {
+				if (!(matrix.get(i) instanceof Variable))
+					throw new UnsupportedOperationException(name + "() can only be applied to decision variables");
+				
+				int index = ((Variable) matrix.get(i)).getIndex();
+				
+				if (name.equals("binary") || variableTypes.get(index) == MILPVariableType.SDPVAR)
+					variableTypes.set(index, name.equals("binary") ? MILPVariableType.BINVAR : MILPVariableType.INTVAR);
+			}
+			
+			return new ConstraintList();
+		}
+		
+		if (name.equals("true") || name.equals("false"))
+			return Matrix.scalar(name.equals("true") ? 1 : 0);
+		
+		if (name.equals("pi"))
+			return Matrix.scalar(Math.PI);
+		
+		if (name.equals("Inf") || name.equals("inf"))
+			return Matrix.scalar(Double.POSITIVE_INFINITY);
+		
+		if (name.equals("NaN") || name.equals("nan"))
+			return Matrix.scalar(Double.NaN);
+		
+		if (name.equals("sum"))
+			return sum(toMatrix(argument(arguments, 0)), arguments.size() > 1 ? (int) toMatrix(arguments.get(1)).scalarNumber() : 0);
+		
+		if (name.equals("max") || name.equals("min"))
+			return extremum(arguments, name.equals("max"));
+		
+		if (name.equals("value") || name.equals("double"))
+			return value(argument(arguments, 0));
+		
+		if (name.equals("round") || name.equals("floor") || name.equals("ceil") || name.equals("abs"))
+			return numeric(name, toMatrix(argument(arguments, 0)));
+		
+		if (name.equals("find"))
+			return find(toMatrix(argument(arguments, 0)), arguments.size() > 1 ? (int) toMatrix(arguments.get(1)).scalarNumber() : Integer.MAX_VALUE);
+		
+		if (name.equals("implies"))
+			return implies(argument(arguments, 0), argument(arguments, 1));
+		
+		if (name.equals("iff")) {
+			Matrix forward = implies(argument(arguments, 0), argument(arguments, 1));
+			Matrix backward = implies(argument(arguments, 1), argument(arguments, 0));
+			Expression[] elements = new Expression[forward.size()];
+			
+			for (int i = 0; i < elements.length; i++)
+				elements[i] = Expression.junction(new Expression[] { forward.get(i), backward.get(i) }, true);
+			
+			return new Matrix(forward.rows, forward.columns, elements);
+		}
+		
+		if (name.equals("exclude"))
+			return exclude(toMatrix(argument(arguments, 0)), toMatrix(argument(arguments, 1)));
+		
+		if (name.equals("optimize") || name.equals("solvesdp"))
+			return optimize(argument(arguments, 0), arguments.size() > 1 ? toMatrix(arguments.get(1)) : Matrix.EMPTY);
+		
+		if (name.equals("sdpsettings")) {
+			LinkedHashMap<String,Object> settings = new LinkedHashMap<String,Object>();
+			
+			for (int i = 0; i + 1 < arguments.size(); i += 2)
+				settings.put(String.valueOf(arguments.get(i)), arguments.get(i + 1));
+			
+			return settings;
+		}
+		
+		if (name.equals("sprintf"))
+			return format(text(argument(arguments, 0)), arguments.subList(1, arguments.size()));
+		
+		if (name.equals("fprintf")) {
+			int fileID = 1;
+			int first = 0;
+			
+			if (arguments.size() > 1 && arguments.get(0) instanceof Matrix) {
+				fileID = (int) toMatrix(arguments.get(0)).scalarNumber();
+				first = 1;
+			}
+			
+			write(fileID, format(text(argument(arguments, first)), arguments.subList(first + 1, arguments.size())));
+			
+			return null;
+		}
+		
+		if (name.equals("disp")) {
+			write(1, display(argument(arguments, 0)) + "\n");
+			
+			return null;
+		}
+		
+		if (name.equals("fopen"))
+			return Matrix.scalar(open(text(argument(arguments, 0)), arguments.size() > 1 ? text(arguments.get(1)) : "r"));
+		
+		if (name.equals("fclose")) {
+			if ("all".equals(argument(arguments, 0)))
+				closeFiles();
+			else
+				close((int) toMatrix(argument(arguments, 0)).scalarNumber());
+			
+			return Matrix.scalar(0);
+		}
+		
+		if (name.equals("strcat")) {
+			StringBuilder concatenation = new StringBuilder();
+			
+			// Trailing whitespace of character arrays is removed
+			for (Object argument : arguments)
+				concatenation.append(text(argument).replaceAll("\\s+$", ""));
+			
+			return concatenation.toString();
+		}
+		
+		if (name.equals("num2str") || name.equals("int2str")) {
+			Object argument = argument(arguments, 0);
+			
+			if (argument instanceof String)
+				return argument;
+			
+			double number = toMatrix(argument).scalarNumber();
+			
+			if (name.equals("int2str"))
+				number = Math.rint(number);
+			
+			return format(number);
+		}
+		
+		if (name.equals("length") || name.equals("numel") || name.equals("isempty") || name.equals("size")) {
+			Object argument = argument(arguments, 0);
+			int rows = (argument instanceof String ? 1 : toGrid(argument).rows);
+			int columns = (argument instanceof String ? ((String) argument).length() : toGrid(argument).columns);
+			
+			if (argument instanceof ConstraintList)
+				columns = ((ConstraintList) argument).size();
+			
+			if (name.equals("length"))
+				return Matrix.scalar(rows == 0 || columns == 0 ? 0 : Math.max(rows, columns));
+			
+			if (name.equals("numel"))
+				return Matrix.scalar(rows * columns);
+			
+			if (name.equals("isempty"))
+				return Matrix.scalar(rows * columns == 0 ? 1 : 0);
+			
+			if (arguments.size() > 1)
+				return Matrix.scalar(toMatrix(arguments.get(1)).scalarNumber() == 1 ? rows : columns);
+			
+			return new Matrix(1, 2, new Expression[] { Expression.constant(rows), Expression.constant(columns) });
+		}
+		
+		if (name.equals("zeros") || name.equals("ones")) {
+			int rows = (arguments.isEmpty() ? 1 : (int) toMatrix(arguments.get(0)).scalarNumber());
+			int columns = (arguments.size() > 1 ? (int) toMatrix(arguments.get(1)).scalarNumber() : rows);
+			Expression[] elements = new Expression[rows * columns];
+			
+			Arrays.fill(elements, name.equals("zeros") ? Expression.ZERO : Expression.ONE);
+			
+			return new Matrix(rows, columns, elements);
+		}
+		
+		if (name.equals("any") || name.equals("all")) {
+			Matrix matrix = toMatrix(argument(arguments, 0));
+			boolean any = false;
+			boolean all = true;
+			
+			for (int i = 0; i < matrix.size(); i++) {
+				any |= (matrix.number(i) != 0);
+				all &= (matrix.number(i) != 0);
+			}
+			
+			return Matrix.scalar((name.equals("any") ? any : all) ? 1 : 0);
+		}
+		
+		throw new UnsupportedOperationException("Undefined variable or unsupported function: " + name);
+	}
+	
+	/**
+	 * @param arguments The arguments of a function.
+	 * @param index The index of an argument.
+	 * @return the argument
+	 */
+	private static Object argument(List<Object> arguments, int index) {
+		if (index >= arguments.size())
+			throw new IllegalArgumentException("Not enough input arguments");
+		
+		return arguments.get(index);
+	}
+	
+	/**
+	 * Declare decision variables: a square matrix is symmetric (as in YALMIP), unless
+	 * 'full' is given.
+	 * 
+	 * @param type The type of the variables.
+	 * @param arguments The dimensions and options.
+	 * @return The matrix of variables.
+	 */
+	private Matrix declare(MILPVariableType type, List<Object> arguments) {
+		ArrayList<Integer> dimensions = new ArrayList<Integer>();
+		boolean full = false;
+		
+		for (Object argument : arguments) {
+			if (argument instanceof String)
+				full |= argument.equals("full");
+			else
+				dimensions.add((int) toMatrix(argument).scalarNumber());
+		}
+		
+		int rows = (dimensions.isEmpty() ? 1 : dimensions.get(0));
+		int columns = (dimensions.size() > 1 ? dimensions.get(1) : rows);
+		boolean symmetric = (rows == columns && !full);
+		Expression[] elements = new Expression[rows * columns];
+		
+		for (int j = 0; j < columns; j++) {
+			for (int i = 0; i < rows; i++) {
+				// For symmetric matrices, the upper triangle refers to the lower triangle
+				if (symmetric && i < j)
+					elements[j * rows + i] = elements[i * rows + j];
+				else {
+					Variable variable = new Variable(variableTypes.size());
+					
+					variableTypes.add(type);
+					elements[j * rows + i] = variable;
+				}
+			}
+		}
+		
+		int previous = values.length;
+		
+		values = Arrays.copyOf(values, variableTypes.size());
+		Arrays.fill(values, previous, values.length, Double.NaN);
+		
+		return new Matrix(rows, columns, elements);
+	}
+	
+	/**
+	 * @param matrix A matrix.
+	 * @param dimension The dimension to sum along (0 for Matlab's default).
+	 * @return the sums
+	 */
+	private static Matrix sum(Matrix matrix, int dimension) {
+		if (dimension == 0) {
+			if (matrix.isEmpty())
+				return Matrix.scalar(0);
+			
+			dimension = (matrix.rows == 1 ? 2 : 1);
+		}
+		
+		int count = (dimension == 1 ? matrix.columns : matrix.rows);
+		int length = (dimension == 1 ? matrix.rows : matrix.columns);
+		Expression[] elements = new Expression[count];
+		
+		for (int k = 0; k < count; k++) {
+			Expression[] terms = new Expression[length];
+			double[] factors = new double[length];
+			
+			for (int l = 0; l < length; l++) {
+				terms[l] = (dimension == 1 ? matrix.get(k * matrix.rows + l) : matrix.get(l * matrix.rows + k));
+				factors[l] = 1;
+			}
+			
+			elements[k] = Expression.sum(terms, factors);
+		}
+		
+		return (dimension == 1 ? new Matrix(1, count, elements) : new Matrix(count, 1, elements));
+	}
+	
+	/**
+	 * max / min of a vector, of the columns of a matrix, or of two matrices
+	 * (elementwise).
+	 * 
+	 * @param arguments The arguments.
+	 * @param maximum Whether this is max (or min).
+	 * @return The result.
+	 */
+	private static Matrix extremum(List<Object> arguments, boolean maximum) {
+		Matrix first = toMatrix(argument(arguments, 0));
+		
+		if (arguments.size() > 1 && !toMatrix(arguments.get(1)).isEmpty()) {
+			Matrix second = toMatrix(arguments.get(1));
+			Matrix shape = (first.isScalar() ? second : first);
+			Expression[] elements = new Expression[shape.size()];
+			
+			for (int i = 0; i < elements.length; i++)
+				elements[i] = Expression.extremum(new Expression[] { first.get(first.isScalar() ? 0 : i), second.get(second.isScalar() ? 0 : i) }, maximum);
+			
+			return new Matrix(shape.rows, shape.columns, elements);
+		}
+		
+		if (first.isEmpty())
+			return Matrix.EMPTY;
+		
+		if (first.rows == 1 || first.columns == 1)
+			return Matrix.scalar(Expression.extremum(first.elements(), maximum));
+		
+		Expression[] elements = new Expression[first.columns];
+		
+		for (int j = 0; j < first.columns; j++)
+			elements[j] = Expression.extremum(Arrays.copyOfRange(first.elements(), j * first.rows, (j + 1) * first.rows), maximum);
+		
+		return new Matrix(1, first.columns, elements);
+	}
+	
+	/**
+	 * @param argument A matrix.
+	 * @return the current numeric values of its elements
+	 */
+	private Matrix value(Object argument) {
+		Matrix matrix = toMatrix(argument);
+		Expression[] elements = new Expression[matrix.size()];
+		
+		for (int i = 0; i < elements.length; i++)
+			elements[i] = Expression.constant(matrix.get(i).evaluate(values));
+		
+		return new Matrix(matrix.rows, matrix.columns, elements);
+	}
+	
+	/**
+	 * @param function round, floor, ceil or abs.
+	 * @param matrix A numeric matrix.
+	 * @return the function applied to the elements
+	 */
+	private static Matrix numeric(String function, Matrix matrix) {
+		Expression[] elements = new Expression[matrix.size()];
+		
+		for (int i = 0; i < elements.length; i++) {
+			double number = matrix.number(i);
+			
+			if (function.equals("round"))
+				number = (number < 0 ? -Math.floor(-number + 0.5) : Math.floor(number + 0.5));
+			else if (function.equals("floor"))
+				number = Math.floor(number);
+			else if (function.equals("ceil"))
+				number = Math.ceil(number);
+			else
+				number = Math.abs(number);
+			
+			elements[i] = Expression.constant(number);
+		}
+		
+		return new Matrix(matrix.rows, matrix.columns, elements);
+	}
+	
+	/**
+	 * @param matrix A numeric matrix.
+	 * @param limit The maximum number of indices.
+	 * @return the (1-based, linear) indices of the non-zero elements
+	 */
+	private static Matrix find(Matrix matrix, int limit) {
+		ArrayList<Expression> indices = new ArrayList<Expression>();
+		
+		for (int i = 0; i < matrix.size() && indices.size() < limit; i++)
+			if (matrix.number(i) != 0)
+				indices.add(Expression.constant(i + 1));
+		
+		Expression[] elements = indices.toArray(new Expression[indices.size()]);
+		
+		return (matrix.rows == 1 ? new Matrix(1, elements.length, elements) : new Matrix(elements.length, 1, elements));
+	}
+	
+	/**
+	 * @param premise The premise (a matrix).
+	 * @param conclusion The conclusion (a matrix, or a constraint list).
+	 * @return implies(premise, conclusion), elementwise if both have the same size
+	 */
+	private static Matrix implies(Object premise, Object conclusion) {
+		Matrix premises = toMatrix(premise);
+		Matrix conclusions = (conclusion instanceof ConstraintList ? ((ConstraintList) conclusion).toMatrix() : toMatrix(conclusion));
+		
+		if (premises.size() == conclusions.size()) {
+			Expression[] elements = new Expression[premises.size()];
+			
+			for (int i = 0; i < elements.length; i++)
+				elements[i] = Expression.implies(premises.get(i), conclusions.get(i));
+			
+			return new Matrix(premises.rows, premises.columns, elements);
+		}
+		
+		if (premises.isScalar())
+			return Matrix.scalar(Expression.implies(premises.get(0), Expression.junction(conclusions.elements(), true)));
+		
+		throw new IllegalArgumentException("implies() requires arguments of the same size, or a scalar premise");
+	}
+	
+	/**
+	 * @param variables Binary decision variables.
+	 * @param excluded Values of the variables.
+	 * @return a constraint that excludes this combination of values
+	 */
+	private static ConstraintList exclude(Matrix variables, Matrix excluded) {
+		ConstraintList list = new ConstraintList();
+		
+		if (variables.isEmpty())
+			return list;
+		
+		if (variables.size() != excluded.size())
+			throw new IllegalArgumentException("exclude() requires arguments of the same size");
+		
+		Expression[] terms = new Expression[variables.size()];
+		double[] factors = new double[variables.size()];
+		
+		// At least one variable must differ from its excluded value
+		for (int i = 0; i < terms.length; i++) {
+			boolean set = (excluded.number(i) != 0);
+			
+			terms[i] = (set ? Expression.subtract(Expression.ONE, variables.get(i)) : variables.get(i));
+			factors[i] = 1;
+		}
+		
+		list.add(Expression.compare(Expression.sum(terms, factors), ">=", Expression.ONE));
+		
+		return list;
+	}
+	
+	/**
+	 * Solve a MILP, and set the values of the decision variables to its solution.
+	 * 
+	 * @param constraints The constraints.
+	 * @param objective The objective to minimize (empty for none).
+	 * @return The result (a structure with the fields problem, info and solvertime).
+	 */
+	private Map<String,Object> optimize(Object constraints, Matrix objective) {
+		long start = System.nanoTime();
+		List<Expression> list;
+		
+		if (constraints instanceof ConstraintList)
+			list = ((ConstraintList) constraints).constraints;
+		else
+			list = Arrays.asList(toMatrix(constraints).elements());
+		
+		if (objective.size() > 1)
+			throw new IllegalArgumentException("The objective must be a scalar");
+		
+		MILPSolver solver = new MILPSolver();
+		Linearizer linearizer = new Linearizer(solver, variableTypes);
+		int status;
+		
+		linearizer.deriveBounds(list);
+		
+		for (Expression constraint : list)
+			linearizer.enforce(constraint);
+		
+		if (!objective.isEmpty())
+			linearizer.setObjective(objective.get(0));
+		
+		if (linearizer.isTriviallyInfeasible())
+			status = MILPSolver.INFEASIBLE;
+		else
+			status = solver.solve();
+		
+		if (status == MILPSolver.INFEASIBLE)
+			Arrays.fill(values, Double.NaN);
+		else
+			linearizer.readSolution(values);
+		
+		LinkedHashMap<String,Object> result = new LinkedHashMap<String,Object>();
+		
+		result.put("problem", Matrix.scalar(status));
+		result.put("info", STATUS_MESSAGES[status]);
+		result.put("solvertime", Matrix.scalar((System.nanoTime() - start) / 1e9));
+		
+		return result;
+	}
+	
+	/**
+	 * Format data like Matlab's sprintf: the format is reused while data remains, and
+	 * output stops at the first conversion without data. Integer conversions of
+	 * non-integral numbers use %e.
+	 * 
+	 * @param format The format.
+	 * @param arguments The data.
+	 * @return The formatted text.
+	 */
+	private static String format(String format, List<Object> arguments) {
+		ArrayList<Object> data = new ArrayList<Object>();
+		
+		for (Object argument : arguments) {
+			if (argument instanceof String)
+				data.add(argument);
+			else {
+				Matrix matrix = toMatrix(argument);
+				
+				for (int i = 0; i < matrix.size(); i++)
+					data.add(matrix.number(i));
+			}
+		}
+		
+		StringBuilder result = new StringBuilder();
+		Matcher matcher = FORMAT_SPECIFICATION.matcher(format.replace("%%", "\u0000"));
+		String escaped = format.replace("%%", "\u0000");
+		int next = 0;
+		boolean hasConversions = matcher.find();
+		
+		do {
+			int position = 0;
+			
+			matcher.reset();
+			
+			while (matcher.find()) {
+				result.append(unescape(escaped.substring(position, matcher.start())));
+				position = matcher.end();
+				
+				if (next >= data.size())
+					return result.toString();
+				
+				result.append(convert(matcher.group(1), matcher.group(2), matcher.group(3), matcher.group(4).charAt(0), data.get(next++)));
+			}
+			
+			result.append(unescape(escaped.substring(position)));
+		}
+		while (hasConversions && next > 0 && next < data.size());
+		
+		return result.toString();
+	}
+	
+	/**
+	 * @param text Literal text of a format.
+	 * @return the text with escape sequences (and %%) replaced
+	 */
+	private static String unescape(String text) {
+		return text.replace("\\\\", "\u0001").replace("\\n", "\n").replace("\\r", "\r").replace("\\t", "\t")
+				.replace("\u0001", "\\").replace("\u0000", "%");
+	}
+	
+	/**
+	 * Format a single datum.
+	 * 
+	 * @param flags The flags.
+	 * @param width The field width (null if none).
+	 * @param precision The precision (null if none).
+	 * @param conversion The conversion character.
+	 * @param datum The datum (a String or a Double).
+	 * @return The formatted datum.
+	 */
+	private static String convert(String flags, String width, String precision, char conversion, Object datum) {
+		int fieldWidth = (width == null ? 0 : Integer.parseInt(width));
+		
+		if (datum instanceof String)
+			return pad((String) datum, flags.replace("0", ""), fieldWidth);
+		
+		double number = (Double) datum;
+		boolean integral = (number == Math.rint(number) && !Double.isInfinite(number));
+		
+		if (Double.isNaN(number) || Double.isInfinite(number))
+			return pad(Double.isNaN(number) ? "NaN" : (number > 0 ? (flags.contains("+") ? "+Inf" : "Inf") : "-Inf"), flags.replace("0", ""), fieldWidth);
+		
+		if ((conversion == 's' || conversion == 'c') && integral)
+			return pad(String.valueOf((char) number), flags.replace("0", ""), fieldWidth);
+		
+		if ("diuoxXsc".indexOf(conversion) >= 0 && !integral) {
+			conversion = 'e';
+			flags = flags.replace("#", "");
+		}
+		
+		String body;
+		String signFlags = flags.replace("-", "").replace("0", "");
+		
+		if (signFlags.contains("+"))
+			signFlags = signFlags.replace(" ", "");
+		
+		switch (conversion) {
+			case 'o':
+				body = Long.toOctalString((long) number);
+				break;
+			case 'x':
+				body = Long.toHexString((long) number);
+				break;
+			case 'X':
+				body = Long.toHexString((long) number).toUpperCase(Locale.ROOT);
+				break;
+			case 'g':
+			case 'G':
+				body = general(number, signFlags, precision == null ? 6 : Integer.parseInt(precision), conversion == 'G');
+				break;
+			case 'f':
+			case 'e':
+			case 'E':
+				body = String.format(Locale.ROOT, "%" + signFlags + (precision == null ? "" : "." + precision) + conversion, number);
+				break;
+			default:
+				body = String.format(Locale.ROOT, "%" + signFlags.replace("#", "") + "d", (long) number);
+				break;
+		}
+		
+		return pad(body, flags, fieldWidth);
+	}
+	
+	/**
+	 * Format a number like C's %g: %e or %f (depending on the exponent), without
+	 * trailing zeros unless the flags contain #.
+	 * 
+	 * @param number The number.
+	 * @param flags The flags (other than - and 0).
+	 * @param precision The number of significant digits.
+	 * @param upperCase Whether to use an upper case exponent.
+	 * @return The formatted number.
+	 */
+	private static String general(double number, String flags, int precision, boolean upperCase) {
+		int digits = Math.max(precision, 1);
+		String scientific = String.format(Locale.ROOT, "%." + (digits - 1) + "e", number);
+		int exponent = (number == 0 ? 0 : Integer.parseInt(scientific.substring(scientific.indexOf('e') + 1)));
+		String body;
+		
+		if (exponent < -4 || exponent >= digits) {
+			body = String.format(Locale.ROOT, "%" + flags + "." + (digits - 1) + "e", number);
+			
+			if (!flags.contains("#")) {
+				int e = body.indexOf('e');
+				
+				body = stripZeros(body.substring(0, e)) + body.substring(e);
+			}
+		}
+		else {
+			body = String.format(Locale.ROOT, "%" + flags + "." + (digits - 1 - exponent) + "f", number);
+			
+			if (!flags.contains("#"))
+				body = stripZeros(body);
+		}
+		
+		return (upperCase ? body.toUpperCase(Locale.ROOT) : body);
+	}
+	
+	/**
+	 * @param number A formatted number (without exponent).
+	 * @return the number without trailing zeros after the decimal point
+	 */
+	private static String stripZeros(String number) {
+		if (number.indexOf('.') < 0)
+			return number;
+		
+		return number.replaceAll("0+$", "").replaceAll("\\.$", "");
+	}
+	
+	/**
+	 * @param text Formatted text.
+	 * @param flags The flags (- aligns left, 0 pads numbers with zeros).
+	 * @param width The field width.
+	 * @return the text, padded to the field width
+	 */
+	private static String pad(String text, String flags, int width) {
+		StringBuilder padding = new StringBuilder();
+		boolean zeros = flags.contains("0") && !flags.contains("-");
+		
+		for (int i = text.length(); i < width; i++)
+			padding.append(zeros ? '0' : ' ');
+		
+		if (flags.contains("-"))
+			return text + padding;
+		
+		// Zeros go after the sign
+		if (zeros && text.length() > 0 && "+- ".indexOf(text.charAt(0)) >= 0)
+			return text.charAt(0) + padding.toString() + text.substring(1);
+		
+		return padding + text;
+	}
+	
+	/**
+	 * Format a number like Matlab's num2str (integers in full, other numbers with at
+	 * least 5 significant digits).
+	 * 
+	 * @param number The number.
+	 * @return The formatted number.
+	 */
+	private static String format(double number) {
+		if (number == Math.rint(number) && !Double.isInfinite(number))
+			return String.valueOf((long) number);
+		
+		if (Double.isNaN(number) || Double.isInfinite(number))
+			return (Double.isNaN(number) ? "NaN" : (number > 0 ? "Inf" : "-Inf"));
+		
+		return general(number, "", Math.max((int) Math.ceil(Math.log10(Math.abs(number))), 1) + 4, false);
+	}
+	
+	/**
+	 * @param value A value.
+	 * @return the text displayed by disp
+	 */
+	private String display(Object value) {
+		if (value instanceof String)
+			return (String) value;
+		
+		if (value instanceof Matrix) {
+			Matrix matrix = (Matrix) value;
+			StringBuilder text = new StringBuilder();
+			
+			for (int i = 0; i < matrix.rows; i++) {
+				if (i > 0)
+					text.append("\n");
+				
+				for (int j = 0; j < matrix.columns; j++) {
+					Expression element = matrix.get(j * matrix.rows + i);
+					
+					text.append(j > 0 ? "    " : "");
+					text.append(element.isConstant() ? format(element.evaluate(null)) : "(expression)");
+				}
+			}
+			
+			return text.toString();
+		}
+		
+		return String.valueOf(value);
+	}
+	
+	/**
+	 * Open a file for writing.
+	 * 
+	 * @param name The name of the file.
+	 * @param mode The mode ('w' or 'a', possibly followed by 't').
+	 * @return The file ID, or -1 if the file could not be opened.
+	 */
+	private int open(String name, String mode) {
+		if (!mode.startsWith("w") && !mode.startsWith("a"))
+			throw new UnsupportedOperationException("Files can only be opened for writing");
+		
+		try {
+			files.put(nextFileID, new BufferedWriter(new OutputStreamWriter(new FileOutputStream(name, mode.startsWith("a")), "UTF-8")));
+		}
+		catch (IOException e) {
+			return -1;
+		}
+		
+		return nextFileID++;
+	}
+	
+	/**
+	 * Write text to the console or to a file.
+	 * 
+	 * @param fileID The file ID (1 for the console, 2 for standard error).
+	 * @param text The text.
+	 */
+	private void write(int fileID, String text) {
+		if (fileID == 1) {
+			console.print(text);
+			
+			return;
+		}
+		
+		if (fileID == 2) {
+			System.err.print(text);
+			
+			return;
+		}
+		
+		Writer writer = files.get(fileID);
+		
+		if (writer == null)
+			throw new IllegalArgumentException("Invalid file identifier " + fileID);
+		
+		try {
+			writer.write(text);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not write to file " + fileID, e);
+		}
+	}
+	
+	/**
+	 * @param fileID The ID of a file to close.
+	 */
+	private void close(int fileID) {
+		Writer writer = files.remove(fileID);
+		
+		if (writer == null)
+			throw new IllegalArgumentException("Invalid file identifier " + fileID);
+		
+		try {
+			writer.close();
+		}
+		catch (IOException e) {
+			throw new IllegalStateException("Could not close file " + fileID, e);
+		}
+	}
+	
+	/**
+	 * Close all open files.
+	 */
+	private void closeFiles() {
+		while (!files.isEmpty())
+			close(files.firstKey());
+	}
+	
+	/**
+	 * @param value A value.
+	 * @return whether the value is true (non-empty, and all elements non-zero)
+	 */
+	private static boolean isTrue(Object value) {
+		if (value instanceof String)
+			return ((String) value).length() > 0;
+		
+		Matrix matrix = toMatrix(value);
+		
+		for (int i = 0; i < matrix.size(); i++)
+			if (matrix.number(i) == 0)
+				return false;
+		
+		return !matrix.isEmpty();
+	}
+	
+	/**
+	 * @param value A value.
+	 * @return the value as text
+	 */
+	private static String text(Object value) {
+		if (!(value instanceof String))
+			throw new IllegalArgumentException("Expected text");
+		
+		return (String) value;
+	}
+	
+	/**
+	 * @param value A value.
+	 * @return the value as matrix
+	 */
+	private static Matrix toMatrix(Object value) {
+		if (value instanceof Matrix)
+			return (Matrix) value;
+		
+		if (value instanceof ConstraintList)
+			return ((ConstraintList) value).toMatrix();
+		
+		throw new IllegalArgumentException("Expected a matrix" + (value == null ? " (the function has no output)" : ""));
+	}
+	
+	/**
+	 * @param value A value.
+	 * @return the value as matrix or cell array
+	 */
+	private static Grid toGrid(Object value) {
+		if (value instanceof Cell)
+			return (Cell) value;
+		
+		return toMatrix(value);
+	}
+	
+	/**
+	 * Elements selected by an index.
+	 */
+	private static class Selection {
+		
+		/** The (0-based, linear) indices of the elements. */
+		int[] indices;
+		
+		/** The number of rows of the result. */
+		int rows;
+		
+		/** The number of columns of the result. */
+		int columns;
+		
+	}
+	
+	/**
+	 * A two-dimensional array, stored column by column.
+	 */
+	public abstract static class Grid {
+		
+		/** The number of rows. */
+		final int rows;
+		
+		/** The number of columns. */
+		final int columns;
+		
+		/** The elements. */
+		final Object[] elements;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param rows The number of rows.
+		 * @param columns The number of columns.
+		 * @param elements The elements.
+		 */
+		Grid(int rows, int columns, Object[] elements) {
+			this.rows = rows;
+			this.columns = columns;
+			this.elements = elements;
+		}
+		
+		/**
+		 * @param rows The number of rows.
+		 * @param columns The number of columns.
+		 * @param elements The elements.
+		 * @return a new array of the same kind
+		 */
+		abstract Grid create(int rows, int columns, Object[] elements);
+		
+		/**
+		 * @return the number of elements
+		 */
+		public int size() {
+			return elements.length;
+		}
+		
+		/**
+		 * @return whether the array is empty
+		 */
+		public boolean isEmpty() {
+			return elements.length == 0;
+		}
+		
+		/**
+		 * @return the number of rows
+		 */
+		public int getRows() {
+			return rows;
+		}
+		
+		/**
+		 * @return the number of columns
+		 */
+		public int getColumns() {
+			return columns;
+		}
+		
+		/**
+		 * Concatenate two arrays. Empty arrays are ignored.
+		 * 
+		 * @param other The other array.
+		 * @param horizontally Whether to concatenate horizontally (or vertically).
+		 * @return The concatenation.
+		 */
+		Grid concatenate(Grid other, boolean horizontally) {
+			if (other.isEmpty() && (other.rows == 0 || other.columns == 0))
+				return this;
+			
+			if (isEmpty() && (rows == 0 || columns == 0))
+				return other;
+			
+			if (horizontally) {
+				if (rows != other.rows)
+					throw new IllegalArgumentException("Dimensions of arrays being concatenated are not consistent");
+				
+				// Column by column storage: the columns of the other array follow
+				Object[] result = Arrays.copyOf(elements, elements.length + other.elements.length);
+				
+				System.arraycopy(other.elements, 0, result, elements.length, other.elements.length);
+				
+				return create(rows, columns + other.columns, result);
+			}
+			
+			if (columns != other.columns)
+				throw new IllegalArgumentException("Dimensions of arrays being concatenated are not consistent");
+			
+			Object[] result = new Object[elements.length + other.elements.length];
+			
+			for (int j = 0; j < columns; j++) {
+				System.arraycopy(elements, j * rows, result, j * (rows + other.rows), rows);
+				System.arraycopy(other.elements, j * other.rows, result, j * (rows + other.rows) + rows, other.rows);
+			}
+			
+			return create(rows + other.rows, columns, result);
+		}
+		
+	}
+	
+	/**
+	 * A matrix of expressions (numbers are constant expressions).
+	 */
+	public static class Matrix extends Grid {
+		
+		/** The empty matrix []. */
+		static final Matrix EMPTY = new Matrix(0, 0, new Expression[0]);
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param rows The number of rows.
+		 * @param columns The number of columns.
+		 * @param elements The elements (expressions).
+		 */
+		Matrix(int rows, int columns, Object[] elements) {
+			super(rows, columns, elements);
+		}
+		
+		/**
+		 * @param number A number.
+		 * @return a 1x1 matrix
+		 */
+		static Matrix scalar(double number) {
+			return scalar(Expression.constant(number));
+		}
+		
+		/**
+		 * @param expression An expression.
+		 * @return a 1x1 matrix
+		 */
+		static Matrix scalar(Expression expression) {
+			return new Matrix(1, 1, new Expression[] { expression });
+		}
+		
+		@Override
+		Grid create(int rows, int columns, Object[] elements) {
+			return new Matrix(rows, columns, elements);
+		}
+		
+		/**
+		 * @return whether the matrix is 1x1
+		 */
+		public boolean isScalar() {
+			return elements.length == 1;
+		}
+		
+		/**
+		 * @param index A (0-based, linear) index.
+		 * @return the element
+		 */
+		public Expression get(int index) {
+			return (Expression) elements[index];
+		}
+		
+		/**
+		 * @return the elements
+		 */
+		Expression[] elements() {
+			Expression[] result = new Expression[elements.length];
+			
+			System.arraycopy(elements, 0, result, 0, elements.length);
+			
+			return result;
+		}
+		
+		/**
+		 * @param index A (0-based, linear) index.
+		 * @return the element, which must be a number
+		 */
+		double number(int index) {
+			if (!get(index).isConstant())
+				throw new IllegalArgumentException("Expected a number, not an expression of decision variables (use value())");
+			
+			return get(index).evaluate(null);
+		}
+		
+		/**
+		 * @return the only element, which must be a number
+		 */
+		double scalarNumber() {
+			if (!isScalar())
+				throw new IllegalArgumentException("Expected a scalar");
+			
+			return number(0);
+		}
+		
+	}
+	
+	/**
+	 * A cell array.
+	 */
+	public static class Cell extends Grid {
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param rows The number of rows.
+		 * @param columns The number of columns.
+		 * @param elements The elements.
+		 */
+		Cell(int rows, int columns, Object[] elements) {
+			super(rows, columns, elements);
+		}
+		
+		@Override
+		Grid create(int rows, int columns, Object[] elements) {
+			return new Cell(rows, columns, elements);
+		}
+		
+		/**
+		 * @param index A (0-based, linear) index.
+		 * @return the element
+		 */
+		public Object get(int index) {
+			return elements[index];
+		}
+		
+	}
+	
+	/**
+	 * A list of constraints (YALMIP's constraint objects).
+	 */
+	public static class ConstraintList {
+		
+		/** The constraints. */
+		final ArrayList<Expression> constraints = new ArrayList<Expression>();
+		
+		/**
+		 * Add constraints.
+		 * 
+		 * @param value A constraint list, or a matrix of constraints.
+		 */
+		void add(Object value) {
+			if (value instanceof ConstraintList)
+				constraints.addAll(((ConstraintList) value).constraints);
+			else if (value instanceof Matrix)
+				constraints.addAll(Arrays.asList(((Matrix) value).elements()));
+			else if (value instanceof Expression)
+				constraints.add((Expression) value);
+			else
+				throw new IllegalArgumentException("Only constraints can be added to a list of constraints");
+		}
+		
+		/**
+		 * @return the number of constraints
+		 */
+		public int size() {
+			return constraints.size();
+		}
+		
+		/**
+		 * @return the constraints as a row vector
+		 */
+		Matrix toMatrix() {
+			return new Matrix(1, constraints.size(), constraints.toArray(new Expression[constraints.size()]));
+		}
+		
+	}
+	
+	/**
+	 * An error during execution, naming the line of the code.
+	 */
+	public static class ExecutionException extends RuntimeException {
+		
+		/** Serial version. */
+		private static final long serialVersionUID = 1L;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param line The line.
+		 * @param cause The error.
+		 */
+		ExecutionException(int line, RuntimeException cause) {
+			super("Line " + line + ": " + cause.getMessage(), cause);
+		}
+		
+	}
+
+}
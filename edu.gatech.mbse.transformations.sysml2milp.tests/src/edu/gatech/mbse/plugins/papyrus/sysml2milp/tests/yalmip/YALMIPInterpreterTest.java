@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Test case - {@link YALMIPInterpreter}: code in the form the transformation generates
+ * it (declarations, constraint lists, implications, the solution loop writing the
+ * results file), Matlab's number formatting, the throughput objective, and errors.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class YALMIPInterpreterTest {
+	
+	/** Tolerance on values. */
+	private static final double TOLERANCE = 1e-6;
+	
+	/** Directory for the results file. */
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	
+	@Test
+	public void solvesTheGeneratedSolutionLoop() throws IOException {
+		// One function with two working principles, each needing its own machine
+		String code = lines(
+				"yalmip('clear');",
+				"clear all;",
+				"clc;",
+				"",
+				"A = binvar(2, 2);\t\t% Allocation matrix",
+				"Constraints = [binary(A)];\t\t% Vector of linear constraints",
+				"IM = [];",
+				"ResourceTypeList = {};",
+				"I1M1 = binvar(1);",
+				"I1M2 = binvar(1);",
+				"IM1 = [I1M1];",
+				"IM = [IM, IM1];",
+				"IM2 = [I1M2];",
+				"IM = [IM, IM2];",
+				"M1_type = {'Lib::Drill'};",
+				"ResourceTypeList = [ResourceTypeList, M1_type];",
+				"IA1W1 = binvar(1);\t\t% Machining + Drilling",
+				"IA1W2 = binvar(1);\t\t% Machining + Milling",
+				"IA1W1_time = 4;",
+				"IA1W2_time = 2;",
+				"IA1 = [IA1W1, IA1W2];",
+				"IA1Names = {'Drilling'; 'Milling'};",
+				"Constraints = [Constraints, IA1W1 + IA1W2 == 1];\t\t% Exactly one working principle must be chosen",
+				"Constraints = [Constraints, implies(IA1W1, A(1,1) >= 1)];",
+				"Constraints = [Constraints, implies(IA1W2, A(2,2) >= 1)];",
+				"Constraints = [Constraints, sum(A(:,1)) == 1*IA1W1];",
+				"Constraints = [Constraints, sum(A(:,2)) == 1*IA1W2];",
+				"Constraints = [Constraints, implies(sum(A(1,:)) >= 1, I1M1)];",
+				"Constraints = [Constraints, implies(sum(A(2,:)) >= 1, I1M2)];",
+				"Constraints = [Constraints, implies(~I1M1, sum(A(1,:)) == 0)];",
+				"Duration = sdpvar(1);",
+				"Constraints = [Constraints, Duration >= max([IA1W1*IA1W1_time, IA1W2*IA1W2_time])];",
+				"Objective = 5*I1M1 + 3*I1M2 + Duration;",
+				"",
+				"counter = 2;\t\t% Number of solutions to generate",
+				"",
+				"while counter > 0",
+				"\tcounter = counter - 1;",
+				"\tsol = optimize(Constraints, Objective, sdpsettings('solver','cplex','debug','1'))",
+				"",
+				"\tif sol.problem ~= 0",
+				"\t\tbreak;",
+				"\tend",
+				"",
+				"\tdisp(sprintf('Call Behavior Action Machining (activity: Machine) -> %s', IA1Names{find(value(IA1), 1)}))",
+				"\tdisp(sprintf('Cost: %d', value(Objective)))",
+				"\thome = '" + folder.getRoot().getPath() + "';",
+				"\tfID = fopen(strcat(home, '/tmp_milp_results.txt'), 'w');",
+				"",
+				"\tfprintf(fID, 'Call Behavior Action Machining (activity = Machine) -> %s\\r\\n', IA1Names{find(value(IA1), 1)});",
+				"\tfprintf(fID, 'Cost = %d\\r\\n', value(Objective));",
+				"\tfclose(fID);",
+				"",
+				"\tConstraints = [Constraints, exclude(IM, round(value(IM)))];    % Exclude combination of values",
+				"end");
+		ByteArrayOutputStream console = new ByteArrayOutputStream();
+		YALMIPInterpreter interpreter = new YALMIPInterpreter();
+		
+		interpreter.setConsole(new PrintStream(console, true));
+		interpreter.execute(code);
+		
+		// Milling on the cheaper machine first, then the next best (different) allocation
+		assertEquals(lines(
+				"Call Behavior Action Machining (activity: Machine) -> Milling",
+				"Cost: 5",
+				"Call Behavior Action Machining (activity: Machine) -> Drilling",
+				"Cost: 9").replace("\r\n", "\n"), console.toString());
+		assertEquals(lines(
+				"Call Behavior Action Machining (activity = Machine) -> Drilling",
+				"Cost = 9"),
+				read(new File(folder.getRoot(), "tmp_milp_results.txt")));
+		assertEquals(0, ((YALMIPInterpreter.Matrix) interpreter.getVariable("counter")).get(0).evaluate(null), 0);
+	}
+	
+	@Test
+	public void maximizesTheThroughput() {
+		// Three jobs on two machines: the busiest machine takes 7 time units at best
+		YALMIPInterpreter interpreter = execute(
+				"A = binvar(2, 3);",
+				"J1_operationTime = 3;",
+				"J2_operationTime = 4;",
+				"J3_operationTime = 5;",
+				"Constraints = [binary(A), sum(A) == 1];",
+				"I1M1_busyTime = A(1,1)*J1_operationTime + A(1,2)*J2_operationTime + A(1,3)*J3_operationTime;",
+				"I2M1_busyTime = A(2,1)*J1_operationTime + A(2,2)*J2_operationTime + A(2,3)*J3_operationTime;",
+				"MaxBusyTime = max([I1M1_busyTime, I2M1_busyTime]);",
+				"TH = 1 / MaxBusyTime;",
+				"Objective = 1 / TH;",
+				"sol = optimize(Constraints, Objective, sdpsettings('solver','cplex'));",
+				"throughput = sprintf('%d', value(TH));");
+		
+		assertEquals("1.428571e-01", interpreter.getVariable("throughput"));
+		assertEquals(7, interpreter.getValue("MaxBusyTime")[0], TOLERANCE);
+	}
+	
+	@Test
+	public void formatsNumbersLikeMatlab() {
+		YALMIPInterpreter interpreter = execute(
+				"a = sprintf('%d', 0.0823045267);",
+				"b = sprintf('%d items', 3);",
+				"c = sprintf('%5.2f|%-4d|%g|%g', pi, 7, 0.0001, 1e-5);",
+				"d = sprintf('%d,', [1, 2, 3]);",
+				"e = sprintf('x = %d, y = %d', 1);",
+				"f = sprintf('%s: %d%%', 'done', 100);",
+				"g = sprintf('%d', NaN);");
+		
+		assertEquals("8.230453e-02", interpreter.getVariable("a"));
+		assertEquals("3 items", interpreter.getVariable("b"));
+		assertEquals(" 3.14|7   |0.0001|1e-05", interpreter.getVariable("c"));
+		assertEquals("1,2,3,", interpreter.getVariable("d"));
+		assertEquals("x = 1, y = ", interpreter.getVariable("e"));
+		assertEquals("done: 100%", interpreter.getVariable("f"));
+		assertEquals("NaN", interpreter.getVariable("g"));
+	}
+	
+	@Test
+	public void reifiesLogicalConstraints() {
+		// b may only be set if t >= 0.5; setting b pays off even though t has to grow
+		YALMIPInterpreter interpreter = execute(
+				"t = sdpvar(1);",
+				"b = binvar(1);",
+				"Constraints = [0 <= t <= 1, b == (b & (t >= 0.5))];",
+				"sol = optimize(Constraints, t - 0.8*b);",
+				"status = sol.problem;");
+		
+		assertEquals(0, interpreter.getValue("status")[0], 0);
+		assertEquals(1, interpreter.getValue("b")[0], 0);
+		assertEquals(0.5, interpreter.getValue("t")[0], TOLERANCE);
+	}
+	
+	@Test
+	public void multipliesBinaryAndBoundedVariables() {
+		YALMIPInterpreter interpreter = execute(
+				"z = sdpvar(1);",
+				"b = binvar(1);",
+				"Constraints = [2 <= z <= 3, implies(~b, z <= 2)];",
+				"sol = optimize(Constraints, 0.5*b - b*z);",
+				"product = value(b*z);");
+		
+		assertEquals(1, interpreter.getValue("b")[0], 0);
+		assertEquals(3, interpreter.getValue("product")[0], TOLERANCE);
+	}
+	
+	@Test
+	public void declaresSquareMatricesSymmetric() {
+		// As in YALMIP: binvar(2, 2) is symmetric, binvar(2, 2, 'full') is not
+		YALMIPInterpreter interpreter = execute(
+				"S = binvar(2, 2);",
+				"F = binvar(2, 2, 'full');",
+				"sol = optimize([S(1,2) == 1, F(1,2) == 1, F(2,1) == 0], sum(sum(S)) + sum(sum(F)));",
+				"s = value(S(2,1));",
+				"f = value(F(2,1));");
+		
+		assertEquals(1, interpreter.getValue("s")[0], 0);
+		assertEquals(0, interpreter.getValue("f")[0], 0);
+	}
+	
+	@Test
+	public void breaksOutOfTheLoopWhenInfeasible() {
+		YALMIPInterpreter interpreter = execute(
+				"x = intvar(1);",
+				"Constraints = [x >= 1, 2*x <= 3];",
+				"counter = 3;",
+				"while counter > 0",
+				"\tcounter = counter - 1;",
+				"\tsol = optimize(Constraints, x)",
+				"\tif sol.problem ~= 0",
+				"\t\tbreak;",
+				"\tend",
+				"\tConstraints = [Constraints, x >= value(x) + 1];",
+				"end");
+		
+		// x = 1 is the only solution, so the second iteration is infeasible
+		assertEquals(1, interpreter.getValue("counter")[0], 0);
+		assertEquals(1, ((YALMIPInterpreter.Matrix) ((Map<?,?>) interpreter.getVariable("sol")).get("problem")).get(0).evaluate(null), 0);
+	}
+	
+	@Test
+	public void namesTheLineOfAnError() {
+		try {
+			execute(
+					"x = binvar(1);",
+					"y = undefinedFunction(x);");
+			fail("Expected an error");
+		}
+		catch (YALMIPInterpreter.ExecutionException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Line 2: "));
+			assertTrue(e.getMessage(), e.getMessage().contains("undefinedFunction"));
+		}
+	}
+	
+	/**
+	 * Execute code.
+	 * 
+	 * @param lines The lines of the code.
+	 * @return The interpreter (holding the workspace).
+	 */
+	private static YALMIPInterpreter execute(String... lines) {
+		YALMIPInterpreter interpreter = new YALMIPInterpreter();
+		
+		interpreter.execute(lines(lines));
+		
+		return interpreter;
+	}
+	
+	/**
+	 * @param file A file.
+	 * @return the contents of the file
+	 * @throws IOException If the file cannot be read.
+	 */
+	private static String read(File file) throws IOException {
+		Reader reader = new InputStreamReader(new FileInputStream(file), "UTF-8");
+		StringBuilder contents = new StringBuilder();
+		char[] buffer = new char[4096];
+		int length;
+		
+		try {
+			while ((length = reader.read(buffer)) >= 0)
+				contents.append(buffer, 0, length);
+		}
+		finally {
+			reader.close();
+		}
+		
+		return contents.toString();
+	}
+	
+	/**
+	 * @param lines Lines.
+	 * @return the lines, ended by "\r\n" as in the generated code
+	 */
+	private static String lines(String... lines) {
+		StringBuilder text = new StringBuilder();
+		
+		for (String line : lines)
+			text.append(line).append("\r\n");
+		
+		return text.toString();
+	}
+
+}
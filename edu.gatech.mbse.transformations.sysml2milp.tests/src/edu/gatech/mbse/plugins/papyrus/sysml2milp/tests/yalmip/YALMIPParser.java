@@ -0,0 +1,971 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.plugins.papyrus.sysml2milp.tests.yalmip;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Parser for the subset of Matlab that the generated YALMIP code uses: assignments,
+ * expression statements, while / if statements, break, and commands such as
+ * "clear all". Expressions may contain numbers, strings, names, function calls and
+ * indexing (with ranges and ":"), field access, matrix and cell literals, and the
+ * arithmetic, relational and logical operators.
+ * <P>
+ * The result is a list of {@link Statement}s, executed by the
+ * {@link YALMIPInterpreter}.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class YALMIPParser {
+	
+	/** Names that are parsed as commands (their arguments are words, not expressions). */
+	private static final List<String> COMMANDS = Arrays.asList("clc", "clear", "close", "format", "warning", "more");
+	
+	/** Binary operators, by increasing precedence. */
+	private static final String[][] BINARY_OPERATORS = {
+		{ "||" },
+		{ "&&" },
+		{ "|" },
+		{ "&" },
+		{ "<", "<=", ">", ">=", "==", "~=" },
+		{ ":" },
+		{ "+", "-" },
+		{ "*", "/", ".*", "./", "\\" },
+	};
+	
+	/** Index of the precedence level of the range operator ":". */
+	private static final int RANGE_LEVEL = 5;
+	
+	/** The tokens. */
+	private final List<Token> tokens;
+	
+	/** Position of the next token. */
+	private int position = 0;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param code The Matlab code to parse.
+	 */
+	public YALMIPParser(String code) {
+		this.tokens = tokenize(code);
+	}
+	
+	/**
+	 * Parse a program.
+	 * 
+	 * @param code The Matlab code.
+	 * @return The statements.
+	 */
+	public static List<Statement> parse(String code) {
+		YALMIPParser parser = new YALMIPParser(code);
+		List<Statement> statements = parser.parseBlock();
+		
+		if (parser.peek().kind != TokenKind.END_OF_FILE)
+			throw parser.error("Unexpected '" + parser.peek().text + "'");
+		
+		return statements;
+	}
+	
+	/**
+	 * Parse statements up to "end", "else", "elseif" or the end of the code.
+	 * 
+	 * @return The statements.
+	 */
+	private List<Statement> parseBlock() {
+		ArrayList<Statement> statements = new ArrayList<Statement>();
+		
+		while (true) {
+			while (peek().kind == TokenKind.SEPARATOR)
+				next();
+			
+			Token token = peek();
+			
+			if (token.kind == TokenKind.END_OF_FILE
+					|| (token.kind == TokenKind.NAME && (token.text.equals("end") || token.text.equals("else") || token.text.equals("elseif"))))
+				return statements;
+			
+			statements.add(parseStatement());
+		}
+	}
+	
+	/**
+	 * Parse a statement.
+	 * 
+	 * @return The statement.
+	 */
+	private Statement parseStatement() {
+		Token token = peek();
+		int line = token.line;
+		Statement statement;
+		
+		if (token.kind == TokenKind.NAME && token.text.equals("while")) {
+			next();
+			
+			Node condition = parseExpression();
+			List<Statement> body = parseBlock();
+			
+			expectName("end");
+			statement = new While(line, condition, body);
+		}
+		else if (token.kind == TokenKind.NAME && token.text.equals("if")) {
+			next();
+			
+			ArrayList<Node> conditions = new ArrayList<Node>();
+			ArrayList<List<Statement>> bodies = new ArrayList<List<Statement>>();
+			List<Statement> otherwise = new ArrayList<Statement>();
+			
+			conditions.add(parseExpression());
+			bodies.add(parseBlock());
+			
+			while (true) {
+				Token keyword = next();
+				
+				if (keyword.text.equals("elseif")) {
+					conditions.add(parseExpression());
+					bodies.add(parseBlock());
+				}
+				else if (keyword.text.equals("else"))
+					otherwise = parseBlock();
+				else if (keyword.text.equals("end"))
+					break;
+				else
+					throw error("Missing 'end'");
+			}
+			
+			statement = new If(line, conditions, bodies, otherwise);
+		}
+		else if (token.kind == TokenKind.NAME && token.text.equals("break")) {
+			next();
+			statement = new Break(line);
+		}
+		else if (token.kind == TokenKind.NAME && COMMANDS.contains(token.text) && !isOperator(peek(1), "(") && !isOperator(peek(1), "=")) {
+			next();
+			
+			ArrayList<String> arguments = new ArrayList<String>();
+			
+			// Command syntax: the rest of the statement are words
+			while (peek().kind != TokenKind.SEPARATOR && peek().kind != TokenKind.END_OF_FILE)
+				arguments.add(next().text);
+			
+			statement = new Command(line, token.text, arguments);
+		}
+		else if (token.kind == TokenKind.NAME && isOperator(peek(1), "=")) {
+			next();
+			next();
+			statement = new Assignment(line, token.text, parseExpression());
+		}
+		else
+			statement = new ExpressionStatement(line, parseExpression());
+		
+		Token separator = peek();
+		
+		if (separator.kind != TokenKind.SEPARATOR && separator.kind != TokenKind.END_OF_FILE
+				&& !(separator.kind == TokenKind.NAME && (separator.text.equals("end") || separator.text.equals("else") || separator.text.equals("elseif"))))
+			throw error("Unexpected '" + separator.text + "'");
+		
+		return statement;
+	}
+	
+	/**
+	 * Parse an expression.
+	 * 
+	 * @return The expression.
+	 */
+	private Node parseExpression() {
+		return parseBinary(0);
+	}
+	
+	/**
+	 * Parse an expression of binary operators of a precedence level (and above).
+	 * 
+	 * @param level The precedence level.
+	 * @return The expression.
+	 */
+	private Node parseBinary(int level) {
+		if (level == BINARY_OPERATORS.length)
+			return parseUnary();
+		
+		Node left = parseBinary(level + 1);
+		
+		if (level == RANGE_LEVEL) {
+			if (!isOperator(peek(), ":"))
+				return left;
+			
+			next();
+			
+			Node second = parseBinary(level + 1);
+			
+			if (!isOperator(peek(), ":"))
+				return new Range(left, null, second);
+			
+			next();
+			
+			return new Range(left, second, parseBinary(level + 1));
+		}
+		
+		while (peek().kind == TokenKind.OPERATOR && Arrays.asList(BINARY_OPERATORS[level]).contains(peek().text)) {
+			String operator = next().text;
+			
+			left = new Binary(operator, left, parseBinary(level + 1));
+		}
+		
+		return left;
+	}
+	
+	/**
+	 * Parse a unary expression.
+	 * 
+	 * @return The expression.
+	 */
+	private Node parseUnary() {
+		Token token = peek();
+		
+		if (token.kind == TokenKind.OPERATOR && (token.text.equals("-") || token.text.equals("+") || token.text.equals("~") || token.text.equals("!"))) {
+			next();
+			
+			return new Unary(token.text.equals("!") ? "~" : token.text, parseUnary());
+		}
+		
+		return parsePower();
+	}
+	
+	/**
+	 * Parse a power expression (which binds more tightly than unary operators).
+	 * 
+	 * @return The expression.
+	 */
+	private Node parsePower() {
+		Node base = parsePostfix();
+		
+		while (isOperator(peek(), "^") || isOperator(peek(), ".^")) {
+			String operator = next().text;
+			Node exponent;
+			
+			// 2^-1 is allowed
+			if (isOperator(peek(), "-") || isOperator(peek(), "+")) {
+				String sign = next().text;
+				
+				exponent = new Unary(sign, parsePostfix());
+			}
+			else
+				exponent = parsePostfix();
+			
+			base = new Binary(operator, base, exponent);
+		}
+		
+		return base;
+	}
+	
+	/**
+	 * Parse a primary expression followed by indexing, field access and transposes.
+	 * 
+	 * @return The expression.
+	 */
+	private Node parsePostfix() {
+		Node node = parsePrimary();
+		
+		while (true) {
+			Token token = peek();
+			
+			if (isOperator(token, "(") || isOperator(token, "{")) {
+				boolean braces = token.text.equals("{");
+				
+				next();
+				node = new Index(node, parseArguments(braces ? "}" : ")"), braces);
+			}
+			else if (isOperator(token, ".") && peek(1).kind == TokenKind.NAME) {
+				next();
+				node = new Field(node, next().text);
+			}
+			else if (isOperator(token, "'") || isOperator(token, ".'")) {
+				next();
+				node = new Unary("'", node);
+			}
+			else
+				return node;
+		}
+	}
+	
+	/**
+	 * Parse the arguments of a call or an index.
+	 * 
+	 * @param closing The closing parenthesis or brace.
+	 * @return The arguments.
+	 */
+	private List<Node> parseArguments(String closing) {
+		ArrayList<Node> arguments = new ArrayList<Node>();
+		
+		if (isOperator(peek(), closing)) {
+			next();
+			
+			return arguments;
+		}
+		
+		while (true) {
+			if (isOperator(peek(), ":") && (isOperator(peek(1), ",") || isOperator(peek(1), closing))) {
+				next();
+				arguments.add(new Colon());
+			}
+			else
+				arguments.add(parseExpression());
+			
+			Token token = next();
+			
+			if (token.text.equals(closing))
+				break;
+			
+			if (!token.text.equals(","))
+				throw error("Expected ',' or '" + closing + "'");
+		}
+		
+		return arguments;
+	}
+	
+	/**
+	 * Parse a primary expression.
+	 * 
+	 * @return The expression.
+	 */
+	private Node parsePrimary() {
+		Token token = next();
+		
+		switch (token.kind) {
+			case NUMBER:
+				return new NumberLiteral(Double.parseDouble(token.text));
+			case STRING:
+				return new TextLiteral(token.text);
+			case NAME:
+				return new Name(token.text);
+			default:
+				break;
+		}
+		
+		if (token.text.equals("(")) {
+			Node node = parseExpression();
+			
+			expectOperator(")");
+			
+			return new Parenthesized(node);
+		}
+		
+		if (token.text.equals("[") || token.text.equals("{"))
+			return parseMatrix(token.text.equals("{"));
+		
+		throw error("Unexpected '" + token.text + "'");
+	}
+	
+	/**
+	 * Parse a matrix or cell literal (after the opening bracket or brace).
+	 * 
+	 * @param cell Whether this is a cell literal.
+	 * @return The literal.
+	 */
+	private Node parseMatrix(boolean cell) {
+		String closing = (cell ? "}" : "]");
+		ArrayList<List<Node>> rows = new ArrayList<List<Node>>();
+		ArrayList<Node> row = new ArrayList<Node>();
+		
+		while (true) {
+			Token token = peek();
+			
+			if (isOperator(token, closing)) {
+				next();
+				break;
+			}
+			
+			if (token.kind == TokenKind.SEPARATOR || isOperator(token, ",")) {
+				next();
+				
+				// ";" and new lines end a row
+				if (token.kind == TokenKind.SEPARATOR && !row.isEmpty()) {
+					rows.add(row);
+					row = new ArrayList<Node>();
+				}
+				
+				continue;
+			}
+			
+			if (token.kind == TokenKind.END_OF_FILE)
+				throw error("Missing '" + closing + "'");
+			
+			row.add(parseExpression());
+		}
+		
+		if (!row.isEmpty())
+			rows.add(row);
+		
+		return new MatrixLiteral(rows, cell);
+	}
+	
+	/**
+	 * @return the next token (consumed)
+	 */
+	private Token next() {
+		Token token = peek();
+		
+		if (token.kind != TokenKind.END_OF_FILE)
+			position++;
+		
+		return token;
+	}
+	
+	/**
+	 * @return the next token (not consumed)
+	 */
+	private Token peek() {
+		return peek(0);
+	}
+	
+	/**
+	 * @param offset The offset from the next token.
+	 * @return a token ahead (not consumed)
+	 */
+	private Token peek(int offset) {
+		return tokens.get(Math.min(position + offset, tokens.size() - 1));
+	}
+	
+	/**
+	 * Consume an operator.
+	 * 
+	 * @param operator The expected operator.
+	 */
+	private void expectOperator(String operator) {
+		if (!isOperator(next(), operator))
+			throw error("Expected '" + operator + "'");
+	}
+	
+	/**
+	 * Consume a keyword.
+	 * 
+	 * @param name The expected keyword.
+	 */
+	private void expectName(String name) {
+		Token token = next();
+		
+		if (token.kind != TokenKind.NAME || !token.text.equals(name))
+			throw error("Expected '" + name + "'");
+	}
+	
+	/**
+	 * @param token A token.
+	 * @param operator An operator.
+	 * @return whether the token is the operator
+	 */
+	private static boolean isOperator(Token token, String operator) {
+		return token.kind == TokenKind.OPERATOR && token.text.equals(operator);
+	}
+	
+	/**
+	 * @param message The message.
+	 * @return a parse error at the current token
+	 */
+	private IllegalArgumentException error(String message) {
+		Token token = tokens.get(Math.min(Math.max(position - 1, 0), tokens.size() - 1));
+		
+		return new IllegalArgumentException("Line " + token.line + ": " + message);
+	}
+	
+	/**
+	 * Split code into tokens. Comments and "..." continuations are dropped, and ";",
+	 * new lines and (outside of brackets) "," become separators.
+	 * 
+	 * @param code The code.
+	 * @return The tokens (the last one marks the end of the code).
+	 */
+	private static List<Token> tokenize(String code) {
+		ArrayList<Token> tokens = new ArrayList<Token>();
+		int line = 1;
+		int depth = 0;
+		int i = 0;
+		
+		while (i < code.length()) {
+			char c = code.charAt(i);
+			Token previous = (tokens.isEmpty() ? null : tokens.get(tokens.size() - 1));
+			boolean spaceBefore = (i > 0 && Character.isWhitespace(code.charAt(i - 1)));
+			
+			if (c == '\n') {
+				tokens.add(new Token(TokenKind.SEPARATOR, "\n", line++));
+				i++;
+			}
+			else if (Character.isWhitespace(c))
+				i++;
+			else if (c == '%') {
+				while (i < code.length() && code.charAt(i) != '\n')
+					i++;
+			}
+			else if (code.startsWith("...", i)) {
+				// Continuation: skip the rest of the line, including the new line
+				while (i < code.length() && code.charAt(i) != '\n')
+					i++;
+				
+				i++;
+				line++;
+			}
+			else if (c == ';' || (c == ',' && depth == 0)) {
+				tokens.add(new Token(TokenKind.SEPARATOR, String.valueOf(c), line));
+				i++;
+			}
+			else if (c == '\'' && previous != null && !spaceBefore
+					&& (previous.kind == TokenKind.NAME || previous.kind == TokenKind.NUMBER
+						|| isOperator(previous, ")") || isOperator(previous, "]") || isOperator(previous, "}") || isOperator(previous, "'"))) {
+				tokens.add(new Token(TokenKind.OPERATOR, "'", line));
+				i++;
+			}
+			else if (c == '\'' || c == '"') {
+				StringBuilder text = new StringBuilder();
+				
+				i++;
+				
+				while (true) {
+					if (i >= code.length() || code.charAt(i) == '\n')
+						throw new IllegalArgumentException("Line " + line + ": Unterminated string");
+					
+					if (code.charAt(i) == c) {
+						// Quotes are escaped by doubling them
+						if (i + 1 < code.length() && code.charAt(i + 1) == c) {
+							text.append(c);
+							i += 2;
+							continue;
+						}
+						
+						i++;
+						break;
+					}
+					
+					text.append(code.charAt(i++));
+				}
+				
+				tokens.add(new Token(TokenKind.STRING, text.toString(), line));
+			}
+			else if (Character.isDigit(c) || (c == '.' && i + 1 < code.length() && Character.isDigit(code.charAt(i + 1)))) {
+				int start = i;
+				
+				while (i < code.length() && (Character.isDigit(code.charAt(i)) || code.charAt(i) == '.'))
+					i++;
+				
+				if (i < code.length() && (code.charAt(i) == 'e' || code.charAt(i) == 'E')) {
+					i++;
+					
+					if (i < code.length() && (code.charAt(i) == '+' || code.charAt(i) == '-'))
+						i++;
+					
+					while (i < code.length() && Character.isDigit(code.charAt(i)))
+						i++;
+				}
+				
+				tokens.add(new Token(TokenKind.NUMBER, code.substring(start, i), line));
+			}
+			else if (Character.isLetter(c) || c == '_') {
+				int start = i;
+				
+				while (i < code.length() && (Character.isLetterOrDigit(code.charAt(i)) || code.charAt(i) == '_'))
+					i++;
+				
+				tokens.add(new Token(TokenKind.NAME, code.substring(start, i), line));
+			}
+			else {
+				String operator = null;
+				
+				for (String candidate : new String[] { "==", "~=", "<=", ">=", "&&", "||", ".*", "./", ".^", ".'" })
+					if (code.startsWith(candidate, i))
+						operator = candidate;
+				
+				if (operator == null) {
+					if ("+-*/\\^<>=&|~!()[]{},:.".indexOf(c) < 0)
+						throw new IllegalArgumentException("Line " + line + ": Unexpected character '" + c + "'");
+					
+					operator = String.valueOf(c);
+				}
+				
+				if (operator.equals("[") || operator.equals("{") || operator.equals("("))
+					depth++;
+				else if (operator.equals("]") || operator.equals("}") || operator.equals(")"))
+					depth--;
+				
+				tokens.add(new Token(TokenKind.OPERATOR, operator, line));
+				i += operator.length();
+			}
+		}
+		
+		tokens.add(new Token(TokenKind.END_OF_FILE, "end of file", line));
+		
+		return tokens;
+	}
+	
+	/**
+	 * Kinds of tokens.
+	 */
+	private enum TokenKind {
+		NUMBER, STRING, NAME, OPERATOR, SEPARATOR, END_OF_FILE
+	}
+	
+	/**
+	 * A token.
+	 */
+	private static class Token {
+		
+		/** The kind of token. */
+		final TokenKind kind;
+		
+		/** The text (the contents, for strings). */
+		final String text;
+		
+		/** The line of the token. */
+		final int line;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param kind The kind of token.
+		 * @param text The text.
+		 * @param line The line of the token.
+		 */
+		Token(TokenKind kind, String text, int line) {
+			this.kind = kind;
+			this.text = text;
+			this.line = line;
+		}
+		
+	}
+	
+	/**
+	 * A statement.
+	 */
+	public abstract static class Statement {
+		
+		/** The line the statement starts on. */
+		final int line;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param line The line the statement starts on.
+		 */
+		Statement(int line) {
+			this.line = line;
+		}
+		
+	}
+	
+	/**
+	 * name = value
+	 */
+	public static class Assignment extends Statement {
+		
+		/** The name of the variable. */
+		final String name;
+		
+		/** The value. */
+		final Node value;
+		
+		Assignment(int line, String name, Node value) {
+			super(line);
+			this.name = name;
+			this.value = value;
+		}
+		
+	}
+	
+	/**
+	 * An expression evaluated for its side effects.
+	 */
+	public static class ExpressionStatement extends Statement {
+		
+		/** The expression. */
+		final Node expression;
+		
+		ExpressionStatement(int line, Node expression) {
+			super(line);
+			this.expression = expression;
+		}
+		
+	}
+	
+	/**
+	 * while condition ... end
+	 */
+	public static class While extends Statement {
+		
+		/** The condition. */
+		final Node condition;
+		
+		/** The body. */
+		final List<Statement> body;
+		
+		While(int line, Node condition, List<Statement> body) {
+			super(line);
+			this.condition = condition;
+			this.body = body;
+		}
+		
+	}
+	
+	/**
+	 * if condition ... elseif condition ... else ... end
+	 */
+	public static class If extends Statement {
+		
+		/** The conditions of the if and elseif branches. */
+		final List<Node> conditions;
+		
+		/** The bodies of the if and elseif branches. */
+		final List<List<Statement>> bodies;
+		
+		/** The body of the else branch (possibly empty). */
+		final List<Statement> otherwise;
+		
+		If(int line, List<Node> conditions, List<List<Statement>> bodies, List<Statement> otherwise) {
+			super(line);
+			this.conditions = conditions;
+			this.bodies = bodies;
+			this.otherwise = otherwise;
+		}
+		
+	}
+	
+	/**
+	 * break
+	 */
+	public static class Break extends Statement {
+		
+		Break(int line) {
+			super(line);
+		}
+		
+	}
+	
+	/**
+	 * A command such as "clear all".
+	 */
+	public static class Command extends Statement {
+		
+		/** The name of the command. */
+		final String name;
+		
+		/** The arguments (words). */
+		final List<String> arguments;
+		
+		Command(int line, String name, List<String> arguments) {
+			super(line);
+			this.name = name;
+			this.arguments = arguments;
+		}
+		
+	}
+	
+	/**
+	 * A node of an expression.
+	 */
+	public abstract static class Node {
+	}
+	
+	/**
+	 * A number.
+	 */
+	public static class NumberLiteral extends Node {
+		
+		/** The value. */
+		final double value;
+		
+		NumberLiteral(double value) {
+			this.value = value;
+		}
+		
+	}
+	
+	/**
+	 * A string.
+	 */
+	public static class TextLiteral extends Node {
+		
+		/** The contents. */
+		final String value;
+		
+		TextLiteral(String value) {
+			this.value = value;
+		}
+		
+	}
+	
+	/**
+	 * A name (a variable or a function).
+	 */
+	public static class Name extends Node {
+		
+		/** The name. */
+		final String name;
+		
+		Name(String name) {
+			this.name = name;
+		}
+		
+	}
+	
+	/**
+	 * An expression in parentheses.
+	 */
+	public static class Parenthesized extends Node {
+		
+		/** The expression. */
+		final Node expression;
+		
+		Parenthesized(Node expression) {
+			this.expression = expression;
+		}
+		
+	}
+	
+	/**
+	 * A call or an index: target(arguments) or target{arguments}.
+	 */
+	public static class Index extends Node {
+		
+		/** The indexed value or called function. */
+		final Node target;
+		
+		/** The arguments. */
+		final List<Node> arguments;
+		
+		/** Whether braces are used (cell indexing). */
+		final boolean braces;
+		
+		Index(Node target, List<Node> arguments, boolean braces) {
+			this.target = target;
+			this.arguments = arguments;
+			this.braces = braces;
+		}
+		
+	}
+	
+	/**
+	 * Field access: target.name
+	 */
+	public static class Field extends Node {
+		
+		/** The structure. */
+		final Node target;
+		
+		/** The name of the field. */
+		final String name;
+		
+		Field(Node target, String name) {
+			this.target = target;
+			this.name = name;
+		}
+		
+	}
+	
+	/**
+	 * A ":" argument, selecting all elements of a dimension.
+	 */
+	public static class Colon extends Node {
+	}
+	
+	/**
+	 * A range: from:to or from:step:to.
+	 */
+	public static class Range extends Node {
+		
+		/** The first value. */
+		final Node from;
+		
+		/** The step (null for 1). */
+		final Node step;
+		
+		/** The last value. */
+		final Node to;
+		
+		Range(Node from, Node step, Node to) {
+			this.from = from;
+			this.step = step;
+			this.to = to;
+		}
+		
+	}
+	
+	/**
+	 * A unary operator (-, +, ~ or the transpose ').
+	 */
+	public static class Unary extends Node {
+		
+		/** The operator. */
+		final String operator;
+		
+		/** The operand. */
+		final Node operand;
+		
+		Unary(String operator, Node operand) {
+			this.operator = operator;
+			this.operand = operand;
+		}
+		
+	}
+	
+	/**
+	 * A binary operator.
+	 */
+	public static class Binary extends Node {
+		
+		/** The operator. */
+		final String operator;
+		
+		/** The left operand. */
+		final Node left;
+		
+		/** The right operand. */
+		final Node right;
+		
+		Binary(String operator, Node left, Node right) {
+			this.operator = operator;
+			this.left = left;
+			this.right = right;
+		}
+		
+	}
+	
+	/**
+	 * A matrix literal [a, b; c, d] or a cell literal {a, b; c, d}.
+	 */
+	public static class MatrixLiteral extends Node {
+		
+		/** The rows. */
+		final List<List<Node>> rows;
+		
+		/** Whether this is a cell literal. */
+		final boolean cell;
+		
+		MatrixLiteral(List<List<Node>> rows, boolean cell) {
+			this.rows = rows;
+			this.cell = cell;
+		}
+		
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.testsupport;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.uml2.uml.Activity;
+
+/**
+ * The models in the test-resources folder of the tests project, together with the
+ * name of the process (functional specification) that is transformed in the
+ * corresponding test.
+ * <P>
+ * The location of the test resources defaults to the one of the tests project, and
+ * may be set with the system property benchmark.resources.path.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public enum BenchmarkFixture {
+	
+	EXPERT_KNOWLEDGE_LIMITING_INSTANCES("ExpertKnowledgeLimitingInstancesTest", "ManufacturingProcess"),
+	EXPERT_KNOWLEDGE("ExpertKnowledgeTest", "ManufacturingProcess"),
+	PARALLEL_PROCESS("ParallelProcessTest", "ProcessAlternative1"),
+	RESOURCE_SET_SIZE_CONSTRAINT("ResourceSetSizeConstraintTest", "ManufacturingProcess"),
+	SEQUENTIAL_PROCESS("SequentialProcessTest", "ProcessAlternative1"),
+	THROUGHPUT_CONSTRAINT("ThroughputConstraintTest", "ManufacturingProcess"),
+	THROUGHPUT_OPTIMIZATION("ThroughputOptimizationTest", "ManufacturingProcess");
+	
+	/** Name of the system property holding the location of the test resources. */
+	public static final String RESOURCES_PATH_PROPERTY = "benchmark.resources.path";
+	
+	/** Default location of the test resources. */
+	public static final String DEFAULT_RESOURCES_PATH = "../edu.gatech.mbse.transformations.sysml2milp.tests/test-resources";
+	
+	/** Namespace URI of the DSE profile used by the test models. */
+	public static final String DSE_PROFILE_NAMESPACE_URI = "http:///schemas/DSEProfile/_xhIlkBUWEeWdZqvVzWkEVA/9";
+	
+	/** Name of the folder in the test resources. */
+	private final String folderName;
+	
+	/** Name of process to look for in UML model. */
+	private final String processName;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param folderName Name of the folder in the test resources.
+	 * @param processName Name of process to look for in UML model.
+	 */
+	private BenchmarkFixture(String folderName, String processName) {
+		this.folderName = folderName;
+		this.processName = processName;
+	}
+	
+	/**
+	 * Load the model of this fixture, registering the DSE profile that comes with it.
+	 * 
+	 * @return The loaded model.
+	 */
+	public BenchmarkModel load() {
+		File folder = getFolder();
+		
+		// Set up profiles to register
+		Map<String,URI> profiles = new HashMap<String,URI>();
+		profiles.put(DSE_PROFILE_NAMESPACE_URI,
+				URI.createFileURI(new File(folder, "DSEProfile/DSEProfile.profile.uml").getAbsolutePath()));
+		
+		return BenchmarkModel.load(
+				URI.createFileURI(new File(folder, "Model/model.uml").getAbsolutePath()),
+				profiles);
+	}
+	
+	/**
+	 * @return the folder of this fixture in the test resources
+	 */
+	public File getFolder() {
+		return new File(System.getProperty(RESOURCES_PATH_PROPERTY, DEFAULT_RESOURCES_PATH), folderName);
+	}
+	
+	/**
+	 * Find the process of this fixture in its (loaded) model.
+	 * 
+	 * @param model The model of this fixture, as returned by {@link #load()}.
+	 * @return The process.
+	 * @throws IllegalStateException If the process could not be found.
+	 */
+	public Activity getProcess(BenchmarkModel model) {
+		Activity process = (Activity) model.findElementByName(processName);
+		
+		if (process == null)
+			throw new IllegalStateException("Could not find process " + processName + " in " + folderName);
+		
+		return process;
+	}
+
+	/**
+	 * @return the folderName
+	 */
+	public String getFolderName() {
+		return folderName;
+	}
+
+	/**
+	 * @return the processName
+	 */
+	public String getProcessName() {
+		return processName;
+	}
+
+}
@@ -0,0 +1,220 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.testsupport;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.papyrus.sysml.SysmlPackage;
+import org.eclipse.papyrus.sysml.activities.ActivitiesPackage;
+import org.eclipse.papyrus.sysml.allocations.AllocationsPackage;
+import org.eclipse.papyrus.sysml.blocks.BlocksPackage;
+import org.eclipse.papyrus.sysml.constraints.ConstraintsPackage;
+import org.eclipse.papyrus.sysml.interactions.InteractionsPackage;
+import org.eclipse.papyrus.sysml.modelelements.ModelelementsPackage;
+import org.eclipse.papyrus.sysml.portandflows.PortandflowsPackage;
+import org.eclipse.papyrus.sysml.requirements.RequirementsPackage;
+import org.eclipse.papyrus.sysml.statemachines.StatemachinesPackage;
+import org.eclipse.papyrus.sysml.usecases.UsecasesPackage;
+import org.eclipse.uml2.uml.NamedElement;
+import org.eclipse.uml2.uml.Package;
+import org.eclipse.uml2.uml.UMLPackage;
+import org.eclipse.uml2.uml.resources.util.UMLResourcesUtil;
+
+/**
+ * A UML model loaded outside of Papyrus, in a standalone Java application (no
+ * Eclipse workbench). Models are loaded the same way as in the tests (see
+ * TestBase in the tests project): the SysML profile is registered automatically,
+ * any other profiles have to be specified.
+ * <P>
+ * The location of the SysML profile defaults to the one of the tests project, and
+ * may be set with the system property sysml.profile.path.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class BenchmarkModel {
+	
+	/** Name of the system property holding the location of the SysML profile. */
+	public static final String SYSML_PROFILE_PATH_PROPERTY = "sysml.profile.path";
+	
+	/** Default location of the SysML profile. */
+	public static final String DEFAULT_SYSML_PROFILE_PATH = "../edu.gatech.mbse.transformations.sysml2milp.tests/sysml/SysML.profile.uml";
+	
+	/** Pointer to root package. */
+	private final Package rootPackage;
+	
+	/** Pointer to a resource object. */
+	private final Resource resource;
+	
+	/** Pointer to a resource set. */
+	private final ResourceSet resourceSet;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param resourceSet The resource set (see {@link #createResourceSet(Map)}).
+	 * @param resource The resource holding the model.
+	 * @param rootPackage The root package of the model.
+	 */
+	BenchmarkModel(ResourceSet resourceSet, Resource resource, Package rootPackage) {
+		this.resourceSet = resourceSet;
+		this.resource = resource;
+		this.rootPackage = rootPackage;
+	}
+	
+	/**
+	 * Loads a UML model and registers any specified profiles. Note that the SysML
+	 * profile is loaded automatically.
+	 * 
+	 * @param model An {@link URI} object pointing to the location of the UML model.
+	 * @param profilesToRegister A mapping from namespace URIs (as strings) to location
+	 * 			of a profile definition (as URI object).
+	 * @return The loaded model.
+	 */
+	public static BenchmarkModel load(URI model, Map<String,URI> profilesToRegister) {
+		ResourceSet resourceSet = createResourceSet(profilesToRegister);
+		
+		// Now load UML model, and set it as the current resource
+		resourceSet.createResource(model);
+		Resource resource = resourceSet.getResource(model, true);
+		
+		// Fetch root package
+		Package rootPackage = (Package) EcoreUtil
+				.getObjectByType(resource.getContents(),
+				UMLPackage.Literals.PACKAGE);
+		
+		return new BenchmarkModel(resourceSet, resource, rootPackage);
+	}
+	
+	/**
+	 * Create a resource set for standalone use, with the SysML profile and the
+	 * specified profiles registered.
+	 * 
+	 * @param profilesToRegister A mapping from namespace URIs (as strings) to location
+	 * 			of a profile definition (as URI object).
+	 * @return The new resource set.
+	 */
+	public static ResourceSet createResourceSet(Map<String,URI> profilesToRegister) {
+		// Initialize the resource set object properly
+		ResourceSet resourceSet = UMLResourcesUtil.init(new ResourceSetImpl());
+		
+		// Load SysML profile
+		loadSysMLProfile(resourceSet);
+		
+		// Register profiles
+		for (Entry<String,URI> entry : profilesToRegister.entrySet())
+			registerProfile(resourceSet, entry.getKey(), entry.getValue());
+		
+		return resourceSet;
+	}
+	
+	/**
+	 * Register a profile.
+	 * 
+	 * @param resourceSet The resource set to register the profile with.
+	 * @param namespaceURI Namespace URI as string.
+	 * @param profile An {@link URI} object referring to profile location.
+	 */
+	private static void registerProfile(ResourceSet resourceSet, String namespaceURI, URI profile) {
+		resourceSet.getPackageRegistry().put(namespaceURI, profile);
+		resourceSet.getURIConverter().getURIMap().put(URI.createURI(namespaceURI), profile);
+	}
+	
+	/**
+	 * Load SysML profile.
+	 * 
+	 * @param resourceSet The resource set to register the profile with.
+	 */
+	private static void loadSysMLProfile(ResourceSet resourceSet) {
+		URI sysmlProfile = URI.createFileURI(new File(
+				System.getProperty(SYSML_PROFILE_PATH_PROPERTY, DEFAULT_SYSML_PROFILE_PATH)).getAbsolutePath());
+		
+		// Register top level profile, and add profile URI to URI map
+		registerProfile(resourceSet, "pathmap://SysML_PROFILES/SysML.profile.uml", sysmlProfile);
+		
+		// Load SysML Profile - this also allows for the DSE profile to be loaded correctly
+		resourceSet.getPackageRegistry().put(SysmlPackage.eNS_URI, SysmlPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(BlocksPackage.eNS_URI, BlocksPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(RequirementsPackage.eNS_URI, RequirementsPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(ActivitiesPackage.eNS_URI, ActivitiesPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(AllocationsPackage.eNS_URI, AllocationsPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(ConstraintsPackage.eNS_URI, ConstraintsPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(InteractionsPackage.eNS_URI, InteractionsPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(ModelelementsPackage.eNS_URI, ModelelementsPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(PortandflowsPackage.eNS_URI, PortandflowsPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(StatemachinesPackage.eNS_URI, StatemachinesPackage.eINSTANCE);
+		resourceSet.getPackageRegistry().put(UsecasesPackage.eNS_URI, UsecasesPackage.eINSTANCE);
+	}
+	
+	/**
+	 * Find a named element in the loaded UML model.
+	 * 
+	 * @param name Name of the element.
+	 * @return The first element with the given name, or null if there is none.
+	 */
+	public NamedElement findElementByName(String name) {
+		for (TreeIterator<EObject> i = resource.getAllContents(); i.hasNext(); ) {
+			EObject cur = i.next();
+			
+			if (cur instanceof NamedElement
+					&& name.equals(((NamedElement) cur).getName()))
+				return (NamedElement) cur;
+		}
+		
+		return null;
+	}
+
+	/**
+	 * @return the rootPackage
+	 */
+	public Package getRootPackage() {
+		return rootPackage;
+	}
+
+	/**
+	 * @return the resource
+	 */
+	public Resource getResource() {
+		return resource;
+	}
+
+	/**
+	 * @return the resourceSet
+	 */
+	public ResourceSet getResourceSet() {
+		return resourceSet;
+	}
+
+}
@@ -0,0 +1,709 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.testsupport;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.ActivityEdge;
+import org.eclipse.uml2.uml.ActivityNode;
+import org.eclipse.uml2.uml.ActivityParameterNode;
+import org.eclipse.uml2.uml.AggregationKind;
+import org.eclipse.uml2.uml.CallBehaviorAction;
+import org.eclipse.uml2.uml.Class;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Constraint;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.LiteralReal;
+import org.eclipse.uml2.uml.LiteralString;
+import org.eclipse.uml2.uml.Model;
+import org.eclipse.uml2.uml.OpaqueExpression;
+import org.eclipse.uml2.uml.Package;
+import org.eclipse.uml2.uml.Parameter;
+import org.eclipse.uml2.uml.ParameterDirectionKind;
+import org.eclipse.uml2.uml.Profile;
+import org.eclipse.uml2.uml.Property;
+import org.eclipse.uml2.uml.Stereotype;
+import org.eclipse.uml2.uml.Type;
+import org.eclipse.uml2.uml.UMLFactory;
+import org.eclipse.uml2.uml.UMLPackage;
+
+/**
+ * Generates synthetic design space exploration models for scaling studies.
+ * <P>
+ * The generated models follow the same conventions as the models in the tests
+ * project: the system under design, the workpiece and the resources specialize the
+ * classes GenericSystemUnderDesign, GenericWorkpiece and ManufacturingComponent of
+ * an imported model library, working principles are activities stereotyped with
+ * WorkingPrinciple that specialize a (abstract) function, and the process is an
+ * activity owned by the system under design that calls these functions. The shape
+ * of the model is controlled through the number of resource types, the depth of
+ * the resource type hierarchy, the number of composite resources, the number of
+ * functions and working principles per function, the number of parallel branches
+ * in the process, the number of process alternatives and the number of constraints.
+ * <P>
+ * Values (cost, operation time) are drawn from a random number generator with a
+ * fixed seed, such that the same configuration always yields the same model.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class SyntheticModelGenerator {
+	
+	/** Name of the generated process (functional specification). */
+	public static final String PROCESS_NAME = "SyntheticProcess";
+	
+	/** Name of the generated system under design. */
+	public static final String SYSTEM_UNDER_DESIGN_NAME = "SyntheticSystem";
+	
+	/** Language used for opaque expressions. */
+	private static final String OCL = "OCL";
+	
+	/** Location of the DSE profile to apply to the generated model. */
+	private URI profile = URI.createFileURI(new File(BenchmarkFixture.PARALLEL_PROCESS.getFolder(),
+			"DSEProfile/DSEProfile.profile.uml").getAbsolutePath());
+	
+	/** Number of abstract resource types. */
+	private int numResourceTypes = 4;
+	
+	/** Number of abstract levels below each resource type. */
+	private int inheritanceDepth = 1;
+	
+	/** Number of concrete resources for each resource type. */
+	private int concreteResourcesPerType = 3;
+	
+	/** Number of composite resources (each made up of two parts). */
+	private int numCompositeResources = 0;
+	
+	/** Number of functions in the process. */
+	private int numFunctions = 4;
+	
+	/** Number of working principles realizing each function. */
+	private int workingPrinciplesPerFunction = 2;
+	
+	/** Number of parallel branches in the process (1 for a sequential process). */
+	private int numParallelBranches = 1;
+	
+	/** Number of process alternatives (functional specifications) owned by the system under design. */
+	private int numProcessAlternatives = 1;
+	
+	/** Number of constraints on the system under design (in addition to the objective). */
+	private int numConstraints = 1;
+	
+	/** Seed of the random number generator. */
+	private long seed = 42;
+	
+	/** Random number generator used while generating a model. */
+	private Random random;
+	
+	/** Stereotypes of the DSE profile, by name. */
+	private HashMap<String,Stereotype> stereotypes;
+	
+	/** The Real primitive type. */
+	private Type realType;
+	
+	/**
+	 * Generate a model with the current configuration.
+	 * 
+	 * @param uri The URI of the resource holding the generated model (it is not saved).
+	 * @return The generated model. The process is named {@link #PROCESS_NAME}, further
+	 * 		process alternatives are named {@link #PROCESS_NAME} followed by their number
+	 * 		(starting from 2).
+	 */
+	public BenchmarkModel generate(URI uri) {
+		random = new Random(seed);
+		stereotypes = new HashMap<String,Stereotype>();
+		
+		HashMap<String,URI> profiles = new HashMap<String,URI>();
+		profiles.put(BenchmarkFixture.DSE_PROFILE_NAMESPACE_URI, profile);
+		ResourceSet resourceSet = BenchmarkModel.createResourceSet(profiles);
+		Resource resource = resourceSet.createResource(uri);
+		
+		// Primitive types and profile
+		Package primitiveTypes = (Package) EcoreUtil.getObjectByType(
+				resourceSet.getResource(URI.createURI("pathmap://UML_LIBRARIES/UMLPrimitiveTypes.library.uml"), true).getContents(),
+				UMLPackage.Literals.PACKAGE);
+		realType = primitiveTypes.getOwnedType("Real");
+		
+		Profile dseProfile = (Profile) EcoreUtil.getObjectByType(
+				resourceSet.getResource(profile, true).getContents(),
+				UMLPackage.Literals.PROFILE);
+		
+		for (Stereotype s : dseProfile.getOwnedStereotypes())
+			stereotypes.put(s.getName(), s);
+		
+		// Library (in its own resource and imported, as otherwise the abstract library
+		// classes would be found when searching the model for the system under design)
+		Model library = UMLFactory.eINSTANCE.createModel();
+		library.setName("SyntheticLibrary");
+		resourceSet.createResource(uri.trimFileExtension().appendFileExtension("library").appendFileExtension("uml"))
+				.getContents().add(library);
+		library.applyProfile(dseProfile);
+		
+		Model model = UMLFactory.eINSTANCE.createModel();
+		model.setName("SyntheticModel");
+		resource.getContents().add(model);
+		model.applyProfile(dseProfile);
+		model.createPackageImport(library);
+		
+		Class genericWorkpiece = library.createOwnedClass("GenericWorkpiece", true);
+		Class manufacturingComponent = library.createOwnedClass("ManufacturingComponent", true);
+		applyStereotype(manufacturingComponent, "Resource");
+		createRealProperty(manufacturingComponent, "cost");
+		Class genericSystemUnderDesign = library.createOwnedClass("GenericSystemUnderDesign", true);
+		Activity manufacturingProcess = (Activity) genericSystemUnderDesign.createOwnedBehavior("ManufacturingProcess",
+				UMLPackage.Literals.ACTIVITY);
+		manufacturingProcess.setIsAbstract(true);
+		
+		Class workpiece = model.createOwnedClass("Workpiece", false);
+		workpiece.createGeneralization(genericWorkpiece);
+		
+		// Resources
+		List<Class> resources = new ArrayList<Class>();
+		for (int i = 0; i < numResourceTypes; i++)
+			resources.add(createResourceType(model, manufacturingComponent, i));
+		for (int i = 0; i < numCompositeResources && resources.size() > 0; i++)
+			resources.add(createCompositeResource(model, manufacturingComponent, resources, i));
+		
+		// Functions and working principles
+		List<Activity> functions = new ArrayList<Activity>();
+		int nextResource = 0;
+		for (int i = 0; i < numFunctions; i++) {
+			Activity function = createFunction(model, "Function" + i, genericWorkpiece);
+			functions.add(function);
+			
+			for (int j = 0; j < workingPrinciplesPerFunction; j++) {
+				Class r = resources.isEmpty() ? null : resources.get(nextResource++ % resources.size());
+				createWorkingPrinciple(model, function, "WP" + i + "_" + j, genericWorkpiece, r);
+			}
+		}
+		
+		// System under design and process
+		Class system = createSystemUnderDesign(model, genericSystemUnderDesign, manufacturingComponent);
+		createProcess(system, PROCESS_NAME, manufacturingProcess, workpiece, functions);
+		
+		// Further process alternatives call the same functions, starting with a different one
+		for (int k = 1; k < numProcessAlternatives; k++) {
+			List<Activity> rotated = new ArrayList<Activity>(functions);
+			Collections.rotate(rotated, -k);
+			
+			createProcess(system, PROCESS_NAME + (k + 1), manufacturingProcess, workpiece, rotated);
+		}
+		
+		return new BenchmarkModel(resourceSet, resource, model);
+	}
+	
+	/**
+	 * Create an abstract resource type, the abstract levels below it and the concrete
+	 * resources at the bottom of the hierarchy.
+	 * 
+	 * @param model The model to add the resources to.
+	 * @param manufacturingComponent The base class of all resources.
+	 * @param index Index of the resource type.
+	 * @return The (top level) resource type.
+	 */
+	private Class createResourceType(Model model, Class manufacturingComponent, int index) {
+		Class resourceType = createResourceClass(model, "ResourceType" + index, true, manufacturingComponent);
+		
+		Class general = resourceType;
+		for (int level = 1; level <= inheritanceDepth; level++)
+			general = createResourceClass(model, "ResourceType" + index + "_L" + level, true, general);
+		
+		for (int c = 0; c < concreteResourcesPerType; c++) {
+			Class concrete = createResourceClass(model, "Resource" + index + "_" + c, false, general);
+			createRealProperty(concrete, "cost", 1000 * (1 + random.nextInt(50)),
+					manufacturingComponent.getOwnedAttribute("cost", null));
+		}
+		
+		return resourceType;
+	}
+	
+	/**
+	 * Create a composite resource made up of two of the existing resource types, with
+	 * a concrete specialization whose cost is the sum of the cost of the parts.
+	 * 
+	 * @param model The model to add the resources to.
+	 * @param manufacturingComponent The base class of all resources.
+	 * @param resources The existing resource types.
+	 * @param index Index of the composite resource.
+	 * @return The abstract composite resource type.
+	 */
+	private Class createCompositeResource(Model model, Class manufacturingComponent, List<Class> resources, int index) {
+		Class compositeType = createResourceClass(model, "CompositeType" + index, true, manufacturingComponent);
+		
+		// Only use the plain resource types as parts, so that composites are not nested
+		int plain = Math.min(numResourceTypes, resources.size());
+		createPart(compositeType, "partA", resources.get((2 * index) % plain));
+		createPart(compositeType, "partB", resources.get((2 * index + 1) % plain));
+		
+		Class composite = createResourceClass(model, "Composite" + index, false, compositeType);
+		Property cost = composite.createOwnedAttribute("cost", realType);
+		cost.getRedefinedProperties().add(manufacturingComponent.getOwnedAttribute("cost", null));
+		createOpaqueExpression(cost, "partA.cost + partB.cost");
+		
+		return compositeType;
+	}
+	
+	/**
+	 * Create an abstract function, i.e. an abstract activity acting on a workpiece.
+	 * 
+	 * @param model The model to add the function to.
+	 * @param name Name of the function.
+	 * @param workpiece The workpiece type.
+	 * @return The function.
+	 */
+	private Activity createFunction(Model model, String name, Class workpiece) {
+		Activity function = (Activity) model.createPackagedElement(name, UMLPackage.Literals.ACTIVITY);
+		function.setIsAbstract(true);
+		
+		Parameter p = function.createOwnedParameter("workpiece", workpiece);
+		p.setDirection(ParameterDirectionKind.INOUT_LITERAL);
+		
+		return function;
+	}
+	
+	/**
+	 * Create a working principle realizing the given function.
+	 * 
+	 * @param model The model to add the working principle to.
+	 * @param function The function realized by the working principle.
+	 * @param name Name of the working principle.
+	 * @param workpiece The workpiece type.
+	 * @param resource The resource type required by the working principle, or null.
+	 */
+	private void createWorkingPrinciple(Model model, Activity function, String name, Class workpiece, Class resource) {
+		Activity workingPrinciple = (Activity) model.createPackagedElement(name, UMLPackage.Literals.ACTIVITY);
+		applyStereotype(workingPrinciple, "WorkingPrinciple");
+		workingPrinciple.createGeneralization(function);
+		
+		Parameter p = workingPrinciple.createOwnedParameter("workpiece", workpiece);
+		p.setDirection(ParameterDirectionKind.INOUT_LITERAL);
+		
+		Property operationTime = workingPrinciple.createOwnedAttribute("operationTime", realType);
+		createOpaqueExpression(operationTime, (1 + random.nextInt(300)) / 10.0 + "");
+		
+		if (resource != null) {
+			Property r = workingPrinciple.createOwnedAttribute("resource", resource);
+			r.setAggregation(AggregationKind.SHARED_LITERAL);
+		}
+	}
+	
+	/**
+	 * Create the system under design, together with its objective and constraints.
+	 * 
+	 * @param model The model to add the system under design to.
+	 * @param genericSystemUnderDesign The library class for systems under design.
+	 * @param manufacturingComponent The base class of all resources.
+	 * @return The system under design.
+	 */
+	private Class createSystemUnderDesign(Model model, Class genericSystemUnderDesign, Class manufacturingComponent) {
+		Property productionTime = createRealProperty(genericSystemUnderDesign, "productionTime");
+		applyStereotype(productionTime, "processDuration");
+		Property throughput = createRealProperty(genericSystemUnderDesign, "throughput");
+		applyStereotype(throughput, "throughput");
+		Property cost = genericSystemUnderDesign.createOwnedAttribute("cost", realType);
+		createOpaqueExpression(cost, "self.resources.cost->sum()");
+		genericSystemUnderDesign.createOwnedAttribute("resources", manufacturingComponent, 1, -1);
+		
+		Class system = model.createOwnedClass(SYSTEM_UNDER_DESIGN_NAME, false);
+		system.createGeneralization(genericSystemUnderDesign);
+		
+		Constraint objective = system.createOwnedRule("objective");
+		applyStereotype(objective, "Objective");
+		((LiteralString) objective.createSpecification("objectiveSpec", null, UMLPackage.Literals.LITERAL_STRING))
+				.setValue("cost + productionTime");
+		
+		for (int k = 0; k < numConstraints; k++) {
+			createRealProperty(system, "maxDuration" + k, 100 * numFunctions * (k + 1), null);
+			
+			Constraint constraint = system.createOwnedRule("requirement" + k);
+			((LiteralString) constraint.createSpecification("constraintSpec", null, UMLPackage.Literals.LITERAL_STRING))
+					.setValue("maxDuration" + k + " >= productionTime");
+		}
+		
+		return system;
+	}
+	
+	/**
+	 * Create the process: the functions are called in sequence, or, if there is more
+	 * than one parallel branch, the first function is followed by a fork into the
+	 * branches (among which the remaining functions are distributed), which are
+	 * joined before the last function.
+	 * 
+	 * @param system The system under design owning the process.
+	 * @param name Name of the process.
+	 * @param manufacturingProcess The abstract process of the library.
+	 * @param workpiece The workpiece type.
+	 * @param functions The functions to call.
+	 */
+	private void createProcess(Class system, String name, Activity manufacturingProcess, Class workpiece,
+			List<Activity> functions) {
+		Activity process = (Activity) system.createOwnedBehavior(name, UMLPackage.Literals.ACTIVITY);
+		process.createGeneralization(manufacturingProcess);
+		
+		Parameter p = process.createOwnedParameter("workpieceIn", workpiece);
+		p.setDirection(ParameterDirectionKind.INOUT_LITERAL);
+		
+		ActivityParameterNode in = (ActivityParameterNode) process.createOwnedNode("workpieceIn",
+				UMLPackage.Literals.ACTIVITY_PARAMETER_NODE);
+		in.setParameter(p);
+		in.setType(workpiece);
+		ActivityParameterNode out = (ActivityParameterNode) process.createOwnedNode("finishedProductOut",
+				UMLPackage.Literals.ACTIVITY_PARAMETER_NODE);
+		out.setParameter(p);
+		out.setType(workpiece);
+		
+		List<CallBehaviorAction> actions = new ArrayList<CallBehaviorAction>();
+		for (int i = 0; i < functions.size(); i++)
+			actions.add(createCallBehaviorAction(process, "action" + i, functions.get(i), workpiece));
+		
+		if (actions.isEmpty()) {
+			createObjectFlow(process, in, out);
+			return;
+		}
+		
+		int branches = Math.min(numParallelBranches, actions.size() - 2);
+		
+		if (branches < 2) {
+			// Sequential process
+			ActivityNode previous = in;
+			for (CallBehaviorAction a : actions) {
+				createObjectFlow(process, previous, a.getArguments().get(0));
+				previous = a.getResults().get(0);
+			}
+			createObjectFlow(process, previous, out);
+			
+			return;
+		}
+		
+		CallBehaviorAction first = actions.get(0);
+		CallBehaviorAction last = actions.get(actions.size() - 1);
+		
+		ActivityNode fork = process.createOwnedNode("fork", UMLPackage.Literals.FORK_NODE);
+		ActivityNode join = process.createOwnedNode("join", UMLPackage.Literals.JOIN_NODE);
+		
+		createObjectFlow(process, in, first.getArguments().get(0));
+		createObjectFlow(process, first.getResults().get(0), fork);
+		
+		// Distribute the remaining actions round-robin among the branches
+		ActivityNode[] branchEnds = new ActivityNode[branches];
+		for (int b = 0; b < branches; b++)
+			branchEnds[b] = fork;
+		for (int i = 1; i < actions.size() - 1; i++) {
+			int b = (i - 1) % branches;
+			createObjectFlow(process, branchEnds[b], actions.get(i).getArguments().get(0));
+			branchEnds[b] = actions.get(i).getResults().get(0);
+		}
+		for (ActivityNode end : branchEnds)
+			createObjectFlow(process, end, join);
+		
+		createObjectFlow(process, join, last.getArguments().get(0));
+		createObjectFlow(process, last.getResults().get(0), out);
+	}
+	
+	/**
+	 * Create a call behavior action with a workpiece input and output pin.
+	 * 
+	 * @param process The activity to add the action to.
+	 * @param name Name of the action.
+	 * @param behavior The called behavior.
+	 * @param workpiece The workpiece type.
+	 * @return The call behavior action.
+	 */
+	private CallBehaviorAction createCallBehaviorAction(Activity process, String name, Activity behavior, Class workpiece) {
+		CallBehaviorAction action = (CallBehaviorAction) process.createOwnedNode(name,
+				UMLPackage.Literals.CALL_BEHAVIOR_ACTION);
+		action.setBehavior(behavior);
+		action.createArgument("workpiece", workpiece);
+		action.createResult("workpiece", workpiece);
+		
+		return action;
+	}
+	
+	/**
+	 * Create an object flow between two nodes.
+	 * 
+	 * @param process The activity to add the object flow to.
+	 * @param source The source node.
+	 * @param target The target node.
+	 */
+	private void createObjectFlow(Activity process, ActivityNode source, ActivityNode target) {
+		ActivityEdge edge = process.createEdge(null, UMLPackage.Literals.OBJECT_FLOW);
+		edge.setSource(source);
+		edge.setTarget(target);
+	}
+	
+	/**
+	 * Create an abstract or concrete resource class.
+	 * 
+	 * @param model The model to add the class to.
+	 * @param name Name of the class.
+	 * @param isAbstract Whether the class is abstract.
+	 * @param general The general class.
+	 * @return The resource class.
+	 */
+	private Class createResourceClass(Model model, String name, boolean isAbstract, Classifier general) {
+		Class c = model.createOwnedClass(name, isAbstract);
+		applyStereotype(c, "Resource");
+		c.createGeneralization(general);
+		
+		return c;
+	}
+	
+	/**
+	 * Create a part typed by a resource.
+	 * 
+	 * @param composite The composite resource.
+	 * @param name Name of the part.
+	 * @param type The type of the part.
+	 */
+	private void createPart(Class composite, String name, Class type) {
+		Property part = composite.createOwnedAttribute(name, type);
+		part.setAggregation(AggregationKind.COMPOSITE_LITERAL);
+	}
+	
+	/**
+	 * Create a property of type Real without a default value.
+	 * 
+	 * @param owner The owning class.
+	 * @param name Name of the property.
+	 * @return The property.
+	 */
+	private Property createRealProperty(Class owner, String name) {
+		return owner.createOwnedAttribute(name, realType);
+	}
+	
+	/**
+	 * Create a property of type Real with a default value.
+	 * 
+	 * @param owner The owning class.
+	 * @param name Name of the property.
+	 * @param value The default value.
+	 * @param redefined A property redefined by the new property, or null.
+	 * @return The property.
+	 */
+	private Property createRealProperty(Class owner, String name, double value, Property redefined) {
+		Property p = owner.createOwnedAttribute(name, realType);
+		if (redefined != null)
+			p.getRedefinedProperties().add(redefined);
+		
+		((LiteralReal) p.createDefaultValue(name, realType, UMLPackage.Literals.LITERAL_REAL)).setValue(value);
+		
+		return p;
+	}
+	
+	/**
+	 * Set the default value of a property to an OCL opaque expression.
+	 * 
+	 * @param p The property.
+	 * @param body The body of the expression.
+	 */
+	private void createOpaqueExpression(Property p, String body) {
+		OpaqueExpression expression = (OpaqueExpression) p.createDefaultValue(p.getName(), realType,
+				UMLPackage.Literals.OPAQUE_EXPRESSION);
+		expression.getLanguages().add(OCL);
+		expression.getBodies().add(body);
+	}
+	
+	/**
+	 * Apply a stereotype of the DSE profile.
+	 * 
+	 * @param e The element to apply the stereotype to.
+	 * @param name Name of the stereotype.
+	 */
+	private void applyStereotype(Element e, String name) {
+		Stereotype s = stereotypes.get(name);
+		
+		if (s == null)
+			throw new IllegalStateException("Stereotype " + name + " not found in " + profile);
+		
+		e.applyStereotype(s);
+	}
+
+	/**
+	 * @return the profile
+	 */
+	public URI getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @param profile the profile to set
+	 */
+	public void setProfile(URI profile) {
+		this.profile = profile;
+	}
+
+	/**
+	 * @return the numResourceTypes
+	 */
+	public int getNumResourceTypes() {
+		return numResourceTypes;
+	}
+
+	/**
+	 * @param numResourceTypes the numResourceTypes to set
+	 */
+	public void setNumResourceTypes(int numResourceTypes) {
+		this.numResourceTypes = numResourceTypes;
+	}
+
+	/**
+	 * @return the inheritanceDepth
+	 */
+	public int getInheritanceDepth() {
+		return inheritanceDepth;
+	}
+
+	/**
+	 * @param inheritanceDepth the inheritanceDepth to set
+	 */
+	public void setInheritanceDepth(int inheritanceDepth) {
+		this.inheritanceDepth = inheritanceDepth;
+	}
+
+	/**
+	 * @return the concreteResourcesPerType
+	 */
+	public int getConcreteResourcesPerType() {
+		return concreteResourcesPerType;
+	}
+
+	/**
+	 * @param concreteResourcesPerType the concreteResourcesPerType to set
+	 */
+	public void setConcreteResourcesPerType(int concreteResourcesPerType) {
+		this.concreteResourcesPerType = concreteResourcesPerType;
+	}
+
+	/**
+	 * @return the numCompositeResources
+	 */
+	public int getNumCompositeResources() {
+		return numCompositeResources;
+	}
+
+	/**
+	 * @param numCompositeResources the numCompositeResources to set
+	 */
+	public void setNumCompositeResources(int numCompositeResources) {
+		this.numCompositeResources = numCompositeResources;
+	}
+
+	/**
+	 * @return the numFunctions
+	 */
+	public int getNumFunctions() {
+		return numFunctions;
+	}
+
+	/**
+	 * @param numFunctions the numFunctions to set
+	 */
+	public void setNumFunctions(int numFunctions) {
+		this.numFunctions = numFunctions;
+	}
+
+	/**
+	 * @return the workingPrinciplesPerFunction
+	 */
+	public int getWorkingPrinciplesPerFunction() {
+		return workingPrinciplesPerFunction;
+	}
+
+	/**
+	 * @param workingPrinciplesPerFunction the workingPrinciplesPerFunction to set
+	 */
+	public void setWorkingPrinciplesPerFunction(int workingPrinciplesPerFunction) {
+		this.workingPrinciplesPerFunction = workingPrinciplesPerFunction;
+	}
+
+	/**
+	 * @return the numParallelBranches
+	 */
+	public int getNumParallelBranches() {
+		return numParallelBranches;
+	}
+
+	/**
+	 * @param numParallelBranches the numParallelBranches to set
+	 */
+	public void setNumParallelBranches(int numParallelBranches) {
+		this.numParallelBranches = numParallelBranches;
+	}
+
+	/**
+	 * @return the numProcessAlternatives
+	 */
+	public int getNumProcessAlternatives() {
+		return numProcessAlternatives;
+	}
+
+	/**
+	 * @param numProcessAlternatives the numProcessAlternatives to set
+	 */
+	public void setNumProcessAlternatives(int numProcessAlternatives) {
+		this.numProcessAlternatives = numProcessAlternatives;
+	}
+
+	/**
+	 * @return the numConstraints
+	 */
+	public int getNumConstraints() {
+		return numConstraints;
+	}
+
+	/**
+	 * @param numConstraints the numConstraints to set
+	 */
+	public void setNumConstraints(int numConstraints) {
+		this.numConstraints = numConstraints;
+	}
+
+	/**
+	 * @return the seed
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * @param seed the seed to set
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+}
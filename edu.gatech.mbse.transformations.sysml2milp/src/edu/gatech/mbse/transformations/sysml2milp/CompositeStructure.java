@@ -0,0 +1,197 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Property;
+
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * The composite structure of the resources relevant to a functional specification:
+ * the composite parents of each resource, and the resources that are part of any
+ * composite.
+ * <P>
+ * The structure is computed once from the lists of the {@link TransformationCache}
+ * (all relevant resources, concrete relevant resources and composite resources).
+ * Parents are found as by
+ * {@link DSEMLUtils#getCompositeParents(Element, ArrayList, ArrayList)}, i.e. abstract
+ * owners of a part are expanded to their concrete specializations, and whether a
+ * resource is a part of a composite as by
+ * {@link DSEMLUtils#isPartOfAnyComposite(Classifier, ArrayList)}. The direct and
+ * nested parts of a resource are remembered per run by
+ * {@link edu.gatech.mbse.transformations.sysml2milp.utils.ClassifierFeatures}.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class CompositeStructure {
+	
+	/** Composite parents of each part (reverse part edges). */
+	private final HashMap<Element, LinkedHashSet<Element>> compositeParents = new HashMap<Element, LinkedHashSet<Element>>();
+	
+	/** Resource types that are a part of at least one composite resource. */
+	private final LinkedHashSet<Element> compositePartTypes = new LinkedHashSet<Element>();
+	
+	/** Whether a resource is, or specializes, a part of a composite resource. */
+	private final HashMap<Element, Boolean> partOfAnyComposite = new HashMap<Element, Boolean>();
+	
+	/**
+	 * Constructor. Use {@link #build(ArrayList, ArrayList, ArrayList)}.
+	 */
+	private CompositeStructure() {
+	}
+	
+	/**
+	 * Build the composite structure of a set of resources.
+	 * 
+	 * @param allResources All relevant resources (abstract and non-abstract).
+	 * @param concreteResources The relevant concrete resources.
+	 * @param compositeResources The relevant composite resources.
+	 * @return The composite structure.
+	 */
+	public static CompositeStructure build(ArrayList<Element> allResources,
+			ArrayList<Element> concreteResources,
+			ArrayList<Element> compositeResources) {
+		CompositeStructure structure = new CompositeStructure();
+		
+		structure.addCompositeParents(allResources, concreteResources);
+		
+		for (Element composite : compositeResources)
+			structure.compositePartTypes.addAll(DSEMLUtils.getResourceParts(composite));
+		
+		for (Element r : allResources)
+			structure.isPartOfAnyComposite(r);
+		
+		for (Element r : concreteResources)
+			structure.isPartOfAnyComposite(r);
+		
+		return structure;
+	}
+	
+	/**
+	 * Add the composite parents of the parts of all resources, in the order in which
+	 * {@link DSEMLUtils#getCompositeParents(Element, ArrayList, ArrayList)} finds them.
+	 * 
+	 * @param allResources All relevant resources (abstract and non-abstract).
+	 * @param concreteResources The relevant concrete resources.
+	 */
+	private void addCompositeParents(ArrayList<Element> allResources,
+			ArrayList<Element> concreteResources) {
+		// Concrete specializations of abstract owners, computed once per owner
+		HashMap<Element, ArrayList<Element>> concreteOwners = new HashMap<Element, ArrayList<Element>>();
+		
+		for (Element res : allResources) {
+			for (Property p : DSEMLUtils.getAllAttributes((Classifier) res)) {
+				Element owner = p.getOwner();
+				
+				if (p.getType() == null
+						|| !p.isComposite()
+						|| !DSEMLUtils.isResource(owner))
+					continue;
+				
+				ArrayList<Element> owners = concreteOwners.get(owner);
+				
+				if (owners == null) {
+					if (DSEMLUtils.isAbstract((Classifier) owner)) {
+						owners = DSEMLUtils.getConcreteResourcesForAbstractResourceType(concreteResources, owner);
+					}
+					else {
+						owners = new ArrayList<Element>();
+						owners.add(owner);
+					}
+					
+					concreteOwners.put(owner, owners);
+				}
+				
+				LinkedHashSet<Element> parents = compositeParents.get(p.getType());
+				
+				if (parents == null) {
+					parents = new LinkedHashSet<Element>();
+					compositeParents.put(p.getType(), parents);
+				}
+				
+				// In case of composites, the composite itself is part of the set (bug or feature?)
+				for (Element o : owners)
+					if (o != p.getType())
+						parents.add(o);
+			}
+		}
+	}
+	
+	/**
+	 * Returns the composites that own the given resource as a part.
+	 * 
+	 * @param e The resource to look for.
+	 * @return A (potentially empty) list of composite resources that own / are
+	 * 		associated with the given part.
+	 */
+	public ArrayList<Element> getCompositeParents(Element e) {
+		HashSet<Element> parents = compositeParents.get(e);
+		
+		if (parents == null)
+			return new ArrayList<Element>();
+		
+		return new ArrayList<Element>(parents);
+	}
+	
+	/**
+	 * Checks whether a given resource is part of any composite (at any type hierarchy
+	 * level).
+	 * 
+	 * @param resource The resource to check.
+	 * @return true if the specified resource is part of any of the composites, false
+	 * 		otherwise.
+	 */
+	public boolean isPartOfAnyComposite(Element resource) {
+		Boolean known = partOfAnyComposite.get(resource);
+		
+		if (known != null)
+			return known.booleanValue();
+		
+		boolean isPart = false;
+		
+		if (resource instanceof Classifier) {
+			for (Element part : compositePartTypes) {
+				if (DSEMLUtils.oneBaseClassifierIsSpecificClassifier((Classifier) resource, (Classifier) part)) {
+					isPart = true;
+					break;
+				}
+			}
+		}
+		
+		partOfAnyComposite.put(resource, Boolean.valueOf(isPart));
+		
+		return isPart;
+	}
+	
+}
@@ -0,0 +1,289 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.uml2.uml.Element;
+
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * Table from each relevant resource type (abstract or not) to the concrete resources
+ * that implement it, with the machine ID and the rows of the allocation matrix of
+ * each concrete resource.
+ * <P>
+ * The concrete resources of a type are those returned by
+ * {@link DSEMLUtils#getConcreteResourcesForAbstractResourceType(ArrayList, Element)}
+ * for the concrete resources of the cache (in the same order). The table is built
+ * once per run, after the machine IDs and instances of the resources have been
+ * assigned, and is immutable.
+ * <P>
+ * Rows and columns are prefix sums over the number of instances of the resources, in
+ * the (linked) order of {@link InternalCorrespondences#getResourceTypeInstanceIDMapping()},
+ * so the row and column queries of {@link InternalCorrespondences} are answered
+ * without iterating the mapping.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ConcreteResourceTable {
+	
+	/**
+	 * A concrete resource with its machine ID and its rows in the allocation matrix.
+	 */
+	public static class ConcreteResource {
+		
+		/** The resource. */
+		private final Element resource;
+		
+		/** Machine ID (as in "IM" + machine ID). */
+		private final int machineID;
+		
+		/** Row of the first instance in the allocation matrix. */
+		private final int firstRow;
+		
+		/** Number of instances. */
+		private final int numInstances;
+		
+		/** Column of the first instance in the composite matrix "C". */
+		private final int firstCompositeColumn;
+		
+		/** Index of the first instance among the composite instances (-1 if not composite). */
+		private final int firstCompositeIndex;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param resource The resource.
+		 * @param machineID The machine ID.
+		 * @param firstRow The row of the first instance in the allocation matrix.
+		 * @param numInstances The number of instances.
+		 * @param firstCompositeColumn The column of the first instance in the composite
+		 * 		matrix.
+		 * @param firstCompositeIndex The index of the first instance among the
+		 * 		composite instances, or -1 if the resource is not composite.
+		 */
+		private ConcreteResource(Element resource, int machineID, int firstRow, int numInstances,
+				int firstCompositeColumn, int firstCompositeIndex) {
+			this.resource = resource;
+			this.machineID = machineID;
+			this.firstRow = firstRow;
+			this.numInstances = numInstances;
+			this.firstCompositeColumn = firstCompositeColumn;
+			this.firstCompositeIndex = firstCompositeIndex;
+		}
+
+		/**
+		 * @return the resource
+		 */
+		public Element getResource() {
+			return resource;
+		}
+
+		/**
+		 * @return the machineID
+		 */
+		public int getMachineID() {
+			return machineID;
+		}
+
+		/**
+		 * @return the row of the first instance in the allocation matrix
+		 */
+		public int getFirstRow() {
+			return firstRow;
+		}
+
+		/**
+		 * @return the row of the last instance in the allocation matrix
+		 */
+		public int getLastRow() {
+			return firstRow + numInstances - 1;
+		}
+
+		/**
+		 * @return the numInstances
+		 */
+		public int getNumInstances() {
+			return numInstances;
+		}
+		
+		/**
+		 * @return the column of the first instance in the composite matrix "C"
+		 */
+		public int getFirstCompositeColumn() {
+			return firstCompositeColumn;
+		}
+		
+		/**
+		 * @return the index of the first instance among the composite instances, or -1
+		 * 		if the resource is not composite
+		 */
+		public int getFirstCompositeIndex() {
+			return firstCompositeIndex;
+		}
+		
+	}
+	
+	/** Concrete resources of the cache (for types that are not in the table). */
+	private final ArrayList<Element> concreteResources;
+	
+	/** Concrete resources by resource type. */
+	private final HashMap<Element, List<Element>> concreteResourcesByType = new HashMap<Element, List<Element>>();
+	
+	/** Machine IDs and rows by concrete resource. */
+	private final HashMap<Element, ConcreteResource> rowsByConcreteResource = new HashMap<Element, ConcreteResource>();
+	
+	/** Total number of resource instances. */
+	private int totalInstances = 0;
+	
+	/** Total number of composite resource instances. */
+	private int totalCompositeInstances = 0;
+	
+	/**
+	 * Constructor. Use {@link #build(TransformationCache, InternalCorrespondences)}.
+	 * 
+	 * @param concreteResources The concrete resources of the cache.
+	 */
+	private ConcreteResourceTable(ArrayList<Element> concreteResources) {
+		this.concreteResources = concreteResources;
+	}
+	
+	/**
+	 * Build the table for the relevant resources of a cache.
+	 * 
+	 * @param cache The cache (with the relevant resources).
+	 * @param correspondences The correspondences, with the machine IDs and instances
+	 * 		of all concrete resources assigned.
+	 * @return The table.
+	 */
+	public static ConcreteResourceTable build(TransformationCache cache,
+			InternalCorrespondences correspondences) {
+		ConcreteResourceTable table = new ConcreteResourceTable(cache.getResources());
+		
+		// Rows are assigned to resources in the (linked) order of the instance mapping
+		int row = 1;
+		
+		// Columns of the composite matrix start at the first composite resource
+		int firstCompositeRow = -1;
+		int compositeIndex = 1;
+		
+		for (Entry<Element, ArrayList<Integer>> entry : correspondences.getResourceTypeInstanceIDMapping().entrySet()) {
+			Integer machineID = correspondences.getResourceTypeMachineIDMapping().get(entry.getKey());
+			int numInstances = entry.getValue().size();
+			boolean composite = DSEMLUtils.isCompositeResource(entry.getKey());
+			
+			if (composite && firstCompositeRow == -1)
+				firstCompositeRow = row;
+			
+			table.rowsByConcreteResource.put(entry.getKey(),
+					new ConcreteResource(entry.getKey(),
+							machineID != null ? machineID.intValue() : -1,
+							row,
+							numInstances,
+							firstCompositeRow == -1 ? row : row - (firstCompositeRow - 1),
+							composite ? compositeIndex : -1));
+			
+			if (composite) {
+				compositeIndex += numInstances;
+				table.totalCompositeInstances += numInstances;
+			}
+			
+			row += numInstances;
+		}
+		
+		table.totalInstances = row - 1;
+		
+		for (Element type : cache.getAllResources())
+			table.addType(type);
+		
+		for (Element type : cache.getResources())
+			table.addType(type);
+		
+		return table;
+	}
+	
+	/**
+	 * Add the concrete resources of a resource type, unless added before.
+	 * 
+	 * @param type The resource type.
+	 */
+	private void addType(Element type) {
+		if (concreteResourcesByType.containsKey(type))
+			return;
+		
+		concreteResourcesByType.put(type, Collections.unmodifiableList(
+				DSEMLUtils.getConcreteResourcesForAbstractResourceType(concreteResources, type)));
+	}
+	
+	/**
+	 * Returns the concrete resources of a resource type (the type itself first, if
+	 * not abstract).
+	 * 
+	 * @param type The resource type.
+	 * @return The (unmodifiable) list of concrete resources of the type.
+	 */
+	public List<Element> getConcreteResources(Element type) {
+		List<Element> concrete = concreteResourcesByType.get(type);
+		
+		// Not a relevant resource type
+		if (concrete == null)
+			concrete = Collections.unmodifiableList(
+					DSEMLUtils.getConcreteResourcesForAbstractResourceType(concreteResources, type));
+		
+		return concrete;
+	}
+	
+	/**
+	 * Returns the machine ID and rows of a concrete resource.
+	 * 
+	 * @param concreteResource The concrete resource.
+	 * @return The machine ID and rows, or null if the resource has no instances.
+	 */
+	public ConcreteResource getRows(Element concreteResource) {
+		return rowsByConcreteResource.get(concreteResource);
+	}
+	
+	/**
+	 * @return the total number of resource instances (rows of the allocation matrix)
+	 */
+	public int getTotalInstances() {
+		return totalInstances;
+	}
+	
+	/**
+	 * @return the total number of composite resource instances
+	 */
+	public int getTotalCompositeInstances() {
+		return totalCompositeInstances;
+	}
+	
+}
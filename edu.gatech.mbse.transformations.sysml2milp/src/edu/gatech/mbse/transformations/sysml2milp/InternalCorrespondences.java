@@ -26,10 +26,10 @@
 package edu.gatech.mbse.transformations.sysml2milp;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Map.Entry;
 
 import org.eclipse.uml2.uml.Activity;
@@ -47,6 +47,8 @@ import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
  * The contained correspondences are computed prior to the actual transformation
  * and are cached for easier access. Some of these functions are computationally
  * complex and require deep model traversal.
+ * <P>
+ * Each transformation run owns its own instance (see {@link TransformationContext}).
  * 
  * @author Sebastian
  * @version 0.1
@@ -54,46 +56,90 @@ import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
 public class InternalCorrespondences {
 
 	/** Resource type -> machine ID mapping. */
-	private static HashMap<Element, Integer> resourceTypeMachineIDMapping = new HashMap<Element,Integer>();
+	private HashMap<Element, Integer> resourceTypeMachineIDMapping = new HashMap<Element,Integer>();
 	
 	/** Resource type -> instances mapping. */
-	private static LinkedHashMap<Element, ArrayList<Integer>> resourceTypeInstanceIDMapping = new LinkedHashMap<Element, ArrayList<Integer>>();
+	private LinkedHashMap<Element, ArrayList<Integer>> resourceTypeInstanceIDMapping = new LinkedHashMap<Element, ArrayList<Integer>>();
 	
-	/** Mapping from activity - working principle pairs to IDs in matrix A. */
-	private static HashMap<Entry<Activity, Element>, Integer> activityWPIndex = new HashMap<Entry<Activity, Element>, Integer>();
+	/** Activity node (e.g., CBA) to instance ID (as used for x in IAxWy) mapping. */
+	private HashMap<ActivityNode,Integer> actInstanceIDMapping = new HashMap<ActivityNode,Integer>();
 	
-	/** Mapping from activity node - working principle pairs to IDs in matrix A. */
-	private static HashMap<Entry<ActivityNode, Element>, Integer> activityNodeWPIndex = new HashMap<Entry<ActivityNode, Element>, Integer>();
+	/** Mapping from a resource to one or more action+wp combination IDs. */
+	private HashMap<Element,HashSet<String>> resourceActivityIDsMapping = new HashMap<Element,HashSet<String>>();
 	
-	/** Mapping from activity node - working principle IDs to pairs. */
-	private static HashMap<String, Entry<ActivityNode, Element>> activityNodeWPIDToElementsMapping = new HashMap<String, Entry<ActivityNode, Element>>();
+	/** Internal IDs (e.g., IA3W2) of the act+wp combinations, by column in matrix A (1-based). */
+	private String[] columnIDs = new String[1];
 	
-	/** Mapping from activity instance - working principle identifier to activity and working principle. */
-	private static HashMap<String, Entry<Activity, Element>> activityInstanceWPIDIndex = new HashMap<String, Entry<Activity, Element>>();
-
-	/** Activity node (e.g., CBA) to instance ID (as used for x in IAxWy) mapping. */
-	private static HashMap<ActivityNode,Integer> actInstanceIDMapping = new HashMap<ActivityNode,Integer>();
+	/** Column in matrix A of each internal ID of an act+wp combination. */
+	private HashMap<String, Integer> columnsByID = new HashMap<String, Integer>();
 	
-	/** Mapping from a resource to one or more action+wp combination IDs. */
-	private static HashMap<Element,HashSet<String>> resourceActivityIDsMapping = new HashMap<Element,HashSet<String>>();
+	/** Columns in the iteration order of their internal IDs in columnsByID. */
+	private int[] columnsInIDOrder = new int[0];
+	
+	/** Activity node (e.g., CBA) of each act+wp combination, by column. */
+	private ActivityNode[] columnActivityNodes = new ActivityNode[1];
+	
+	/** Action instance ID (x in IAxWy) of each act+wp combination, by column. */
+	private int[] columnActionIDs = new int[1];
+	
+	/** Working principle ID of each act+wp combination, by column. */
+	private int[] columnWorkingPrincipleIDs = new int[1];
+	
+	/** Working principles, by working principle ID (dense, in order of first use). */
+	private ArrayList<Activity> workingPrinciplesByID = new ArrayList<Activity>();
+	
+	/** First column of each action instance, by action instance ID (1-based). */
+	private int[] actionFirstColumns = new int[1];
+	
+	/** Number of working principles (y in IAxWy) of each action instance, by action instance ID. */
+	private int[] actionNumWorkingPrinciples = new int[1];
+	
+	/** Columns of each activity node, in ascending order. */
+	private HashMap<ActivityNode, int[]> activityNodeColumns = new HashMap<ActivityNode, int[]>();
+	
+	/** Rendered sums of the columns of each activity node (e.g., A(:,1) + A(:,2)). */
+	private HashMap<ActivityNode, String> activityNodeColumnSums = new HashMap<ActivityNode, String>();
+	
+	/** Processing order, machine IDs and instance counts of the relevant resources. */
+	private ResourceInstancePlan resourceInstancePlan = null;
+	
+	/** Concrete resources of each resource type, with machine IDs and rows. */
+	private ConcreteResourceTable concreteResourceTable = null;
+	
+	/** Relation between the relevant resources and the act+wp combinations. */
+	private ResourceCompatibility resourceCompatibility = null;
 	
 	/**
 	 * Resets all internal correspondences.
 	 */
-	public static void resetInternalCorrespondences() {
+	public void resetInternalCorrespondences() {
 		resourceTypeMachineIDMapping = new HashMap<Element,Integer>();
 		resourceTypeInstanceIDMapping = new LinkedHashMap<Element, ArrayList<Integer>>();
-		activityWPIndex = new HashMap<Entry<Activity, Element>, Integer>();
-		activityNodeWPIndex = new HashMap<Entry<ActivityNode, Element>, Integer>();
-		activityNodeWPIDToElementsMapping = new HashMap<String, Entry<ActivityNode, Element>>();
-		activityInstanceWPIDIndex = new HashMap<String, Entry<Activity, Element>>();
 		actInstanceIDMapping = new HashMap<ActivityNode,Integer>();
 		resourceActivityIDsMapping = new HashMap<Element,HashSet<String>>();
+		columnIDs = new String[1];
+		columnsByID = new HashMap<String, Integer>();
+		columnsInIDOrder = new int[0];
+		columnActivityNodes = new ActivityNode[1];
+		columnActionIDs = new int[1];
+		columnWorkingPrincipleIDs = new int[1];
+		workingPrinciplesByID = new ArrayList<Activity>();
+		actionFirstColumns = new int[1];
+		actionNumWorkingPrinciples = new int[1];
+		activityNodeColumns = new HashMap<ActivityNode, int[]>();
+		activityNodeColumnSums = new HashMap<ActivityNode, String>();
+		resourceInstancePlan = null;
+		concreteResourceTable = null;
+		resourceCompatibility = null;
 	}
 	
 	/**
 	 * Returns the row index for both the "A" and "C" matrix for individual resource
 	 * instances.
+	 * <P>
+	 * Once the concrete resource table has been built, this and the other row and
+	 * column queries are answered from its precomputed offsets (see
+	 * {@link ConcreteResourceTable}); before that, the mapping is iterated.
 	 * 
 	 * @param e The resource type to be retrieved.
 	 * @param instance The (possible) instance (starting from 1) of the resource type
@@ -101,7 +147,13 @@ public class InternalCorrespondences {
 	 * @return Index in allocation matrix (> 0) or -1 if Element queried cannot be found
 	 * 		in mapping.
 	 */
-	public static int getAllocationMatrixResourceInstanceIndex(Element e, int instance) {
+	public int getAllocationMatrixResourceInstanceIndex(Element e, int instance) {
+		if (concreteResourceTable != null) {
+			ConcreteResourceTable.ConcreteResource rows = concreteResourceTable.getRows(e);
+			
+			return rows != null ? rows.getFirstRow() + (instance-1) : -1;
+		}
+		
 		int index = 0;
 		
 		// Linked hash maps are ordered, so calculate index based on that
@@ -125,7 +177,13 @@ public class InternalCorrespondences {
 	 * @param instance The (possible) instance number of the aggregate resource.
 	 * @return The column index (> 0) or -1 if e is not in the map.
 	 */
-	public static int getCompositeMatrixCompositeResourceInstanceColumnIndex(Element e, int instance) {
+	public int getCompositeMatrixCompositeResourceInstanceColumnIndex(Element e, int instance) {
+		if (concreteResourceTable != null) {
+			ConcreteResourceTable.ConcreteResource rows = concreteResourceTable.getRows(e);
+			
+			return rows != null ? rows.getFirstCompositeColumn() + (instance-1) : -1;
+		}
+		
 		int index = 0;
 		int firstCompositeIndex = -1;
 		
@@ -159,7 +217,13 @@ public class InternalCorrespondences {
 	 * @return
 	 * @deprecated
 	 */
-	public static int getCompositeAllocationMatrixCompositeInstanceIndex(Element composite, int instance) {
+	public int getCompositeAllocationMatrixCompositeInstanceIndex(Element composite, int instance) {
+		if (concreteResourceTable != null) {
+			ConcreteResourceTable.ConcreteResource rows = concreteResourceTable.getRows(composite);
+			
+			return rows != null && rows.getFirstCompositeIndex() != -1 ? rows.getFirstCompositeIndex() + (instance-1) : -1;
+		}
+		
 		int index = 0;
 		
 		// Linked hash maps are ordered, so calculate index based on that
@@ -180,193 +244,424 @@ public class InternalCorrespondences {
 	/**
 	 * @return the resourceTypeMachineIDMapping
 	 */
-	public static HashMap<Element, Integer> getResourceTypeMachineIDMapping() {
+	public HashMap<Element, Integer> getResourceTypeMachineIDMapping() {
 		return resourceTypeMachineIDMapping;
 	}
 
 	/**
 	 * @param resourceTypeMachineIDMapping the resourceTypeMachineIDMapping to set
 	 */
-	public static void setResourceTypeMachineIDMapping(HashMap<Element, Integer> resourceTypeMachineIDMapping) {
-		InternalCorrespondences.resourceTypeMachineIDMapping = resourceTypeMachineIDMapping;
+	public void setResourceTypeMachineIDMapping(HashMap<Element, Integer> resourceTypeMachineIDMapping) {
+		this.resourceTypeMachineIDMapping = resourceTypeMachineIDMapping;
 	}
 
 	/**
 	 * @return the resourceTypeInstanceIDMapping
 	 */
-	public static LinkedHashMap<Element, ArrayList<Integer>> getResourceTypeInstanceIDMapping() {
+	public LinkedHashMap<Element, ArrayList<Integer>> getResourceTypeInstanceIDMapping() {
 		return resourceTypeInstanceIDMapping;
 	}
 
 	/**
+	 * Sets the instances of each resource type. The concrete resource table was built
+	 * from the previous mapping, so it is dropped: row and column queries iterate the
+	 * new mapping until a table is set again (see
+	 * {@link #setConcreteResourceTable(ConcreteResourceTable)}).
+	 * 
 	 * @param resourceTypeInstanceIDMapping the resourceTypeInstanceIDMapping to set
 	 */
-	public static void setResourceTypeInstanceIDMapping(
+	public void setResourceTypeInstanceIDMapping(
 			LinkedHashMap<Element, ArrayList<Integer>> resourceTypeInstanceIDMapping) {
-		InternalCorrespondences.resourceTypeInstanceIDMapping = resourceTypeInstanceIDMapping;
+		this.resourceTypeInstanceIDMapping = resourceTypeInstanceIDMapping;
+		this.concreteResourceTable = null;
 	}
 
 	/**
-	 * @return the activityWPIndex
+	 * @return the actInstanceIDMapping
 	 */
-	public static HashMap<Entry<Activity, Element>, Integer> getActivityWPIndex() {
-		return activityWPIndex;
+	public HashMap<ActivityNode, Integer> getActInstanceIDMapping() {
+		return actInstanceIDMapping;
 	}
 
 	/**
-	 * @param activityWPIndex the activityWPIndex to set
+	 * @param actInstanceIDMapping the actInstanceIDMapping to set
 	 */
-	public static void setActivityWPIndex(HashMap<Entry<Activity, Element>, Integer> activityWPIndex) {
-		InternalCorrespondences.activityWPIndex = activityWPIndex;
+	public void setActInstanceIDMapping(HashMap<ActivityNode, Integer> actInstanceIDMapping) {
+		this.actInstanceIDMapping = actInstanceIDMapping;
 	}
 
 	/**
-	 * @return the activityNodeWPIndex
+	 * @return the resourceActivityIDsMapping
 	 */
-	public static HashMap<Entry<ActivityNode, Element>, Integer> getActivityNodeWPIndex() {
-		return activityNodeWPIndex;
+	public HashMap<Element, HashSet<String>> getResourceActivityIDsMapping() {
+		return resourceActivityIDsMapping;
 	}
 
 	/**
-	 * @param activityNodeWPIndex the activityNodeWPIndex to set
+	 * @param resourceActivityIDsMapping the resourceActivityIDsMapping to set
 	 */
-	public static void setActivityNodeWPIndex(HashMap<Entry<ActivityNode, Element>, Integer> activityNodeWPIndex) {
-		InternalCorrespondences.activityNodeWPIndex = activityNodeWPIndex;
+	public void setResourceActivityIDsMapping(HashMap<Element, HashSet<String>> resourceActivityIDsMapping) {
+		this.resourceActivityIDsMapping = resourceActivityIDsMapping;
 	}
-
+	
 	/**
-	 * @return the activityNodeWPIDToElementsMapping
+	 * @return the number of act+wp combinations (columns of matrix A)
 	 */
-	public static HashMap<String, Entry<ActivityNode, Element>> getActivityNodeWPIDToElementsMapping() {
-		return activityNodeWPIDToElementsMapping;
+	public int getNumColumns() {
+		return columnIDs.length - 1;
 	}
-
+	
 	/**
-	 * @param activityNodeWPIDToElementsMapping the activityNodeWPIDToElementsMapping to set
+	 * Returns the internal ID of an act+wp combination.
+	 * 
+	 * @param column The column in matrix A (1-based).
+	 * @return The internal ID (e.g., IA3W2).
 	 */
-	public static void setActivityNodeWPIDToElementsMapping(
-			HashMap<String, Entry<ActivityNode, Element>> activityNodeWPIDToElementsMapping) {
-		InternalCorrespondences.activityNodeWPIDToElementsMapping = activityNodeWPIDToElementsMapping;
+	public String getColumnID(int column) {
+		return columnIDs[column];
 	}
-
+	
+	/**
+	 * Returns the column of an act+wp combination by its internal ID.
+	 * 
+	 * @param columnID The internal ID (e.g., IA3W2).
+	 * @return The column in matrix A (1-based), or -1 if there is no such combination.
+	 */
+	public int getColumn(String columnID) {
+		Integer column = columnsByID.get(columnID);
+		
+		return column != null ? column.intValue() : -1;
+	}
+	
+	/**
+	 * Returns the columns of all act+wp combinations in the iteration order of their
+	 * internal IDs in a hash map. This is the order in which the generated code has
+	 * always listed the combinations (e.g., in the busy time of a resource), so it is
+	 * kept for the combinations that are not listed by column.
+	 * 
+	 * @return The columns in matrix A (1-based), not to be modified.
+	 */
+	public int[] getColumnsInIDOrder() {
+		return columnsInIDOrder;
+	}
+	
+	/**
+	 * Returns the activity node of an act+wp combination.
+	 * 
+	 * @param column The column in matrix A (1-based).
+	 * @return The activity node (e.g., CBA).
+	 */
+	public ActivityNode getColumnActivityNode(int column) {
+		return columnActivityNodes[column];
+	}
+	
+	/**
+	 * Returns the action instance ID of an act+wp combination.
+	 * 
+	 * @param column The column in matrix A (1-based).
+	 * @return The action instance ID (x in IAxWy).
+	 */
+	public int getColumnActionID(int column) {
+		return columnActionIDs[column];
+	}
+	
+	/**
+	 * Returns the working principle ID of an act+wp combination.
+	 * 
+	 * @param column The column in matrix A (1-based).
+	 * @return The working principle ID (see {@link #getWorkingPrinciple(int)}).
+	 */
+	public int getColumnWorkingPrincipleID(int column) {
+		return columnWorkingPrincipleIDs[column];
+	}
+	
+	/**
+	 * Returns the working principle of an act+wp combination.
+	 * 
+	 * @param column The column in matrix A (1-based).
+	 * @return The working principle.
+	 */
+	public Activity getColumnWorkingPrinciple(int column) {
+		return workingPrinciplesByID.get(columnWorkingPrincipleIDs[column]);
+	}
+	
+	/**
+	 * Returns a working principle by its ID.
+	 * 
+	 * @param workingPrincipleID The working principle ID (0-based).
+	 * @return The working principle.
+	 */
+	public Activity getWorkingPrinciple(int workingPrincipleID) {
+		return workingPrinciplesByID.get(workingPrincipleID);
+	}
+	
+	/**
+	 * @return the number of distinct working principles used by act+wp combinations
+	 */
+	public int getNumWorkingPrinciples() {
+		return workingPrinciplesByID.size();
+	}
+	
 	/**
-	 * @return the activityInstanceWPIDIndex
+	 * Returns the number of working principles that can implement an action instance.
+	 * 
+	 * @param actionID The action instance ID (x in IAxWy).
+	 * @return The number of act+wp combinations of the action (0 if unknown).
 	 */
-	public static HashMap<String, Entry<Activity, Element>> getActivityInstanceWPIDIndex() {
-		return activityInstanceWPIDIndex;
+	public int getNumWorkingPrinciples(int actionID) {
+		if (actionID < 1 || actionID >= actionNumWorkingPrinciples.length)
+			return 0;
+		
+		return actionNumWorkingPrinciples[actionID];
+	}
+	
+	/**
+	 * Returns the column of an act+wp combination. The columns of an action instance
+	 * are consecutive.
+	 * 
+	 * @param actionID The action instance ID (x in IAxWy).
+	 * @param wpNumber The number of the working principle within the action (y in
+	 * 		IAxWy, 1-based).
+	 * @return The column in matrix A, or -1 if there is no such combination.
+	 */
+	public int getColumn(int actionID, int wpNumber) {
+		if (wpNumber < 1 || wpNumber > getNumWorkingPrinciples(actionID))
+			return -1;
+		
+		return actionFirstColumns[actionID] + wpNumber - 1;
+	}
+	
+	/**
+	 * Returns the columns of matrix A of an activity node (one per working principle
+	 * that can implement it).
+	 * 
+	 * @param node The activity node (e.g., CBA).
+	 * @return The columns, in ascending order, empty if the node has none.
+	 */
+	public int[] getColumns(ActivityNode node) {
+		int[] columns = activityNodeColumns.get(node);
+		
+		return columns != null ? columns : new int[0];
+	}
+	
+	/**
+	 * Returns the sum of the columns of matrix A of an activity node (e.g.,
+	 * "A(:,1) + A(:,2)"). The expression is rendered on the first request only.
+	 * 
+	 * @param node The activity node (e.g., CBA).
+	 * @return The sum of the columns, or an empty string if the node has none.
+	 */
+	public String getColumnSumExpression(ActivityNode node) {
+		String expression = activityNodeColumnSums.get(node);
+		
+		if (expression == null) {
+			StringBuilder sum = new StringBuilder();
+			
+			for (int column : getColumns(node)) {
+				if (sum.length() > 0)
+					sum.append(" + ");
+				
+				// Note that this column will be filled with zeros if the activity is not realized by the
+				// particular working principle in the solution
+				sum.append("A(:," + column + ")");
+			}
+			
+			expression = sum.toString();
+			activityNodeColumnSums.put(node, expression);
+		}
+		
+		return expression;
+	}
+	
+	/**
+	 * @return the resourceInstancePlan
+	 */
+	public ResourceInstancePlan getResourceInstancePlan() {
+		return resourceInstancePlan;
 	}
 
 	/**
-	 * @param activityInstanceWPIDIndex the activityInstanceWPIDIndex to set
+	 * @param resourceInstancePlan the resourceInstancePlan to set
 	 */
-	public static void setActivityInstanceWPIDIndex(HashMap<String, Entry<Activity, Element>> activityInstanceWPIDIndex) {
-		InternalCorrespondences.activityInstanceWPIDIndex = activityInstanceWPIDIndex;
+	public void setResourceInstancePlan(ResourceInstancePlan resourceInstancePlan) {
+		this.resourceInstancePlan = resourceInstancePlan;
 	}
 
 	/**
-	 * @return the actInstanceIDMapping
+	 * @return the concreteResourceTable
 	 */
-	public static HashMap<ActivityNode, Integer> getActInstanceIDMapping() {
-		return actInstanceIDMapping;
+	public ConcreteResourceTable getConcreteResourceTable() {
+		return concreteResourceTable;
 	}
 
 	/**
-	 * @param actInstanceIDMapping the actInstanceIDMapping to set
+	 * @param concreteResourceTable the concreteResourceTable to set
 	 */
-	public static void setActInstanceIDMapping(HashMap<ActivityNode, Integer> actInstanceIDMapping) {
-		InternalCorrespondences.actInstanceIDMapping = actInstanceIDMapping;
+	public void setConcreteResourceTable(ConcreteResourceTable concreteResourceTable) {
+		this.concreteResourceTable = concreteResourceTable;
 	}
 
 	/**
-	 * @return the resourceActivityIDsMapping
+	 * @return the resourceCompatibility
 	 */
-	public static HashMap<Element, HashSet<String>> getResourceActivityIDsMapping() {
-		return resourceActivityIDsMapping;
+	public ResourceCompatibility getResourceCompatibility() {
+		return resourceCompatibility;
 	}
 
 	/**
-	 * @param resourceActivityIDsMapping the resourceActivityIDsMapping to set
+	 * @param resourceCompatibility the resourceCompatibility to set
 	 */
-	public static void setResourceActivityIDsMapping(HashMap<Element, HashSet<String>> resourceActivityIDsMapping) {
-		InternalCorrespondences.resourceActivityIDsMapping = resourceActivityIDsMapping;
+	public void setResourceCompatibility(ResourceCompatibility resourceCompatibility) {
+		this.resourceCompatibility = resourceCompatibility;
 	}
-	
+
 	/**
 	 * Pre-computes internal identifiers and mappings from UML elements to these.
+	 * <P>
+	 * The concrete resource table must have been built (see
+	 * {@link #setConcreteResourceTable(ConcreteResourceTable)}).
 	 * 
 	 * @param functionalSpecification The functional specification.
+	 * @param cache The cache of the transformation run (working principles and resources).
+	 * @param state The state of the transformation run (action and working principle counters).
 	 */
-	public static void preComputeFunctionStructureCorrespondences(Activity functionalSpecification) {
+	public void preComputeFunctionStructureCorrespondences(Activity functionalSpecification,
+			TransformationCache cache, TransformationState state) {
 		// Reset global mappings
-		InternalCorrespondences.setResourceActivityIDsMapping(new HashMap<Element,HashSet<String>>());
-		InternalCorrespondences.setActivityWPIndex(new HashMap<Entry<Activity, Element>, Integer>());
-		InternalCorrespondences.setActivityNodeWPIndex(new HashMap<Entry<ActivityNode, Element>, Integer>());
-		InternalCorrespondences.setActivityNodeWPIDToElementsMapping(new HashMap<String, Entry<ActivityNode,Element>>());
-		InternalCorrespondences.setActivityInstanceWPIDIndex(new HashMap<String, Entry<Activity, Element>>());
+		setResourceActivityIDsMapping(new HashMap<Element,HashSet<String>>());
+		
+		state.currentActionCount = 1;
+		state.currentActionWPCount = 1;
+		
+		// Dense IDs by column (1-based), grown as the combinations are found (there
+		// are at most as many action instances as owned elements)
+		int maxActions = functionalSpecification.getOwnedElements().size();
+		int capacity = maxActions + 1;
+		
+		columnIDs = new String[capacity];
+		columnsByID = new HashMap<String, Integer>();
+		columnActivityNodes = new ActivityNode[capacity];
+		columnActionIDs = new int[capacity];
+		columnWorkingPrincipleIDs = new int[capacity];
+		actionFirstColumns = new int[maxActions + 1];
+		actionNumWorkingPrinciples = new int[maxActions + 1];
 		
-		TransformationState.CURRENT_ACTION_COUNT = 1;
-		TransformationState.CURRENT_ACTION_WP_COUNT = 1;
+		HashMap<Activity, Integer> workingPrincipleIDs = new HashMap<Activity, Integer>();
+		workingPrinciplesByID = new ArrayList<Activity>();
 		
 		for (Element e : functionalSpecification.getOwnedElements()) {
 			if (e instanceof CallBehaviorAction) {
 				CallBehaviorAction cba = (CallBehaviorAction) e;
 				
 				// Set state
-				TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT = 1;
+				state.currentWorkingPrincipleCount = 1;
 				
-				String topLevelID = "IA" + TransformationState.CURRENT_ACTION_COUNT + "W";
+				String topLevelID = "IA" + state.currentActionCount + "W";
 				
 				// Store the mapping from action -> action ID (should be part of an Action or
 				// Function object in the future)
-				InternalCorrespondences.getActInstanceIDMapping().put(cba, TransformationState.CURRENT_ACTION_COUNT);
+				getActInstanceIDMapping().put(cba, state.currentActionCount);
 
 				// Get corresponding activity / behavior
 				// FIXME Can also be opaque behavior
 				if (!(cba.getBehavior() instanceof Activity))
 					continue;
 				
+				actionFirstColumns[state.currentActionCount] = state.currentActionWPCount;
+				
 				Activity act = (Activity) cba.getBehavior();
 
 				// Get associated working principles
-				ArrayList<Activity> workingPrinciples = DSEMLUtils.getWorkingPrinciples(act,
-						TransformationCache.getAllWorkingPrinciples());
+				ArrayList<Activity> workingPrinciples = cache.getWorkingPrincipleIndex().getWorkingPrinciples(act);
 				
 				for(Activity end : workingPrinciples) {
-					String identifier = topLevelID + TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT;
+					String identifier = topLevelID + state.currentWorkingPrincipleCount;
+					int column = state.currentActionWPCount;
+					
+					Integer wpID = workingPrincipleIDs.get(end);
 					
-					InternalCorrespondences.getActivityNodeWPIndex().put(new SimpleEntry<ActivityNode, Element>(cba, end), TransformationState.CURRENT_ACTION_WP_COUNT);
-					InternalCorrespondences.getActivityNodeWPIDToElementsMapping().put(identifier, new SimpleEntry<ActivityNode, Element>(cba, end));
-					InternalCorrespondences.getActivityWPIndex().put(new SimpleEntry<Activity, Element>(act, end), TransformationState.CURRENT_ACTION_WP_COUNT);
-					InternalCorrespondences.getActivityInstanceWPIDIndex().put(identifier, new SimpleEntry<Activity, Element>(act, end));
+					if (wpID == null) {
+						wpID = workingPrinciplesByID.size();
+						workingPrincipleIDs.put(end, wpID);
+						workingPrinciplesByID.add(end);
+					}
+					
+					if (column >= columnIDs.length) {
+						capacity = Math.max(column + 1, 2 * columnIDs.length);
+						columnIDs = Arrays.copyOf(columnIDs, capacity);
+						columnActivityNodes = Arrays.copyOf(columnActivityNodes, capacity);
+						columnActionIDs = Arrays.copyOf(columnActionIDs, capacity);
+						columnWorkingPrincipleIDs = Arrays.copyOf(columnWorkingPrincipleIDs, capacity);
+					}
 					
-					TransformationState.CURRENT_ACTION_WP_COUNT++;
+					columnIDs[column] = identifier;
+					columnsByID.put(identifier, column);
+					columnActivityNodes[column] = cba;
+					columnActionIDs[column] = state.currentActionCount;
+					columnWorkingPrincipleIDs[column] = wpID;
+					actionNumWorkingPrinciples[state.currentActionCount] = state.currentWorkingPrincipleCount;
+					
+					state.currentActionWPCount++;
 					
 					ArrayList<Element> resourceTypes = DSEMLUtils.getAllAssociatedResourceTypes(end); //collectAssociatedConcreteResources(end);
 					if (resourceTypes != null) {
 						// At least 1 concrete type ("instance") of each resource type must be present
 						for (Element resource : resourceTypes) {
 							// Add abstract type to mapping
-							if(InternalCorrespondences.getResourceActivityIDsMapping().get(resource) == null)
-								InternalCorrespondences.getResourceActivityIDsMapping().put(resource, new HashSet<String>());
-							InternalCorrespondences.getResourceActivityIDsMapping().get(resource).add(identifier);
+							if(getResourceActivityIDsMapping().get(resource) == null)
+								getResourceActivityIDsMapping().put(resource, new HashSet<String>());
+							getResourceActivityIDsMapping().get(resource).add(identifier);
 							
-							ArrayList<Element> concreteResources = DSEMLUtils.getConcreteResourcesForAbstractResourceType(TransformationCache.getResources(), resource);
-							for (Element concRes : concreteResources) {
-								if(InternalCorrespondences.getResourceActivityIDsMapping().get(concRes) == null)
-									InternalCorrespondences.getResourceActivityIDsMapping().put(concRes, new HashSet<String>());
-								InternalCorrespondences.getResourceActivityIDsMapping().get(concRes).add(identifier);
+							for (Element concRes : getConcreteResourceTable().getConcreteResources(resource)) {
+								if(getResourceActivityIDsMapping().get(concRes) == null)
+									getResourceActivityIDsMapping().put(concRes, new HashSet<String>());
+								getResourceActivityIDsMapping().get(concRes).add(identifier);
 							}
 						}
 					}
 					
-					TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT++;
+					state.currentWorkingPrincipleCount++;
 				}
 				
-				TransformationState.CURRENT_ACTION_COUNT++;
+				state.currentActionCount++;
 			}
 		}
 		
-		TransformationState.CURRENT_ACTION_WP_COUNT = 0;
+		int numColumns = state.currentActionWPCount - 1;
+		
+		columnIDs = Arrays.copyOf(columnIDs, numColumns + 1);
+		columnActivityNodes = Arrays.copyOf(columnActivityNodes, numColumns + 1);
+		columnActionIDs = Arrays.copyOf(columnActionIDs, numColumns + 1);
+		columnWorkingPrincipleIDs = Arrays.copyOf(columnWorkingPrincipleIDs, numColumns + 1);
+		actionFirstColumns = Arrays.copyOf(actionFirstColumns, state.currentActionCount);
+		actionNumWorkingPrinciples = Arrays.copyOf(actionNumWorkingPrinciples, state.currentActionCount);
+		
+		columnsInIDOrder = new int[numColumns];
+		int i = 0;
+		
+		for (Integer column : columnsByID.values())
+			columnsInIDOrder[i++] = column.intValue();
+		
+		// Reverse index from activity nodes to their (consecutive) columns
+		activityNodeColumns = new HashMap<ActivityNode, int[]>();
+		activityNodeColumnSums = new HashMap<ActivityNode, String>();
+		
+		for (int first = 1; first <= numColumns; ) {
+			int last = first;
+			
+			while (last < numColumns && columnActivityNodes[last + 1] == columnActivityNodes[first])
+				last++;
+			
+			int[] columns = new int[last - first + 1];
+			
+			for (int c = first; c <= last; c++)
+				columns[c - first] = c;
+			
+			activityNodeColumns.put(columnActivityNodes[first], columns);
+			first = last + 1;
+		}
+		
+		state.currentActionWPCount = 0;
 	}
 	
 }
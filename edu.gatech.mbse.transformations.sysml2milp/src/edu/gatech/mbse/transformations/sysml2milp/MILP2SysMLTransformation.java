@@ -51,6 +51,7 @@ import org.eclipse.uml2.uml.Package;
 import org.eclipse.uml2.uml.Property;
 
 import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.NameIndex;
 import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
 
 /**
@@ -64,6 +65,12 @@ public class MILP2SysMLTransformation {
 
 	private Element rootModelElement = null;
 	
+	/** All working principles contained in the model and library. */
+	private ArrayList<Activity> allWorkingPrinciples = null;
+	
+	/** Index of the types in the model and library by qualified name. */
+	private NameIndex typeIndex = null;
+	
 	/**
 	 * Constructor.
 	 *
@@ -81,6 +88,7 @@ public class MILP2SysMLTransformation {
 		// Create new solution package //
 		
 		rootModelElement = rootElement;
+		allWorkingPrinciples = DSEMLUtils.getWorkingPrinciples(rootElement);
 		
 		// Need a transaction domain for the element being modified
 		final TransactionalEditingDomain ted = TransactionUtil.getEditingDomain(functionalSpecification.getNearestPackage()); // (TransactionalEditingDomain) AdapterFactoryEditingDomain.getEditingDomainFor(e);
@@ -94,6 +102,10 @@ public class MILP2SysMLTransformation {
 				// Clean up old solutions
 				cleanUpSolutions(solutionOwner);
 				
+				// Types are looked up for every instance - the solutions created below
+				// only add elements, so the index stays valid
+				typeIndex = new NameIndex((Namespace) rootModelElement);
+				
 				// Read back results from transformation
 				int solution = 0;
 				File file = new File(System.getProperty("user.home") + "/milp_solution_" + solution + "_instanceData.smt");
@@ -299,7 +311,7 @@ public class MILP2SysMLTransformation {
 		    			for (Classifier resource : resourceInstances) {
 		    				if (DSEMLUtils.isDirectlyAssociatedWithAnyWorkingPrinciple(
 		    						resource,
-		    						TransformationCache.getAllWorkingPrinciples())) {
+		    						allWorkingPrinciples)) {
 		    					Association assoc = UMLModelUtils.createDirectedAssociation(newSystemUnderDesign, resource);
 		    					
 		    					// Set subsetted property for resources
@@ -323,7 +335,7 @@ public class MILP2SysMLTransformation {
 		    	   propertyValues = new HashMap<String,String>();
 		       }
 		       else if(currentType == null) {
-		    	   currentType = UMLModelUtils.findClassifierByQualifiedName(line, (Namespace) rootModelElement);
+		    	   currentType = typeIndex.findClassifierByQualifiedName(line);
 		       }
 		       else {
 		    	   String[] keyVal = line.split(" = ");
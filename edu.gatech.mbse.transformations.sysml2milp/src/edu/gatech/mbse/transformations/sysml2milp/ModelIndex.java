@@ -0,0 +1,249 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Constraint;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.ObjectFlow;
+import org.eclipse.uml2.uml.Package;
+import org.eclipse.uml2.uml.PackageImport;
+
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.WorkingPrincipleIndex;
+
+/**
+ * Lists of elements that do not depend on the functional specification, collected
+ * in a single traversal of the model (including imported model libraries).
+ * <P>
+ * Every element is classified once: object flows, working principles and resources
+ * (abstract and concrete, whether relevant or not) are collected in the same order
+ * as the separate traversals in {@link DSEMLUtils} would (e.g.,
+ * {@link DSEMLUtils#getWorkingPrinciples(Element)}), and the system under design
+ * (with its objective) and the first workpiece are found as by
+ * {@link DSEMLUtils#getSystemUnderDesign(Element)} and
+ * {@link DSEMLUtils#getFirstWorkpiece(Element)}, i.e. without searching imported
+ * libraries. Each package is traversed only once, also if it is both owned and
+ * imported.
+ * <P>
+ * An index is read-only once built and may be shared by several transformation runs
+ * on the same model.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ModelIndex {
+	
+	/** Object flows. */
+	private final ArrayList<ObjectFlow> objectFlows = new ArrayList<ObjectFlow>();
+	
+	/** Adjacency of the object flows. */
+	private ObjectFlowIndex objectFlowIndex = null;
+	
+	/** Working principles. */
+	private final ArrayList<Activity> workingPrinciples = new ArrayList<Activity>();
+	
+	/** The working principles of each activity. */
+	private WorkingPrincipleIndex workingPrincipleIndex = null;
+	
+	/** Resources (abstract and concrete). */
+	private final ArrayList<Classifier> resources = new ArrayList<Classifier>();
+	
+	/** The system under design (null if none found). */
+	private Classifier systemUnderDesign = null;
+	
+	/** The objective of the system under design (null if none found). */
+	private Constraint objective = null;
+	
+	/** The first concrete workpiece (null if none found). */
+	private Classifier firstWorkpiece = null;
+	
+	/** Packages that have been traversed (to traverse each package only once, whether owned or imported). */
+	private final HashSet<Element> visitedPackages = new HashSet<Element>();
+	
+	/**
+	 * Constructor. Use {@link #build(Element)}.
+	 */
+	private ModelIndex() {
+	}
+	
+	/**
+	 * Build the index of a model.
+	 * 
+	 * @param rootElement The root model element.
+	 * @return The index.
+	 */
+	public static ModelIndex build(Element rootElement) {
+		ModelIndex index = new ModelIndex();
+		
+		index.visitedPackages.add(rootElement);
+		index.classifyInModel(rootElement);
+		index.visitOwnedElements(rootElement, false);
+		
+		if (index.systemUnderDesign != null)
+			index.objective = DSEMLUtils.getObjective(index.systemUnderDesign);
+		
+		index.objectFlowIndex = ObjectFlowIndex.build(index.objectFlows);
+		index.workingPrincipleIndex = new WorkingPrincipleIndex(index.workingPrinciples);
+		
+		return index;
+	}
+	
+	/**
+	 * Depth first traversal of the owned elements of an element. Working principles
+	 * are collected before, object flows and resources after the owned elements (and
+	 * imported packages) of an element, as in the traversals this replaces.
+	 * 
+	 * @param parent The element to traverse.
+	 * @param imported Whether the element is part of an imported package.
+	 */
+	private void visitOwnedElements(Element parent, boolean imported) {
+		if (parent.getOwnedElements() == null)
+			return;
+		
+		for (Element e : parent.getOwnedElements()) {
+			if (!imported)
+				classifyInModel(e);
+			
+			if (DSEMLUtils.isWorkingPrinciple(e))
+				workingPrinciples.add((Activity) e);
+			
+			// Depth first search (a package that has already been traversed, e.g. through
+			// an import, is only searched for the system under design and workpiece)
+			if (!(e instanceof Package) || visitedPackages.add(e))
+				visitOwnedElements(e, imported);
+			else if (!imported)
+				classifyOwnedElementsInModel(e);
+			
+			// If model library...
+			if (DSEMLUtils.isPackageImport(e)) {
+				Package importedPackage = ((PackageImport) e).getImportedPackage();
+				
+				if (importedPackage != null && visitedPackages.add(importedPackage))
+					visitOwnedElements(importedPackage, true);
+			}
+			
+			if (e instanceof ObjectFlow)
+				objectFlows.add((ObjectFlow) e);
+			
+			if (e instanceof Classifier && DSEMLUtils.isResource(e))
+				resources.add((Classifier) e);
+		}
+	}
+	
+	/**
+	 * Check whether any (directly or indirectly) owned element of an element of the
+	 * model itself is the first system under design or concrete workpiece.
+	 * 
+	 * @param parent The element whose owned elements to check.
+	 */
+	private void classifyOwnedElementsInModel(Element parent) {
+		if (parent.getOwnedElements() == null)
+			return;
+		
+		for (Element e : parent.getOwnedElements()) {
+			classifyInModel(e);
+			classifyOwnedElementsInModel(e);
+		}
+	}
+	
+	/**
+	 * Check whether an element of the model itself (not of an imported library) is
+	 * the first system under design or concrete workpiece.
+	 * 
+	 * @param e The element to check.
+	 */
+	private void classifyInModel(Element e) {
+		if (systemUnderDesign == null && DSEMLUtils.isSystemUnderDesign(e))
+			systemUnderDesign = (Classifier) e;
+		
+		if (firstWorkpiece == null
+				&& DSEMLUtils.isWorkpiece(e)
+				&& !DSEMLUtils.isAbstract((Classifier) e))
+			firstWorkpiece = (Classifier) e;
+	}
+	
+	/**
+	 * @return the object flows
+	 */
+	public ArrayList<ObjectFlow> getObjectFlows() {
+		return objectFlows;
+	}
+	
+	/**
+	 * @return the adjacency of the object flows
+	 */
+	public ObjectFlowIndex getObjectFlowIndex() {
+		return objectFlowIndex;
+	}
+	
+	/**
+	 * @return the working principles
+	 */
+	public ArrayList<Activity> getWorkingPrinciples() {
+		return workingPrinciples;
+	}
+	
+	/**
+	 * @return the working principles of each activity
+	 */
+	public WorkingPrincipleIndex getWorkingPrincipleIndex() {
+		return workingPrincipleIndex;
+	}
+	
+	/**
+	 * @return the resources (abstract and concrete, relevant or not)
+	 */
+	public ArrayList<Classifier> getResources() {
+		return resources;
+	}
+	
+	/**
+	 * @return the system under design or null if none was found
+	 */
+	public Classifier getSystemUnderDesign() {
+		return systemUnderDesign;
+	}
+	
+	/**
+	 * @return the objective of the system under design or null if none was found
+	 */
+	public Constraint getObjective() {
+		return objective;
+	}
+	
+	/**
+	 * @return the first concrete workpiece or null if none was found
+	 */
+	public Classifier getFirstWorkpiece() {
+		return firstWorkpiece;
+	}
+	
+}
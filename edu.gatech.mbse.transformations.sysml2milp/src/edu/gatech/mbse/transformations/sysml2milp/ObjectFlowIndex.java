@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.uml2.uml.ActivityNode;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.ObjectFlow;
+
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * Adjacency of the object flows of a model: the outgoing flows of each source node,
+ * the incoming flows of each target node, and the flows into the (named) pins of
+ * each action.
+ * <P>
+ * Flows are kept in the order of the list the index is built from, so that lookups
+ * return the same flows in the same order as a scan of the list would. Flows into
+ * named pins (with a source) are used to resolve the values passed to the parameters
+ * of an action (see
+ * {@link DSEMLUtils#getInterpretedParameterValue(org.eclipse.uml2.uml.CallBehaviorAction, String, TransformationContext)}).
+ * <P>
+ * An index is read-only once built and may be shared by several transformation runs
+ * on the same model.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ObjectFlowIndex {
+	
+	/** Outgoing object flows by source node. */
+	private final HashMap<ActivityNode, List<ObjectFlow>> outgoingFlows = new HashMap<ActivityNode, List<ObjectFlow>>();
+	
+	/** Incoming object flows by target node. */
+	private final HashMap<ActivityNode, List<ObjectFlow>> incomingFlows = new HashMap<ActivityNode, List<ObjectFlow>>();
+	
+	/** Object flows into named pins, by owner of the pin and name of the pin. */
+	private final HashMap<Element, HashMap<String, List<ObjectFlow>>> parameterFlows = new HashMap<Element, HashMap<String, List<ObjectFlow>>>();
+	
+	/**
+	 * Constructor. Use {@link #build(List)}.
+	 */
+	private ObjectFlowIndex() {
+	}
+	
+	/**
+	 * Build the index of a list of object flows.
+	 * 
+	 * @param objectFlows The object flows (e.g., of a {@link ModelIndex}).
+	 * @return The index.
+	 */
+	public static ObjectFlowIndex build(List<ObjectFlow> objectFlows) {
+		ObjectFlowIndex index = new ObjectFlowIndex();
+		
+		for (ObjectFlow flow : objectFlows) {
+			if (flow == null)
+				continue;
+			
+			ActivityNode source = flow.getSource();
+			ActivityNode target = flow.getTarget();
+			
+			if (source != null)
+				add(index.outgoingFlows, source, flow);
+			
+			if (target == null)
+				continue;
+			
+			add(index.incomingFlows, target, flow);
+			
+			if (source != null && target.getName() != null && target.getOwner() != null) {
+				HashMap<String, List<ObjectFlow>> byName = index.parameterFlows.get(target.getOwner());
+				
+				if (byName == null) {
+					byName = new HashMap<String, List<ObjectFlow>>();
+					index.parameterFlows.put(target.getOwner(), byName);
+				}
+				
+				List<ObjectFlow> flows = byName.get(target.getName());
+				
+				if (flows == null) {
+					flows = new ArrayList<ObjectFlow>(1);
+					byName.put(target.getName(), flows);
+				}
+				
+				flows.add(flow);
+			}
+		}
+		
+		return index;
+	}
+	
+	/**
+	 * Add an object flow to the flows of a node.
+	 * 
+	 * @param flowsByNode The flows by node.
+	 * @param node The node.
+	 * @param flow The flow to add.
+	 */
+	private static void add(HashMap<ActivityNode, List<ObjectFlow>> flowsByNode, ActivityNode node, ObjectFlow flow) {
+		List<ObjectFlow> flows = flowsByNode.get(node);
+		
+		if (flows == null) {
+			flows = new ArrayList<ObjectFlow>(1);
+			flowsByNode.put(node, flows);
+		}
+		
+		flows.add(flow);
+	}
+	
+	/**
+	 * Returns the object flows that have a node as their source.
+	 * 
+	 * @param source The source node.
+	 * @return The (unmodifiable) list of outgoing flows, empty if there are none.
+	 */
+	public List<ObjectFlow> getOutgoingFlows(ActivityNode source) {
+		return unmodifiable(outgoingFlows.get(source));
+	}
+	
+	/**
+	 * Returns the object flows that have a node as their target.
+	 * 
+	 * @param target The target node.
+	 * @return The (unmodifiable) list of incoming flows, empty if there are none.
+	 */
+	public List<ObjectFlow> getIncomingFlows(ActivityNode target) {
+		return unmodifiable(incomingFlows.get(target));
+	}
+	
+	/**
+	 * Returns the object flows into the pins of an action that have a particular
+	 * name (i.e., the flows passing values to the parameter of that name).
+	 * 
+	 * @param action The action (owner of the pins).
+	 * @param parameterName The name of the parameter (and pin).
+	 * @return The (unmodifiable) list of flows, empty if there are none.
+	 */
+	public List<ObjectFlow> getParameterFlows(Element action, String parameterName) {
+		HashMap<String, List<ObjectFlow>> byName = parameterFlows.get(action);
+		
+		if (byName == null)
+			return Collections.emptyList();
+		
+		return unmodifiable(byName.get(parameterName));
+	}
+	
+	/**
+	 * Wrap a list of flows for returning it.
+	 * 
+	 * @param flows The flows (may be null).
+	 * @return An unmodifiable view of the list, or an empty list.
+	 */
+	private static List<ObjectFlow> unmodifiable(List<ObjectFlow> flows) {
+		if (flows == null)
+			return Collections.emptyList();
+		
+		return Collections.unmodifiableList(flows);
+	}
+	
+}
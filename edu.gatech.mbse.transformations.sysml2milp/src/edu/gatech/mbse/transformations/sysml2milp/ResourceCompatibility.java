@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Element;
+
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+
+/**
+ * Relation between the relevant resources and the activity + working principle
+ * combinations (the columns of the allocation matrix "A"), computed once per run
+ * after the internal correspondences.
+ * <P>
+ * For every column, the combination's internal ID, its working principle and the
+ * resource types associated with the working principle (see
+ * {@link DSEMLUtils#getAllAssociatedResourceTypes(Activity)}) are kept, in the
+ * order of {@link InternalCorrespondences#getColumnsInIDOrder()}. For every
+ * relevant resource (row) and column, a bit records whether the resource is
+ * non-shareable within that combination (see
+ * {@link SysML2MILPMappingsHelper#isNonShareableWithinContext(Element, String, TransformationContext)}),
+ * which is otherwise recomputed from the attributes of the working principle every
+ * time the non-shareability constraints ask.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ResourceCompatibility {
+	
+	/** Internal IDs of the combinations, in iteration order. */
+	private final String[] columnIDs;
+	
+	/** Column indexes (in "A") of the combinations, in iteration order. */
+	private final int[] columnIndexes;
+	
+	/** The correspondences the columns are taken from (column index by internal ID). */
+	private final InternalCorrespondences correspondences;
+	
+	/** Associated resource types of each working principle. */
+	private final HashMap<Element, List<Element>> resourceTypes = new HashMap<Element, List<Element>>();
+	
+	/** Row of each relevant resource. */
+	private final HashMap<Element, Integer> rows = new HashMap<Element, Integer>();
+	
+	/** Rows of the resources that are non-shareable, by column index (shared by the columns of a working principle). */
+	private final BitSet[] nonShareable;
+	
+	/**
+	 * Constructor. Use {@link #build(TransformationCache, InternalCorrespondences)}.
+	 * 
+	 * @param correspondences The correspondences the columns are taken from.
+	 * @param numColumns The number of combinations.
+	 * @param maxColumnIndex The largest column index.
+	 */
+	private ResourceCompatibility(InternalCorrespondences correspondences, int numColumns, int maxColumnIndex) {
+		this.correspondences = correspondences;
+		columnIDs = new String[numColumns];
+		columnIndexes = new int[numColumns];
+		nonShareable = new BitSet[maxColumnIndex + 1];
+	}
+	
+	/**
+	 * Build the relation for the relevant resources of a cache and the combinations
+	 * of the internal correspondences.
+	 * 
+	 * @param cache The cache (with the relevant resources).
+	 * @param correspondences The correspondences, with the function -> structure
+	 * 		correspondences computed.
+	 * @return The relation.
+	 */
+	public static ResourceCompatibility build(TransformationCache cache,
+			InternalCorrespondences correspondences) {
+		int[] combinations = correspondences.getColumnsInIDOrder();
+		
+		ResourceCompatibility compatibility = new ResourceCompatibility(correspondences,
+				combinations.length,
+				correspondences.getNumColumns());
+		
+		for (Element r : cache.getAllResources())
+			if (!compatibility.rows.containsKey(r))
+				compatibility.rows.put(r, Integer.valueOf(compatibility.rows.size()));
+		
+		// Non-shareability only depends on the working principle (by working principle ID)
+		BitSet[] nonShareableByWorkingPrinciple = new BitSet[correspondences.getNumWorkingPrinciples()];
+		
+		for (int wpID = 0; wpID < nonShareableByWorkingPrinciple.length; wpID++) {
+			Activity workingPrinciple = correspondences.getWorkingPrinciple(wpID);
+			BitSet bits = new BitSet(compatibility.rows.size());
+			
+			compatibility.resourceTypes.put(workingPrinciple, Collections.unmodifiableList(
+					DSEMLUtils.getAllAssociatedResourceTypes(workingPrinciple)));
+			
+			for (Entry<Element, Integer> row : compatibility.rows.entrySet())
+				if (SysML2MILPMappingsHelper.searchNonShareableWithinContext(row.getKey(), workingPrinciple))
+					bits.set(row.getValue().intValue());
+			
+			nonShareableByWorkingPrinciple[wpID] = bits;
+		}
+		
+		for (int i = 0; i < combinations.length; i++) {
+			int column = combinations[i];
+			
+			compatibility.columnIDs[i] = correspondences.getColumnID(column);
+			compatibility.columnIndexes[i] = column;
+			compatibility.nonShareable[column] = nonShareableByWorkingPrinciple[correspondences.getColumnWorkingPrincipleID(column)];
+		}
+		
+		return compatibility;
+	}
+	
+	/**
+	 * @return the number of activity + working principle combinations
+	 */
+	public int getNumColumns() {
+		return columnIDs.length;
+	}
+	
+	/**
+	 * Returns the internal ID of a combination.
+	 * 
+	 * @param i The position of the combination (in iteration order, 0-based).
+	 * @return The internal ID (e.g., IA1W2).
+	 */
+	public String getColumnID(int i) {
+		return columnIDs[i];
+	}
+	
+	/**
+	 * Returns the column index (in the allocation matrix) of a combination.
+	 * 
+	 * @param i The position of the combination (in iteration order, 0-based).
+	 * @return The column index.
+	 */
+	public int getColumnIndex(int i) {
+		return columnIndexes[i];
+	}
+	
+	/**
+	 * Returns the resource types associated with a working principle.
+	 * 
+	 * @param workingPrinciple The working principle.
+	 * @return The (unmodifiable) list of associated resource types, or null if the
+	 * 		working principle is not used by any combination.
+	 */
+	public List<Element> getResourceTypes(Activity workingPrinciple) {
+		return resourceTypes.get(workingPrinciple);
+	}
+	
+	/**
+	 * Checks whether a resource is non-shareable within a combination, if known.
+	 * 
+	 * @param resource The resource type.
+	 * @param actWPInstanceID The internal ID of the combination.
+	 * @return {@link Boolean#TRUE} or {@link Boolean#FALSE}, or null if the resource
+	 * 		or the combination is not part of the relation.
+	 */
+	public Boolean isNonShareable(Element resource, String actWPInstanceID) {
+		Integer row = rows.get(resource);
+		int column = correspondences.getColumn(actWPInstanceID);
+		
+		if (row == null || column == -1)
+			return null;
+		
+		return Boolean.valueOf(nonShareable[column].get(row.intValue()));
+	}
+	
+}
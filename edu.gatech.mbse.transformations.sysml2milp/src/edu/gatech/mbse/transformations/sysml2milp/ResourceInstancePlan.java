@@ -0,0 +1,303 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Element;
+
+import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
+
+/**
+ * The resource instances of a transformation run: the order in which the relevant
+ * concrete resources are processed, and for each resource its machine ID, the
+ * maximum number of instances possibly required, and the row of its first instance
+ * in the allocation matrix.
+ * <P>
+ * The plan is computed once, while pre-computing the internal correspondences, and
+ * used again when the resource library is transformed. Resources are processed in
+ * their order in the cache, with composite resources last (in reverse order), as
+ * parts must be defined before the composites containing them. Composites that are
+ * parts of other composites (directly, or through a part typed with one of their
+ * generals) are moved before these (a stable dependency sort, so the order is
+ * unchanged when composites are not nested, and kept for composites in a cycle). Machine IDs are assigned in
+ * processing order, starting from 1.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ResourceInstancePlan {
+	
+	/** Resources in processing order. */
+	private final Element[] resources;
+	
+	/** Maximum number of instances of each resource, by position. */
+	private final int[] numInstances;
+	
+	/** Allocation matrix row of the first instance of each resource, by position. */
+	private final int[] firstRows;
+	
+	/** Positions of the resources. */
+	private final HashMap<Element, Integer> positions = new HashMap<Element, Integer>();
+	
+	/**
+	 * Constructor. Use {@link #build(TransformationContext)}.
+	 * 
+	 * @param resources The resources in processing order.
+	 */
+	private ResourceInstancePlan(Element[] resources) {
+		this.resources = resources;
+		this.numInstances = new int[resources.length];
+		this.firstRows = new int[resources.length];
+		
+		for (int i = 0; i < resources.length; i++)
+			positions.put(resources[i], Integer.valueOf(i));
+	}
+	
+	/**
+	 * Plan the resource instances of a transformation run.
+	 * 
+	 * @param context The context of the transformation run (with the cache rebuilt).
+	 * @return The plan.
+	 */
+	public static ResourceInstancePlan build(TransformationContext context) {
+		ResourceInstancePlan plan = new ResourceInstancePlan(getResourcesInProcessingOrder(context.getCache()));
+		
+		// Resource types required by each working principle of each activity (an
+		// activity may be called more than once)
+		ArrayList<List<ArrayList<Element>>> requiredByActivity = new ArrayList<List<ArrayList<Element>>>();
+		HashMap<Activity, ArrayList<Element>> requiredByWorkingPrinciple = new HashMap<Activity, ArrayList<Element>>();
+		
+		for (Activity act : UMLModelUtils.collectSubActivities(context.getFunctionalSpecification())) {
+			List<ArrayList<Element>> required = new ArrayList<ArrayList<Element>>();
+			
+			for (Activity wp : context.getCache().getWorkingPrincipleIndex().getWorkingPrinciples(act)) {
+				ArrayList<Element> types = requiredByWorkingPrinciple.get(wp);
+				
+				if (types == null) {
+					types = DSEMLUtils.getResourceTypesWithDuplicates(wp);
+					requiredByWorkingPrinciple.put(wp, types);
+				}
+				
+				required.add(types);
+			}
+			
+			requiredByActivity.add(required);
+		}
+		
+		int row = 1;
+		
+		for (int i = 0; i < plan.resources.length; i++) {
+			plan.numInstances[i] = determineMaxPossibleInstances((Classifier) plan.resources[i], requiredByActivity);
+			plan.firstRows[i] = row;
+			row += plan.numInstances[i];
+		}
+		
+		return plan;
+	}
+	
+	/**
+	 * Re-orders the list of concrete resources into an array such that composites come
+	 * last, and composites that are parts of other composites before these.
+	 * 
+	 * @param cache The cache of the transformation run.
+	 * @return An array of UML Elements representing resources in the order that they
+	 * 		should be processed within the transformation.
+	 */
+	private static Element[] getResourcesInProcessingOrder(TransformationCache cache) {
+		Element[] resourcesToProcess = new Element[cache.getResources().size()];
+		
+		int currentCompositeIndex = cache.getResources().size() - 1;
+		int normalIndex = 0;
+		
+		// Re-order sequence of translating resources - composites should come last
+		// since parts must first be defined
+		for (Element r : cache.getResources())
+			if (DSEMLUtils.isCompositeResource(r))
+				resourcesToProcess[currentCompositeIndex--] = r;
+			else
+				resourcesToProcess[normalIndex++] = r;
+		
+		// Composites containing other composites must come after these
+		int firstComposite = normalIndex;
+		int numComposites = resourcesToProcess.length - firstComposite;
+		
+		// Number of composite parts of each composite, and the composites each is part of
+		int[] numParts = new int[numComposites];
+		ArrayList<ArrayList<Integer>> parents = new ArrayList<ArrayList<Integer>>();
+		
+		for (int i = 0; i < numComposites; i++)
+			parents.add(new ArrayList<Integer>());
+		
+		// A composite is part of another if any part type of the other is, or is a
+		// general of, the composite (parts may be typed with abstract resources)
+		for (int i = 0; i < numComposites; i++) {
+			for (Element partType : DSEMLUtils.getResourceParts(resourcesToProcess[firstComposite + i])) {
+				for (int j = 0; j < numComposites; j++) {
+					if (j == i
+							|| parents.get(j).contains(Integer.valueOf(i))
+							|| !DSEMLUtils.isTypeOfResource((Classifier) partType, (Classifier) resourcesToProcess[firstComposite + j]))
+						continue;
+					
+					parents.get(j).add(Integer.valueOf(i));
+					numParts[i]++;
+				}
+			}
+		}
+		
+		// Stable topological sort: always take the first composite (in the order above)
+		// whose composite parts have all been placed
+		Element[] composites = new Element[numComposites];
+		boolean[] placed = new boolean[numComposites];
+		
+		for (int n = 0; n < numComposites; n++) {
+			int next = -1;
+			
+			for (int i = 0; i < numComposites && next == -1; i++)
+				if (!placed[i] && numParts[i] == 0)
+					next = i;
+			
+			// Cyclic composition - keep the remaining composites in order
+			if (next == -1)
+				for (int i = 0; i < numComposites && next == -1; i++)
+					if (!placed[i])
+						next = i;
+			
+			placed[next] = true;
+			composites[n] = resourcesToProcess[firstComposite + next];
+			
+			for (Integer p : parents.get(next))
+				numParts[p.intValue()]--;
+		}
+		
+		System.arraycopy(composites, 0, resourcesToProcess, firstComposite, numComposites);
+		
+		return resourcesToProcess;
+	}
+	
+	/**
+	 * Determines the maximum number of instances for a given resource within the
+	 * context of a particular functional specification.
+	 * <P>
+	 * Since only one working principle is part of a solution, and working principles
+	 * can share the same type of resource, only the maximum number necessary for any
+	 * working principle of an activity is counted, for each activity.
+	 * 
+	 * @param resource The resource type.
+	 * @param requiredByActivity The resource types required by each working principle
+	 * 		of each activity (with duplicates).
+	 * @return The maximum number of instances possibly required in any solution.
+	 */
+	private static int determineMaxPossibleInstances(Classifier resource,
+			List<List<ArrayList<Element>>> requiredByActivity) {
+		int maxPossibleInstances = 0;
+		
+		for (List<ArrayList<Element>> required : requiredByActivity) {
+			int mostForAct = 0;
+			
+			for (ArrayList<Element> types : required) {
+				int numRequired = 0;
+				
+				for (Element assocResource : types) {
+					if (DSEMLUtils.isTypeOfResource((Classifier) assocResource, resource))
+						numRequired++;
+				}
+				
+				if (numRequired > mostForAct)
+					mostForAct = numRequired;
+			}
+			
+			maxPossibleInstances += mostForAct;
+		}
+		
+		return maxPossibleInstances;
+	}
+	
+	/**
+	 * @return the number of resources
+	 */
+	public int getNumResources() {
+		return resources.length;
+	}
+	
+	/**
+	 * Returns a resource.
+	 * 
+	 * @param i The position of the resource in processing order (0-based).
+	 * @return The resource.
+	 */
+	public Element getResource(int i) {
+		return resources[i];
+	}
+	
+	/**
+	 * Returns the machine ID of a resource.
+	 * 
+	 * @param i The position of the resource in processing order (0-based).
+	 * @return The machine ID (as in "IM" + machine ID).
+	 */
+	public int getMachineID(int i) {
+		return i + 1;
+	}
+	
+	/**
+	 * Returns the maximum number of instances of a resource.
+	 * 
+	 * @param i The position of the resource in processing order (0-based).
+	 * @return The maximum number of instances possibly required in any solution.
+	 */
+	public int getNumInstances(int i) {
+		return numInstances[i];
+	}
+	
+	/**
+	 * Returns the allocation matrix row of the first instance of a resource.
+	 * 
+	 * @param i The position of the resource in processing order (0-based).
+	 * @return The row of the first instance.
+	 */
+	public int getFirstRow(int i) {
+		return firstRows[i];
+	}
+	
+	/**
+	 * Returns the position of a resource in processing order.
+	 * 
+	 * @param resource The resource.
+	 * @return The position (0-based), or -1 if the resource is not planned.
+	 */
+	public int getPosition(Element resource) {
+		Integer position = positions.get(resource);
+		
+		return position != null ? position.intValue() : -1;
+	}
+	
+}
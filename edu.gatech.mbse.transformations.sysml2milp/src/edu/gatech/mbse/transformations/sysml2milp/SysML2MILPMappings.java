@@ -26,6 +26,7 @@
 package edu.gatech.mbse.transformations.sysml2milp;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -42,6 +43,8 @@ import org.eclipse.uml2.uml.Package;
 import org.eclipse.uml2.uml.Property;
 import org.eclipse.uml2.uml.ValueSpecification;
 
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPConstraintSense;
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPModel;
 import edu.gatech.mbse.transformations.sysml2milp.model.Process;
 import edu.gatech.mbse.transformations.sysml2milp.model.ProcessConstraintGenerator;
 import edu.gatech.mbse.transformations.sysml2milp.model.ProcessFlattener;
@@ -53,11 +56,15 @@ import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
 /**
  * Explicit mappings from SysML to MILP.
  * <P>
- * Note that this class should be modified if the full route is taken as described
- * in {@link SysML2MILPTransformation}. To do this, the return type would be a 
- * MILP model object, and no MILPModel2TextUtils class would be included in the
- * parameter list. The methods are static to emphasize their declarative nature,
- * and to serve as a basis for future development.
+ * The methods are static to emphasize their declarative nature, and to serve as
+ * a basis for future development.
+ * <P>
+ * Mappings of model elements add variables and constraints to the {@link MILPModel}
+ * of the transformation context, which is written by the MILP code generation object
+ * once all mappings are done. The MILP code generation object is only used directly
+ * for the results visualization. The mapping of individual constraints returns the
+ * interpreted constraint, since its position in the MILP model is determined by the
+ * caller.
  * 
  * @author Sebastian
  * @version 0.1
@@ -74,48 +81,53 @@ public class SysML2MILPMappings {
 	 * being that visual output is produced also.
 	 * 
 	 * @param systemUnderDesign The system under design object (a UML class / SysML block).
-	 * @param milpGen The MILP code generation object.
-	 * @return Representation of system under design in MILP code compatible with the
-	 * 		specified target MILP environment.
+	 * @param milpGen The MILP code generation object (used for visualization). The
+	 * 		representation of the system under design is added to the MILP model.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapSystemUnderDesign(Classifier systemUnderDesign,
-			MILPModel2TextUtils milpGen) {
-		// Generate some visualization output (this is put into the static visualization
-		// output buffer of the main transformation class)
-		SysML2MILPMappingsHelper.displayPropertiesOfUMLClass(systemUnderDesign, milpGen);
+	public static void mapSystemUnderDesign(Classifier systemUnderDesign,
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		// Generate some visualization output (this is put into the visualization
+		// output buffer of the transformation context)
+		SysML2MILPMappingsHelper.displayPropertiesOfUMLClass(systemUnderDesign, milpGen, context);
 		
 		// Other than that, treat like any other UML class (translate properties and constraints)
-		String milpCode = "";
-		
-		milpCode += mapUMLClassifier(systemUnderDesign, systemUnderDesign.getName(), milpGen);
+		mapUMLClassifier(systemUnderDesign, systemUnderDesign.getName(), milpGen, context);
 		
 		// System under design always exists
-		milpCode += milpGen.generateConstraintDeclaration(systemUnderDesign.getName() + " == 1", "System under design is always part of solution");
+		MILPModel milpModel = context.getMilpModel();
 		
-		return milpCode;
+		milpModel.addLinearConstraint(new int[] { milpModel.getVariableID(systemUnderDesign.getName()) },
+				new double[] { 1 },
+				MILPConstraintSense.EQUAL,
+				1,
+				"System under design is always part of solution");
 	}
 	
 	/**
 	 * Map objective from SysML to MILP.
 	 * 
 	 * @param objective A UML Constraint object, stereotyped with "Objective".
-	 * @param milpGen The MILP code generation object.
-	 * @return MILP code compatible with the target environment or an empty string
+	 * @param milpGen The MILP code generation object. Nothing is added to the MILP model
 	 * 		if the specified UML constraint is not an objective.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapObjective(Constraint objective,
-			MILPModel2TextUtils milpGen) {
+	public static void mapObjective(Constraint objective,
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
 		if (!DSEMLUtils.isObjective(objective))
-			return "";
+			return;
 		
 		// Evaluate and interpret the objective
 		String evaluatedObjective = MiniOCLInterpretor.interpretExpression(
 				objective,
 				UMLModelUtils.getStringValue(
-						objective.getSpecification()));
+						objective.getSpecification()),
+				context);
 		
-		// Return a declared variable for the objective
-		return milpGen.generateObjectiveDelaration(evaluatedObjective);
+		// Declare a variable for the objective
+		context.getMilpModel().setObjective(evaluatedObjective);
 	}
 	
 	/**
@@ -125,19 +137,21 @@ public class SysML2MILPMappings {
 	 * @param resourceID The internal (numeric) ID of this resource (note: in the produced
 	 * 		MILP code this is the number following the "M").
 	 * @param numInstances The number of possible instances to represent in the MILP.
-	 * @param milpGen The MILP code generation object.
-	 * @return MILP representation of possible instances of the specified type of resource
-	 * 		with applicable constraints.
+	 * @param milpGen The MILP code generation object (used for visualization). The MILP
+	 * 		representation of possible instances of the specified type of resource with
+	 * 		applicable constraints is added to the MILP model.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapResource(final Classifier resource,
+	public static void mapResource(final Classifier resource,
 			int resourceID,
 			int numInstances,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
 		
-		String instanceCollection = "";
+		StringBuilder instanceCollection = new StringBuilder();
 		
-		milpCode += milpGen.generateComment("Instances of " + resource.getName());
+		milpModel.addComment("Instances of " + resource.getName());
 		
 		// Map resource instances, if desired
 		for (int i = 0; i < numInstances; i++) {
@@ -148,25 +162,25 @@ public class SysML2MILPMappings {
 			
 			// Map the resource instance
 			// TODO This should change in the future to have an InstanceSpecification being handed over
-			milpCode += mapResourceInstance(resource, resourceID, i+1, milpGen);
-			milpCode += milpGen.generateLineSeparator();
+			mapResourceInstance(resource, resourceID, i+1, milpGen, context);
+			milpModel.addLineSeparator();
 				
-			if (!instanceCollection.equals(""))
-				instanceCollection += ", ";
-			instanceCollection += identifier;
+			if (instanceCollection.length() > 0)
+				instanceCollection.append(", ");
+			instanceCollection.append(identifier);
 		}
 		
 		// Array of all instances of this machine (for later processing)
-		milpCode += milpGen.generateVariableDeclaration("IM" + resourceID, "[" + instanceCollection + "]", "Vector of all instances (existence variables) for this resource type");
+		milpModel.defineVariable("IM" + resourceID, "[" + instanceCollection + "]", "Vector of all instances (existence variables) for this resource type");
 		
 		// Add to array of all instances of all resources (for later processing)
-		milpCode += milpGen.generateVariableDeclaration("IM", "[IM, IM" + resourceID + "]", "Add these instances to vector of all resource instances");
+		milpModel.defineVariable("IM", "[IM, IM" + resourceID + "]", "Add these instances to vector of all resource instances");
 		
 		// Also add integrity constraints for composite resources
 		if (DSEMLUtils.isCompositeResource(resource)) {
 			// Integrity constraints
-			milpCode += milpGen.generateConstraintDeclaration(
-					SysML2MILPMappingsHelper.addCompositeResourceIntegrityConstraints(resource), 
+			milpModel.addConstraints(
+					SysML2MILPMappingsHelper.addCompositeResourceIntegrityConstraints(resource, context), 
 					"Integrity constraints / structural well-formedness rules for composite resource instances");
 		}
 		
@@ -174,25 +188,23 @@ public class SysML2MILPMappings {
 		// To speed up computation, add additional constraints for resources that are NOT part of ANY composite, and
 		// not a composite themselves
 		if (!DSEMLUtils.isCompositeResource(resource) 
-				&& !DSEMLUtils.isPartOfAnyComposite(resource, TransformationCache.getCompositeResources()))
-			milpCode += milpGen.generateConstraintDeclaration(
-					SysML2MILPMappingsHelper.addCompositeResourceAllocationConstraintsIgnoreNonCompositeParts(resource),
+				&& !context.getCache().getCompositeStructure().isPartOfAnyComposite(resource))
+			milpModel.addConstraints(
+					SysML2MILPMappingsHelper.addCompositeResourceAllocationConstraintsIgnoreNonCompositeParts(resource, context),
 					"This resource type is not a part of any composite resources - therefore, identify relevant regions in the matrix C as 0");
 		
 		// Visualization of results
-		SysML2MILPTransformation.appendResultsVisualizationBuffer(
+		context.appendResultsVisualizationBuffer(
 				milpGen.generateVariableDeclaration("TotalInstancesM" + resourceID, "sum(value(IM" + resourceID + "))"));
-		SysML2MILPTransformation.appendResultsVisualizationBuffer(
+		context.appendResultsVisualizationBuffer(
 				milpGen.generateTextVisualization("'Total number of " + resource.getName() + ": %d', " + "round(TotalInstancesM" + resourceID + ")"));
-		
-		return milpCode;
 	}
 	
 	/**
 	 * Create (implicitly) and map a resource instance to MILP code.
 	 * <P>
 	 * The mapping is similar to that of a UML class (see
-	 * {@link #mapUMLClassifier(Classifier, String, MILPModel2TextUtils)}) with
+	 * {@link #mapUMLClassifier(Classifier, String, MILPModel2TextUtils, TransformationContext)}) with
 	 * the difference being that:<BR />
 	 * 1) A binary variable is also created to indicate
 	 * whether the instance is used in the solution (=1) or not (=0) <BR />
@@ -202,14 +214,16 @@ public class SysML2MILPMappings {
 	 * @param resource The resource type to base the instance on.
 	 * @param resourceID The internally used resource ID.
 	 * @param instanceID The instance ID (set externally).
-	 * @param milpGen The MILP code generation object.
-	 * @return Representation of resource instance in target MILP syntax.
+	 * @param milpGen The MILP code generation object. The representation of the resource
+	 * 		instance is added to the MILP model.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapResourceInstance(Classifier resource,
+	public static void mapResourceInstance(Classifier resource,
 			int resourceID,
 			int instanceID,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
 		
 		// Internally used ID based on a resource ID and machine ID.
 		// When creating a separate meta-model, this would be part of
@@ -223,38 +237,39 @@ public class SysML2MILPMappings {
 		
 		// Map the rest like any other class (properties)
 		// NOTE: formally, this should be a UML instance - but we are skipping instance creation right now, so use classifier and default values
-		milpCode += mapUMLClassifier(resource, identifier, milpGen);
+		mapUMLClassifier(resource, identifier, milpGen, context);
 		
 		// Add the type to the list of all types (used for back-transformation / correspondences)
 		// Nominally, this should be stored in an external model
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.TYPE_LIST, "[" + StandardVariableNames.TYPE_LIST + ", " + identifier + "_type]");
+		milpModel.defineVariable(StandardVariableNames.TYPE_LIST, "[" + StandardVariableNames.TYPE_LIST + ", " + identifier + "_type]");
 		
 		// Composite type name list
 		if (DSEMLUtils.isCompositeResource(resource))
-			milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.COMPOSITE_TYPE_LIST, "[" + StandardVariableNames.COMPOSITE_TYPE_LIST + ", " + identifier + "_type]");
+			milpModel.defineVariable(StandardVariableNames.COMPOSITE_TYPE_LIST, "[" + StandardVariableNames.COMPOSITE_TYPE_LIST + ", " + identifier + "_type]");
 		
 		// Symmetry breaking constraint - always use first available instance; if multiple necessary, then force lowest instance indices
 		if (!previousIdentifier.equals(""))
-			milpCode += milpGen.generateConstraintDeclaration(
-					previousIdentifier + " >= " + identifier,
+			milpModel.addLinearConstraint(
+					new int[] { milpModel.getVariableID(previousIdentifier), milpModel.getVariableID(identifier) },
+					new double[] { 1, -1 },
+					MILPConstraintSense.GREATER_OR_EQUAL,
+					0,
 					"Symmetry breaking constraint");
 		
 		// Finally, capture constraint that if instance is allocated to any action,
 		// it must also exist (i.e., the identifying binary variable must be 1)
-		milpCode += milpGen.generateConstraintDeclaration(
-				"implies(sum(A(" + TransformationState.CURRENT_RESOURCE_INSTANCE_ID++ + ",:)) >= 1, " + identifier + ")",
+		milpModel.addConstraint(
+				"implies(sum(A(" + context.getState().currentResourceInstanceID++ + ",:)) >= 1, " + identifier + ")",
 				"Consistency constraint for allocation matrix and instance of machine variable");
 		
 		// Add constraints for composite resources
 		if (DSEMLUtils.isCompositeResource(resource)) {
-			milpCode += milpGen.generateConstraintDeclaration(
-					SysML2MILPMappingsHelper.addCompositeResourceAllocationConstraints(resource, instanceID),
+			milpModel.addConstraints(
+					SysML2MILPMappingsHelper.addCompositeResourceAllocationConstraints(resource, instanceID, context),
 					"Constraints specific to ensuring that the correct aggregate resource instance <-> resource instance relationships are kept");
 			
-			TransformationState.CURRENT_COMPOSITE_RESOURCE_INSTANCE_ID++;
+			context.getState().currentCompositeResourceInstanceID++;
 		}
-		
-		return milpCode;
 	}
 	
 	/**
@@ -266,56 +281,54 @@ public class SysML2MILPMappings {
 	 * throughput are also added.
 	 * 
 	 * @param functionalSpec The functional specification to map.
-	 * @param milpGen The MILP code generation object.
-	 * @return A representation of the functional specification as a MILP compatible
-	 * 		with the desired target MILP environment.
+	 * @param milpGen The MILP code generation object (used for visualization). A
+	 * 		representation of the functional specification is added to the MILP model.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapFunctionalSpecification(Activity functionalSpec,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
-		
-		// Set of variable declarations
-		ArrayList<String> vars = null;
+	public static void mapFunctionalSpecification(Activity functionalSpec,
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
 		
 		// Flatten process - an internal data structure for the functional 
 		// specification is used for easier translation to MILP
-		Process flattened = ProcessFlattener.toProcess(functionalSpec);
+		Process flattened = ProcessFlattener.toProcess(functionalSpec, context);
 		
 		// Create a new constraint generator object
-		ProcessConstraintGenerator p = new ProcessConstraintGenerator();
+		ProcessConstraintGenerator p = new ProcessConstraintGenerator(context);
 		
 		// Set initial state
-		TransformationState.CURRENT_ACTION_COUNT = 1;
-		TransformationState.CURRENT_ACTION = null;
-		TransformationState.CURRENT_ACTION_WP_COUNT = 1;
+		context.getState().currentActionCount = 1;
+		context.getState().currentAction = null;
+		context.getState().currentActionWPCount = 1;
 		
 		
 		/**** FUNCTIONS ****/
 		
-		milpCode += milpGen.generateLineSeparator();
-		milpCode += milpGen.generateComment("Functional specification");
+		milpModel.addLineSeparator();
+		milpModel.addComment("Functional specification");
 		
 		// Map all contained functions
 		for (Element e : functionalSpec.getOwnedElements()) {
 			if (e instanceof CallBehaviorAction) {
-				milpCode += mapFunction((CallBehaviorAction) e, milpGen);
+				mapFunction((CallBehaviorAction) e, milpGen, context);
 			}
 		}
 
 		// Reset state (necessary for correct OCL interpretation)
-		TransformationState.CURRENT_ACTION_WP_COUNT = 0;
+		context.getState().currentActionWPCount = 0;
 		
 		
 		/**** PRECEDENCE CONSTRAINTS, TIMING & PARALLEL ACTIVITIES ****/
-		milpCode += milpGen.generateComment("Variables used in determining start and end times of individual functions");
+		milpModel.addComment("Variables used in determining start and end times of individual functions");
 		
 		// Timing-related variables
-		vars = p.generateVariables(flattened, milpGen);
-		for (String s : vars)
-			milpCode += s;
+		p.generateVariables(flattened, milpModel);
 		
 		// Timing constraints
-		milpCode += milpGen.generateConstraintDeclaration(p.generateTimingConstraints(flattened), "Timing constraints (including virtual activities)");
+		milpModel.beginConstraints("Timing constraints (including virtual activities)");
+		p.generateTimingConstraints(flattened, milpModel);
+		milpModel.endConstraints();
 		
 		// Resource sharing constraints for parallel activities
 		// FIXME This currently doesn't quite work as expected if there are multiple work
@@ -328,130 +341,133 @@ public class SysML2MILPMappings {
 		//		 additional input from outside, would lead to the sequences Step1 -> Step2 -> Step3 AND
 		//		 Step2 -> Step3. Then, when parsing identify that "Step2" is a "merge point" and leave
 		//		 only its predecessors (none) (hence removing this second track).
-		milpCode += milpGen.generateConstraintDeclaration(p.generateResourceSharingConstraints(flattened), "Constraints for restricting shareability among parallel activities");
+		milpModel.addConstraints(p.generateResourceSharingConstraints(flattened), "Constraints for restricting shareability among parallel activities");
 		
 		
 		/**** THROUGHPUT ****/
-		milpCode += milpGen.generateComment("Throughput calculation");
+		milpModel.addComment("Throughput calculation");
 		
 		// Use a different formulation if throughput HAS to be a design variable
 		// (e.g., if it is a part of the objective)
 		// NOTE: This should never be called (avoided at all cost in MiniOCLInterpretor - but CAN happen)
-		if (TransformationState.MUST_OPTIMIZE_THROUGHPUT) {
+		if (context.getState().mustOptimizeThroughput) {
 			// FIXME Should warn user that this will result in very long runtime
 			// (find better way)
-			milpCode += milpGen.generateTextVisualization("WARNING! You are attempting something that requires the throughput to be a design variable. This is currently computationally VERY inefficient.");
+			milpModel.addTextVisualization("WARNING! You are attempting something that requires the throughput to be a design variable. This is currently computationally VERY inefficient.");
 			
-			vars = p.generateUtilizationVariablesWithThroughputAsDesignVariable(milpGen);//p.generateUtilizationVariables(resources);
-			for (String s : vars)
-				milpCode += s;
+			p.generateUtilizationVariablesWithThroughputAsDesignVariable(milpModel);//p.generateUtilizationVariables(resources);
 			
-			milpCode += milpGen.generateConstraintDeclaration(p.generateUtilizationConstraintsWithThroughputAsDesignVariable(TransformationCache.getResources()));
+			milpModel.addConstraints(p.generateUtilizationConstraintsWithThroughputAsDesignVariable(context.getCache().getResources()));
 		} else {
-			vars = p.generateUtilizationVariables(TransformationCache.getResources(), milpGen);
-			for (String s : vars)
-				milpCode += s;
+			p.generateUtilizationVariables(context.getCache().getResources(), milpModel);
 		}
-		
-		
-		return milpCode;
 	}
 
 	/**
 	 * Maps a function to MILP code.
 	 * 
 	 * @param cba The function to map (a UML CallBehaviorAction object).
-	 * @param milpGen The MILP code generation object.
-	 * @return MILP code representing the particular function or the empty string if
-	 * 		the behavior of the CallBehaviorAction is not an instance of a UML 
-	 * 		Activity.
+	 * @param milpGen The MILP code generation object (used for visualization). The
+	 * 		representation of the particular function is added to the MILP model. Nothing is
+	 * 		added if the behavior of the CallBehaviorAction is not an instance of a UML Activity.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapFunction(CallBehaviorAction cba,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
+	public static void mapFunction(CallBehaviorAction cba,
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
 		
 		// Set state
-		TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT = 1;
-		TransformationState.CURRENT_ACTION = cba;
+		context.getState().currentWorkingPrincipleCount = 1;
+		context.getState().currentAction = cba;
 		
-		String topLevelID = "IA" + TransformationState.CURRENT_ACTION_COUNT + "W";
-		String wpCollection = "[";
+		String topLevelID = "IA" + context.getState().currentActionCount + "W";
+		StringBuilder wpCollection = new StringBuilder("[");
 
 		// Results visualization
-		String wpCollectionNames = "{";		// Need a cell array to store an array list of strings
+		StringBuilder wpCollectionNames = new StringBuilder("{");		// Need a cell array to store an array list of strings
 		
 		logger.trace("Sub-activity: " + cba.getName());
 		
 		// Get corresponding activity / behavior
 		// FIXME Can also be opaque behavior
 		if (!(cba.getBehavior() instanceof Activity))
-			return "";
+			return;
 		
 		Activity act = (Activity) cba.getBehavior();
 		
-		milpCode += milpGen.generateComment(cba.getName());
+		milpModel.addComment(cba.getName());
 		
 		// Get associated working principles
-		ArrayList<Activity> workingPrinciples = DSEMLUtils.getWorkingPrinciples(act,
-				TransformationCache.getAllWorkingPrinciples());
+		ArrayList<Activity> workingPrinciples = context.getCache().getWorkingPrincipleIndex().getWorkingPrinciples(act);
+		
+		// Variable IDs of the working principle instances (for the constraint below)
+		int[] wpVariables = new int[workingPrinciples.size()];
+		double[] wpCoefficients = new double[workingPrinciples.size()];
+		int wpIndex = 0;
 		
 		// Map working principle instances that can implement this (abstract) function
 		for(Activity end : workingPrinciples) {
-			String identifier = topLevelID + TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT;
+			String identifier = topLevelID + context.getState().currentWorkingPrincipleCount;
 			
 			// Create vector that includes all of the variables representing WP for an activity
-			if (TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT > 1) {
-				wpCollection += ", ";
-				wpCollectionNames += "; ";
+			if (context.getState().currentWorkingPrincipleCount > 1) {
+				wpCollection.append(", ");
+				wpCollectionNames.append("; ");
 			}
 			
 			// Generate part of the vector of all WPs associated with this activity
-			wpCollection += identifier;
-			wpCollectionNames += "'" + end.getName() + "'";
+			wpCollection.append(identifier);
+			wpCollectionNames.append("'" + end.getName() + "'");
 			
 			// Map name of function
-			milpCode += milpGen.generateVariableDeclaration(
+			milpModel.defineVariable(
 					identifier + "_name", "{'" + cba.getName() + "'}",
 					"Name of function");
 			
 			// Perform the actual mapping (above is mostly used for visualization)
-			milpCode += mapWorkingPrincipleInstance(end, act, identifier, milpGen);
+			mapWorkingPrincipleInstance(end, act, identifier, milpGen, context);
+			
+			wpVariables[wpIndex] = milpModel.getVariableID(identifier);
+			wpCoefficients[wpIndex++] = 1;
 			
 			// Add function name to name list
-			milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.FUNCTION_NAMES_LIST, "[" + StandardVariableNames.FUNCTION_NAMES_LIST + ", " + identifier + "_name]");
+			milpModel.defineVariable(StandardVariableNames.FUNCTION_NAMES_LIST, "[" + StandardVariableNames.FUNCTION_NAMES_LIST + ", " + identifier + "_name]");
 			
-			TransformationState.CURRENT_ACTION_WP_COUNT++;
+			context.getState().currentActionWPCount++;
 			
 			// Insert a blank line for readability
-			milpCode += milpGen.generateLineSeparator();
+			milpModel.addLineSeparator();
 		}
 		
-		wpCollection += "]";
-		wpCollectionNames += "}";		// Cell array
+		wpCollection.append("]");
+		wpCollectionNames.append("}");		// Cell array
 		
-		milpCode += milpGen.generateVariableDeclaration(topLevelID, wpCollection);
-		milpCode += milpGen.generateVariableDeclaration(topLevelID + "Names", wpCollectionNames, "Names of working principles associated with activity");
+		milpModel.defineVariable(topLevelID, wpCollection.toString());
+		milpModel.defineVariable(topLevelID + "Names", wpCollectionNames.toString(), "Names of working principles associated with activity");
 		
 		// Visualization
-		SysML2MILPTransformation.setResultsVisualizationBuffer(
-				SysML2MILPTransformation.getResultsVisualizationBuffer()
-				+ milpGen.generateTextVisualization("'Call Behavior Action " + cba.getName() + " (activity: " + act.getName() + ") -> %s', " + topLevelID + "Names{find(value(" + topLevelID + "), 1)}"));
+		context.appendResultsVisualizationBuffer(
+				milpGen.generateTextVisualization("'Call Behavior Action " + cba.getName() + " (activity: " + act.getName() + ") -> %s', " + topLevelID + "Names{find(value(" + topLevelID + "), 1)}"));
 		
 		// Add constraint that at least one is used
-		milpCode += milpGen.generateConstraintDeclaration("sum(" + topLevelID + ") == 1",
-				"Exactly one working principle must be chosen for this function");		// MUST be 1! Otherwise it might choose 2 WP for one act
+		// MUST be 1! Otherwise it might choose 2 WP for one act
+		if (wpVariables.length > 0)
+			milpModel.addLinearConstraint(wpVariables, wpCoefficients, MILPConstraintSense.EQUAL, 1,
+					"Exactly one working principle must be chosen for this function");
+		else
+			milpModel.addConstraint("sum(" + topLevelID + ") == 1",
+					"Exactly one working principle must be chosen for this function");
 		
 		// Increase count for activity label
-		TransformationState.CURRENT_ACTION_COUNT++;
-		
-		return milpCode;
+		context.getState().currentActionCount++;
 	}
 
 	/**
 	 * Maps a working principle instance to MILP.
 	 * <P>
 	 * Note that this function should probably be rewritten to make use of more generic mappings
-	 * such as {@link #mapUMLClassifier(Classifier, String, MILPModel2TextUtils)}. However, then,
+	 * such as {@link #mapUMLClassifier(Classifier, String, MILPModel2TextUtils, TransformationContext)}. However, then,
 	 * the fact that pre- and post-conditions are skipped must still be taken into account. Also,
 	 * constraints defining semantics of the DSEML side constructs must also be taken into account.
 	 * 
@@ -460,69 +476,76 @@ public class SysML2MILPMappings {
 	 * 		CallBehaviorAction that defines the function being translated.
 	 * @param identifier Internal identifier for this working principle <-> abstract function
 	 * 		combination. Note: in the produced MILP code this is an ID of the form IAxWy.
-	 * @param milpGen The MILP code generation object.
-	 * @return MILP code compatible with the desired target environment describing a particular
-	 * 		possible instance of a working principle (for a specific function).
+	 * @param milpGen The MILP code generation object. The representation of a particular
+	 * 		possible instance of a working principle (for a specific function) is added to
+	 * 		the MILP model.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapWorkingPrincipleInstance(Activity workingPrinciple,
+	public static void mapWorkingPrincipleInstance(Activity workingPrinciple,
 			Activity implementedBehavior,
 			String identifier,
-			MILPModel2TextUtils milpGen) {
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
 		// TODO Much of this is similar to mapUMLInstance(...) -> should be updated at some point to avoid duplicate code
-		String milpCode = "";
+		MILPModel milpModel = context.getMilpModel();
 
 		// For each, create a variable that indicates its use
-		milpCode += milpGen.generateVariableDeclaration(identifier, MILPVariableType.BINVAR, implementedBehavior.getName() + " + " + workingPrinciple.getName());
+		milpModel.declareVariable(identifier, MILPVariableType.BINVAR, implementedBehavior.getName() + " + " + workingPrinciple.getName());
 		
 		// Type of working principle
-		milpCode += milpGen.generateVariableDeclaration(
+		milpModel.defineVariable(
 				identifier + "_type", "{'" + workingPrinciple.getQualifiedName() + "'}",
 				"Qualified name of type of this instance");
 		
 		// Generate variables for properties of the working principle (time, cost, etc.)
-		if (workingPrinciple.getAllAttributes() != null)
-			for (Property prop : workingPrinciple.getAllAttributes())
-				milpCode += mapUMLProperty(prop, identifier, milpGen);
+		if (UMLModelUtils.getAllAttributes(workingPrinciple) != null)
+			for (Property prop : UMLModelUtils.getAllAttributes(workingPrinciple))
+				mapUMLProperty(prop, identifier, milpGen, context);
 		
 		// TODO Multiplicities
 		// For this working principle, also add constraints in terms of what resources are necessary
-		ArrayList<Element> resourceTypes = DSEMLUtils.getAllAssociatedResourceTypes(workingPrinciple); //collectAssociatedConcreteResources(end);
+		List<Element> resourceTypes = context.getCorrespondences().getResourceCompatibility().getResourceTypes(workingPrinciple); //collectAssociatedConcreteResources(end);
+		
+		if (resourceTypes == null)
+			resourceTypes = DSEMLUtils.getAllAssociatedResourceTypes(workingPrinciple);
+		
 		if (resourceTypes != null) {
 			int numResourceTypes = 0;
 			
 			// At least 1 concrete type ("instance") of each resource type must be present
 			for (Element resource : resourceTypes) {
-				ArrayList<Element> concreteResources = DSEMLUtils.getConcreteResourcesForAbstractResourceType(TransformationCache.getResources(), resource);
-				String arg = "";
+				ConcreteResourceTable table = context.getCorrespondences().getConcreteResourceTable();
+				StringBuilder arg = new StringBuilder();
 				
 				// FIXME This assumes multiplicity 1
 				numResourceTypes++;
 				
-				for (Element concRes : concreteResources) {
-					int startingIndex = InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(concRes, 1);
-					int endingIndex = startingIndex + SysML2MILPMappingsHelper.getNumInstancesForResource(concRes) - 1;
+				for (Element concRes : table.getConcreteResources(resource)) {
+					ConcreteResourceTable.ConcreteResource rows = table.getRows(concRes);
+					int startingIndex = rows.getFirstRow();
+					int endingIndex = rows.getLastRow();
 					
-					if (!arg.equals("")) {
-						arg += " + ";
+					if (arg.length() > 0) {
+						arg.append(" + ");
 					}
 					
-					arg += "sum(A(" + startingIndex + ":" + endingIndex + "," + TransformationState.CURRENT_ACTION_WP_COUNT + "))";
+					arg.append("sum(A(" + startingIndex + ":" + endingIndex + "," + context.getState().currentActionWPCount + "))");
 					
 					// FIXME Assumes multiplicity of 1
-					milpCode += milpGen.generateConstraintDeclaration("sum(A(" + startingIndex + ":" + endingIndex + "," + TransformationState.CURRENT_ACTION_WP_COUNT + ")) <= 1");
+					milpModel.addConstraint("sum(A(" + startingIndex + ":" + endingIndex + "," + context.getState().currentActionWPCount + ")) <= 1");
 					
 					// Allocations of a particular resource must at least equal number of instances
-					milpCode += milpGen.generateConstraintDeclaration("sum(sum(A(" + startingIndex + ":" + endingIndex + ",:))) >= sum(IM" + InternalCorrespondences.getResourceTypeMachineIDMapping().get(concRes) + ")");
+					milpModel.addConstraint("sum(sum(A(" + startingIndex + ":" + endingIndex + ",:))) >= sum(IM" + rows.getMachineID() + ")");
 
 					logger.trace("Resource " + ((NamedElement) resource).getName());
 				}
 				
-				milpCode += milpGen.generateConstraintDeclaration("implies(" + identifier + ", " + arg + " >= 1)");			// WAS == 1 (rationale for changing: what if two of same kind needed?) (seems to work, though)
+				milpModel.addConstraint("implies(" + identifier + ", " + arg + " >= 1)");			// WAS == 1 (rationale for changing: what if two of same kind needed?) (seems to work, though)
 			}
 			
 			// Sum of all machine instances allocated to this act+wp combination must be either 0 or equal to
 			// the number of resources associated with a working principle
-			milpCode += milpGen.generateConstraintDeclaration("sum(A(:," + TransformationState.CURRENT_ACTION_WP_COUNT + ")) == " + numResourceTypes + "*" + identifier);
+			milpModel.addConstraint("sum(A(:," + context.getState().currentActionWPCount + ")) == " + numResourceTypes + "*" + identifier);
 		}
 		
 		// Extract constraints
@@ -538,21 +561,19 @@ public class SysML2MILPMappings {
 				ValueSpecification v = c.getSpecification();
 				String body = UMLModelUtils.getStringValue(v);
 				
-				String interpConstr = MiniOCLInterpretor.interpretExpression(c, body, workingPrinciple);
+				String interpConstr = MiniOCLInterpretor.interpretExpression(c, body, workingPrinciple, context);
 				
 				logger.trace("=> Constraint: " + interpConstr);
 				//constraints.add("implies(" + identifier + ", " + interpConstr + ")");
-				milpCode += milpGen.generateConstraintDeclaration(identifier + " == (" + identifier + " & (" + interpConstr + "))");
+				milpModel.addConstraint(identifier + " == (" + identifier + " & (" + interpConstr + "))");
 			}
 		}
 		
 		// Add the type to the list of all WP types (used for back-transformation / correspondences / visualization)
 		// Nominally, this should be stored in an external model
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.WP_TYPE_LIST, "[" + StandardVariableNames.WP_TYPE_LIST + ", " + identifier + "_type]");
+		milpModel.defineVariable(StandardVariableNames.WP_TYPE_LIST, "[" + StandardVariableNames.WP_TYPE_LIST + ", " + identifier + "_type]");
 
-		TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT++;
-		
-		return milpCode;
+		context.getState().currentWorkingPrincipleCount++;
 	}
 	
 	/************ COMMON MAPPINGS. ***************/
@@ -566,75 +587,97 @@ public class SysML2MILPMappings {
 	 * 
 	 * @param classifier The UML Classifier to map (e.g., UML Class or UML Activity).
 	 * @param internalIdentifier The internal identifier associated with this UML element.
-	 * @param milpGen The MILP code generation object.
-	 * @return MILP representation of the UML Classifier and its properties and constraints.
+	 * @param milpGen The MILP code generation object. The MILP representation of the UML
+	 * 		Classifier and its properties and constraints is added to the MILP model.
+	 * @param context The context of the transformation run.
 	 */
-	public static String mapUMLClassifier(Classifier classifier,
+	public static void mapUMLClassifier(Classifier classifier,
 			String internalIdentifier,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
-		String specialProps = "";
-		String milpConstraints = "";
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
 		
-		// Binary variable indicating whether or not this instance is part of the final solution
-		milpCode += milpGen.generateVariableDeclaration(internalIdentifier, MILPVariableType.BINVAR);
+		// Collected separately since the order in the output differs from the order of the members
+		ArrayList<Property> specialProps = new ArrayList<Property>();
+		ArrayList<Property> props = new ArrayList<Property>();
+		ArrayList<Constraint> constraints = new ArrayList<Constraint>();
 		
 		if (classifier.getMembers() != null) {
 			for (NamedElement o : classifier.getMembers()) {
 				if (o instanceof Property) {
 					// Heuristic: the "special" properties should be defined first, since some of the
 					// other properties may be derived from these
-					if (DSEMLUtils.isDurationProperty((Property) o)) {
-						specialProps += mapUMLProperty((Property) o, internalIdentifier, milpGen);
-					}
-					else if (DSEMLUtils.isThroughputProperty((Property) o)) {
-						specialProps += mapUMLProperty((Property) o, internalIdentifier, milpGen);
-					}
-					else {
-						milpCode += mapUMLProperty((Property) o, internalIdentifier, milpGen);
-					}
+					if (DSEMLUtils.isDurationProperty((Property) o)
+							|| DSEMLUtils.isThroughputProperty((Property) o))
+						specialProps.add((Property) o);
+					else
+						props.add((Property) o);
 				}
 				else if (o instanceof Constraint) {
 					// Objective treated separately
 					if (!DSEMLUtils.isObjective((Constraint) o)) { // Added since the objective can also be a part of the manufacturing cell now
-						milpConstraints += mapUMLConstraint((Constraint) o, milpGen);
+						constraints.add((Constraint) o);
 					}
 				}
 			}
 		}
 		
-		if (!milpConstraints.equals(""))
-			milpConstraints = "\r\n" + milpConstraints;
-		
 		// For capturing correspondences, also add a type identifier
 		// NOTE: formally, this should be done with an external correspondence model
-		specialProps = milpGen.generateVariableDeclaration(
+		milpModel.defineVariable(
 				internalIdentifier + "_type", "{'" + classifier.getQualifiedName() + "'}",
-				"Qualified name of type of this instance")
-				+ specialProps;
+				"Qualified name of type of this instance");
+		
+		for (Property prop : specialProps)
+			mapUMLProperty(prop, internalIdentifier, milpGen, context);
+		
+		// Binary variable indicating whether or not this instance is part of the final solution
+		milpModel.declareVariable(internalIdentifier, MILPVariableType.BINVAR);
+		
+		for (Property prop : props)
+			mapUMLProperty(prop, internalIdentifier, milpGen, context);
+		
+		// Constraints
+		ArrayList<String> interpretedConstraints = new ArrayList<String>(constraints.size());
+		
+		for (Constraint constraint : constraints) {
+			String interpretedConstraint = mapUMLConstraint(constraint, milpGen, context);
+			
+			if (interpretedConstraint != null)
+				interpretedConstraints.add(interpretedConstraint);
+		}
+		
+		if (interpretedConstraints.size() > 0) {
+			milpModel.addLineSeparator();
+			
+			for (String interpretedConstraint : interpretedConstraints)
+				milpModel.addConstraint(interpretedConstraint);
+		}
 		
 		// Also store correspondences
-		if (!SysML2MILPTransformation.TESTING_MODE)
+		if (!context.isTestingMode())
 			SysML2MILPMappingsHelper.storeCorrespondences(classifier,
-					internalIdentifier);
-		
-		return specialProps + milpCode + milpConstraints;
+					internalIdentifier,
+					context);
 	}
 
 	/**
-	 * Maps a UML constraint to MILP code.
+	 * Maps a UML constraint to a MILP constraint.
 	 * <P>
 	 * The constraint is mapped after interpreting the expression. This interpretation includes
-	 * resolving any transformed variables (see {@link MiniOCLInterpretor}).
+	 * resolving any transformed variables (see {@link MiniOCLInterpretor}). The constraint is
+	 * not added to the MILP model - this is left to the caller.
 	 * 
 	 * @param constraint The UML Constraint to map.
 	 * @param milpGen The MILP code generation object.
-	 * @return A MILP representation of the constraint or the empty string if the specification
-	 * 		of the constraint is "null", the empty string or the specification object is null.
+	 * @param context The context of the transformation run.
+	 * @return The interpreted constraint or null if the specification of the constraint is
+	 * 		"null", the empty string or the specification object is null.
 	 */
 	public static String mapUMLConstraint(Constraint constraint,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		String interpretedConstraint = null;
 		String spec = UMLModelUtils.getStringValue(constraint.getSpecification());
 		
 		// Only generate constraint if specification is not empty
@@ -642,52 +685,49 @@ public class SysML2MILPMappings {
 				&& !spec.equals("")
 				&& !spec.equals("null")) {
 			// Interpret expression
-			String interpretedConstraint = MiniOCLInterpretor.interpretExpression(constraint, spec);
-			
-			// Generate constraint in target MILP environment
-			milpCode += milpGen.generateConstraintDeclaration(interpretedConstraint);
+			interpretedConstraint = MiniOCLInterpretor.interpretExpression(constraint, spec, context);
 		}
 		
-		return milpCode;
+		return interpretedConstraint;
 	}
 	
 	/**
-	 * Maps a UML property to MILP code.
+	 * Maps a UML property to a MILP variable definition.
 	 * <P>
 	 * Note that special properties (e.g., throughput and productionTime) are treated specially
 	 * by defining their values to be equal to standard variables (names as defined in 
 	 * {@link StandardVariableNames}, declared in MILP code as in
-	 * {@link SysML2MILPMappingsHelper#declareStandardVariables(MILPModel2TextUtils)}.
+	 * {@link SysML2MILPMappingsHelper#declareStandardVariables(MILPModel2TextUtils, TransformationContext)}.
 	 * 
 	 * @param property The property to map.
 	 * @param ownerIdentifier The internal identifier used in constructing the variable name.
 	 * @param milpGen The MILP code generation object.
-	 * @return MILP representation of the property or an empty string if the default value is
-	 * 		not specified or the property is not recognized as a special (known-to-the-
-	 * 		transformation) property.
+	 * @param context The context of the transformation run. The definition of the property
+	 * 		is added to its MILP model. Nothing is added if the default value is not specified
+	 * 		and the property is not recognized as a special (known-to-the-transformation)
+	 * 		property.
 	 */
-	public static String mapUMLProperty(Property property,
+	public static void mapUMLProperty(Property property,
 			String ownerIdenfier,
-			MILPModel2TextUtils milpGen) {
-		String milpCode = "";
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
 		String defValue = UMLModelUtils.getDefaultValue(property);
 		String milpPropertyName = ownerIdenfier + "_" + property.getName();
 		
 		if (defValue != null
 			&& !defValue.equals("")
 			&& !defValue.equals("null")) {
-			String interpretedExpression = MiniOCLInterpretor.interpretExpression(property, defValue);
+			String interpretedExpression = MiniOCLInterpretor.interpretExpression(property, defValue, context);
 			
-			milpCode += milpGen.generateVariableDeclaration(milpPropertyName, interpretedExpression, property.getName() + " of " + ((NamedElement) property.getOwner()).getName());
+			milpModel.defineVariable(milpPropertyName, interpretedExpression, property.getName() + " of " + ((NamedElement) property.getOwner()).getName());
 		} // If not default value, may be a special property
 		else if (DSEMLUtils.isDurationProperty(property)) {
-			milpCode += milpGen.generateVariableDeclaration(milpPropertyName, StandardVariableNames.TOTAL_DURATION);
+			milpModel.defineVariable(milpPropertyName, StandardVariableNames.TOTAL_DURATION);
 		}
 		else if (DSEMLUtils.isThroughputProperty(property)) {
-			milpCode += milpGen.generateVariableDeclaration(milpPropertyName, StandardVariableNames.THROUGHPUT);
+			milpModel.defineVariable(milpPropertyName, StandardVariableNames.THROUGHPUT);
 		}
-		
-		return milpCode;
 	}
 	
 }
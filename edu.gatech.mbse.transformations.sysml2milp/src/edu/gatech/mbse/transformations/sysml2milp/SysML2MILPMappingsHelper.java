@@ -29,8 +29,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Map.Entry;
 
 import org.apache.logging.log4j.Level;
@@ -42,6 +42,7 @@ import org.eclipse.uml2.uml.Element;
 import org.eclipse.uml2.uml.NamedElement;
 import org.eclipse.uml2.uml.Property;
 
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPModel;
 import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
 import edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtils;
 
@@ -67,47 +68,54 @@ public class SysML2MILPMappingsHelper {
 	 * matrices of size 0.
 	 * 
 	 * @param milpGen The MILP code generation object.
-	 * @return MILP code declaring and / or defining standard variables. These are
-	 * 		defined / declared at the very beginning of a target MILP script since they
-	 * 		are referenced throughout.
+	 * @param context The context of the transformation run. Standard variables are
+	 * 		declared and / or defined in its MILP model. These are defined / declared at the
+	 * 		very beginning of a target MILP script since they are referenced throughout.
 	 */
-	public static String declareStandardVariables(MILPModel2TextUtils milpGen) {
-		String milpCode = milpGen.generateLineSeparator();
+	public static void declareStandardVariables(MILPModel2TextUtils milpGen,
+			TransformationContext context) {
+		MILPModel milpModel = context.getMilpModel();
+		
+		milpModel.addLineSeparator();
 		
 		// Allocation matrix - use current counts since should have reached end already
-		milpCode += "A = binvar(" + getTotalNumberOfResourceInstances() + ", " + InternalCorrespondences.getActivityNodeWPIndex().size() + ");\r\n";
+		milpModel.declareVariable("A", MILPVariableType.BINVAR,
+				getTotalNumberOfResourceInstances(context),
+				context.getCorrespondences().getNumColumns(),
+				"");
 		
 		// Also assign default values
-		milpCode += "assign(A, 0);\r\n";
+		milpModel.addCode("assign(A, 0);\r\n");
 		
 		// 'C' matrix (currently unused)
-		milpCode += "C = binvar(" + getTotalNumberOfResourceInstances() + ", " + getTotalNumberOfCompositeResourceInstances() + ");\r\n";
+		milpModel.declareVariable("C", MILPVariableType.BINVAR,
+				getTotalNumberOfResourceInstances(context),
+				getTotalNumberOfCompositeResourceInstances(context),
+				"");
 		
 		// Also assign default values
-		milpCode += "assign(C, 0);\r\n";
+		milpModel.addCode("assign(C, 0);\r\n");
 		
 		// Duration
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.TOTAL_DURATION, MILPVariableType.SDPVAR, "Duration of complete process (time spent working on input element from start to finish)");
+		milpModel.declareVariable(StandardVariableNames.TOTAL_DURATION, MILPVariableType.SDPVAR, "Duration of complete process (time spent working on input element from start to finish)");
 		
 		// Constraints
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.CONSTRAINTS, "[binary(A), binary(C)]", "Vector of linear constraints");
+		milpModel.defineVariable(StandardVariableNames.CONSTRAINTS, "[binary(A), binary(C)]", "Vector of linear constraints");
 		
 		// Machine instance vector
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.INSTANCE_VECTOR, "[]", "Vector of all resource instances (or, rather, binary variables indicating their existence)");
+		milpModel.defineVariable(StandardVariableNames.INSTANCE_VECTOR, "[]", "Vector of all resource instances (or, rather, binary variables indicating their existence)");
 		
 		// Type name list
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.TYPE_LIST, "{}", "(Ordered) list of qualified names of types of resource instances (used for correspondence and visualization)");
+		milpModel.defineVariable(StandardVariableNames.TYPE_LIST, "{}", "(Ordered) list of qualified names of types of resource instances (used for correspondence and visualization)");
 		
 		// Type name list (composite resources)
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.COMPOSITE_TYPE_LIST, "{}", "(Ordered) list of qualified names of types of composite resource instances (used for correspondence and visualization)");
+		milpModel.defineVariable(StandardVariableNames.COMPOSITE_TYPE_LIST, "{}", "(Ordered) list of qualified names of types of composite resource instances (used for correspondence and visualization)");
 		
 		// Working principle type name list
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.WP_TYPE_LIST, "{}", "(Ordered) list of qualified names of types of working principle (used for correspondence and visualization)");
+		milpModel.defineVariable(StandardVariableNames.WP_TYPE_LIST, "{}", "(Ordered) list of qualified names of types of working principle (used for correspondence and visualization)");
 				
 		// Function name list
-		milpCode += milpGen.generateVariableDeclaration(StandardVariableNames.FUNCTION_NAMES_LIST, "{}", "(Ordered) list of names of functions (used for correspondence and visualization)");
-		
-		return milpCode;
+		milpModel.defineVariable(StandardVariableNames.FUNCTION_NAMES_LIST, "{}", "(Ordered) list of names of functions (used for correspondence and visualization)");
 	}
 	
 	/**
@@ -119,12 +127,21 @@ public class SysML2MILPMappingsHelper {
 	 * method.
 	 * 
 	 * @param e The resource type.
+	 * @param context The context of the transformation run.
 	 * @return The maximum number of instances that can be created given the functional
 	 * 		specification being considered.
 	 */
-	public static int getNumInstancesForResource(Element e) {
+	public static int getNumInstancesForResource(Element e, TransformationContext context) {
+		ConcreteResourceTable table = context.getCorrespondences().getConcreteResourceTable();
+		
+		if (table != null) {
+			ConcreteResourceTable.ConcreteResource rows = table.getRows(e);
+			
+			return rows != null ? rows.getNumInstances() : -1;
+		}
+		
 		// Linked hash maps are ordered, so calculate index based on that
-		for (Entry<Element, ArrayList<Integer>> entry : InternalCorrespondences.getResourceTypeInstanceIDMapping().entrySet())
+		for (Entry<Element, ArrayList<Integer>> entry : context.getCorrespondences().getResourceTypeInstanceIDMapping().entrySet())
 			if (entry.getKey() == e)
 				return entry.getValue().size();
 		
@@ -134,13 +151,17 @@ public class SysML2MILPMappingsHelper {
 	/**
 	 * Returns the total number of resource instances created.
 	 * 
+	 * @param context The context of the transformation run.
 	 * @return The total number of instances for all resource types.
 	 */
-	public static int getTotalNumberOfResourceInstances() {
+	public static int getTotalNumberOfResourceInstances(TransformationContext context) {
+		if (context.getCorrespondences().getConcreteResourceTable() != null)
+			return context.getCorrespondences().getConcreteResourceTable().getTotalInstances();
+		
 		int totalInstances = 0;
 		
 		// Linked hash maps are ordered, so calculate index based on that
-		for (Entry<Element, ArrayList<Integer>> entry : InternalCorrespondences.getResourceTypeInstanceIDMapping().entrySet())
+		for (Entry<Element, ArrayList<Integer>> entry : context.getCorrespondences().getResourceTypeInstanceIDMapping().entrySet())
 			totalInstances += entry.getValue().size();
 		
 		return totalInstances;
@@ -149,13 +170,17 @@ public class SysML2MILPMappingsHelper {
 	/**
 	 * Returns the total number of composite resource instances created.
 	 * 
+	 * @param context The context of the transformation run.
 	 * @return The total number of instances for all aggregate resource types.
 	 */
-	public static int getTotalNumberOfCompositeResourceInstances() {
+	public static int getTotalNumberOfCompositeResourceInstances(TransformationContext context) {
+		if (context.getCorrespondences().getConcreteResourceTable() != null)
+			return context.getCorrespondences().getConcreteResourceTable().getTotalCompositeInstances();
+		
 		int totalInstances = 0;
 		
 		// Linked hash maps are ordered, so calculate index based on that
-		for (Entry<Element, ArrayList<Integer>> entry : InternalCorrespondences.getResourceTypeInstanceIDMapping().entrySet())
+		for (Entry<Element, ArrayList<Integer>> entry : context.getCorrespondences().getResourceTypeInstanceIDMapping().entrySet())
 			if (DSEMLUtils.isCompositeResource(entry.getKey()))
 				totalInstances += entry.getValue().size();
 		
@@ -174,9 +199,11 @@ public class SysML2MILPMappingsHelper {
 	 * results when multiple solutions are created.
 	 * 
 	 * @param resource The resource type to create the appropriate constraints for.
+	 * @param context The context of the transformation run.
 	 * @return An ordered list of constraints (as String objects).
 	 */
-	public static ArrayList<String> addCompositeResourceIntegrityConstraints(Classifier resource) {
+	public static ArrayList<String> addCompositeResourceIntegrityConstraints(Classifier resource,
+			TransformationContext context) {
 		if (!DSEMLUtils.isCompositeResource(resource))
 			return new ArrayList<String>();
 		
@@ -188,12 +215,10 @@ public class SysML2MILPMappingsHelper {
 		for (Element composite : composites) {
 			String concrSum = "";
 			
-			ArrayList<Element> concrCompositeParts = DSEMLUtils.getConcreteResourcesForAbstractResourceType(
-					TransformationCache.getResources(),
-					composite);
+			ConcreteResourceTable table = context.getCorrespondences().getConcreteResourceTable();
 			
-			for (Element cc : concrCompositeParts) {
-				int rID = InternalCorrespondences.getResourceTypeMachineIDMapping().get(cc);
+			for (Element cc : table.getConcreteResources(composite)) {
+				int rID = table.getRows(cc).getMachineID();
 				
 				if (!concrSum.equals(""))
 					concrSum += " + ";
@@ -201,7 +226,7 @@ public class SysML2MILPMappingsHelper {
 			}
 			
 			if (!concrSum.equals(""))
-				constraints.add(concrSum + " >= sum(IM" + InternalCorrespondences.getResourceTypeMachineIDMapping().get(resource) + ")");
+				constraints.add(concrSum + " >= sum(IM" + context.getCorrespondences().getResourceTypeMachineIDMapping().get(resource) + ")");
 		}
 		
 		return constraints;
@@ -224,27 +249,29 @@ public class SysML2MILPMappingsHelper {
 	 * 
 	 * @param resource The composite / aggregate resource to generate the constraints for.
 	 * @param instance The instance number of the aggregate resource.
+	 * @param context The context of the transformation run.
 	 * @return An ordered list of constraints (as Strings).
 	 */
 	public static ArrayList<String> addCompositeResourceAllocationConstraints(
 			Classifier resource,
-			int instance) {
+			int instance,
+			TransformationContext context) {
 		ArrayList<String> constraints = new ArrayList<String>();
 		
 		// Every column of the C matrix has to have exactly n '1's, where n = number of parts of composites. Also,
-		//constraints.add("sum(C(:," + InternalCorrespondences.getCompositeMatrixCompositeResourceInstanceColumnIndex(resource, instance) + ")) == " + DSEMLUtils.getResourceParts(resource).size());
+		//constraints.add("sum(C(:," + context.getCorrespondences().getCompositeMatrixCompositeResourceInstanceColumnIndex(resource, instance) + ")) == " + DSEMLUtils.getResourceParts(resource).size());
 		
 		// The resources where there is a '1' in a row, as well as the corresponding composite in the column must all
 		// appear in the same row in A
-		//for (int wp=1; wp<InternalCorrespondences.getActInstanceIDMapping().size()+1; wp++)
-		//	constraints.add("implies(A(" + InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(resource, instance) + "," + wp + "), sum(round(C(:," + InternalCorrespondences.getCompositeMatrixCompositeResourceInstanceColumnIndex(resource, instance) + ")) & round(A(:," + wp + "))) == " + (DSEMLUtils.getResourceParts(resource).size() + 1) + ")");
-		int compositeMatrixColumnID = InternalCorrespondences.getCompositeMatrixCompositeResourceInstanceColumnIndex(resource, instance);
-		int allocationMatrixRowID = InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(resource, instance);
+		//for (int wp=1; wp<context.getCorrespondences().getActInstanceIDMapping().size()+1; wp++)
+		//	constraints.add("implies(A(" + context.getCorrespondences().getAllocationMatrixResourceInstanceIndex(resource, instance) + "," + wp + "), sum(round(C(:," + context.getCorrespondences().getCompositeMatrixCompositeResourceInstanceColumnIndex(resource, instance) + ")) & round(A(:," + wp + "))) == " + (DSEMLUtils.getResourceParts(resource).size() + 1) + ")");
+		int compositeMatrixColumnID = context.getCorrespondences().getCompositeMatrixCompositeResourceInstanceColumnIndex(resource, instance);
+		int allocationMatrixRowID = context.getCorrespondences().getAllocationMatrixResourceInstanceIndex(resource, instance);
 		String cMatrixEntry = "C(" + allocationMatrixRowID + "," + compositeMatrixColumnID + ")";
 		
 		// If the instance is allocated to one of the functions / WPs, then it is also allocated in C()
 		String rightHandSide = "";
-		for (int wp=1; wp<InternalCorrespondences.getActivityInstanceWPIDIndex().size()+1; wp++) {
+		for (int wp=1; wp<context.getCorrespondences().getNumColumns()+1; wp++) {
 			if (rightHandSide.equals(""))
 				rightHandSide += "(";
 			else
@@ -262,13 +289,13 @@ public class SysML2MILPMappingsHelper {
 		for (Element part : DSEMLUtils.getResourceParts(resource)) {
 			rightHandSide = "";
 			
-			for (Element concretePart : TransformationCache.getResources()) {
+			for (Element concretePart : context.getCache().getResources()) {
 				if (DSEMLUtils.isTypeOfResource((Classifier) part, (Classifier) concretePart)) {
 					if (!rightHandSide.equals(""))
 						rightHandSide += " + ";
 					
-					int startingIndex = InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(concretePart, 1);
-					int endingIndex = startingIndex + InternalCorrespondences.getResourceTypeInstanceIDMapping().get(concretePart).size() - 1;
+					int startingIndex = context.getCorrespondences().getAllocationMatrixResourceInstanceIndex(concretePart, 1);
+					int endingIndex = startingIndex + context.getCorrespondences().getResourceTypeInstanceIDMapping().get(concretePart).size() - 1;
 					
 					rightHandSide += "sum(C(" + startingIndex + ":" + endingIndex + "," + compositeMatrixColumnID + "))";
 				}
@@ -278,7 +305,7 @@ public class SysML2MILPMappingsHelper {
 			constraints.add("implies(~" + cMatrixEntry + ", " + rightHandSide + " == 0)");
 		}
 		
-		for (int wp=1; wp<InternalCorrespondences.getActivityInstanceWPIDIndex().size()+1; wp++)
+		for (int wp=1; wp<context.getCorrespondences().getNumColumns()+1; wp++)
 			constraints.add("implies(A(" + allocationMatrixRowID + "," + wp + "), A(:," + wp + ") - C(:," + compositeMatrixColumnID + ") >= 0)");
 		
 		return constraints;
@@ -294,14 +321,16 @@ public class SysML2MILPMappingsHelper {
 	 * @param resource The resource type that is not a composite / aggregate resource or a
 	 * 		part of any aggregate resource.
 	 * @param instance The instance being transformed.
+	 * @param context The context of the transformation run.
 	 * @return Returns an ordered list of the relevant constraints (in String form).
 	 */
 	public static ArrayList<String> addCompositeResourceAllocationConstraintsIgnoreNonCompositeParts(
-			Classifier resource) {
+			Classifier resource,
+			TransformationContext context) {
 		ArrayList<String> constraints = new ArrayList<String>();
 		
-		int startingIndex = InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(resource, 1);
-		int endingIndex = startingIndex + InternalCorrespondences.getResourceTypeInstanceIDMapping().get(resource).size() - 1;
+		int startingIndex = context.getCorrespondences().getAllocationMatrixResourceInstanceIndex(resource, 1);
+		int endingIndex = startingIndex + context.getCorrespondences().getResourceTypeInstanceIDMapping().get(resource).size() - 1;
 		
 		// In the composite allocation matrix C (relationship between composite resources and parts), any
 		// resources that cannot possibly be part of any of the considered composites will always be zero.
@@ -317,32 +346,29 @@ public class SysML2MILPMappingsHelper {
 	 * design problem.
 	 * 
 	 * @param milpGen The MILP code generation object.
-	 * @return MILP code containing constraint definitions.
+	 * @param context The context of the transformation run. The constraints are added to
+	 * 		its MILP model.
 	 */
-	public static String addResourceShareabilityConstraints(MILPModel2TextUtils milpGen) {
-		// FIXME This should not return MILP code, but rather a list of constraints
-		
+	public static void addResourceShareabilityConstraints(MILPModel2TextUtils milpGen,
+			TransformationContext context) {
 		ArrayList<String> constraints = new ArrayList<String>();
 		
-		ArrayList<Element> nonShareableResources = DSEMLUtils.getNonShareableResources(TransformationCache.getAllWorkingPrinciples(),
-				TransformationCache.getCompositeResources(),
-				TransformationCache.getAllResources());
+		ArrayList<Element> nonShareableResources = DSEMLUtils.getNonShareableResources(context.getCache().getAllWorkingPrinciples(),
+				context.getCache().getCompositeResources(),
+				context.getCache().getAllResources());
 		
-		ArrayList<Element> shareableResources = DSEMLUtils.getShareableResources(TransformationCache.getAllWorkingPrinciples(),
-				TransformationCache.getCompositeResources(),
-				TransformationCache.getAllResources());
+		ArrayList<Element> shareableResources = DSEMLUtils.getShareableResources(context.getCache().getAllWorkingPrinciples(),
+				context.getCache().getCompositeResources(),
+				context.getCache().getAllResources());
 		
 		// Aggregate resource shareability
 		for (Element r : nonShareableResources) {
-			for (Element resource :  DSEMLUtils.getConcreteResourcesForAbstractResourceType(
-					TransformationCache.getResources(), r)) {
+			for (Element resource : context.getCorrespondences().getConcreteResourceTable().getConcreteResources(r)) {
 				// If this element is part of a composite...
-				if (DSEMLUtils.isPartOfAnyComposite(
-						(Classifier) resource, 
-						TransformationCache.getCompositeResources())) {
+				if (context.getCache().getCompositeStructure().isPartOfAnyComposite(resource)) {
 					// Then add the constraint that it may not be allocated to more than one composite
-					for (int i : InternalCorrespondences.getResourceTypeInstanceIDMapping().get(resource)) {
-						int matrixRow = InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(resource, i);
+					for (int i : context.getCorrespondences().getResourceTypeInstanceIDMapping().get(resource)) {
+						int matrixRow = context.getCorrespondences().getAllocationMatrixResourceInstanceIndex(resource, i);
 						String constr = "sum(C(" + matrixRow + ",:)) <= 1";
 						
 						if (!constraints.contains(constr))
@@ -353,13 +379,14 @@ public class SysML2MILPMappingsHelper {
 		}
 		
 		// Shareable and non-shareable resources
-		for (Element r : TransformationCache.getAllResources()) {
+		for (Element r : context.getCache().getAllResources()) {
 			ArrayList<String> shCons = SysML2MILPMappingsHelper.addNonShareabilityConstraints(
 					r,
 					shareableResources,
 					nonShareableResources,
-					InternalCorrespondences.getResourceActivityIDsMapping(),
-					milpGen);
+					context.getCorrespondences().getResourceActivityIDsMapping(),
+					milpGen,
+					context);
 			
 			if (shCons != null && shCons.size() > 0)
 				constraints.addAll(shCons);
@@ -383,8 +410,9 @@ public class SysML2MILPMappingsHelper {
 							topMostShareable,
 							shareableResources,
 							nonShareableResources,
-							InternalCorrespondences.getResourceActivityIDsMapping(),
-							milpGen));
+							context.getCorrespondences().getResourceActivityIDsMapping(),
+							milpGen,
+							context));
 					
 					// Remove from list of shareables
 					if (remove)
@@ -393,7 +421,7 @@ public class SysML2MILPMappingsHelper {
 			}
 		}
 		
-		return milpGen.generateConstraintDeclaration(constraints, "Resource shareability constraints");
+		context.getMilpModel().addConstraints(constraints, "Resource shareability constraints");
 	}
 	
 	/**
@@ -406,15 +434,17 @@ public class SysML2MILPMappingsHelper {
 	 * 		(activities) to a list of internal identifiers representing working
 	 * 		principle / function instances.
 	 * @param milpGen The MILP code generation object.
+	 * @param context The context of the transformation run.
 	 * @return An ordere list of constraints (as string objects).
 	 */
 	public static ArrayList<String> addNonShareabilityConstraints(Element r, 
 			ArrayList<Element> shareableResources,
 			ArrayList<Element> nonShareableResources,
 			HashMap<Element,HashSet<String>> resourceActivityIDsMapping,
-			MILPModel2TextUtils milpGen) {
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
 		ArrayList<String> constraints = new ArrayList<String>();
-		String constr = generateNonShareabilityActWPCondition(r, shareableResources, nonShareableResources, resourceActivityIDsMapping);
+		String constr = generateNonShareabilityActWPCondition(r, shareableResources, nonShareableResources, resourceActivityIDsMapping, context);
 		
 		if (!constr.equals("")) {
 			if (constr.endsWith(" + "))
@@ -423,13 +453,12 @@ public class SysML2MILPMappingsHelper {
 			logger.trace(constr + " <= " + ((NamedElement) r).getName());
 			
 			ArrayList<Element> alreadyProcessed = new ArrayList<Element>();
-			ArrayList<Element> res = DSEMLUtils.getConcreteResourcesForAbstractResourceType(
-					TransformationCache.getResources(), r);
+			List<Element> res = context.getCorrespondences().getConcreteResourceTable().getConcreteResources(r);
 			String rightHandSide = "";
 			
 			for (Element e : res) {
 				if (!alreadyProcessed.contains(e)) {
-					String instanceVectorID = "IM" + InternalCorrespondences.getResourceTypeMachineIDMapping().get(e);
+					String instanceVectorID = "IM" + context.getCorrespondences().getResourceTypeMachineIDMapping().get(e);
 					
 					if (!rightHandSide.equals(""))
 						rightHandSide += " + ";
@@ -461,23 +490,25 @@ public class SysML2MILPMappingsHelper {
 	 * @param resourceActivityIDsMapping A mapping from function definitions
 	 * 		(activities) to a list of internal identifiers representing working
 	 * 		principle / function instances.
+	 * @param context The context of the transformation run.
 	 * @return The left hand-side of the relevant constraint.
 	 */
 	public static String generateNonShareabilityActWPCondition(Element r, 
 			ArrayList<Element> shareableResources,
 			ArrayList<Element> nonShareableResources,
-			HashMap<Element,HashSet<String>> resourceActivityIDsMapping) {
-		String constr = "";
+			HashMap<Element,HashSet<String>> resourceActivityIDsMapping,
+			TransformationContext context) {
+		StringBuilder constr = new StringBuilder();
 		
 		if (nonShareableResources.contains(r)) {
 			if (shareableResources.contains(r)) {
 				ArrayList<Element> subResources = getNonShareableSubResources(r, nonShareableResources);
 				
 				for (Element subRes : subResources) {
-					if (!constr.equals(""))
-						constr += " + ";
+					if (constr.length() > 0)
+						constr.append(" + ");
 					
-					constr += generateNonShareabilityActWPCondition(subRes, shareableResources, nonShareableResources, resourceActivityIDsMapping);
+					constr.append(generateNonShareabilityActWPCondition(subRes, shareableResources, nonShareableResources, resourceActivityIDsMapping, context));
 				}
 			}
 			
@@ -497,10 +528,7 @@ public class SysML2MILPMappingsHelper {
 					// Check whether this resource has any composite parents (i.e., is part of a composite)
 					// This is the case if, e.g., a type of "Robot" is part of the aggregate "RobotWithGripper"
 					// and "RobotWithClinchingHead"
-					ArrayList<Element> compositeParents = DSEMLUtils.getCompositeParents(
-							resource,
-							TransformationCache.getAllResources(),
-							TransformationCache.getResources());
+					ArrayList<Element> compositeParents = context.getCache().getCompositeStructure().getCompositeParents(resource);
 					
 					// OR those activity+wp combinations, which point to a common, shared
 					// parent resource
@@ -512,31 +540,31 @@ public class SysML2MILPMappingsHelper {
 						if (relIDs != null
 								&& relIDs.size() > 0
 								&& !alreadyProcessed.contains(relIDs)) {
-							if (!constr.equals("") && !constr.endsWith(" + "))
-								constr += " + ";
+							if (constr.length() > 0 && !endsWith(constr, " + "))
+								constr.append(" + ");
 							
 							boolean first = true;
 							
 							if (shareableResources.contains(parent)) {
-								constr += "(";
+								constr.append("(");
 								for (String actWP : relIDs) {
-									if (!isNonShareableWithinContext(r, actWP)) {
+									if (!isNonShareableWithinContext(r, actWP, context)) {
 										if (!first)
-											constr += " | ";
-										constr += actWP;
+											constr.append(" | ");
+										constr.append(actWP);
 										
 										first = false;
 									}
 								}
-								constr += ")";
+								constr.append(")");
 							}
 							
 							for (String actWPID : relIDs) {
-								if (isNonShareableWithinContext(r, actWPID)) {
+								if (isNonShareableWithinContext(r, actWPID, context)) {
 									if (!first)
-										constr += " + ";
+										constr.append(" + ");
 									
-									constr += actWPID;
+									constr.append(actWPID);
 									
 									first = false;
 								}
@@ -553,8 +581,8 @@ public class SysML2MILPMappingsHelper {
 					if (compositeParents == null || compositeParents.size() == 0) {
 						boolean firstEl = true;
 						
-						if(!constr.equals("") && !constr.endsWith(" + "))
-							constr += " + ";
+						if(constr.length() > 0 && !endsWith(constr, " + "))
+							constr.append(" + ");
 						//constr = "";
 						
 						// Check whether there is a shareable instance - in that case add 1 later
@@ -562,26 +590,26 @@ public class SysML2MILPMappingsHelper {
 							HashSet<String> relIDs = resourceActivityIDsMapping.get(r);
 							
 							if (relIDs != null) {
-								constr += "(";
+								constr.append("(");
 								for (String relID : relIDs) {
-									if (!isNonShareableWithinContext(r, relID)) {
+									if (!isNonShareableWithinContext(r, relID, context)) {
 										if (!firstEl)
-											constr += " | ";
-										constr += relID;
+											constr.append(" | ");
+										constr.append(relID);
 										
 										firstEl = false;
 									}
 								}
-								constr += ")";
+								constr.append(")");
 							}						
 						}
 						
 						for (String actWPID : actInstanceIDs) {
-							if (isNonShareableWithinContext(r, actWPID)) {
+							if (isNonShareableWithinContext(r, actWPID, context)) {
 								if (!firstEl)
-									constr += " + ";
+									constr.append(" + ");
 								
-								constr += actWPID;
+								constr.append(actWPID);
 								
 								firstEl = false;
 							}
@@ -591,7 +619,19 @@ public class SysML2MILPMappingsHelper {
 			}
 		}
 		
-		return constr;
+		return constr.toString();
+	}
+	
+	/**
+	 * Checks whether the given string builder ends with the given suffix.
+	 * 
+	 * @param builder The string builder to check.
+	 * @param suffix The suffix.
+	 * @return true if the current content of the builder ends with the suffix.
+	 */
+	private static boolean endsWith(StringBuilder builder, String suffix) {
+		return builder.length() >= suffix.length()
+				&& builder.substring(builder.length() - suffix.length()).equals(suffix);
 	}
 	
 	/**
@@ -659,12 +699,40 @@ public class SysML2MILPMappingsHelper {
 	 * 
 	 * @param resource The resource type.
 	 * @param actWPInstanceID The particular function / working principle internal ID.
+	 * @param context The context of the transformation run (not to be confused with the
+	 * 		function / working principle combination checked against).
 	 * @return true if the given resource is non-shareable within the context of the
 	 * 		specified function / working principle combination and false otherwise.
 	 */
-	public static boolean isNonShareableWithinContext(Element resource, String actWPInstanceID) {
+	public static boolean isNonShareableWithinContext(Element resource, String actWPInstanceID,
+			TransformationContext context) {
+		ResourceCompatibility compatibility = context.getCorrespondences().getResourceCompatibility();
+		
+		if (compatibility != null) {
+			Boolean isNonShareable = compatibility.isNonShareable(resource, actWPInstanceID);
+			
+			if (isNonShareable != null)
+				return isNonShareable.booleanValue();
+		}
+		
+		Activity workingPrinciple = context.getCorrespondences().getColumnWorkingPrinciple(
+				context.getCorrespondences().getColumn(actWPInstanceID));
+		
+		return searchNonShareableWithinContext(resource, workingPrinciple);
+	}
+	
+	/**
+	 * Check whether a particular resource is non-shareable within a working principle,
+	 * by searching the attributes of the working principle (see
+	 * {@link #isNonShareableWithinContext(Element, String, TransformationContext)}).
+	 * 
+	 * @param resource The resource type.
+	 * @param workingPrinciple The working principle of the function / working principle
+	 * 		combination.
+	 * @return true if the given resource is non-shareable within the working principle.
+	 */
+	static boolean searchNonShareableWithinContext(Element resource, Activity workingPrinciple) {
 		boolean isNonShareable = false;
-		Activity workingPrinciple = (Activity) ((SimpleEntry<Activity, Element>) InternalCorrespondences.getActivityInstanceWPIDIndex().get(actWPInstanceID)).getValue();
 		
 		if (workingPrinciple != null && workingPrinciple.getOwnedAttributes() != null) {
 			for (Property resProp : workingPrinciple.getOwnedAttributes()) {
@@ -673,7 +741,7 @@ public class SysML2MILPMappingsHelper {
 						return true;
 					else if (!resProp.getType().equals(resource) 
 							&& DSEMLUtils.isCompositeResource(resProp.getType()))
-						isNonShareable |= isNonShareableWithinContext(resProp.getType(), actWPInstanceID);
+						isNonShareable |= searchNonShareableWithinContext(resProp.getType(), workingPrinciple);
 				}
 			}
 		}
@@ -692,14 +760,16 @@ public class SysML2MILPMappingsHelper {
 	 * 
 	 * @param classifier The classifier to produce the output for.
 	 * @param milpGen The MILP code generation object.
+	 * @param context The context of the transformation run (holds the visualization buffer).
 	 */
 	public static void displayPropertiesOfUMLClass(Classifier classifier,
-			MILPModel2TextUtils milpGen) {
+			MILPModel2TextUtils milpGen,
+			TransformationContext context) {
 		// Display attributes only
-		if (classifier.getAllAttributes() != null)
-			for (Property p : classifier.getAllAttributes())
+		if (DSEMLUtils.getAllAttributes(classifier) != null)
+			for (Property p : DSEMLUtils.getAllAttributes(classifier))
 				if (DSEMLUtils.isValueProperty(p))				// Only numeric attributes
-					SysML2MILPTransformation.appendResultsVisualizationBuffer(
+					context.appendResultsVisualizationBuffer(
 							milpGen.generateTextVisualization("'" + p.getName() + ": %d', value(" + classifier.getName() + "_" + p.getName() + ")"));
 	}
 
@@ -717,8 +787,10 @@ public class SysML2MILPMappingsHelper {
 	 * 
 	 * @param classifier The classifier to store an internal correspondence for.
 	 * @param internalIdentifier The internal identifier of the classifier.
+	 * @param context The context of the transformation run (holds the visualization buffer).
 	 */
-	public static void storeCorrespondences(Classifier classifier, String identifier) {
+	public static void storeCorrespondences(Classifier classifier, String identifier,
+			TransformationContext context) {
 		// For correspondence: add to visualization buffer that we would like to write the results to a solution file
 		String typeName = classifier.getQualifiedName();
 		
@@ -733,8 +805,8 @@ public class SysML2MILPMappingsHelper {
 		output += "fprintf(resultsFile, '" + typeName + "::instanceName = " + identifier + "\\r\\n'); ";
 
 		// Handle numeric properties
-		if (classifier.getAllAttributes() != null) {
-			for (Property p : classifier.getAllAttributes()) {
+		if (DSEMLUtils.getAllAttributes(classifier) != null) {
+			for (Property p : DSEMLUtils.getAllAttributes(classifier)) {
 				if (!DSEMLUtils.isResource(p.getType())
 						&& !DSEMLUtils.isWorkingPrinciple(p.getType())) {
 					String propertyName = identifier + "_" + p.getName();			// Note: for inherited properties the qualified name may be different - here we care about the instantiated class only
@@ -748,7 +820,7 @@ public class SysML2MILPMappingsHelper {
 		output += "end;\r\n";
 		
 		// Add to visualization buffer, which is part of the results loop (once result has been computed)
-		SysML2MILPTransformation.appendResultsVisualizationBuffer(output);
+		context.appendResultsVisualizationBuffer(output);
 	}
 	
 	/**
@@ -25,19 +25,37 @@
  */
 package edu.gatech.mbse.transformations.sysml2milp;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.uml2.uml.Activity;
 import org.eclipse.uml2.uml.Classifier;
 import org.eclipse.uml2.uml.Constraint;
 import org.eclipse.uml2.uml.Element;
-import edu.gatech.mbse.transformations.sysml2milp.ocl.MiniOCLInterpretor;
+import org.eclipse.uml2.uml.Namespace;
+import org.eclipse.uml2.uml.Package;
 import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink;
+import edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSinkTee;
+import edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSinkWriter;
 import edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtils;
 import edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtilsYALMIP;
-import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
 
 /**
  * SysML to MILP transformation.
@@ -52,6 +70,14 @@ import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
  * side, MILP meta-model. While sketches of all of this exists, implementation would
  * take quite a while. The transformation as currently is in this file should be
  * seen as an intermediate step towards this goal.
+ * <P>
+ * Steps 2) and 3) are partially realized: the mappings build a {@link
+ * edu.gatech.mbse.transformations.sysml2milp.model.MILPModel}, which is then written
+ * by the MILP code generation object.
+ * <P>
+ * All state of a run (including the MILP model) is kept in a
+ * {@link TransformationContext} that is created for each call to transform(...).
+ * Transformations can therefore run concurrently.
  * 
  * @author Sebastian
  * @version 0.1.2
@@ -61,20 +87,44 @@ public class SysML2MILPTransformation {
 	/** Log4J object. */
 	private static final Logger logger = LogManager.getLogger(SysML2MILPTransformation.class.getName());
 	
-	/** Root model element. */
-	private Element rootModelElement = null;
+	/** Name of the phase looking up the result in the result cache (see {@link TransformationMetrics}). */
+	public static final String PHASE_RESULT_CACHE_LOOKUP = "resultCacheLookup";
+	
+	/** Name of the phase rebuilding the transformation cache. */
+	public static final String PHASE_REBUILD_CACHE = "rebuildCache";
+	
+	/** Name of the phase pre-computing the internal correspondences. */
+	public static final String PHASE_PRECOMPUTE_CORRESPONDENCES = "preComputeInternalCorrespondences";
+	
+	/** Name of the phase declaring the standard variables. */
+	public static final String PHASE_DECLARE_STANDARD_VARIABLES = "declareStandardVariables";
+	
+	/** Name of the phase transforming the resource library. */
+	public static final String PHASE_TRANSFORM_RESOURCE_LIBRARY = "transformResourceLibrary";
+	
+	/** Name of the phase transforming the functional specification. */
+	public static final String PHASE_TRANSFORM_FUNCTIONAL_SPECIFICATION = "transformFunctionalSpecification";
 	
-	/** Functional specification. */
-	private Activity functionalSpecification = null;
+	/** Name of the phase adding the resource shareability constraints. */
+	public static final String PHASE_RESOURCE_SHAREABILITY_CONSTRAINTS = "addResourceShareabilityConstraints";
+	
+	/** Name of the phase transforming the system under design and the objective. */
+	public static final String PHASE_TRANSFORM_SYSTEM_UNDER_DESIGN = "transformSystemUnderDesign";
+	
+	/** Name of the phase generating the MILP code of the preamble and the MILP model. */
+	public static final String PHASE_GENERATE_MILP_CODE = "generateMILPCode";
+	
+	/** Name of the phase generating the postamble. */
+	public static final String PHASE_GENERATE_POSTAMBLE = "generatePostamble";
 	
 	/** YALMIP-specific textual generation of MILP code. */
 	private MILPModel2TextUtils milpModel2Text = null;
 	
-	/** String that can be accessed from outside that holds visualization information. */
-	private static String resultsVisualizationBuffer = "";
+	/** Cache of transformation results (null if results are not cached). */
+	private TransformationResultCache resultCache = null;
 	
-	/** In continuous integration / unit testing system? */
-	public static boolean TESTING_MODE = false;
+	/** Metrics of the run that finished last (null if no run finished yet). */
+	private volatile TransformationMetrics lastMetrics = null;
 
 	/**
 	 * Constructor.
@@ -87,12 +137,15 @@ public class SysML2MILPTransformation {
 	
 	/**
 	 * Set up all utility classes that are used in the transformation. Currently
-	 * this is the MILP code generation object.
+	 * this is the MILP code generation object and the result cache.
 	 */
 	private void setupTransformationUtils() {
 		// Should probably be made configurable, but since this is the only choice
 		// right now, this is taken as default:
 		setMilpModel2Text(new MILPModel2TextUtilsYALMIP());
+		
+		// Shared cache as configured in TransformationConfig (none by default)
+		setResultCache(TransformationResultCache.getDefault());
 	}
 	
 	/**
@@ -101,6 +154,12 @@ public class SysML2MILPTransformation {
 	 * This function transforms a given SysML activity to a MILP problem. It
 	 * returns MILP code that conforms to the syntax of the configured target
 	 * environment.
+	 * <P>
+	 * Note that this is a wrapper around
+	 * {@link #transform(Activity, Element, int, boolean, Writer)}: for large models,
+	 * the variants writing directly to a {@link Writer} or {@link OutputStream}
+	 * should be preferred. The timing and size metrics of the run are available from
+	 * {@link #getLastMetrics()} once this returns.
 	 * 
 	 * @param topLevelActivity The functional specification (UML Activity).
 	 * @param rootElement The root model element.
@@ -119,94 +178,445 @@ public class SysML2MILPTransformation {
 			Element rootElement,
 			int numSolutions,
 			boolean testingMode) throws Exception {
-		/************* SETUP *************/
+		StringWriter milpCode = new StringWriter();
+		
+		transform(functionalSpec, rootElement, numSolutions, testingMode, milpCode);
+		
+		return milpCode.toString();
+	}
+	
+	/**
+	 * Execute the transformation, writing the generated MILP code to an output
+	 * stream (UTF-8 encoded).
+	 * 
+	 * @param functionalSpec The functional specification (UML Activity).
+	 * @param rootElement The root model element.
+	 * @param numSolutions The number of solutions that the MILP solver should
+	 * 		generate.
+	 * @param testingMode See {@link #transform(Activity, Element, int, boolean)}.
+	 * @param out The stream to write the MILP code to. The stream is flushed, but
+	 * 		not closed.
+	 * @param compress If true, the MILP code is gzip-compressed.
+	 * @return Timing and size metrics of the transformation run.
+	 * @throws Exception Thrown if the transformation failed to find a system
+	 * 		under design or an objective, or if writing to the stream failed.
+	 */
+	public TransformationMetrics transform(Activity functionalSpec,
+			Element rootElement,
+			int numSolutions,
+			boolean testingMode,
+			OutputStream out,
+			boolean compress) throws Exception {
+		return transform(functionalSpec, rootElement, numSolutions, testingMode,
+				MILPCodeSinkWriter.forOutputStream(out, compress), null);
+	}
+	
+	/**
+	 * Execute the transformation, writing the generated MILP code to a writer.
+	 * 
+	 * @param functionalSpec The functional specification (UML Activity).
+	 * @param rootElement The root model element.
+	 * @param numSolutions The number of solutions that the MILP solver should
+	 * 		generate.
+	 * @param testingMode See {@link #transform(Activity, Element, int, boolean)}.
+	 * @param out The writer to write the MILP code to. Output is buffered; the writer
+	 * 		is flushed, but not closed.
+	 * @return Timing and size metrics of the transformation run.
+	 * @throws Exception Thrown if the transformation failed to find a system
+	 * 		under design or an objective, or if writing failed.
+	 */
+	public TransformationMetrics transform(Activity functionalSpec,
+			Element rootElement,
+			int numSolutions,
+			boolean testingMode,
+			Writer out) throws Exception {
+		return transform(functionalSpec, rootElement, numSolutions, testingMode,
+				new MILPCodeSinkWriter(new BufferedWriter(out)), null);
+	}
+	
+	/**
+	 * Execute the transformation, appending the generated MILP code to the given sink.
+	 * 
+	 * @param functionalSpec The functional specification (UML Activity).
+	 * @param rootElement The root model element.
+	 * @param numSolutions The number of solutions that the MILP solver should
+	 * 		generate.
+	 * @param testingMode See {@link #transform(Activity, Element, int, boolean)}.
+	 * @param milpCode The sink to append the MILP code to.
+	 * @param modelIndexes Lists that do not depend on the functional specification,
+	 * 		shared with other runs on the same model (see
+	 * 		{@link TransformationCache#shareModelIndexes(TransformationCache)}), or
+	 * 		null if these should be rebuilt.
+	 * @return Timing and size metrics of the transformation run (also reported to
+	 * 		{@link TransformationStatistics}).
+	 * @throws Exception Thrown if the transformation failed to find a system
+	 * 		under design or an objective, or if writing to the sink failed.
+	 */
+	private TransformationMetrics transform(Activity functionalSpec,
+			Element rootElement,
+			int numSolutions,
+			boolean testingMode,
+			MILPCodeSink milpCode,
+			TransformationCache modelIndexes) throws Exception {
+		TransformationMetrics metrics = new TransformationMetrics();
+		
+		
+		
+		
+		/************* RESULT CACHE *************/
+		
+		// If the same model has been transformed before, only the postamble has to be
+		// generated (the number of solutions or the solver may differ)
+		String cacheKey = null;
+		
+		if (getResultCache() != null) {
+			metrics.beginPhase(PHASE_RESULT_CACHE_LOOKUP, null);
+			
+			cacheKey = TransformationResultCache.computeKey(functionalSpec, rootElement, testingMode);
+			
+			TransformationResultCache.Entry cachedResult = getResultCache().get(cacheKey);
+			
+			metrics.endPhase();
+			
+			if (cachedResult != null) {
+				metrics.setCacheHit(true);
+				
+				writeMILPCode(milpCode, cachedResult, numSolutions, testingMode, metrics);
+				
+				return recordMetrics(metrics);
+			}
+		}
 		
-		// String buffer object - is faster for large strings
-		StringBuffer milpCode = new StringBuffer();
 		
-		// Store input
-		setRootModelElement(rootElement);
-		MiniOCLInterpretor.rootModelElement = rootElement;		// Remove this in future
-		SysML2MILPTransformation.TESTING_MODE = testingMode;
-		setFunctionalSpecification(functionalSpec);
 		
-		// Reset transformation state variables
-		TransformationState.resetState();
 		
-		// Reset visualization cache
-		setResultsVisualizationBuffer("");
+		/************* SETUP *************/
+		
+		// All state of this run (input, cache, correspondences, counters and the
+		// visualization buffer) is kept in a fresh context
+		TransformationContext context = new TransformationContext(rootElement, functionalSpec, testingMode);
+		
+		// The DSEML roles of model elements (resource, working principle, ...), the
+		// generals of classifiers and their derived features are determined once per
+		// element during this run
+		TransformationContext previous = context.activate();
+		
+		try {
+			transform(context, numSolutions, milpCode, modelIndexes, cacheKey, metrics);
+		} finally {
+			context.deactivate(previous);
+		}
 		
-		// Rebuild cache & reset internal correspondences before transformation - note that
-		// the cache is static
-		TransformationCache.rebuildCache(getRootModelElement(), getFunctionalSpecification());		// Parses model and stores lists of commonly queried types of elements
-		InternalCorrespondences.resetInternalCorrespondences();
+		return recordMetrics(metrics);
+	}
+	
+	/**
+	 * Run the transformation in a prepared context: rebuild the cache, pre-compute the
+	 * internal correspondences, run the mappings and append the MILP code to the sink.
+	 * 
+	 * @param context The context of the transformation run.
+	 * @param numSolutions The number of solutions that the MILP solver should
+	 * 		generate.
+	 * @param milpCode The sink to append the MILP code to.
+	 * @param modelIndexes See
+	 * 		{@link #transform(Activity, Element, int, boolean, MILPCodeSink, TransformationCache)}.
+	 * @param cacheKey The key under which to keep the result in the result cache, or
+	 * 		null if it should not be kept.
+	 * @param metrics The metrics to record the phases in.
+	 * @throws Exception Thrown if the transformation failed to find a system
+	 * 		under design or an objective, or if writing to the sink failed.
+	 */
+	private void transform(TransformationContext context,
+			int numSolutions,
+			MILPCodeSink milpCode,
+			TransformationCache modelIndexes,
+			String cacheKey,
+			TransformationMetrics metrics) throws Exception {
+		Element rootElement = context.getRootModelElement();
+		Activity functionalSpec = context.getFunctionalSpecification();
+		boolean testingMode = context.isTestingMode();
+		
+		metrics.beginPhase(PHASE_REBUILD_CACHE, null);
+		
+		// Rebuild cache before transformation - parses model and stores lists of commonly
+		// queried types of elements (those independent of the functional specification
+		// may be shared with other runs)
+		if (modelIndexes != null)
+			context.getCache().shareModelIndexes(modelIndexes);
+		else
+			context.getCache().rebuildModelIndexes(rootElement);
+		
+		context.getCache().rebuildFunctionalSpecificationIndexes(rootElement, functionalSpec);
 		
 		// Also, precompute some of the internal correspondences and reset state afterwards
-		preComputeInternalCorrespondences();
-		TransformationState.resetState();
+		metrics.beginPhase(PHASE_PRECOMPUTE_CORRESPONDENCES, null);
+		
+		preComputeInternalCorrespondences(context);
+		context.getState().resetState();
+		
+		metrics.endPhase();
+		
+		// Find system under design and objective - done up front so that nothing is
+		// written if either of them is missing
+		Classifier systemUnderDesign = findSystemUnderDesign(context);
+		Constraint objective = findObjective(systemUnderDesign, context);
 		
 		// We're using the visualization buffer to store code to write correspondences - add the corresponding preamble first
 		if (!testingMode)
-			appendResultsVisualizationBuffer(SysML2MILPMappingsHelper.generateInstanceDataOutputFilePreamble());
+			context.appendResultsVisualizationBuffer(SysML2MILPMappingsHelper.generateInstanceDataOutputFilePreamble());
 		
 		
 		
 		
 		/************* MAPPINGS *************/
-				
+		
+		// All mappings add to the MILP model of the context - sections are therefore
+		// generated in the order in which they appear in the output
+		
+		// Start by declaring some standard variables (duration, throughput, ...).
+		// These are used throughout the MILP script, so have to included up front.
+		// Their determination only requires the internal correspondences, which
+		// have been pre-computed above.
+		metrics.beginPhase(PHASE_DECLARE_STANDARD_VARIABLES, context.getMilpModel());
+		SysML2MILPMappingsHelper.declareStandardVariables(getMilpModel2Text(), context);
+		
 		// Determine number of, and generate necessary instances of resources
 		// and translate these to MILP
-		String milpMachineInstances = transformResourceLibrary();
+		metrics.beginPhase(PHASE_TRANSFORM_RESOURCE_LIBRARY, context.getMilpModel());
+		transformResourceLibrary(context);
 		
 		// Map / translate the functional specification (activity "instances" where
 		// WorkingPrinciples are taken as concrete implementations of abstract
 		// activities).
-		String milpFunctionalSpecification = transformFunctionalSpecification();
-
-		// Find and translate system under design and objective
-		String milpSystemUnderDesign = transformSystemUnderDesign();
-		
-		// Start by declaring some standard variables (duration, throughput, ...).
-		// These are used throughout the MILP script, so have to included up front.
-		// However, their determination requires other parts of the transformation
-		// to have completed, hence the computation occurs at the end.
-		String milpStandardVariables = SysML2MILPMappingsHelper.declareStandardVariables(getMilpModel2Text());
+		metrics.beginPhase(PHASE_TRANSFORM_FUNCTIONAL_SPECIFICATION, context.getMilpModel());
+		transformFunctionalSpecification(context);
 		
 		// Transform aspects of the model that require both function and structure
 		// to be defined already - for instance, the resource shareability constraints
 		// refer to both functions (or, rather, their existence variables) and resource
 		// instances.
-		String milpFunctionStructureDependentConstraints = transformFunctionStructureDependentConstraints();
+		metrics.beginPhase(PHASE_RESOURCE_SHAREABILITY_CONSTRAINTS, context.getMilpModel());
+		transformFunctionStructureDependentConstraints(context);
+		
+		// Translate system under design and objective
+		metrics.beginPhase(PHASE_TRANSFORM_SYSTEM_UNDER_DESIGN, context.getMilpModel());
+		transformSystemUnderDesign(systemUnderDesign, objective, context);
+		metrics.endPhase();
+		
+		
+		
+		
+		/************* POSTAMBLE *************/
+		
+		// We're using the visualization buffer to store code to write correspondences - add the corresponding postamble last
+		if (!testingMode)
+			context.appendResultsVisualizationBuffer(SysML2MILPMappingsHelper.generateInstanceDataOutputFilePostamble());
+		
 		
 		
 		
+		/************* MILP MODEL -> TEXT *************/
 		
-		/************* ASSEMBLE MILP CODE *************/
+		metrics.beginPhase(PHASE_GENERATE_MILP_CODE, null);
 		
 		// Preamble
 		milpCode.append(
 				getMilpModel2Text().generatePreamble());
 		
-		// Add all transformed sections to final MILP string
-		milpCode.append(milpStandardVariables);
-		milpCode.append(milpMachineInstances);
-		milpCode.append(milpFunctionalSpecification);
-		milpCode.append(milpFunctionStructureDependentConstraints);
-		milpCode.append(milpSystemUnderDesign);
+		// The MILP model itself - its MILP code is also kept for later runs if results
+		// are cached
+		if (cacheKey != null) {
+			StringWriter milpModelCode = new StringWriter();
+			MILPCodeSink milpModelSink = new MILPCodeSinkWriter(milpModelCode);
+			
+			getMilpModel2Text().generateModel(context.getMilpModel(), new MILPCodeSinkTee(milpCode, milpModelSink));
+			milpModelSink.finish();
+			
+			getResultCache().put(cacheKey, new TransformationResultCache.Entry(
+					milpModelCode.toString(),
+					context.getResultsVisualizationBuffer()));
+		} else {
+			getMilpModel2Text().generateModel(context.getMilpModel(), milpCode);
+		}
 		
-		// We're using the visualization buffer to store code to write correspondences - add the corresponding postamble last
-		if (!testingMode)
-			appendResultsVisualizationBuffer(SysML2MILPMappingsHelper.generateInstanceDataOutputFilePostamble());
+		metrics.beginPhase(PHASE_GENERATE_POSTAMBLE, null);
 		
 		// Postamble, with visualization injected
 		milpCode.append(
 				getMilpModel2Text().generatePostamble(
-						getResultsVisualizationBuffer(), 
+						context.getResultsVisualizationBuffer(), 
 						numSolutions, 
 						testingMode));
 		
-		// Finally, return the MILP program
-		return milpCode.toString();
+		// Finally, flush the MILP program
+		milpCode.finish();
+		
+		metrics.endPhase();
+	}
+	
+	/**
+	 * Write the complete MILP program for a (cached) transformation result: preamble,
+	 * MILP code of the model, and the postamble.
+	 * 
+	 * @param milpCode The sink to append the MILP code to.
+	 * @param result The transformation result.
+	 * @param numSolutions The number of solutions that the MILP solver should
+	 * 		generate.
+	 * @param testingMode See {@link #transform(Activity, Element, int, boolean)}.
+	 * @param metrics The metrics to record the phases in.
+	 * @throws IOException If writing to the sink failed.
+	 */
+	private void writeMILPCode(MILPCodeSink milpCode,
+			TransformationResultCache.Entry result,
+			int numSolutions,
+			boolean testingMode,
+			TransformationMetrics metrics) throws IOException {
+		metrics.beginPhase(PHASE_GENERATE_MILP_CODE, null);
+		
+		milpCode.append(
+				getMilpModel2Text().generatePreamble());
+		milpCode.append(result.getMilpModelCode());
+		
+		metrics.beginPhase(PHASE_GENERATE_POSTAMBLE, null);
+		
+		milpCode.append(
+				getMilpModel2Text().generatePostamble(
+						result.getResultsVisualizationBuffer(), 
+						numSolutions, 
+						testingMode));
+		
+		milpCode.finish();
+		
+		metrics.endPhase();
+	}
+	
+	/**
+	 * Report the metrics of a completed run to {@link TransformationStatistics}.
+	 * 
+	 * @param metrics The metrics of the run.
+	 * @return The metrics.
+	 */
+	private TransformationMetrics recordMetrics(TransformationMetrics metrics) {
+		TransformationStatistics.getDefault().record(metrics);
+		
+		lastMetrics = metrics;
+		
+		logger.debug(metrics);
+		
+		return metrics;
+	}
+
+	/**
+	 * Transform several functional specifications of the same model concurrently.
+	 * <P>
+	 * The lists that do not depend on the functional specification (object flows and
+	 * working principles) are built once and shared (read-only) by all runs. Each
+	 * functional specification is then transformed in its own task, using its own
+	 * {@link SysML2MILPTransformation} object and {@link TransformationContext}.
+	 * <P>
+	 * The tasks only read the model, but reading a UML model is not free of side
+	 * effects: EMF resolves proxies on first access, and UML2 caches derived features
+	 * (e.g., {@link Classifier#getAllAttributes()}, {@link Classifier#getGenerals()})
+	 * and inverse references in the CacheAdapter of the resource set, which is not
+	 * thread-safe. Before the tasks are submitted, all proxies of the resource set are
+	 * therefore resolved and the derived features used by the transformation are
+	 * computed once (see {@link #prepareConcurrentReads(Element)}), such that the
+	 * tasks only read these caches. The model must not be modified while the tasks are
+	 * running (a modification clears the caches).
+	 * 
+	 * @param functionalSpecs The functional specifications (UML Activities) to transform.
+	 * @param rootElement The root model element.
+	 * @param numSolutions The number of solutions that the MILP solver should
+	 * 		generate.
+	 * @param testingMode See {@link #transform(Activity, Element, int, boolean)}.
+	 * @param executor The executor to run the transformations on.
+	 * @return The generated MILP code of each functional specification, in the order
+	 * 		of the given collection. A failed transformation throws the cause of the
+	 * 		failure from {@link Future#get()}.
+	 */
+	public List<Future<String>> transformAll(Collection<Activity> functionalSpecs,
+			final Element rootElement,
+			final int numSolutions,
+			final boolean testingMode,
+			ExecutorService executor) {
+		prepareConcurrentReads(rootElement);
+		
+		final TransformationCache modelIndexes = new TransformationCache();
+		modelIndexes.rebuildModelIndexes(rootElement);
+		
+		List<Future<String>> results = new ArrayList<Future<String>>(functionalSpecs.size());
+		
+		for (final Activity functionalSpec : functionalSpecs) {
+			results.add(executor.submit(new Callable<String>() {
+
+				@Override
+				public String call() throws Exception {
+					StringWriter milpCode = new StringWriter();
+					
+					SysML2MILPTransformation transformation = new SysML2MILPTransformation();
+					transformation.setResultCache(getResultCache());
+					transformation.transform(functionalSpec, rootElement, numSolutions, testingMode,
+							new MILPCodeSinkWriter(milpCode), modelIndexes);
+					
+					return milpCode.toString();
+				}
+				
+			}));
+		}
+		
+		return results;
+	}
+	
+	/**
+	 * Resolve all proxies of the model and compute the derived features that the
+	 * transformation reads, such that concurrent transformations of the model do not
+	 * modify it or the caches of UML2.
+	 * 
+	 * @param rootElement The root model element.
+	 */
+	private void prepareConcurrentReads(Element rootElement) {
+		Resource resource = rootElement.eResource();
+		ResourceSet resourceSet = resource != null ? resource.getResourceSet() : null;
+		TreeIterator<?> contents;
+		
+		if (resourceSet != null) {
+			EcoreUtil.resolveAll(resourceSet);
+			contents = resourceSet.getAllContents();
+		}
+		else {
+			EcoreUtil.resolveAll(rootElement);
+			contents = rootElement.eAllContents();
+		}
+		
+		while (contents.hasNext()) {
+			Object o = contents.next();
+			
+			if (o instanceof Element)
+				((Element) o).getAppliedStereotypes();
+			
+			if (o instanceof Package)
+				((Package) o).getAllAppliedProfiles();
+			
+			if (o instanceof Namespace) {
+				((Namespace) o).getMembers();
+				((Namespace) o).getOwnedMembers();
+			}
+			
+			if (o instanceof Classifier) {
+				((Classifier) o).getGenerals();
+				((Classifier) o).getAllAttributes();
+				((Classifier) o).getInheritedMembers();
+			}
+		}
+	}
+	
+	/**
+	 * @see SysML2MILPTransformation#transformAll(Collection, Element, int, boolean, ExecutorService)
+	 */
+	public List<Future<String>> transformAll(Collection<Activity> functionalSpecs,
+			Element rootElement,
+			ExecutorService executor) {
+		return transformAll(functionalSpecs, rootElement, 1, false, executor);
 	}
 
 	/**
@@ -226,20 +636,53 @@ public class SysML2MILPTransformation {
 	public String transform(Activity topLevelActivity, Element rootElement, int numSolutions) throws Exception {
 		return transform(topLevelActivity, rootElement, numSolutions, false);
 	}
-	
+
+	/**
+	 * Set up a transformation context the way the transformation does before the
+	 * mappings are run: the cache is rebuilt and the internal correspondences are
+	 * pre-computed. No MILP code is generated.
+	 * <P>
+	 * This is used to measure or inspect the preparatory steps of the transformation
+	 * in isolation (e.g., by benchmarks).
+	 *
+	 * @param functionalSpec The functional specification (UML Activity).
+	 * @param rootElement The root model element.
+	 * @param testingMode See {@link #transform(Activity, Element, int, boolean)}.
+	 * @return The prepared context.
+	 */
+	public TransformationContext prepareContext(Activity functionalSpec,
+			Element rootElement,
+			boolean testingMode) {
+		TransformationContext context = new TransformationContext(rootElement, functionalSpec, testingMode);
+
+		TransformationContext previous = context.activate();
+		
+		try {
+			context.getCache().rebuildCache(rootElement, functionalSpec);
+			
+			preComputeInternalCorrespondences(context);
+			context.getState().resetState();
+		} finally {
+			context.deactivate(previous);
+		}
+
+		return context;
+	}
+
 	/**
-	 * Transform the system under design defined in the SysML model.
+	 * Find the system under design in the SysML model. The system under design is
+	 * searched for next to the functional specification first, then in the whole
+	 * model.
 	 * 
-	 * @return MILP code representing and defining the system under design.
-	 * @throws Exception If system under design or objective could not be
-	 * 		located in model.
+	 * @param context The context of the transformation run.
+	 * @return The system under design.
+	 * @throws Exception If system under design could not be located in model.
 	 */
-	private String transformSystemUnderDesign() throws Exception {
-		// Find and translate system under design
-		Classifier systemUnderDesign = DSEMLUtils.getSystemUnderDesign(getFunctionalSpecification().getOwner());
+	private Classifier findSystemUnderDesign(TransformationContext context) throws Exception {
+		Classifier systemUnderDesign = DSEMLUtils.getSystemUnderDesign(context.getFunctionalSpecification().getOwner());
 		
 		if (systemUnderDesign == null)
-			systemUnderDesign = DSEMLUtils.getSystemUnderDesign(getRootModelElement());
+			systemUnderDesign = context.getCache().getSystemUnderDesign();
 		
 		if (systemUnderDesign == null) {
 			logger.log(Level.ERROR, "Could not find system under design in model.");
@@ -247,12 +690,25 @@ public class SysML2MILPTransformation {
 			throw new Exception("Could not find system under design in model.");
 		}
 		
-		String milpSystemUnderDesignHeader = getMilpModel2Text().generateComment("System under design definition");
-		String milpSystemUnderDesign = SysML2MILPMappings.mapSystemUnderDesign(systemUnderDesign, getMilpModel2Text());
-		
+		return systemUnderDesign;
+	}
+	
+	/**
+	 * Find the objective of a system under design.
+	 * 
+	 * @param systemUnderDesign The system under design.
+	 * @param context The context of the transformation run.
+	 * @return The objective.
+	 * @throws Exception If objective could not be located in model.
+	 */
+	private Constraint findObjective(Classifier systemUnderDesign, TransformationContext context) throws Exception {
+		Constraint objective;
 		
-		// Find and translate objective
-		Constraint objective = DSEMLUtils.getObjective(systemUnderDesign);
+		// The objective of the system under design found in the model is cached
+		if (systemUnderDesign == context.getCache().getSystemUnderDesign())
+			objective = context.getCache().getObjective();
+		else
+			objective = DSEMLUtils.getObjective(systemUnderDesign);
 		
 		if (objective == null) {
 			logger.log(Level.ERROR, "Could not find objective in model.");
@@ -260,14 +716,26 @@ public class SysML2MILPTransformation {
 			throw new Exception("Could not find objective in model.");
 		}
 		
-		String milpObjectiveHeader = getMilpModel2Text().generateComment("Objective function");
-		String milpObjective = SysML2MILPMappings.mapObjective(objective, getMilpModel2Text());
-		
-		// Return both
-		return milpSystemUnderDesignHeader
-				+ milpSystemUnderDesign
-				+ milpObjectiveHeader
-				+ milpObjective;
+		return objective;
+	}
+	
+	/**
+	 * Transform the system under design defined in the SysML model and its objective.
+	 * The MILP representation of both is added to the MILP model.
+	 * 
+	 * @param systemUnderDesign The system under design.
+	 * @param objective The objective of the system under design.
+	 * @param context The context of the transformation run.
+	 */
+	private void transformSystemUnderDesign(Classifier systemUnderDesign, Constraint objective,
+			TransformationContext context) {
+		// Translate system under design
+		context.getMilpModel().addComment("System under design definition");
+		SysML2MILPMappings.mapSystemUnderDesign(systemUnderDesign, getMilpModel2Text(), context);
+		
+		// Translate objective
+		context.getMilpModel().addComment("Objective function");
+		SysML2MILPMappings.mapObjective(objective, getMilpModel2Text(), context);
 	}
 	
 	/**
@@ -275,100 +743,78 @@ public class SysML2MILPTransformation {
 	 * 1) Determining the number of necessary instances for a given resource
 	 * type<BR />
 	 * 2) Creating instances in the background (not explicitly) and mapping these
-	 * into MILP code
+	 * into the MILP model. Nothing is added if no
+	 * resources are relevant to the problem.
 	 * 
-	 * @return MILP code representing possible resource instances or the empty
-	 * 		string if no resources are relevant to the problem.
+	 * @param context The context of the transformation run.
 	 */
-	private String transformResourceLibrary() {
-		String milpCode = "";
+	private void transformResourceLibrary(TransformationContext context) {
+		// Processing order, machine IDs and maximum number of instances were planned
+		// when pre-computing the internal correspondences
+		ResourceInstancePlan plan = context.getCorrespondences().getResourceInstancePlan();
 		
-		// Used for assigning internal IDs to resource types (should be part of a
-		// Resource object at some point in the future)
-		int currentResourceID = 1;
-
-		// Re-order
-		// FIXME This will also need a dependency graph since, hypothetically, composite resources can contain
-		//		 other composite resources.
-		Element[] resourcesToProcess = getResourcesInProcessingOrder();
-		
-		// For each machine type, determine the maximum amount of instances
-		// possibly necessary, and map these to MILP
-		for (Element r : resourcesToProcess) {
-			// Determine the maximum number of instances that can exist given the process
-			int maxInstances = determineMaxPossibleInstances((Classifier) r);
-
+		for (int i = 0; i < plan.getNumResources(); i++) {
 			// Perform the actual mapping
 			// Note that this actually maps both information about the type, and the resource instances
-			milpCode += SysML2MILPMappings.mapResource((Classifier) r, currentResourceID, maxInstances, getMilpModel2Text());
-			
-			currentResourceID++;
+			SysML2MILPMappings.mapResource((Classifier) plan.getResource(i), plan.getMachineID(i),
+					plan.getNumInstances(i), getMilpModel2Text(), context);
 		}
 		
 		// Note that resource shareability constraints have to be added after the functional
 		// specification has been mapped - these constraints refer to variables defined
 		// only thereafter.
-		
-		return milpCode;
 	}
 	
 	/**
 	 * Transforms the functional specification.
 	 * <P>
 	 * This function simply calls
-	 * {@link SysML2MILPMappings#mapFunctionalSpecification(Activity, MILPModel2TextUtils)}.
+	 * {@link SysML2MILPMappings#mapFunctionalSpecification(Activity, MILPModel2TextUtils, TransformationContext)},
+	 * which adds the MILP representation of the functional specification to the MILP model.
 	 * 
-	 * @return MILP representation of the functional specification.
+	 * @param context The context of the transformation run.
 	 */
-	private String transformFunctionalSpecification() {
-		String milpCode = "";
-		
+	private void transformFunctionalSpecification(TransformationContext context) {
 		// Map the functional specification
-		milpCode += SysML2MILPMappings.mapFunctionalSpecification(getFunctionalSpecification(), getMilpModel2Text());
-
-		return milpCode;
+		SysML2MILPMappings.mapFunctionalSpecification(context.getFunctionalSpecification(), getMilpModel2Text(), context);
 	}
 	
 	/**
 	 * Transforms shareability constraints.
 	 * <P>
 	 * Simply calls
-	 * {@link SysML2MILPMappingsHelper#addResourceShareabilityConstraints(MILPModel2TextUtils)}.
+	 * {@link SysML2MILPMappingsHelper#addResourceShareabilityConstraints(MILPModel2TextUtils, TransformationContext)},
+	 * which adds a set of constraints to the MILP model.
 	 * 
-	 * @return MILP code that contains a set of constraints.
+	 * @param context The context of the transformation run.
 	 */
-	private String transformFunctionStructureDependentConstraints() {
+	private void transformFunctionStructureDependentConstraints(TransformationContext context) {
 		// Add resource shareability constraints
-		return SysML2MILPMappingsHelper.addResourceShareabilityConstraints(getMilpModel2Text());
+		SysML2MILPMappingsHelper.addResourceShareabilityConstraints(getMilpModel2Text(), context);
 	}
 	
 	/**
 	 * Pre-compute all internal correspondences. These internal correspondences are used to determine
 	 * which string representations various objects will have in the output MILP.
+	 * 
+	 * @param context The context of the transformation run.
 	 */
-	private void preComputeInternalCorrespondences() {
-		// Structure IDs & max instances for each resource
-		// Used for assigning internal IDs to resource types (should be part of a
-		// Resource object at some point in the future)
-		int currentResourceID = 1;
-		
-		// Re-order
-		// FIXME This will also need a dependency graph since, hypothetically, composite resources can contain
-		//		 other composite resources.
-		Element[] resourcesToProcess = getResourcesInProcessingOrder();
-		
-		// For each machine type, determine the maximum amount of instances
-		// possibly necessary, and map these to MILP
-		for (Element r : resourcesToProcess) {
-			// Determine the maximum number of instances that can exist given the process
-			int maxInstances = determineMaxPossibleInstances((Classifier) r);
+	private void preComputeInternalCorrespondences(TransformationContext context) {
+		// Structure IDs & max instances for each resource (processing order, with
+		// nested composites after their composite parts)
+		ResourceInstancePlan plan = ResourceInstancePlan.build(context);
+		context.getCorrespondences().setResourceInstancePlan(plan);
+		
+		for (int p = 0; p < plan.getNumResources(); p++) {
+			Element r = plan.getResource(p);
+			int maxInstances = plan.getNumInstances(p);
 
 			// Array of integers representing instance IDs
 			ArrayList<Integer> instances = new ArrayList<Integer>();
 			
 			// Add a resource -> machine ID mapping (later this machine ID would be a
 			// property of a Resource object)
-			InternalCorrespondences.getResourceTypeMachineIDMapping().put(r, currentResourceID);
+			context.getCorrespondences().getResourceTypeMachineIDMapping().put(r, plan.getMachineID(p));
 			
 			// Add instance IDs to array of instance IDs (note: this is an ugly
 			// regression - needs to be fixed (and will disappear when objects are
@@ -377,111 +823,24 @@ public class SysML2MILPTransformation {
 				instances.add(i);
 
 			// Add to mapping from resources to instances
-			InternalCorrespondences.getResourceTypeInstanceIDMapping().put(r, instances);
-
-			currentResourceID++;
+			context.getCorrespondences().getResourceTypeInstanceIDMapping().put(r, instances);
 		}
 		
-		// Function -> Structure Mappings
-		InternalCorrespondences.preComputeFunctionStructureCorrespondences(getFunctionalSpecification());
-	}
-	
-	/**
-	 * Re-orders list of resources into an array such that composites come last.
-	 * This is done because parts of composites must be defined before the composites
-	 * themselves.
-	 * 
-	 * @return An array of UML Elements representing resources in the order that they
-	 * 		should be processed within the transformation.
-	 */
-	private Element[] getResourcesInProcessingOrder() {
-		Element[] resourcesToProcess = new Element[TransformationCache.getResources().size()];
-		
-		int currentCompositeIndex = TransformationCache.getResources().size() - 1;
-		int normalIndex = 0;
+		// Concrete resources of each resource type, with their machine IDs and rows
+		context.getCorrespondences().setConcreteResourceTable(
+				ConcreteResourceTable.build(context.getCache(), context.getCorrespondences()));
 		
-		// Re-order sequence of translating resources - composites should come last
-		// since parts must first be defined
-		for (Element r : TransformationCache.getResources())
-			if (DSEMLUtils.isCompositeResource(r))
-				resourcesToProcess[currentCompositeIndex--] = r;
-			else
-				resourcesToProcess[normalIndex++] = r;
-		
-		return resourcesToProcess;
+		// Function -> Structure Mappings
+		context.getCorrespondences().preComputeFunctionStructureCorrespondences(
+				context.getFunctionalSpecification(),
+				context.getCache(),
+				context.getState());
+		
+		// Resources vs. act+wp combinations (non-shareability)
+		context.getCorrespondences().setResourceCompatibility(
+				ResourceCompatibility.build(context.getCache(), context.getCorrespondences()));
 	}
 	
-	/**
-	 * Determines the maximum number of instances for a given resource within the
-	 * context of a particular functional specification.
-	 * 
-	 * @param resource The resource type.
-	 * @return The maximum number of instances possibly required in any solution.
-	 */
-	private int determineMaxPossibleInstances(Classifier resource) {
-		// TODO Do this in a cached map in future to improve performance?
-		//		HashMap<Element, Integer> resourceMaxInstancesMapping = new HashMap<Element, Integer>();
-		
-		// 2015-08-18: Since only one working principle is part of a solution, and working
-		//		principles can share the same type of resource, only get the max number
-		//		necessary.
-		
-		// Collect all working principles that are relevant
-		int maxPossibleInstances = 0;
-		ArrayList<Activity> allActs = UMLModelUtils.collectSubActivities(getFunctionalSpecification());
-		
-		for (Activity act : allActs) {
-			ArrayList<Activity> relWPs = DSEMLUtils.getWorkingPrinciples(act, TransformationCache.getAllWorkingPrinciples());
-			
-			int mostForAct = 0;
-			
-			for (Activity wp : relWPs) {
-				int numRequired = 0;
-				
-				// For each working principle, collect the associated resources
-				for (Element assocResource : DSEMLUtils.getResourceTypesWithDuplicates(wp)) {
-					if (DSEMLUtils.isTypeOfResource((Classifier) assocResource, (Classifier) resource))
-						numRequired++;
-				}
-				
-				if (numRequired > mostForAct)
-					mostForAct = numRequired;
-			}
-			
-			maxPossibleInstances += mostForAct;
-		}
-		
-		return maxPossibleInstances;
-	}
-
-	/**
-	 * @return the rootModelElement
-	 */
-	private Element getRootModelElement() {
-		return rootModelElement;
-	}
-
-	/**
-	 * @param rootModelElement the rootModelElement to set
-	 */
-	private void setRootModelElement(Element rootModelElement) {
-		this.rootModelElement = rootModelElement;
-	}
-
-	/**
-	 * @return the functionalSpecification
-	 */
-	public Activity getFunctionalSpecification() {
-		return functionalSpecification;
-	}
-
-	/**
-	 * @param functionalSpecification the functionalSpecification to set
-	 */
-	private void setFunctionalSpecification(Activity functionalSpecification) {
-		this.functionalSpecification = functionalSpecification;
-	}
-
 	/**
 	 * @return the milpModel2Text
 	 */
@@ -497,24 +856,33 @@ public class SysML2MILPTransformation {
 	}
 
 	/**
-	 * @return the resultsVisualizationBuffer
+	 * Returns the timing and size metrics of the run that finished last, e.g. after
+	 * {@link #transform(Activity, Element, int, boolean)}, which only returns the MILP
+	 * code. If several runs of this transformation finish concurrently (see
+	 * {@link #transformAll(Collection, Element, int, boolean, ExecutorService)}), use
+	 * the metrics returned by the variants writing to a {@link Writer} instead.
+	 * 
+	 * @return the metrics of the run that finished last, or null if no run finished yet
 	 */
-	public static String getResultsVisualizationBuffer() {
-		return resultsVisualizationBuffer;
+	public TransformationMetrics getLastMetrics() {
+		return lastMetrics;
 	}
-
+	
 	/**
-	 * @param resultsVisualizationBuffer the resultsVisualizationBuffer to set
+	 * @return the resultCache
 	 */
-	public static void setResultsVisualizationBuffer(String resultsVisualizationBuffer) {
-		SysML2MILPTransformation.resultsVisualizationBuffer = resultsVisualizationBuffer;
+	public TransformationResultCache getResultCache() {
+		return resultCache;
 	}
-	
+
 	/**
-	 * @param resultsVisualizationBuffer the resultsVisualizationBuffer to set
+	 * Sets the cache of transformation results. By default, the cache configured in
+	 * {@link TransformationConfig} is used.
+	 * 
+	 * @param resultCache the resultCache to set (null to disable caching)
 	 */
-	public static void appendResultsVisualizationBuffer(String resultsVisualizationBuffer) {
-		SysML2MILPTransformation.resultsVisualizationBuffer += resultsVisualizationBuffer;
+	public void setResultCache(TransformationResultCache resultCache) {
+		this.resultCache = resultCache;
 	}
 
 }
@@ -26,24 +26,34 @@
 package edu.gatech.mbse.transformations.sysml2milp;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.eclipse.uml2.uml.Activity;
 import org.eclipse.uml2.uml.Association;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Constraint;
 import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Namespace;
 import org.eclipse.uml2.uml.ObjectFlow;
 import org.eclipse.uml2.uml.PackageImport;
 
 import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.GeneralizationClosure;
+import edu.gatech.mbse.transformations.sysml2milp.utils.NameIndex;
+import edu.gatech.mbse.transformations.sysml2milp.utils.RelevantResources;
 import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
+import edu.gatech.mbse.transformations.sysml2milp.utils.WorkingPrincipleIndex;
 
 /**
- * Class containing several static fields and getters and setters for lists of
+ * Class containing several fields and getters and setters for lists of
  * elements that are often required in the transformation, but require a complete
  * traversal of the model. The functions in this class are meant to pre-compute and
  * cache these lists (e.g., relevant concrete resources, relevant working
  * principles, and all object flows).
+ * <P>
+ * Each transformation run owns its own instance (see {@link TransformationContext}).
  * 
  * @author Sebastian
  * @version 0.1
@@ -54,29 +64,53 @@ public class TransformationCache {
 	private static final Logger logger = LogManager.getLogger(TransformationCache.class.getName());
 	
 	/** Pre-computed and cached list of object flows. */
-	private static ArrayList<ObjectFlow> objectFlowList = null;
+	private ArrayList<ObjectFlow> objectFlowList = null;
+	
+	/** Adjacency of the object flows in the list (built on first use if not shared). */
+	private ObjectFlowIndex objectFlowIndex = null;
 	
 	/** List of working principles. */
-	private static ArrayList<Activity> allWorkingPrinciples = null;
+	private ArrayList<Activity> allWorkingPrinciples = null;
+	
+	/** Working principles of each activity (built on first use if not shared). */
+	private WorkingPrincipleIndex workingPrincipleIndex = null;
 	
 	/** List of concrete resources. */
-	private static ArrayList<Element> resources;
+	private ArrayList<Element> resources;
+	
+	/** Changed whenever the list of concrete resources is rebuilt. */
+	private int resourcesVersion = 0;
 	
 	/** List of all resources. */
-	private static ArrayList<Element> allResources;
+	private ArrayList<Element> allResources;
 	
 	/** List of composite resources. */
-	private static ArrayList<Element> compositeResources;
+	private ArrayList<Element> compositeResources;
+	
+	/** Composite parents and parts of the relevant resources. */
+	private CompositeStructure compositeStructure;
+	
+	/** Lists collected in a single traversal of the model (see {@link ModelIndex}). */
+	private ModelIndex modelIndex = null;
+	
+	/** Name indexes, by starting point of the search. */
+	private HashMap<Namespace, NameIndex> nameIndexes = new HashMap<Namespace, NameIndex>();
 	
 	/**
 	 * Clear all cached mappings and collections / sets.
 	 */
-	public static void clearCache() {
+	public void clearCache() {
 		objectFlowList = new ArrayList<ObjectFlow>();
+		objectFlowIndex = null;
 		allWorkingPrinciples = new ArrayList<Activity>();
+		workingPrincipleIndex = null;
 		resources = new ArrayList<Element>();
+		resourcesVersion++;
 		allResources = new ArrayList<Element>();
 		compositeResources = new ArrayList<Element>();
+		compositeStructure = null;
+		modelIndex = null;
+		nameIndexes = new HashMap<Namespace, NameIndex>();
 	}
 	
 	/**
@@ -89,50 +123,211 @@ public class TransformationCache {
 	 * @param functionalSpecification The functional specification (used in determining
 	 * 		relevant items)
 	 */
-	public static void rebuildCache(Element rootElement,
+	public void rebuildCache(Element rootElement,
+			Activity functionalSpecification) {
+		rebuildModelIndexes(rootElement);
+		rebuildFunctionalSpecificationIndexes(rootElement, functionalSpecification);
+	}
+	
+	/**
+	 * Rebuild the lists that do not depend on the functional specification (object
+	 * flows, working principles, resources, the system under design and the first
+	 * workpiece) in a single traversal of the model (see {@link ModelIndex}).
+	 * 
+	 * @param rootElement The root model element.
+	 */
+	public void rebuildModelIndexes(Element rootElement) {
+		modelIndex = ModelIndex.build(rootElement);
+		objectFlowList = modelIndex.getObjectFlows();
+		objectFlowIndex = modelIndex.getObjectFlowIndex();
+		allWorkingPrinciples = modelIndex.getWorkingPrinciples();
+		workingPrincipleIndex = modelIndex.getWorkingPrincipleIndex();
+	}
+	
+	/**
+	 * Take over the lists that do not depend on the functional specification from
+	 * another cache built for the same model, instead of rebuilding them.
+	 * <P>
+	 * The lists are shared, not copied, and are treated as read-only by the
+	 * transformation. This is used when transforming several functional
+	 * specifications of the same model concurrently.
+	 * 
+	 * @param modelIndexes A cache on which {@link #rebuildModelIndexes(Element)} has
+	 * 		been called.
+	 */
+	public void shareModelIndexes(TransformationCache modelIndexes) {
+		modelIndex = modelIndexes.getModelIndex();
+		objectFlowList = modelIndexes.getObjectFlowList();
+		objectFlowIndex = modelIndexes.getObjectFlowIndex();
+		allWorkingPrinciples = modelIndexes.getAllWorkingPrinciples();
+		workingPrincipleIndex = modelIndexes.getWorkingPrincipleIndex();
+	}
+	
+	/**
+	 * Rebuild the lists of resources that are relevant to a particular functional
+	 * specification.
+	 * <P>
+	 * The resources of the model index (which is built first if necessary) are
+	 * filtered, instead of traversing the model again. The resource types relevant to
+	 * the functional specification are determined once (see {@link RelevantResources}).
+	 * 
+	 * @param rootElement The root model element.
+	 * @param functionalSpecification The functional specification (used in determining
+	 * 		relevant items)
+	 */
+	public void rebuildFunctionalSpecificationIndexes(Element rootElement,
 			Activity functionalSpecification) {
-		objectFlowList = rebuildObjectFlowList(rootElement);
-		allWorkingPrinciples = rebuildListOfAllWorkingPrinciples(rootElement);
-		resources = rebuildListOfResources(rootElement, functionalSpecification);
-		allResources = rebuildListOfAllResources(rootElement, functionalSpecification);
+		if (modelIndex == null)
+			rebuildModelIndexes(rootElement);
+		
+		RelevantResources relevantResources = new RelevantResources(functionalSpecification, getWorkingPrincipleIndex());
+		
+		resources = new ArrayList<Element>();
+		allResources = new ArrayList<Element>();
+		
+		for (Classifier r : modelIndex.getResources()) {
+			if (relevantResources.isRelevant(r)) {
+				allResources.add(r);
+				
+				if (!DSEMLUtils.isAbstract(r))
+					resources.add(r);
+			}
+		}
+		
+		// Before the composite structure is built, which looks up the specifics of
+		// resource types among the new resources
+		resourcesVersion++;
+		
 		compositeResources = rebuildListOfCompositeResources(rootElement);
+		compositeStructure = CompositeStructure.build(allResources, resources, compositeResources);
+	}
+	
+	/**
+	 * Returns the index of the namespaces below a starting point by (qualified) name,
+	 * creating it if necessary. The index is built on its first lookup.
+	 * <P>
+	 * Name indexes are not shared with other runs.
+	 * 
+	 * @param startingPoint The starting point of the search (e.g., the model).
+	 * @return The name index.
+	 */
+	public NameIndex getNameIndex(Namespace startingPoint) {
+		NameIndex nameIndex = nameIndexes.get(startingPoint);
+		
+		if (nameIndex == null) {
+			nameIndex = new NameIndex(startingPoint);
+			nameIndexes.put(startingPoint, nameIndex);
+		}
+		
+		return nameIndex;
 	}
 	
 	/**
 	 * @return the objectFlowList
 	 */
-	public static ArrayList<ObjectFlow> getObjectFlowList() {
+	public ArrayList<ObjectFlow> getObjectFlowList() {
 		return objectFlowList;
 	}
 	
+	/**
+	 * Returns the adjacency of the object flows (see {@link #getObjectFlowList()}).
+	 * 
+	 * @return the objectFlowIndex
+	 */
+	public ObjectFlowIndex getObjectFlowIndex() {
+		if (objectFlowIndex == null)
+			objectFlowIndex = ObjectFlowIndex.build(objectFlowList != null ? objectFlowList : new ArrayList<ObjectFlow>());
+		
+		return objectFlowIndex;
+	}
+	
 	/**
 	 * @return the allWorkingPrinciples
 	 */
-	public static ArrayList<Activity> getAllWorkingPrinciples() {
+	public ArrayList<Activity> getAllWorkingPrinciples() {
 		return allWorkingPrinciples;
 	}
 
+	/**
+	 * Returns the working principles of each activity (see
+	 * {@link #getAllWorkingPrinciples()}).
+	 * 
+	 * @return the workingPrincipleIndex
+	 */
+	public WorkingPrincipleIndex getWorkingPrincipleIndex() {
+		if (workingPrincipleIndex == null)
+			workingPrincipleIndex = new WorkingPrincipleIndex(allWorkingPrinciples != null ? allWorkingPrinciples : new ArrayList<Activity>());
+		
+		return workingPrincipleIndex;
+	}
+	
 	/**
 	 * @return the resources
 	 */
-	public static ArrayList<Element> getResources() {
+	public ArrayList<Element> getResources() {
 		return resources;
 	}
+	
+	/**
+	 * Returns the version of the list of concrete resources, which changes whenever
+	 * the list is rebuilt. Results computed from the list (e.g., the specifics of
+	 * resource types, see {@link GeneralizationClosure}) are keyed on it.
+	 * 
+	 * @return the version of the resources
+	 */
+	public int getResourcesVersion() {
+		return resourcesVersion;
+	}
 
 	/**
 	 * @return the allResources
 	 */
-	public static ArrayList<Element> getAllResources() {
+	public ArrayList<Element> getAllResources() {
 		return allResources;
 	}
 
 	/**
 	 * @return the compositeResources
 	 */
-	public static ArrayList<Element> getCompositeResources() {
+	public ArrayList<Element> getCompositeResources() {
 		return compositeResources;
 	}
 
+	/**
+	 * @return the compositeStructure
+	 */
+	public CompositeStructure getCompositeStructure() {
+		return compositeStructure;
+	}
+	
+	/**
+	 * @return the modelIndex (null if not built yet)
+	 */
+	public ModelIndex getModelIndex() {
+		return modelIndex;
+	}
+	
+	/**
+	 * @return the system under design found in the model, or null if there is none
+	 */
+	public Classifier getSystemUnderDesign() {
+		return modelIndex != null ? modelIndex.getSystemUnderDesign() : null;
+	}
+	
+	/**
+	 * @return the objective of the system under design, or null if there is none
+	 */
+	public Constraint getObjective() {
+		return modelIndex != null ? modelIndex.getObjective() : null;
+	}
+	
+	/**
+	 * @return the first concrete workpiece found in the model, or null if there is none
+	 */
+	public Classifier getFirstWorkpiece() {
+		return modelIndex != null ? modelIndex.getFirstWorkpiece() : null;
+	}
+
 	/**
 	 * Rebuild the cache for the list of associations.
 	 * 
@@ -140,7 +335,8 @@ public class TransformationCache {
 	 * @return A list of association relationships contained in the model.
 	 * @deprecated Have gotten rid of dependence on this.
 	 */
-	public static ArrayList<Association> rebuildAssociationList(Element rootElement) {
+	@Deprecated
+	public ArrayList<Association> rebuildAssociationList(Element rootElement) {
 		ArrayList<Association> associations = new ArrayList<Association>();
 		
 		// Iterate through owned elements to find associations
@@ -166,8 +362,11 @@ public class TransformationCache {
 	 * 
 	 * @param rootElement The root model element.
 	 * @return An ordered list of UML ObjectFlow objects.
+	 * @deprecated Collected in a single traversal by {@link ModelIndex} instead (see
+	 * 		{@link #rebuildModelIndexes(Element)}).
 	 */
-	public static ArrayList<ObjectFlow> rebuildObjectFlowList(Element rootElement) {
+	@Deprecated
+	public ArrayList<ObjectFlow> rebuildObjectFlowList(Element rootElement) {
 		ArrayList<ObjectFlow> objectFlows = new ArrayList<ObjectFlow>();
 		
 		// Iterate through owned elements to find associations
@@ -186,6 +385,7 @@ public class TransformationCache {
 		}
 		
 		objectFlowList = objectFlows;
+		objectFlowIndex = null;
 		
 		return objectFlows;
 	}
@@ -197,8 +397,11 @@ public class TransformationCache {
 	 * 
 	 * @param rootElement The root model element.
 	 * @return An ordered list of working principles.
+	 * @deprecated Collected in a single traversal by {@link ModelIndex} instead (see
+	 * 		{@link #rebuildModelIndexes(Element)}).
 	 */
-	public static ArrayList<Activity> rebuildListOfAllWorkingPrinciples(Element rootElement) {
+	@Deprecated
+	public ArrayList<Activity> rebuildListOfAllWorkingPrinciples(Element rootElement) {
 		return DSEMLUtils.getWorkingPrinciples(rootElement);
 	}
 	
@@ -212,8 +415,11 @@ public class TransformationCache {
 	 * @param functionalSpecification The functional specification.
 	 * @return An ordered list of UML elements representing concrete (and relevant)
 	 * 		resources.
+	 * @deprecated Collected in a single traversal by {@link ModelIndex} instead (see
+	 * 		{@link #rebuildModelIndexes(Element)}).
 	 */
-	public static ArrayList<Element> rebuildListOfResources(Element rootElement, Activity functionalSpecification) {
+	@Deprecated
+	public ArrayList<Element> rebuildListOfResources(Element rootElement, Activity functionalSpecification) {
 		return DSEMLUtils.getConcreteResources(rootElement, functionalSpecification);
 	}
 	
@@ -227,8 +433,11 @@ public class TransformationCache {
 	 * @param functionalSpecification The functional specification.
 	 * @return An ordered list of abstract and non-abstract resources relevant to the functional
 	 * 		specification.
+	 * @deprecated Collected in a single traversal by {@link ModelIndex} instead (see
+	 * 		{@link #rebuildModelIndexes(Element)}).
 	 */
-	public static ArrayList<Element> rebuildListOfAllResources(Element rootElement, Activity functionalSpecification) {
+	@Deprecated
+	public ArrayList<Element> rebuildListOfAllResources(Element rootElement, Activity functionalSpecification) {
 		return DSEMLUtils.getAllResources(rootElement, functionalSpecification);
 	}
 
@@ -244,7 +453,7 @@ public class TransformationCache {
 	 * @param rootElement The root model element.
 	 * @return A list of relevant, concrete aggregate resources.
 	 */
-	public static ArrayList<Element> rebuildListOfCompositeResources(Element rootElement) {
+	public ArrayList<Element> rebuildListOfCompositeResources(Element rootElement) {
 		return DSEMLUtils.getCompositeResources(getResources());
 	}
 
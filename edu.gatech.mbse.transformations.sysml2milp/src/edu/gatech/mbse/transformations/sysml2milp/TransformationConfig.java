@@ -25,9 +25,11 @@
  */
 package edu.gatech.mbse.transformations.sysml2milp;
 
+import java.io.File;
+
 /**
- * Configuration of transformation. Currently only holds an option for the
- * solver type to be used (YALMIP specific?).
+ * Configuration of transformation. Currently holds an option for the solver type
+ * to be used (YALMIP specific?) and the configuration of the result cache.
  * 
  * @author Sebastian
  * @version 0.1.0
@@ -37,5 +39,16 @@ public class TransformationConfig {
 	/** Solver config (should be externalized into a config file). */
 	public static SolverType CONFIG_SOLVER = SolverType.CBC;				// 2015-08-03 sherzig: Changed default back to CBC. Solver now
 																			// 		configurable via command line (within test infrastructure)
+	
+	/**
+	 * Maximum number of transformation results kept in memory (0 disables the memory tier,
+	 * see {@link TransformationResultCache}). Results are not cached by default: each cached
+	 * result is a complete MILP program held in memory, and computing a key hashes the
+	 * whole model.
+	 */
+	public static int CONFIG_RESULT_CACHE_SIZE = 0;
+	
+	/** Directory of the disk tier of the result cache (null disables the disk tier). */
+	public static File CONFIG_RESULT_CACHE_DIRECTORY = null;
 
 }
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Element;
+
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPModel;
+import edu.gatech.mbse.transformations.sysml2milp.utils.ClassifierFeatures;
+import edu.gatech.mbse.transformations.sysml2milp.utils.ElementRoles;
+import edu.gatech.mbse.transformations.sysml2milp.utils.GeneralizationClosure;
+
+/**
+ * State of a single transformation run.
+ * <P>
+ * Bundles everything that used to be kept in static fields: the cache, the
+ * internal correspondences, the transformation state, the root model element
+ * and the functional specification, the results visualization buffer and the
+ * process ID counter. It also holds the MILP model that the mappings build.
+ * A new context is created for every run and is passed through the mappings,
+ * the process constraint generator and the OCL interpretor, so several
+ * transformations can run concurrently in one JVM (given that each uses its
+ * own {@link SysML2MILPTransformation} object).
+ * <P>
+ * The per-element caches of a run (element roles, generalization closure and
+ * classifier features) are reached by the model utilities through the context
+ * activated on the current thread (see {@link #activate()}).
+ * <P>
+ * A context is not thread-safe and must only be used by one run.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformationContext {
+
+	/** Context of the transformation run on the current thread. */
+	private static final ThreadLocal<TransformationContext> active = new ThreadLocal<TransformationContext>();
+	
+	/** Root model element. */
+	private final Element rootModelElement;
+	
+	/** Functional specification. */
+	private final Activity functionalSpecification;
+	
+	/** In continuous integration / unit testing system? */
+	private final boolean testingMode;
+	
+	/** Pre-computed lists of commonly queried elements. */
+	private final TransformationCache cache = new TransformationCache();
+	
+	/** DSEML roles of the model elements queried for during this run. */
+	private final ElementRoles elementRoles = new ElementRoles();
+	
+	/** Generalization closure of the classifiers queried for during this run. */
+	private final GeneralizationClosure generalizationClosure = new GeneralizationClosure();
+	
+	/** Derived features of the classifiers queried for during this run. */
+	private final ClassifierFeatures classifierFeatures = new ClassifierFeatures();
+	
+	/** Internal correspondences (IDs, matrix indices). */
+	private final InternalCorrespondences correspondences = new InternalCorrespondences();
+	
+	/** State variables (counters, current action). */
+	private final TransformationState state = new TransformationState();
+	
+	/** The MILP model built by the mappings. */
+	private final MILPModel milpModel = new MILPModel();
+	
+	/** Holds visualization information written by the MILP solving environment. */
+	private final StringBuilder resultsVisualizationBuffer = new StringBuilder();
+	
+	/** Next process ID - used for ID generation. */
+	private int nextProcessID = 1;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param rootModelElement The root model element.
+	 * @param functionalSpecification The functional specification.
+	 * @param testingMode See {@link SysML2MILPTransformation#transform(Activity, Element, int, boolean)}.
+	 */
+	public TransformationContext(Element rootModelElement,
+			Activity functionalSpecification,
+			boolean testingMode) {
+		this.rootModelElement = rootModelElement;
+		this.functionalSpecification = functionalSpecification;
+		this.testingMode = testingMode;
+	}
+
+	/**
+	 * @return the rootModelElement
+	 */
+	public Element getRootModelElement() {
+		return rootModelElement;
+	}
+
+	/**
+	 * @return the functionalSpecification
+	 */
+	public Activity getFunctionalSpecification() {
+		return functionalSpecification;
+	}
+
+	/**
+	 * @return true if in continuous integration / unit testing mode
+	 */
+	public boolean isTestingMode() {
+		return testingMode;
+	}
+
+	/**
+	 * @return the cache
+	 */
+	public TransformationCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * @return the elementRoles
+	 */
+	public ElementRoles getElementRoles() {
+		return elementRoles;
+	}
+
+	/**
+	 * @return the generalizationClosure
+	 */
+	public GeneralizationClosure getGeneralizationClosure() {
+		return generalizationClosure;
+	}
+
+	/**
+	 * @return the classifierFeatures
+	 */
+	public ClassifierFeatures getClassifierFeatures() {
+		return classifierFeatures;
+	}
+	
+	/**
+	 * Make the per-element caches of this run (element roles, generalization closure
+	 * and classifier features) available to the model utilities called on the current
+	 * thread, until {@link #deactivate(TransformationContext)} is called.
+	 * <P>
+	 * Another context may already be active on the current thread (e.g., if a context
+	 * is prepared during a run), so the returned context must be restored once this
+	 * one is no longer used, in a finally block:
+	 * <pre>
+	 * TransformationContext previous = context.activate();
+	 * 
+	 * try {
+	 *     ...
+	 * } finally {
+	 *     context.deactivate(previous);
+	 * }
+	 * </pre>
+	 * 
+	 * @return The context that was active on the current thread before, or null if none.
+	 */
+	public TransformationContext activate() {
+		TransformationContext previous = active.get();
+		
+		active.set(this);
+		
+		return previous;
+	}
+	
+	/**
+	 * Stop using the per-element caches of this run on the current thread, and use
+	 * those of the context that was active before {@link #activate()} was called.
+	 * 
+	 * @param previous The context returned by {@link #activate()}.
+	 */
+	public void deactivate(TransformationContext previous) {
+		if (previous != null)
+			active.set(previous);
+		else
+			active.remove();
+	}
+	
+	/**
+	 * @return the context activated on the current thread, or null if none
+	 */
+	public static TransformationContext getActive() {
+		return active.get();
+	}
+
+	/**
+	 * @return the correspondences
+	 */
+	public InternalCorrespondences getCorrespondences() {
+		return correspondences;
+	}
+
+	/**
+	 * @return the state
+	 */
+	public TransformationState getState() {
+		return state;
+	}
+
+	/**
+	 * @return the milpModel
+	 */
+	public MILPModel getMilpModel() {
+		return milpModel;
+	}
+
+	/**
+	 * @return the resultsVisualizationBuffer
+	 */
+	public String getResultsVisualizationBuffer() {
+		return resultsVisualizationBuffer.toString();
+	}
+	
+	/**
+	 * @param resultsVisualizationBuffer the text to append to the resultsVisualizationBuffer
+	 */
+	public void appendResultsVisualizationBuffer(String resultsVisualizationBuffer) {
+		this.resultsVisualizationBuffer.append(resultsVisualizationBuffer);
+	}
+	
+	/**
+	 * Returns a new process ID, unique within this run (unless
+	 * {@link #resetProcessIDs()} is called).
+	 * 
+	 * @return The next process ID.
+	 */
+	public int nextProcessID() {
+		return nextProcessID++;
+	}
+	
+	/**
+	 * Restart process ID generation at 1.
+	 */
+	public void resetProcessIDs() {
+		nextProcessID = 1;
+	}
+
+}
@@ -0,0 +1,356 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPModel;
+
+/**
+ * Timing and size metrics of a single transformation run, recorded per phase
+ * (e.g., rebuilding the cache, transforming the resource library, generating
+ * the postamble).
+ * <P>
+ * For each phase, the wall time, the number of bytes allocated by the thread
+ * running the transformation (if supported by the JVM, -1 otherwise) and the
+ * number of variables and constraint rows added to the MILP model are recorded.
+ * <P>
+ * Metrics are not thread-safe and are recorded by the thread running the
+ * transformation.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformationMetrics {
+	
+	/** Method for querying the number of allocated bytes of a thread (HotSpot specific; null if unsupported). */
+	private static final Method GET_THREAD_ALLOCATED_BYTES = findGetThreadAllocatedBytes();
+	
+	/** The recorded phases (in order). */
+	private final ArrayList<Phase> phases = new ArrayList<Phase>();
+	
+	/** Whether or not the result was taken from the result cache. */
+	private boolean cacheHit = false;
+	
+	/** The phase currently being recorded (null if none). */
+	private Phase currentPhase = null;
+	
+	/** The MILP model of the current phase (null if none). */
+	private MILPModel currentModel = null;
+	
+	/** Start of the current phase (nanoseconds). */
+	private long startTime;
+	
+	/** Allocated bytes at the start of the current phase. */
+	private long startAllocatedBytes;
+	
+	/** Number of variables in the MILP model at the start of the current phase. */
+	private int startNumVariables;
+	
+	/** Number of constraint rows in the MILP model at the start of the current phase. */
+	private int startNumConstraints;
+	
+	/**
+	 * Metrics of a single phase.
+	 */
+	public static class Phase {
+		
+		/** Name of the phase. */
+		private final String name;
+		
+		/** Wall time (nanoseconds). */
+		private long wallTime = 0;
+		
+		/** Bytes allocated (-1 if unknown). */
+		private long allocatedBytes = -1;
+		
+		/** Number of variables added to the MILP model. */
+		private int numVariables = 0;
+		
+		/** Number of constraint rows added to the MILP model. */
+		private int numConstraints = 0;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param name Name of the phase.
+		 */
+		public Phase(String name) {
+			this.name = name;
+		}
+		
+		/**
+		 * @return the name
+		 */
+		public String getName() {
+			return name;
+		}
+		
+		/**
+		 * @return the wall time in nanoseconds
+		 */
+		public long getWallTime() {
+			return wallTime;
+		}
+		
+		/**
+		 * @return the number of allocated bytes or -1 if not supported by the JVM
+		 */
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+		
+		/**
+		 * @return the number of variables added to the MILP model
+		 */
+		public int getNumVariables() {
+			return numVariables;
+		}
+		
+		/**
+		 * @return the number of constraint rows added to the MILP model
+		 */
+		public int getNumConstraints() {
+			return numConstraints;
+		}
+		
+		/**
+		 * @see java.lang.Object#toString()
+		 *
+		 * @return
+		 */
+		@Override
+		public String toString() {
+			return name + ": " + (wallTime / 1000000.0) + " ms, "
+					+ allocatedBytes + " bytes allocated, "
+					+ numVariables + " variables, "
+					+ numConstraints + " constraints";
+		}
+		
+	}
+	
+	/**
+	 * Start recording a phase. A phase that is still being recorded is ended first.
+	 * 
+	 * @param name Name of the phase.
+	 * @param model The MILP model that the phase adds to (null if the phase does
+	 * 		not add to a MILP model).
+	 */
+	public void beginPhase(String name, MILPModel model) {
+		if (currentPhase != null)
+			endPhase();
+		
+		currentPhase = new Phase(name);
+		currentModel = model;
+		
+		if (model != null) {
+			startNumVariables = model.getNumVariables();
+			startNumConstraints = model.getNumConstraints();
+		}
+		
+		startAllocatedBytes = getAllocatedBytes();
+		startTime = System.nanoTime();
+	}
+	
+	/**
+	 * End recording of the current phase (if any).
+	 */
+	public void endPhase() {
+		if (currentPhase == null)
+			return;
+		
+		currentPhase.wallTime = System.nanoTime() - startTime;
+		
+		long allocatedBytes = getAllocatedBytes();
+		if (allocatedBytes >= 0 && startAllocatedBytes >= 0)
+			currentPhase.allocatedBytes = allocatedBytes - startAllocatedBytes;
+		
+		if (currentModel != null) {
+			currentPhase.numVariables = currentModel.getNumVariables() - startNumVariables;
+			currentPhase.numConstraints = currentModel.getNumConstraints() - startNumConstraints;
+		}
+		
+		phases.add(currentPhase);
+		
+		currentPhase = null;
+		currentModel = null;
+	}
+	
+	/**
+	 * @return the recorded phases (in order)
+	 */
+	public List<Phase> getPhases() {
+		return Collections.unmodifiableList(phases);
+	}
+	
+	/**
+	 * Returns the metrics of a phase.
+	 * 
+	 * @param name Name of the phase.
+	 * @return The phase or null if no such phase was recorded.
+	 */
+	public Phase getPhase(String name) {
+		for (Phase phase : phases)
+			if (phase.getName().equals(name))
+				return phase;
+		
+		return null;
+	}
+	
+	/**
+	 * @return the total wall time of all phases in nanoseconds
+	 */
+	public long getTotalWallTime() {
+		long total = 0;
+		
+		for (Phase phase : phases)
+			total += phase.getWallTime();
+		
+		return total;
+	}
+	
+	/**
+	 * @return the total number of allocated bytes of all phases or -1 if not supported
+	 * 		by the JVM
+	 */
+	public long getTotalAllocatedBytes() {
+		long total = 0;
+		
+		for (Phase phase : phases) {
+			if (phase.getAllocatedBytes() < 0)
+				return -1;
+			
+			total += phase.getAllocatedBytes();
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * @return the total number of variables added to the MILP model
+	 */
+	public int getTotalNumVariables() {
+		int total = 0;
+		
+		for (Phase phase : phases)
+			total += phase.getNumVariables();
+		
+		return total;
+	}
+	
+	/**
+	 * @return the total number of constraint rows added to the MILP model
+	 */
+	public int getTotalNumConstraints() {
+		int total = 0;
+		
+		for (Phase phase : phases)
+			total += phase.getNumConstraints();
+		
+		return total;
+	}
+	
+	/**
+	 * @return true if the result was taken from the result cache
+	 */
+	public boolean isCacheHit() {
+		return cacheHit;
+	}
+	
+	/**
+	 * @param cacheHit whether or not the result was taken from the result cache
+	 */
+	public void setCacheHit(boolean cacheHit) {
+		this.cacheHit = cacheHit;
+	}
+	
+	/**
+	 * @see java.lang.Object#toString()
+	 *
+	 * @return
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		
+		builder.append("Transformation metrics" + (cacheHit ? " (cached result)" : "") + ":\r\n");
+		
+		for (Phase phase : phases)
+			builder.append("\t" + phase + "\r\n");
+		
+		builder.append("\tTotal: " + (getTotalWallTime() / 1000000.0) + " ms, "
+				+ getTotalAllocatedBytes() + " bytes allocated, "
+				+ getTotalNumVariables() + " variables, "
+				+ getTotalNumConstraints() + " constraints");
+		
+		return builder.toString();
+	}
+	
+	/**
+	 * Returns the number of bytes allocated by the current thread so far.
+	 * 
+	 * @return The number of bytes or -1 if not supported by the JVM.
+	 */
+	private static long getAllocatedBytes() {
+		if (GET_THREAD_ALLOCATED_BYTES == null)
+			return -1;
+		
+		try {
+			return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(ManagementFactory.getThreadMXBean(), Thread.currentThread().getId());
+		} catch (Exception e) {
+			return -1;
+		}
+	}
+	
+	/**
+	 * Looks up the method for querying the number of allocated bytes of a thread. This
+	 * is an extension of HotSpot JVMs (com.sun.management.ThreadMXBean) and, hence,
+	 * accessed via reflection.
+	 * 
+	 * @return The method or null if not supported.
+	 */
+	private static Method findGetThreadAllocatedBytes() {
+		try {
+			ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+			Class<?> extension = Class.forName("com.sun.management.ThreadMXBean");
+			
+			if (!extension.isInstance(bean)
+					|| !((Boolean) extension.getMethod("isThreadAllocatedMemorySupported").invoke(bean))
+					|| !((Boolean) extension.getMethod("isThreadAllocatedMemoryEnabled").invoke(bean)))
+				return null;
+			
+			return extension.getMethod("getThreadAllocatedBytes", long.class);
+		} catch (Throwable t) {
+			return null;
+		}
+	}
+	
+}
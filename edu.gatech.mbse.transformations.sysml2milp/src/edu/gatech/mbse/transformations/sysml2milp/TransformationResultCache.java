@@ -0,0 +1,759 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.FeatureMap;
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Profile;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Content-addressed cache of transformation results.
+ * <P>
+ * Results are stored under a key that is computed from the content of the model
+ * (see {@link #computeKey(Activity, Element, boolean)}), so a changed model never
+ * results in a cache hit. What is cached is everything up to the postamble: the
+ * MILP code of the MILP model and the results visualization buffer (which includes
+ * the code writing the correspondences). The postamble is generated anew for every
+ * request, so the number of solutions and the solver may differ between requests.
+ * <P>
+ * The cache has two tiers:<BR />
+ * 1) A memory tier, holding the most recently used results (LRU)<BR />
+ * 2) An optional disk tier, holding results in a local directory (one pair of files
+ * per key), which survives restarts. Each file starts with a checksum of its content,
+ * so corrupt or partially written results are ignored.
+ * <P>
+ * Every key includes the version of the bundle and a fingerprint of its classes (see
+ * {@link #getFormatVersion()}), so results cached by another build of the
+ * transformation are never hit.
+ * <P>
+ * Caching is off by default. Callers opt in by configuring the default cache in
+ * {@link TransformationConfig}, or by setting a cache with
+ * {@link SysML2MILPTransformation#setResultCache(TransformationResultCache)}. On a
+ * miss, the MILP code is still written directly to the output, and copied into the
+ * cache as it is written.
+ * <P>
+ * This class is thread-safe.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformationResultCache {
+	
+	/** Log4J object. */
+	private static final Logger logger = LogManager.getLogger(TransformationResultCache.class.getName());
+	
+	/**
+	 * Version of the cached format - part of every key (computed on first use, see
+	 * {@link #getFormatVersion()}).
+	 */
+	private static String formatVersion = null;
+	
+	/** File extension of cached MILP code in the disk tier. */
+	private static final String MILP_CODE_EXTENSION = ".milp";
+	
+	/** File extension of cached results visualization buffers in the disk tier. */
+	private static final String VISUALIZATION_EXTENSION = ".vis";
+	
+	/** The default cache (configured by {@link TransformationConfig}). */
+	private static TransformationResultCache defaultCache = null;
+	
+	/** Maximum number of results in the memory tier. */
+	private final int memoryCapacity;
+	
+	/** Directory of the disk tier (null if there is no disk tier). */
+	private final File directory;
+	
+	/** Memory tier - access-ordered, i.e., least recently used results are evicted first. */
+	private final LinkedHashMap<String, Entry> memoryTier;
+	
+	/**
+	 * A cached transformation result.
+	 */
+	public static class Entry {
+		
+		/** MILP code of the MILP model (without preamble and postamble). */
+		private final String milpModelCode;
+		
+		/** Results visualization buffer (injected into the postamble). */
+		private final String resultsVisualizationBuffer;
+		
+		/**
+		 * Constructor.
+		 * 
+		 * @param milpModelCode MILP code of the MILP model.
+		 * @param resultsVisualizationBuffer The results visualization buffer.
+		 */
+		public Entry(String milpModelCode, String resultsVisualizationBuffer) {
+			this.milpModelCode = milpModelCode;
+			this.resultsVisualizationBuffer = resultsVisualizationBuffer;
+		}
+		
+		/**
+		 * @return the milpModelCode
+		 */
+		public String getMilpModelCode() {
+			return milpModelCode;
+		}
+		
+		/**
+		 * @return the resultsVisualizationBuffer
+		 */
+		public String getResultsVisualizationBuffer() {
+			return resultsVisualizationBuffer;
+		}
+		
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param memoryCapacity Maximum number of results in the memory tier (0 for no
+	 * 		memory tier).
+	 * @param directory Directory of the disk tier (null for no disk tier). Created if
+	 * 		it does not exist.
+	 */
+	public TransformationResultCache(final int memoryCapacity, File directory) {
+		this.memoryCapacity = memoryCapacity;
+		this.directory = directory;
+		this.memoryTier = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > memoryCapacity;
+			}
+			
+		};
+	}
+	
+	/**
+	 * Returns the default cache as configured in {@link TransformationConfig}
+	 * (CONFIG_RESULT_CACHE_SIZE and CONFIG_RESULT_CACHE_DIRECTORY). A new default
+	 * cache is created if the configuration has changed.
+	 * 
+	 * @return The default cache or null if caching is disabled.
+	 */
+	public static synchronized TransformationResultCache getDefault() {
+		int capacity = Math.max(0, TransformationConfig.CONFIG_RESULT_CACHE_SIZE);
+		File dir = TransformationConfig.CONFIG_RESULT_CACHE_DIRECTORY;
+		
+		if (capacity == 0 && dir == null)
+			return null;
+		
+		if (defaultCache == null
+				|| defaultCache.memoryCapacity != capacity
+				|| (dir == null ? defaultCache.directory != null : !dir.equals(defaultCache.directory)))
+			defaultCache = new TransformationResultCache(capacity, dir);
+		
+		return defaultCache;
+	}
+	
+	/**
+	 * Look up a result - first in the memory tier, then in the disk tier. Results
+	 * found in the disk tier are added to the memory tier.
+	 * 
+	 * @param key The key (see {@link #computeKey(Activity, Element, boolean)}).
+	 * @return The cached result or null if there is none.
+	 */
+	public Entry get(String key) {
+		synchronized (memoryTier) {
+			Entry entry = memoryTier.get(key);
+			
+			if (entry != null) {
+				logger.debug("Transformation result cache hit (memory): " + key);
+				
+				return entry;
+			}
+		}
+		
+		Entry entry = readFromDisk(key);
+		
+		if (entry != null) {
+			logger.debug("Transformation result cache hit (disk): " + key);
+			
+			putInMemory(key, entry);
+		}
+		
+		return entry;
+	}
+	
+	/**
+	 * Store a result in both tiers.
+	 * 
+	 * @param key The key (see {@link #computeKey(Activity, Element, boolean)}).
+	 * @param entry The result to store.
+	 */
+	public void put(String key, Entry entry) {
+		putInMemory(key, entry);
+		writeToDisk(key, entry);
+	}
+	
+	/**
+	 * Remove all results from the memory tier. The disk tier is left untouched.
+	 */
+	public void clearMemory() {
+		synchronized (memoryTier) {
+			memoryTier.clear();
+		}
+	}
+	
+	/**
+	 * Returns the version of the cached format: the version of this bundle and a
+	 * fingerprint of its classes (see {@link #computeFingerprint(List)}). Any change to
+	 * the transformation changes the fingerprint, so there is no revision of the
+	 * generated code to maintain by hand.
+	 * <P>
+	 * If the class files cannot be found, the fingerprint is random - results on disk
+	 * are then not reused by later runs.
+	 * 
+	 * @return the version of the cached format
+	 */
+	public static synchronized String getFormatVersion() {
+		if (formatVersion == null) {
+			String fingerprint = null;
+			
+			try {
+				List<URL> classFiles = findClassFiles();
+				
+				if (!classFiles.isEmpty())
+					fingerprint = computeFingerprint(classFiles);
+				else
+					logger.warn("No class files found - cached transformation results are not reused by later runs");
+			} catch (IOException e) {
+				logger.warn("Could not compute the fingerprint of the transformation: " + e.getMessage());
+			}
+			
+			if (fingerprint == null)
+				fingerprint = UUID.randomUUID().toString();
+			
+			formatVersion = getBundleVersion() + "-" + fingerprint;
+		}
+		
+		return formatVersion;
+	}
+	
+	/**
+	 * Compute a fingerprint of a set of class files: a SHA-1 hash over their content, in
+	 * the order of their paths.
+	 * 
+	 * @param classFiles The class files.
+	 * @return The fingerprint (a hexadecimal string).
+	 * @throws IOException If a class file could not be read.
+	 */
+	public static String computeFingerprint(List<URL> classFiles) throws IOException {
+		URL[] sortedClassFiles = classFiles.toArray(new URL[classFiles.size()]);
+		Arrays.sort(sortedClassFiles, new Comparator<URL>() {
+			
+			@Override
+			public int compare(URL a, URL b) {
+				return a.getPath().compareTo(b.getPath());
+			}
+			
+		});
+		
+		MessageDigest digest = createDigest("SHA-1");
+		byte[] buffer = new byte[8192];
+		
+		for (URL classFile : sortedClassFiles) {
+			InputStream in = classFile.openStream();
+			
+			try {
+				int n;
+				while ((n = in.read(buffer)) != -1)
+					digest.update(buffer, 0, n);
+			} finally {
+				in.close();
+			}
+		}
+		
+		return toHex(digest.digest());
+	}
+	
+	/**
+	 * Find the class files of this bundle - the entries of the bundle if running in an
+	 * OSGi framework, otherwise the content of the directory or JAR file this class was
+	 * loaded from.
+	 * 
+	 * @return The class files (empty if they could not be found).
+	 * @throws IOException If the location of the classes could not be read.
+	 */
+	private static List<URL> findClassFiles() throws IOException {
+		List<URL> classFiles = new ArrayList<URL>();
+		
+		try {
+			Bundle bundle = FrameworkUtil.getBundle(TransformationResultCache.class);
+			
+			if (bundle != null) {
+				Enumeration<URL> entries = bundle.findEntries("/", "*.class", true);
+				
+				if (entries != null)
+					classFiles.addAll(Collections.list(entries));
+				
+				return classFiles;
+			}
+		} catch (NoClassDefFoundError e) {
+			// OSGi is not on the class path
+		}
+		
+		CodeSource codeSource = TransformationResultCache.class.getProtectionDomain().getCodeSource();
+		
+		if (codeSource == null || codeSource.getLocation() == null)
+			return classFiles;
+		
+		File location;
+		try {
+			location = new File(codeSource.getLocation().toURI());
+		} catch (URISyntaxException e) {
+			throw new IOException("Invalid location of the classes: " + codeSource.getLocation());
+		}
+		
+		if (location.isDirectory()) {
+			addClassFiles(location, classFiles);
+		} else if (location.isFile()) {
+			JarFile jarFile = new JarFile(location);
+			
+			try {
+				for (JarEntry entry : Collections.list(jarFile.entries()))
+					if (entry.getName().endsWith(".class"))
+						classFiles.add(new URL("jar:" + location.toURI().toURL() + "!/" + entry.getName()));
+			} finally {
+				jarFile.close();
+			}
+		}
+		
+		return classFiles;
+	}
+	
+	/**
+	 * Add the class files in a directory and its subdirectories.
+	 * 
+	 * @param directory The directory.
+	 * @param classFiles The list to add the class files to.
+	 * @throws IOException If a file name could not be converted into a URL.
+	 */
+	private static void addClassFiles(File directory, List<URL> classFiles) throws IOException {
+		File[] files = directory.listFiles();
+		
+		if (files == null)
+			return;
+		
+		for (File file : files) {
+			if (file.isDirectory())
+				addClassFiles(file, classFiles);
+			else if (file.getName().endsWith(".class"))
+				classFiles.add(file.toURI().toURL());
+		}
+	}
+	
+	/**
+	 * @return the version of this bundle, or "unknown" if not running in an OSGi
+	 * 		framework
+	 */
+	private static String getBundleVersion() {
+		try {
+			Bundle bundle = FrameworkUtil.getBundle(TransformationResultCache.class);
+			
+			if (bundle != null)
+				return bundle.getVersion().toString();
+		} catch (NoClassDefFoundError e) {
+			// OSGi is not on the class path
+		}
+		
+		return "unknown";
+	}
+	
+	/**
+	 * Compute the key of a transformation result: a SHA-256 hash over the content of
+	 * the model, the functional specification, the testing mode and the transformation
+	 * configuration (and the home directory, which the correspondence output refers to).
+	 * <P>
+	 * The content of the model consists of all UML resources in the resource set of
+	 * the root element (including stereotype applications, and therefore the data of
+	 * resources, working principles, constraints, object flows, etc.). Resources that
+	 * only contain profiles, and resources loaded from plugins, are skipped. For each
+	 * object, the hash includes its type, its containing feature, and the values of all
+	 * non-derived and non-transient features - references are included via the URI of
+	 * the referenced object, so the key is stable across runs.
+	 * 
+	 * @param functionalSpec The functional specification (UML Activity).
+	 * @param rootElement The root model element.
+	 * @param testingMode See {@link SysML2MILPTransformation#transform(Activity, Element, int, boolean)}.
+	 * @return The key (a hexadecimal string).
+	 */
+	public static String computeKey(Activity functionalSpec, Element rootElement, boolean testingMode) {
+		return computeKey(functionalSpec, rootElement, testingMode, getFormatVersion());
+	}
+	
+	/**
+	 * Compute the key of a transformation result for a given version of the cached
+	 * format (see {@link #computeKey(Activity, Element, boolean)}).
+	 * 
+	 * @param functionalSpec The functional specification (UML Activity).
+	 * @param rootElement The root model element.
+	 * @param testingMode See {@link SysML2MILPTransformation#transform(Activity, Element, int, boolean)}.
+	 * @param formatVersion The version of the cached format (see {@link #getFormatVersion()}).
+	 * @return The key (a hexadecimal string).
+	 */
+	public static String computeKey(Activity functionalSpec, Element rootElement, boolean testingMode, String formatVersion) {
+		MessageDigest digest = createDigest("SHA-256");
+		
+		update(digest, formatVersion);
+		update(digest, String.valueOf(testingMode));
+		update(digest, String.valueOf(TransformationConfig.CONFIG_SOLVER));
+		update(digest, System.getProperty("user.home"));		// Part of the correspondence output
+		update(digest, EcoreUtil.getURI(functionalSpec).toString());
+		
+		for (Resource resource : getResourcesToHash(rootElement)) {
+			update(digest, resource.getURI().toString());
+			
+			TreeIterator<EObject> it = resource.getAllContents();
+			while (it.hasNext())
+				update(digest, it.next());
+		}
+		
+		// Element that is not contained in a resource (e.g., created in memory)
+		if (rootElement.eResource() == null) {
+			update(digest, rootElement);
+			
+			TreeIterator<EObject> it = rootElement.eAllContents();
+			while (it.hasNext())
+				update(digest, it.next());
+		}
+		
+		return toHex(digest.digest());
+	}
+	
+	/**
+	 * @param algorithm The name of the algorithm.
+	 * @return a new message digest
+	 */
+	private static MessageDigest createDigest(String algorithm) {
+		try {
+			return MessageDigest.getInstance(algorithm);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(algorithm + " is not available.", e);
+		}
+	}
+	
+	/**
+	 * @param bytes The bytes.
+	 * @return the bytes as a hexadecimal string
+	 */
+	private static String toHex(byte[] bytes) {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : bytes)
+			hex.append(String.format("%02x", b));
+		
+		return hex.toString();
+	}
+	
+	/**
+	 * Collect the resources whose content determines the key.
+	 * 
+	 * @param rootElement The root model element.
+	 * @return The list of resources (in the order of the resource set).
+	 */
+	private static List<Resource> getResourcesToHash(Element rootElement) {
+		List<Resource> resources = new ArrayList<Resource>();
+		Resource rootResource = rootElement.eResource();
+		
+		if (rootResource == null)
+			return resources;
+		
+		if (rootResource.getResourceSet() == null) {
+			resources.add(rootResource);
+			
+			return resources;
+		}
+		
+		for (Resource resource : rootResource.getResourceSet().getResources()) {
+			URI uri = resource.getURI();
+			
+			if (resource != rootResource) {
+				if (uri == null
+						|| "pathmap".equals(uri.scheme())
+						|| uri.isPlatformPlugin())
+					continue;
+				
+				boolean containsModel = false;
+				for (EObject o : resource.getContents())
+					if (o instanceof Element && !(o instanceof Profile))
+						containsModel = true;
+				
+				if (!containsModel)
+					continue;
+			}
+			
+			resources.add(resource);
+		}
+		
+		return resources;
+	}
+	
+	/**
+	 * Update a digest with the content of a single object.
+	 * 
+	 * @param digest The digest to update.
+	 * @param object The object.
+	 */
+	private static void update(MessageDigest digest, EObject object) {
+		EClass eClass = object.eClass();
+		
+		update(digest, eClass.getName());
+		update(digest, object.eContainingFeature() == null ? "" : object.eContainingFeature().getName());
+		
+		for (EStructuralFeature feature : eClass.getEAllStructuralFeatures()) {
+			// Contained objects are hashed when they are visited themselves
+			if (feature.isDerived()
+					|| feature.isTransient()
+					|| (feature instanceof EReference && ((EReference) feature).isContainment())
+					|| !object.eIsSet(feature))
+				continue;
+			
+			update(digest, feature.getName());
+			
+			Object value = object.eGet(feature, false);
+			
+			if (feature.isMany())
+				for (Object v : (List<?>) value)
+					update(digest, valueToString(v));
+			else
+				update(digest, valueToString(value));
+		}
+	}
+	
+	/**
+	 * Returns a stable string representation of a feature value.
+	 * 
+	 * @param value The value.
+	 * @return A string representation (URIs for objects).
+	 */
+	private static String valueToString(Object value) {
+		if (value instanceof EObject)
+			return EcoreUtil.getURI((EObject) value).toString();
+		
+		if (value instanceof FeatureMap.Entry)
+			return ((FeatureMap.Entry) value).getEStructuralFeature().getName()
+					+ "=" + valueToString(((FeatureMap.Entry) value).getValue());
+		
+		return String.valueOf(value);
+	}
+	
+	/**
+	 * Update a digest with a string, followed by a separator.
+	 * 
+	 * @param digest The digest to update.
+	 * @param s The string.
+	 */
+	private static void update(MessageDigest digest, String s) {
+		try {
+			digest.update(s.getBytes("UTF-8"));
+			digest.update((byte) 0);
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Add a result to the memory tier.
+	 * 
+	 * @param key The key.
+	 * @param entry The result.
+	 */
+	private void putInMemory(String key, Entry entry) {
+		if (memoryCapacity <= 0)
+			return;
+		
+		synchronized (memoryTier) {
+			memoryTier.put(key, entry);
+		}
+	}
+	
+	/**
+	 * Read a result from the disk tier.
+	 * 
+	 * @param key The key.
+	 * @return The result or null if there is no disk tier, the result is not stored, or
+	 * 		it could not be read.
+	 */
+	private Entry readFromDisk(String key) {
+		if (directory == null)
+			return null;
+		
+		File milpCodeFile = new File(directory, key + MILP_CODE_EXTENSION);
+		File visualizationFile = new File(directory, key + VISUALIZATION_EXTENSION);
+		
+		if (!milpCodeFile.isFile() || !visualizationFile.isFile())
+			return null;
+		
+		try {
+			return new Entry(readFile(milpCodeFile), readFile(visualizationFile));
+		} catch (IOException e) {
+			// E.g., a corrupt file, or a result that was only partially written
+			logger.warn("Ignoring cached transformation result " + key + ": " + e.getMessage());
+			
+			return null;
+		}
+	}
+	
+	/**
+	 * Write a result to the disk tier. Files are written to a temporary file first and
+	 * then renamed, so that readers never see partially written results. Failures are
+	 * logged, but otherwise ignored.
+	 * 
+	 * @param key The key.
+	 * @param entry The result.
+	 */
+	private void writeToDisk(String key, Entry entry) {
+		if (directory == null)
+			return;
+		
+		try {
+			if (!directory.isDirectory() && !directory.mkdirs())
+				throw new IOException("Could not create directory " + directory);
+			
+			// Visualization buffer first - the MILP code file marks the result as complete
+			writeFile(new File(directory, key + VISUALIZATION_EXTENSION), entry.getResultsVisualizationBuffer());
+			writeFile(new File(directory, key + MILP_CODE_EXTENSION), entry.getMilpModelCode());
+		} catch (IOException e) {
+			logger.warn("Could not write cached transformation result " + key + ": " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Read a file written by {@link #writeFile(File, String)}, and check its checksum.
+	 * 
+	 * @param file The file.
+	 * @return The content of the file.
+	 * @throws IOException If reading failed, or the checksum does not match.
+	 */
+	private static String readFile(File file) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) file.length());
+		InputStream in = new FileInputStream(file);
+		
+		try {
+			byte[] buffer = new byte[8192];
+			int n;
+			
+			while ((n = in.read(buffer)) != -1)
+				bytes.write(buffer, 0, n);
+		} finally {
+			in.close();
+		}
+		
+		byte[] data = bytes.toByteArray();
+		
+		// First line: checksum of the rest of the file
+		int headerEnd = 0;
+		while (headerEnd < data.length && data[headerEnd] != '\n')
+			headerEnd++;
+		
+		if (headerEnd == data.length)
+			throw new IOException("No checksum in " + file);
+		
+		MessageDigest digest = createDigest("SHA-1");
+		digest.update(data, headerEnd + 1, data.length - headerEnd - 1);
+		
+		if (!toHex(digest.digest()).equals(new String(data, 0, headerEnd, "UTF-8")))
+			throw new IOException("Checksum mismatch in " + file);
+		
+		return new String(data, headerEnd + 1, data.length - headerEnd - 1, "UTF-8");
+	}
+	
+	/**
+	 * Write a file (UTF-8) via a temporary file in the same directory. The first line of
+	 * the file is a checksum (SHA-1) of the content.
+	 * 
+	 * @param file The file.
+	 * @param content The content to write.
+	 * @throws IOException If writing failed.
+	 */
+	private static void writeFile(File file, String content) throws IOException {
+		byte[] data = content.getBytes("UTF-8");
+		
+		MessageDigest digest = createDigest("SHA-1");
+		digest.update(data);
+		
+		File tmpFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+		OutputStream out = new FileOutputStream(tmpFile);
+		
+		try {
+			out.write((toHex(digest.digest()) + "\n").getBytes("UTF-8"));
+			out.write(data);
+		} finally {
+			out.close();
+		}
+		
+		if (file.exists())
+			file.delete();
+		
+		if (!tmpFile.renameTo(file)) {
+			tmpFile.delete();
+			
+			throw new IOException("Could not rename " + tmpFile + " to " + file);
+		}
+	}
+	
+}
@@ -29,6 +29,8 @@ import org.eclipse.uml2.uml.Action;
 
 /**
  * State variables for transformation.
+ * <P>
+ * Each transformation run owns its own instance (see {@link TransformationContext}).
  * 
  * @author Sebastian
  * @version 0.1
@@ -36,36 +38,36 @@ import org.eclipse.uml2.uml.Action;
 public class TransformationState {
 
 	/** Current index for activity + working principle (in allocation matrix). */
-	public static int CURRENT_RESOURCE_INSTANCE_ID = 1;
+	public int currentResourceInstanceID = 1;
 	
 	/** Current index for activity + working principle (in allocation matrix). */
-	public static int CURRENT_COMPOSITE_RESOURCE_INSTANCE_ID = 1;
+	public int currentCompositeResourceInstanceID = 1;
 	
 	/** Current index for activity + working principle (in allocation matrix). */
-	public static int CURRENT_ACTION_WP_COUNT = 0;			// 0 indicates not yet translating process!
+	public int currentActionWPCount = 0;			// 0 indicates not yet translating process!
 	
 	/** Holds current call behavior action being processed. */
-	public static Action CURRENT_ACTION = null;
+	public Action currentAction = null;
 	
 	/** Current action ID being worked on. */
-	public static int CURRENT_ACTION_COUNT = 1;
+	public int currentActionCount = 1;
 	
 	/** Current working principle ID being worked on. */
-	public static int CURRENT_WORKING_PRINCIPLE_COUNT = 1;
+	public int currentWorkingPrincipleCount = 1;
 
 	/** Is true, if 'throughput' is identified as necessarily having to be a design variable. */
-	public static boolean MUST_OPTIMIZE_THROUGHPUT = false;
+	public boolean mustOptimizeThroughput = false;
 	
 	/**
 	 * Reset state of state variables
 	 */
-	public static void resetState() {
-		CURRENT_RESOURCE_INSTANCE_ID = 1;
-		CURRENT_COMPOSITE_RESOURCE_INSTANCE_ID = 1;
-		CURRENT_ACTION_WP_COUNT = 0;
-		CURRENT_ACTION = null;
-		CURRENT_WORKING_PRINCIPLE_COUNT = 1;
-		MUST_OPTIMIZE_THROUGHPUT = false;
+	public void resetState() {
+		currentResourceInstanceID = 1;
+		currentCompositeResourceInstanceID = 1;
+		currentActionWPCount = 0;
+		currentAction = null;
+		currentWorkingPrincipleCount = 1;
+		mustOptimizeThroughput = false;
 	}
 	
 }
@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Statistics over all transformation runs in this JVM, published as a JMX MBean
+ * (see {@link #OBJECT_NAME}). Every run of {@link SysML2MILPTransformation} reports its
+ * {@link TransformationMetrics} here.
+ * <P>
+ * This class is thread-safe.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class TransformationStatistics implements TransformationStatisticsMBean {
+	
+	/** Log4J object. */
+	private static final Logger logger = LogManager.getLogger(TransformationStatistics.class.getName());
+	
+	/** Name under which the statistics are registered with the platform MBean server. */
+	public static final String OBJECT_NAME = "edu.gatech.mbse.transformations.sysml2milp:type=TransformationStatistics";
+	
+	/** The shared instance. */
+	private static TransformationStatistics instance = null;
+	
+	/** Number of completed runs. */
+	private long transformationCount = 0;
+	
+	/** Number of runs answered from the result cache. */
+	private long cacheHitCount = 0;
+	
+	/** Total wall time of all runs (nanoseconds). */
+	private long totalWallTime = 0;
+	
+	/** Metrics of the most recent run. */
+	private TransformationMetrics lastMetrics = null;
+	
+	/**
+	 * Returns the shared instance, registering it with the platform MBean server on
+	 * first use. Failure to register is logged, but otherwise ignored.
+	 * 
+	 * @return the shared instance
+	 */
+	public static synchronized TransformationStatistics getDefault() {
+		if (instance == null) {
+			instance = new TransformationStatistics();
+			
+			try {
+				MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+				ObjectName name = new ObjectName(OBJECT_NAME);
+				
+				if (!server.isRegistered(name))
+					server.registerMBean(instance, name);
+			} catch (Exception e) {
+				logger.warn("Could not register transformation statistics MBean: " + e.getMessage());
+			}
+		}
+		
+		return instance;
+	}
+	
+	/**
+	 * Report the metrics of a completed run.
+	 * 
+	 * @param metrics The metrics of the run.
+	 */
+	public synchronized void record(TransformationMetrics metrics) {
+		transformationCount++;
+		
+		if (metrics.isCacheHit())
+			cacheHitCount++;
+		
+		totalWallTime += metrics.getTotalWallTime();
+		lastMetrics = metrics;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getTransformationCount()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized long getTransformationCount() {
+		return transformationCount;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getCacheHitCount()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized long getCacheHitCount() {
+		return cacheHitCount;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getTotalWallTimeMillis()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized double getTotalWallTimeMillis() {
+		return totalWallTime / 1000000.0;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastWallTimeMillis()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized double getLastWallTimeMillis() {
+		return (lastMetrics == null ? 0 : lastMetrics.getTotalWallTime() / 1000000.0);
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastAllocatedBytes()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized long getLastAllocatedBytes() {
+		return (lastMetrics == null ? -1 : lastMetrics.getTotalAllocatedBytes());
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastNumVariables()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized int getLastNumVariables() {
+		return (lastMetrics == null ? 0 : lastMetrics.getTotalNumVariables());
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastNumConstraints()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized int getLastNumConstraints() {
+		return (lastMetrics == null ? 0 : lastMetrics.getTotalNumConstraints());
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastPhaseNames()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized String[] getLastPhaseNames() {
+		List<TransformationMetrics.Phase> phases = getLastPhases();
+		String[] names = new String[phases.size()];
+		
+		for (int i = 0; i < names.length; i++)
+			names[i] = phases.get(i).getName();
+		
+		return names;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastPhaseWallTimesMillis()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized double[] getLastPhaseWallTimesMillis() {
+		List<TransformationMetrics.Phase> phases = getLastPhases();
+		double[] wallTimes = new double[phases.size()];
+		
+		for (int i = 0; i < wallTimes.length; i++)
+			wallTimes[i] = phases.get(i).getWallTime() / 1000000.0;
+		
+		return wallTimes;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastPhaseAllocatedBytes()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized long[] getLastPhaseAllocatedBytes() {
+		List<TransformationMetrics.Phase> phases = getLastPhases();
+		long[] allocatedBytes = new long[phases.size()];
+		
+		for (int i = 0; i < allocatedBytes.length; i++)
+			allocatedBytes[i] = phases.get(i).getAllocatedBytes();
+		
+		return allocatedBytes;
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#getLastMetrics()
+	 *
+	 * @return
+	 */
+	@Override
+	public synchronized String getLastMetrics() {
+		return (lastMetrics == null ? "" : lastMetrics.toString());
+	}
+	
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.TransformationStatisticsMBean#reset()
+	 *
+	 */
+	@Override
+	public synchronized void reset() {
+		transformationCount = 0;
+		cacheHitCount = 0;
+		totalWallTime = 0;
+		lastMetrics = null;
+	}
+	
+	/**
+	 * @return the phases of the most recent run (empty if there was none)
+	 */
+	private List<TransformationMetrics.Phase> getLastPhases() {
+		if (lastMetrics == null)
+			return new TransformationMetrics().getPhases();
+		
+		return lastMetrics.getPhases();
+	}
+	
+}
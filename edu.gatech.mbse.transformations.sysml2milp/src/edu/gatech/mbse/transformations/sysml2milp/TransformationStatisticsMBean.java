@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp;
+
+/**
+ * JMX management interface of {@link TransformationStatistics}: statistics over
+ * all transformation runs in this JVM, and the metrics of the most recent run.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public interface TransformationStatisticsMBean {
+	
+	/**
+	 * @return the number of completed transformation runs
+	 */
+	public long getTransformationCount();
+	
+	/**
+	 * @return the number of transformation runs whose result was taken from the
+	 * 		result cache
+	 */
+	public long getCacheHitCount();
+	
+	/**
+	 * @return the total wall time of all transformation runs in milliseconds
+	 */
+	public double getTotalWallTimeMillis();
+	
+	/**
+	 * @return the wall time of the most recent run in milliseconds
+	 */
+	public double getLastWallTimeMillis();
+	
+	/**
+	 * @return the number of bytes allocated by the most recent run (-1 if unknown)
+	 */
+	public long getLastAllocatedBytes();
+	
+	/**
+	 * @return the number of variables of the MILP model of the most recent run
+	 */
+	public int getLastNumVariables();
+	
+	/**
+	 * @return the number of constraint rows of the MILP model of the most recent run
+	 */
+	public int getLastNumConstraints();
+	
+	/**
+	 * @return the names of the phases of the most recent run
+	 */
+	public String[] getLastPhaseNames();
+	
+	/**
+	 * @return the wall times of the phases of the most recent run in milliseconds
+	 */
+	public double[] getLastPhaseWallTimesMillis();
+	
+	/**
+	 * @return the bytes allocated in the phases of the most recent run (-1 if unknown)
+	 */
+	public long[] getLastPhaseAllocatedBytes();
+	
+	/**
+	 * @return a textual summary of the metrics of the most recent run
+	 */
+	public String getLastMetrics();
+	
+	/**
+	 * Reset all statistics.
+	 */
+	public void reset();
+	
+}
@@ -0,0 +1,590 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import edu.gatech.mbse.transformations.sysml2milp.MILPVariableType;
+
+/**
+ * In-memory representation of a MILP problem, produced by the mappings and written
+ * by a serializer (see
+ * {@link edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtils#generateModel(MILPModel, edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink)}).
+ * <P>
+ * The model consists of:<BR />
+ * 1) A variable table: each variable has an int ID (its index in the table), a name,
+ * and either a type and dimensions (decision variables) or is defined by an
+ * expression.<BR />
+ * 2) Constraint rows: linear rows are stored in compressed sparse row form (primitive
+ * arrays of variable IDs and coefficients), logical rows (implications, expressions
+ * on matrices, etc.) as expressions in the syntax of the target environment.<BR />
+ * 3) An ordered list of statements that refer to variables and blocks of constraint
+ * rows, which determines the order of the output.
+ * <P>
+ * Constraint rows added between {@link #beginConstraints(String)} and
+ * {@link #endConstraints()} form one block. Rows added outside of such a pair form a
+ * block of their own.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class MILPModel {
+	
+	/** Initial capacity of the arrays. */
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/** Row kind: linear constraint. */
+	private static final byte LINEAR = 0;
+	
+	/** Row kind: logical constraint (expression). */
+	private static final byte LOGICAL = 1;
+	
+	
+	/************* VARIABLE TABLE *************/
+	
+	/** Number of variables. */
+	private int numVariables = 0;
+	
+	/** Variable names, indexed by variable ID. */
+	private String[] variableNames = new String[INITIAL_CAPACITY];
+	
+	/** Variable types, indexed by variable ID (null for defined variables). */
+	private MILPVariableType[] variableTypes = new MILPVariableType[INITIAL_CAPACITY];
+	
+	/** Number of rows of a variable, indexed by variable ID. */
+	private int[] variableRows = new int[INITIAL_CAPACITY];
+	
+	/** Number of columns of a variable, indexed by variable ID. */
+	private int[] variableColumns = new int[INITIAL_CAPACITY];
+	
+	/** Variable name -> variable ID. */
+	private HashMap<String, Integer> variableIDs = new HashMap<String, Integer>();
+	
+	
+	/************* CONSTRAINT ROWS *************/
+	
+	/** Number of constraint rows. */
+	private int numConstraints = 0;
+	
+	/** Row kinds (linear or logical). */
+	private byte[] rowKinds = new byte[INITIAL_CAPACITY];
+	
+	/** Senses of linear rows. */
+	private MILPConstraintSense[] rowSenses = new MILPConstraintSense[INITIAL_CAPACITY];
+	
+	/** Right hand sides of linear rows. */
+	private double[] rowRightHandSides = new double[INITIAL_CAPACITY];
+	
+	/** Index of the first term of each row; rowStarts[numConstraints] is the number of terms. */
+	private int[] rowStarts = new int[INITIAL_CAPACITY + 1];
+	
+	/** Expressions of logical rows (null for linear rows). */
+	private ArrayList<String> rowExpressions = new ArrayList<String>(INITIAL_CAPACITY);
+	
+	/** Variable IDs of the terms of all linear rows. */
+	private int[] termVariables = new int[INITIAL_CAPACITY];
+	
+	/** Coefficients of the terms of all linear rows. */
+	private double[] termCoefficients = new double[INITIAL_CAPACITY];
+	
+	
+	/************* STATEMENTS *************/
+	
+	/** Number of statements. */
+	private int numStatements = 0;
+	
+	/** Statement kinds. */
+	private MILPStatementKind[] statementKinds = new MILPStatementKind[INITIAL_CAPACITY];
+	
+	/** Variable ID (declarations, definitions) or first constraint row (blocks). */
+	private int[] statementFirst = new int[INITIAL_CAPACITY];
+	
+	/** End (exclusive) constraint row of blocks. */
+	private int[] statementEnd = new int[INITIAL_CAPACITY];
+	
+	/** Statement text (comment text, defining expression, objective, code). */
+	private ArrayList<String> statementTexts = new ArrayList<String>(INITIAL_CAPACITY);
+	
+	/** Comments of declarations, definitions and constraint blocks. */
+	private ArrayList<String> statementComments = new ArrayList<String>(INITIAL_CAPACITY);
+	
+	/** Index of the currently open constraint block, or -1. */
+	private int openBlock = -1;
+	
+	/**
+	 * Adds a free-standing comment.
+	 * 
+	 * @param comment The comment.
+	 */
+	public void addComment(String comment) {
+		addStatement(MILPStatementKind.COMMENT, -1, comment, "");
+	}
+	
+	/**
+	 * Adds a line separator.
+	 */
+	public void addLineSeparator() {
+		addStatement(MILPStatementKind.LINE_SEPARATOR, -1, null, "");
+	}
+	
+	/**
+	 * Adds target-specific code that is passed through unchanged.
+	 * 
+	 * @param code The code.
+	 */
+	public void addCode(String code) {
+		addStatement(MILPStatementKind.CODE, -1, code, "");
+	}
+	
+	/**
+	 * Adds a text visualization.
+	 * 
+	 * @param textToVisualize The text to visualize.
+	 */
+	public void addTextVisualization(String textToVisualize) {
+		addStatement(MILPStatementKind.TEXT_VISUALIZATION, -1, textToVisualize, "");
+	}
+	
+	/**
+	 * Sets the objective.
+	 * 
+	 * @param objective The objective function (interpreted expression).
+	 */
+	public void setObjective(String objective) {
+		addStatement(MILPStatementKind.OBJECTIVE, -1, objective, "");
+	}
+	
+	/** @see #declareVariable(String, MILPVariableType, int, int, String) */
+	public int declareVariable(String name, MILPVariableType varType) {
+		return declareVariable(name, varType, 1, 1, "");
+	}
+	
+	/** @see #declareVariable(String, MILPVariableType, int, int, String) */
+	public int declareVariable(String name, MILPVariableType varType, String comment) {
+		return declareVariable(name, varType, 1, 1, comment);
+	}
+	
+	/**
+	 * Declares a decision variable (or a matrix of decision variables).
+	 * 
+	 * @param name Name of the variable.
+	 * @param varType Type of the variable.
+	 * @param rows Number of rows.
+	 * @param columns Number of columns.
+	 * @param comment A comment (empty string for none).
+	 * @return The variable ID.
+	 */
+	public int declareVariable(String name, MILPVariableType varType, int rows, int columns, String comment) {
+		int id = getOrAddVariable(name);
+		
+		variableTypes[id] = varType;
+		variableRows[id] = rows;
+		variableColumns[id] = columns;
+		
+		addStatement(MILPStatementKind.VARIABLE_DECLARATION, id, null, comment);
+		
+		return id;
+	}
+	
+	/** @see #defineVariable(String, String, String) */
+	public int defineVariable(String name, String value) {
+		return defineVariable(name, value, "");
+	}
+	
+	/**
+	 * Defines a variable or constant by an expression. A variable may be (re-)defined
+	 * several times, e.g., to build up a vector.
+	 * 
+	 * @param name Name of the variable.
+	 * @param value The defining expression.
+	 * @param comment A comment (empty string for none).
+	 * @return The variable ID.
+	 */
+	public int defineVariable(String name, String value, String comment) {
+		int id = getOrAddVariable(name);
+		
+		addStatement(MILPStatementKind.VARIABLE_DEFINITION, id, value, comment);
+		
+		return id;
+	}
+	
+	/**
+	 * Opens a block of constraint rows. All rows added until {@link #endConstraints()}
+	 * is called are part of this block.
+	 * 
+	 * @param comment A comment for the block (empty string for none).
+	 */
+	public void beginConstraints(String comment) {
+		openBlock = addStatement(MILPStatementKind.CONSTRAINTS, numConstraints, null, comment);
+	}
+	
+	/**
+	 * Closes the block opened by {@link #beginConstraints(String)}.
+	 */
+	public void endConstraints() {
+		openBlock = -1;
+	}
+	
+	/** @see #addConstraint(String, String) */
+	public int addConstraint(String expression) {
+		return addConstraint(expression, "");
+	}
+	
+	/**
+	 * Adds a logical constraint row.
+	 * 
+	 * @param expression The constraint expression.
+	 * @param comment A comment (only used if no block is open).
+	 * @return The row index.
+	 */
+	public int addConstraint(String expression, String comment) {
+		return addRow(LOGICAL, null, 0, expression, null, null, comment);
+	}
+	
+	/** @see #addConstraints(ArrayList, String) */
+	public void addConstraints(ArrayList<String> expressions) {
+		addConstraints(expressions, "");
+	}
+	
+	/**
+	 * Adds a block of logical constraint rows.
+	 * 
+	 * @param expressions The constraint expressions.
+	 * @param comment A comment for the block.
+	 */
+	public void addConstraints(ArrayList<String> expressions, String comment) {
+		beginConstraints(comment);
+		
+		for (String expression : expressions)
+			addConstraint(expression);
+		
+		endConstraints();
+	}
+	
+	/** @see #addLinearConstraint(int[], double[], MILPConstraintSense, double, String) */
+	public int addLinearConstraint(int[] variables, double[] coefficients,
+			MILPConstraintSense sense, double rightHandSide) {
+		return addLinearConstraint(variables, coefficients, sense, rightHandSide, "");
+	}
+	
+	/**
+	 * Adds a linear constraint row: sum(coefficients[i] * variables[i]) sense rightHandSide.
+	 * 
+	 * @param variables The IDs of the (scalar) variables.
+	 * @param coefficients The coefficients.
+	 * @param sense The sense of the constraint.
+	 * @param rightHandSide The right hand side.
+	 * @param comment A comment (only used if no block is open).
+	 * @return The row index.
+	 */
+	public int addLinearConstraint(int[] variables, double[] coefficients,
+			MILPConstraintSense sense, double rightHandSide, String comment) {
+		if (variables.length != coefficients.length)
+			throw new IllegalArgumentException("Number of variables and coefficients differ.");
+		
+		return addRow(LINEAR, sense, rightHandSide, null, variables, coefficients, comment);
+	}
+	
+	/**
+	 * Returns the ID of a variable.
+	 * 
+	 * @param name The name of the variable.
+	 * @return The variable ID or -1 if no such variable has been declared or defined.
+	 */
+	public int getVariableID(String name) {
+		Integer id = variableIDs.get(name);
+		
+		return id == null ? -1 : id;
+	}
+	
+	/**
+	 * @return the number of variables
+	 */
+	public int getNumVariables() {
+		return numVariables;
+	}
+	
+	/**
+	 * @param id The variable ID.
+	 * @return the name of the variable
+	 */
+	public String getVariableName(int id) {
+		return variableNames[id];
+	}
+	
+	/**
+	 * @param id The variable ID.
+	 * @return the type of the variable or null if it is only defined by expressions
+	 */
+	public MILPVariableType getVariableType(int id) {
+		return variableTypes[id];
+	}
+	
+	/**
+	 * @param id The variable ID.
+	 * @return the number of rows of the variable
+	 */
+	public int getVariableRows(int id) {
+		return variableRows[id];
+	}
+	
+	/**
+	 * @param id The variable ID.
+	 * @return the number of columns of the variable
+	 */
+	public int getVariableColumns(int id) {
+		return variableColumns[id];
+	}
+	
+	/**
+	 * @return the number of constraint rows
+	 */
+	public int getNumConstraints() {
+		return numConstraints;
+	}
+	
+	/**
+	 * @param row The row index.
+	 * @return true if the row is a linear constraint
+	 */
+	public boolean isLinearConstraint(int row) {
+		return rowKinds[row] == LINEAR;
+	}
+	
+	/**
+	 * @param row The row index.
+	 * @return the expression of a logical row (null for linear rows)
+	 */
+	public String getConstraintExpression(int row) {
+		return rowExpressions.get(row);
+	}
+	
+	/**
+	 * @param row The row index.
+	 * @return the sense of a linear row
+	 */
+	public MILPConstraintSense getConstraintSense(int row) {
+		return rowSenses[row];
+	}
+	
+	/**
+	 * @param row The row index.
+	 * @return the right hand side of a linear row
+	 */
+	public double getConstraintRightHandSide(int row) {
+		return rowRightHandSides[row];
+	}
+	
+	/**
+	 * @param row The row index.
+	 * @return the index of the first term of the row (see {@link #getTermVariable(int)})
+	 */
+	public int getConstraintTermsStart(int row) {
+		return rowStarts[row];
+	}
+	
+	/**
+	 * @param row The row index.
+	 * @return the index after the last term of the row
+	 */
+	public int getConstraintTermsEnd(int row) {
+		return rowStarts[row + 1];
+	}
+	
+	/**
+	 * @param term The term index.
+	 * @return the variable ID of the term
+	 */
+	public int getTermVariable(int term) {
+		return termVariables[term];
+	}
+	
+	/**
+	 * @param term The term index.
+	 * @return the coefficient of the term
+	 */
+	public double getTermCoefficient(int term) {
+		return termCoefficients[term];
+	}
+	
+	/**
+	 * @return the number of statements
+	 */
+	public int getNumStatements() {
+		return numStatements;
+	}
+	
+	/**
+	 * @param statement The statement index.
+	 * @return the kind of the statement
+	 */
+	public MILPStatementKind getStatementKind(int statement) {
+		return statementKinds[statement];
+	}
+	
+	/**
+	 * @param statement The statement index of a declaration or definition.
+	 * @return the ID of the declared or defined variable
+	 */
+	public int getStatementVariable(int statement) {
+		return statementFirst[statement];
+	}
+	
+	/**
+	 * @param statement The statement index of a constraint block.
+	 * @return the first row of the block
+	 */
+	public int getStatementFirstConstraint(int statement) {
+		return statementFirst[statement];
+	}
+	
+	/**
+	 * @param statement The statement index of a constraint block.
+	 * @return the row after the last row of the block
+	 */
+	public int getStatementEndConstraint(int statement) {
+		return statementEnd[statement];
+	}
+	
+	/**
+	 * @param statement The statement index.
+	 * @return the text of the statement (comment text, defining expression, objective,
+	 * 		text to visualize or code)
+	 */
+	public String getStatementText(int statement) {
+		return statementTexts.get(statement);
+	}
+	
+	/**
+	 * @param statement The statement index.
+	 * @return the comment of a declaration, definition or constraint block
+	 */
+	public String getStatementComment(int statement) {
+		return statementComments.get(statement);
+	}
+	
+	/**
+	 * Returns the ID of a variable, adding it to the variable table first if necessary.
+	 * 
+	 * @param name The name of the variable.
+	 * @return The variable ID.
+	 */
+	private int getOrAddVariable(String name) {
+		Integer id = variableIDs.get(name);
+		
+		if (id != null)
+			return id;
+		
+		if (numVariables == variableNames.length) {
+			int capacity = 2 * numVariables;
+			
+			variableNames = Arrays.copyOf(variableNames, capacity);
+			variableTypes = Arrays.copyOf(variableTypes, capacity);
+			variableRows = Arrays.copyOf(variableRows, capacity);
+			variableColumns = Arrays.copyOf(variableColumns, capacity);
+		}
+		
+		variableNames[numVariables] = name;
+		variableRows[numVariables] = 1;
+		variableColumns[numVariables] = 1;
+		variableIDs.put(name, numVariables);
+		
+		return numVariables++;
+	}
+	
+	/**
+	 * Adds a constraint row, either to the open block or as a block of its own.
+	 * 
+	 * @return The row index.
+	 */
+	private int addRow(byte kind, MILPConstraintSense sense, double rightHandSide,
+			String expression, int[] variables, double[] coefficients, String comment) {
+		if (numConstraints == rowKinds.length) {
+			int capacity = 2 * numConstraints;
+			
+			rowKinds = Arrays.copyOf(rowKinds, capacity);
+			rowSenses = Arrays.copyOf(rowSenses, capacity);
+			rowRightHandSides = Arrays.copyOf(rowRightHandSides, capacity);
+			rowStarts = Arrays.copyOf(rowStarts, capacity + 1);
+		}
+		
+		int numTerms = rowStarts[numConstraints];
+		
+		if (variables != null) {
+			if (numTerms + variables.length > termVariables.length) {
+				int capacity = Math.max(2 * termVariables.length, numTerms + variables.length);
+				
+				termVariables = Arrays.copyOf(termVariables, capacity);
+				termCoefficients = Arrays.copyOf(termCoefficients, capacity);
+			}
+			
+			System.arraycopy(variables, 0, termVariables, numTerms, variables.length);
+			System.arraycopy(coefficients, 0, termCoefficients, numTerms, coefficients.length);
+			numTerms += variables.length;
+		}
+		
+		int row = numConstraints++;
+		
+		rowKinds[row] = kind;
+		rowSenses[row] = sense;
+		rowRightHandSides[row] = rightHandSide;
+		rowExpressions.add(expression);
+		rowStarts[numConstraints] = numTerms;
+		
+		if (openBlock != -1)
+			statementEnd[openBlock] = numConstraints;
+		else
+			addStatement(MILPStatementKind.CONSTRAINTS, row, null, comment);
+		
+		return row;
+	}
+	
+	/**
+	 * Adds a statement.
+	 * 
+	 * @return The statement index.
+	 */
+	private int addStatement(MILPStatementKind kind, int first, String text, String comment) {
+		if (numStatements == statementKinds.length) {
+			int capacity = 2 * numStatements;
+			
+			statementKinds = Arrays.copyOf(statementKinds, capacity);
+			statementFirst = Arrays.copyOf(statementFirst, capacity);
+			statementEnd = Arrays.copyOf(statementEnd, capacity);
+		}
+		
+		statementKinds[numStatements] = kind;
+		statementFirst[numStatements] = first;
+		statementEnd[numStatements] = (kind == MILPStatementKind.CONSTRAINTS ? numConstraints : -1);
+		statementTexts.add(text);
+		statementComments.add(comment == null ? "" : comment);
+		
+		return numStatements++;
+	}
+	
+}
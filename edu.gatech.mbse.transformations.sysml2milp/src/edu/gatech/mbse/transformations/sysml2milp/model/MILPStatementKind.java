@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.model;
+
+/**
+ * Kinds of statements in a {@link MILPModel}. The statements determine the order
+ * in which the model is written by a serializer.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public enum MILPStatementKind {
+	
+	/** A free-standing comment. */
+	COMMENT,
+	
+	/** A line separator (for readability of the output only). */
+	LINE_SEPARATOR,
+	
+	/** Declaration of a decision variable. */
+	VARIABLE_DECLARATION,
+	
+	/** Definition of a variable or constant by an expression. */
+	VARIABLE_DEFINITION,
+	
+	/** A block of constraint rows. */
+	CONSTRAINTS,
+	
+	/** The objective. */
+	OBJECTIVE,
+	
+	/** Text visualization in the target environment. */
+	TEXT_VISUALIZATION,
+	
+	/** Target-specific code that is passed through unchanged. */
+	CODE;
+	
+}
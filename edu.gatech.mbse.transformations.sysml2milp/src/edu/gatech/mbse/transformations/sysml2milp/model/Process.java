@@ -62,17 +62,16 @@ public class Process {
 	/** Corresponding Eclipse UML2 Action - this will be null for "virtual" process steps. */
 	private ActivityNode correspondingAction = null;
 	
-	/** Global instance count - used for ID generation. */
-	public static int globalID = 1;
-	
 	/** A process ID, unique to each process step within a larger process. */
 	private int iD = -1;
 	
 	/**
-	 * Default constructor
+	 * Constructor.
+	 * 
+	 * @param iD The process ID (see {@link edu.gatech.mbse.transformations.sysml2milp.TransformationContext#nextProcessID()}).
 	 */
-	public Process() {
-		iD = globalID++;
+	public Process(int iD) {
+		this.iD = iD;
 	}
 
 	/**
@@ -26,14 +26,15 @@
 package edu.gatech.mbse.transformations.sysml2milp.model;
 
 import java.util.ArrayList;
-import java.util.Map.Entry;
 
-import org.eclipse.uml2.uml.ActivityNode;
 import org.eclipse.uml2.uml.Element;
 
+import edu.gatech.mbse.transformations.sysml2milp.ConcreteResourceTable;
 import edu.gatech.mbse.transformations.sysml2milp.InternalCorrespondences;
 import edu.gatech.mbse.transformations.sysml2milp.MILPVariableType;
-import edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtils;
+import edu.gatech.mbse.transformations.sysml2milp.ResourceCompatibility;
+import edu.gatech.mbse.transformations.sysml2milp.StandardVariableNames;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
 
 /**
  * Class containing functions that parse the internal process model and generate constraints
@@ -45,12 +46,16 @@ import edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtils;
  */
 public class ProcessConstraintGenerator {
 	
+	/** The transformation context (internal correspondences). */
+	private final TransformationContext context;
+	
 	/**
 	 * Constructor.
 	 *
+	 * @param context The context of the transformation run.
 	 */
-	public ProcessConstraintGenerator() {
-		// TODO Auto-generated constructor stub
+	public ProcessConstraintGenerator(TransformationContext context) {
+		this.context = context;
 	}
 	
 	/**
@@ -60,34 +65,29 @@ public class ProcessConstraintGenerator {
 	 * the duration.
 	 * 
 	 * @param process The process to generate timing variables for.
-	 * @param milpGen The MILP code generation object.
-	 * @return A list of variable declarations in the target MILP syntax.
+	 * @param milpModel The MILP model to declare the variables in.
 	 */
-	public ArrayList<String> generateVariables(Process process,
-			MILPModel2TextUtils milpGen) {
-		ArrayList<String> variables = new ArrayList<String>();
-		
+	public void generateVariables(Process process,
+			MILPModel milpModel) {
 		// TODO Need access to a map from call behavior actions to working principles (with their IDs) to
 		// generate implies constraints (implies(IA1W1, .._duration >= optime))
 		
 		// Should be consistent with transformation
-		String processStepName = (process.getCorrespondingAction() == null ? "V" + process.getID() : "IA" + InternalCorrespondences.getActInstanceIDMapping().get(process.getCorrespondingAction()) + "W");
+		String processStepName = (process.getCorrespondingAction() == null ? "V" + process.getID() : "IA" + context.getCorrespondences().getActInstanceIDMapping().get(process.getCorrespondingAction()) + "W");
 		
 		// Generate a start and end variable, and a duration variable for each process, the subprocesses, and successors
-		variables.add(milpGen.generateVariableDeclaration("start" + processStepName, MILPVariableType.SDPVAR));
-		variables.add(milpGen.generateVariableDeclaration("end" + processStepName, MILPVariableType.SDPVAR));
-		variables.add(milpGen.generateVariableDeclaration(processStepName + "_Duration", MILPVariableType.SDPVAR));
+		milpModel.declareVariable("start" + processStepName, MILPVariableType.SDPVAR);
+		milpModel.declareVariable("end" + processStepName, MILPVariableType.SDPVAR);
+		milpModel.declareVariable(processStepName + "_Duration", MILPVariableType.SDPVAR);
 		
 		// Subprocesses
 		if (process.getSubProcesses() != null)
 			for (Process p : process.getSubProcesses())
-				variables.addAll(generateVariables(p, milpGen));
+				generateVariables(p, milpModel);
 		
 		// Successor
 		if (process.getSuccessor() != null)
-			variables.addAll(generateVariables(process.getSuccessor(), milpGen));
-		
-		return variables;
+			generateVariables(process.getSuccessor(), milpModel);
 	}
 	
 	/**
@@ -98,17 +98,20 @@ public class ProcessConstraintGenerator {
 	 * where the execution time of n parallel branches is determined by the
 	 * maximum time any of the n branches takes.
 	 * 
+	 * Precedence and timing constraints are added to the MILP model as linear constraints,
+	 * the remaining ones (maximum, implications) as logical constraints. The timing variables
+	 * must have been declared before (see {@link #generateVariables(Process, MILPModel)}).
+	 * 
 	 * @param process The process to generate these constraints for
-	 * @return An ordered list of constraints.
+	 * @param milpModel The MILP model to add the constraints to (in order).
 	 */
-	public ArrayList<String> generateTimingConstraints(Process process) {
-		ArrayList<String> constraints = new ArrayList<String>();
-		
+	public void generateTimingConstraints(Process process,
+			MILPModel milpModel) {
 		// TODO Need access to a map from call behavior actions to working principles (with their IDs) to
 		// generate implies constraints (implies(IA1W1, .._duration >= optime))
 		
 		// Should be consistent with transformation
-		String processStepName = (process.getCorrespondingAction() == null ? "V" + process.getID() : "IA" + InternalCorrespondences.getActInstanceIDMapping().get(process.getCorrespondingAction()) + "W");
+		String processStepName = (process.getCorrespondingAction() == null ? "V" + process.getID() : "IA" + context.getCorrespondences().getActInstanceIDMapping().get(process.getCorrespondingAction()) + "W");
 		
 		// Generate a start and end variable, and a duration variable for each process, the subprocesses, and successors
 		String startVariable = "start" + processStepName;
@@ -118,72 +121,106 @@ public class ProcessConstraintGenerator {
 		// Check if top level - if so, generate starting and ending constraint
 		if (process.getParentProcess() == null) {
 			// FIXME With this way of storing a process, there may be an opportunity for modeling this more nicely
-			constraints.add(startVariable + " >= 0");
-			constraints.add("Duration >= " + endVariable);
+			addPrecedenceConstraint(milpModel, new String[] { startVariable });
+			addPrecedenceConstraint(milpModel, new String[] { StandardVariableNames.TOTAL_DURATION, endVariable });
 		}
 		
 		// Generally applicable for all process steps
-		constraints.add(endVariable + " >= " + startVariable + " + " + durationVariable);		// Here, duration is duration of overall process!
+		addPrecedenceConstraint(milpModel, new String[] { endVariable, startVariable, durationVariable });		// Here, duration is duration of overall process!
 		
 		// Subprocesses
 		if (process.getSubProcesses() != null) {
 			// Need to build a string that represents total duration of this process
-			String maxDurationConstraint = "";
+			StringBuilder maxDurationConstraint = new StringBuilder();
 			
 			for (Process p : process.getSubProcesses()) {
-				if (!maxDurationConstraint.equals(""))
-					maxDurationConstraint += ", ";
+				if (maxDurationConstraint.length() > 0)
+					maxDurationConstraint.append(", ");
 
 				Process nextInChain = p;
 				int count = 0;
 				
 				// Sum of duration of process in parallel branch
 				while (nextInChain != null) {
-					String subProcessStepName = (nextInChain.getCorrespondingAction() == null ? "V" + nextInChain.getID() : "IA" + InternalCorrespondences.getActInstanceIDMapping().get(nextInChain.getCorrespondingAction()) + "W");
+					String subProcessStepName = (nextInChain.getCorrespondingAction() == null ? "V" + nextInChain.getID() : "IA" + context.getCorrespondences().getActInstanceIDMapping().get(nextInChain.getCorrespondingAction()) + "W");
 					String subDurationVariable = subProcessStepName + "_Duration";
 					
 					if (count > 0)
-						maxDurationConstraint += " + ";
+						maxDurationConstraint.append(" + ");
 					
-					maxDurationConstraint += subDurationVariable;
+					maxDurationConstraint.append(subDurationVariable);
 					
 					nextInChain = nextInChain.getSuccessor();
 					count++;
 				}
 				
-				constraints.addAll(generateTimingConstraints(p));
+				generateTimingConstraints(p, milpModel);
 			}
 			
 			// "Outer" virtual process must last at least as long as longest chain of "inner" processes / parallel branch
-			maxDurationConstraint = durationVariable + " >= max([" + maxDurationConstraint + "])";
-			constraints.add(maxDurationConstraint);
+			milpModel.addConstraint(durationVariable + " >= max([" + maxDurationConstraint + "])");
 		} else {	// Atomic step
 			// Duration depends on working principle
-			int wpIndex = 1;
-			String currentActWPID = processStepName + wpIndex++;
+			InternalCorrespondences correspondences = context.getCorrespondences();
+			Integer actionID = (process.getCorrespondingAction() == null ? null : correspondences.getActInstanceIDMapping().get(process.getCorrespondingAction()));
+			int numWorkingPrinciples = (actionID == null ? 0 : correspondences.getNumWorkingPrinciples(actionID));
 			
-			// Loop until no more working principles registered / known
-			while (InternalCorrespondences.getActivityInstanceWPIDIndex().get(currentActWPID) != null) {
+			// All working principles registered / known for the action
+			for (int wpIndex = 1; wpIndex <= numWorkingPrinciples; wpIndex++) {
+				String currentActWPID = correspondences.getColumnID(correspondences.getColumn(actionID, wpIndex));
+				
 				// Instead of "implies", use equality?
 				// Maybe: OR(NOT(IAxWy), IAxWy && Constraint)
-				constraints.add("implies(" + currentActWPID + ", " + durationVariable + " >= " + currentActWPID + "_operationTime)");
-				
-				currentActWPID = processStepName + wpIndex++;
+				milpModel.addConstraint("implies(" + currentActWPID + ", " + durationVariable + " >= " + currentActWPID + "_operationTime)");
 			}
 		}
 		
 		// Successor
 		if (process.getSuccessor() != null) {
-			String successorProcessStepName = (process.getSuccessor().getCorrespondingAction() == null ? "V" + process.getSuccessor().getID() : "IA" + InternalCorrespondences.getActInstanceIDMapping().get(process.getSuccessor().getCorrespondingAction()) + "W");
+			String successorProcessStepName = (process.getSuccessor().getCorrespondingAction() == null ? "V" + process.getSuccessor().getID() : "IA" + context.getCorrespondences().getActInstanceIDMapping().get(process.getSuccessor().getCorrespondingAction()) + "W");
 			String successorStartVariable = "start" + successorProcessStepName;
 			
 			// Precedence constraint
-			constraints.add(successorStartVariable + " >= " + endVariable);
+			addPrecedenceConstraint(milpModel, new String[] { successorStartVariable, endVariable });
 			
-			constraints.addAll(generateTimingConstraints(process.getSuccessor()));
+			generateTimingConstraints(process.getSuccessor(), milpModel);
 		}
+	}
+	
+	/**
+	 * Adds a linear constraint of the form first >= second + third + ... (or first >= 0
+	 * if only one variable is given) to the MILP model.
+	 * <P>
+	 * Falls back to a logical constraint if one of the variables has not been declared
+	 * in the MILP model.
+	 * 
+	 * @param milpModel The MILP model to add the constraint to.
+	 * @param variables The names of the variables.
+	 */
+	private void addPrecedenceConstraint(MILPModel milpModel, String[] variables) {
+		int[] variableIDs = new int[variables.length];
+		double[] coefficients = new double[variables.length];
 		
-		return constraints;
+		for (int i = 0; i < variables.length; i++) {
+			variableIDs[i] = milpModel.getVariableID(variables[i]);
+			coefficients[i] = (i == 0 ? 1 : -1);
+			
+			if (variableIDs[i] == -1) {
+				StringBuilder expression = new StringBuilder(variables[0] + " >= ");
+				
+				if (variables.length == 1)
+					expression.append("0");
+				
+				for (int j = 1; j < variables.length; j++)
+					expression.append((j > 1 ? " + " : "") + variables[j]);
+				
+				milpModel.addConstraint(expression.toString());
+				
+				return;
+			}
+		}
+		
+		milpModel.addLinearConstraint(variableIDs, coefficients, MILPConstraintSense.GREATER_OR_EQUAL, 0);
 	}
 	
 	/**
@@ -216,40 +253,14 @@ public class ProcessConstraintGenerator {
 						
 						for (int x = 0; x < branch1.size(); x++) {
 							Process step1 = branch1.get(x);
-							String step1ConstraintPart = "";
 							
-							for (Entry<Entry<ActivityNode,Element>,Integer> e : InternalCorrespondences.getActivityNodeWPIndex().entrySet()) {
-								Entry<ActivityNode,Element> key = e.getKey();
-								int index = e.getValue();
-								
-								if (key.getKey() == step1.getCorrespondingAction()) {
-									if (!step1ConstraintPart.equals(""))
-										step1ConstraintPart += " + ";
-									
-									// Note that this column will be filled with zeros if the activity is not realized by the
-									// particular working principle in the solution
-									step1ConstraintPart += "A(:," + index + ")";
-								}
-							}
+							// Sum of the columns of the step (rendered once per action, see InternalCorrespondences)
+							String step1ConstraintPart = columnSum(step1);
 							
 							for (int y = 0; y < branch2.size(); y++) {
 								// Generate constraint here
 								Process step2 = branch2.get(y);
-								String step2ConstraintPart = "";
-								
-								for (Entry<Entry<ActivityNode,Element>,Integer> e : InternalCorrespondences.getActivityNodeWPIndex().entrySet()) {
-									Entry<ActivityNode,Element> key = e.getKey();
-									int index = e.getValue();
-									
-									if (key.getKey() == step2.getCorrespondingAction()) {
-										if (!step2ConstraintPart.equals(""))
-											step2ConstraintPart += " + ";
-										
-										// Note that this column will be filled with zeros if the activity is not realized by the
-										// particular working principle in the solution
-										step2ConstraintPart += "A(:," + index + ")";
-									}
-								}
+								String step2ConstraintPart = columnSum(step2);
 								
 								// Have all the parts we need - add it. Verbally, this constraint ensures that no resource from one branch
 								// is allocated to an activity of another branch that is executed in parallel
@@ -280,6 +291,20 @@ public class ProcessConstraintGenerator {
 		return constraints;
 	}
 	
+	/**
+	 * Returns the sum of the allocation matrix columns of a process step (one per
+	 * working principle that can implement its action).
+	 * 
+	 * @param step The process step.
+	 * @return The sum of the columns (e.g., A(:,1) + A(:,2)), empty if there are none.
+	 */
+	private String columnSum(Process step) {
+		if (step.getCorrespondingAction() == null)
+			return "";
+		
+		return context.getCorrespondences().getColumnSumExpression(step.getCorrespondingAction());
+	}
+	
 	/**
 	 * Generate variables for utilization constraints.
 	 * <P>
@@ -292,66 +317,58 @@ public class ProcessConstraintGenerator {
 	 * internal throughput variable TH.
 	 * 
 	 * @param resources A list of concrete resources
-	 * @param milpGen The MILP code generator.
-	 * @return A list of variable definitions holding the busy time of each 
+	 * @param milpModel The MILP model to define the variables (holding the busy time of
+	 * 		each resource instance) in.
 	 */
-	public ArrayList<String> generateUtilizationVariables(ArrayList<Element> resources,
-			MILPModel2TextUtils milpGen) {
-		ArrayList<String> variables = new ArrayList<String>();
+	public void generateUtilizationVariables(ArrayList<Element> resources,
+			MILPModel milpModel) {
 		int machineIndex = 0;
-		String maxExpr = "";
+		StringBuilder maxExpr = new StringBuilder();
+		ResourceCompatibility compatibility = context.getCorrespondences().getResourceCompatibility();
 		
 		// Create variables
 		for (Element resource : resources) {
-			int resID = InternalCorrespondences.getResourceTypeMachineIDMapping().get(resource);
-			String varName = "M" + resID;
+			ConcreteResourceTable.ConcreteResource rows = context.getCorrespondences().getConcreteResourceTable().getRows(resource);
+			String varName = "M" + rows.getMachineID();
 			
-			for (int instanceID : InternalCorrespondences.getResourceTypeInstanceIDMapping().get(resource)) {
-				if (!maxExpr.equals(""))
-					maxExpr += ", ";
+			// Instances are numbered 1..n
+			for (int instanceID = 1; instanceID <= rows.getNumInstances(); instanceID++) {
+				if (maxExpr.length() > 0)
+					maxExpr.append(", ");
 				
-				String value = "";
+				StringBuilder value = new StringBuilder();
 				
 				machineIndex++;
 				
 				// Build expression for value
-				for (Entry<String,Entry<ActivityNode, Element>> actWPID : InternalCorrespondences.getActivityNodeWPIDToElementsMapping().entrySet()) {
-					if (!value.equals(""))
-						value += " + ";
+				for (int i = 0; i < compatibility.getNumColumns(); i++) {
+					if (value.length() > 0)
+						value.append(" + ");
 					
-					int actWPIndex = InternalCorrespondences.getActivityNodeWPIndex().get(actWPID.getValue());
-					
-					value += "A(" + machineIndex + "," + actWPIndex + ")*" + actWPID.getKey() + "_operationTime";
+					value.append("A(" + machineIndex + "," + compatibility.getColumnIndex(i) + ")*" + compatibility.getColumnID(i) + "_operationTime");
 				}
 				
-				maxExpr += "I" + instanceID + varName + "_busyTime";
+				maxExpr.append("I" + instanceID + varName + "_busyTime");
 				
-				variables.add(milpGen.generateVariableDeclaration("I" + instanceID + varName + "_busyTime", value, "Busy time of resource"));
+				milpModel.defineVariable("I" + instanceID + varName + "_busyTime", value.toString(), "Busy time of resource");
 			}
 		}
 		
-		if (!maxExpr.equals("")) {
-			variables.add(milpGen.generateVariableDeclaration("MaxBusyTime", "max([" + maxExpr + "])", "Maximum busy time for a resource (determines throughput)"));
-			variables.add(milpGen.generateVariableDeclaration("TH", "1 / MaxBusyTime", "Maximum sustainable throughput - determined by most busy resource"));
+		if (maxExpr.length() > 0) {
+			milpModel.defineVariable("MaxBusyTime", "max([" + maxExpr + "])", "Maximum busy time for a resource (determines throughput)");
+			milpModel.defineVariable("TH", "1 / MaxBusyTime", "Maximum sustainable throughput - determined by most busy resource");
 		}
-		
-		return variables;
 	}
 	
 	/**
 	 * Generate variables for utilization constraints.
 	 * 
-	 * @param milpGen The MILP code generator object.
-	 * @return Declaration of throughput variable TH.
+	 * @param milpModel The MILP model to declare the throughput variable TH in.
 	 * @deprecated Should not be used since result is computationally inefficient.
 	 */
-	public ArrayList<String> generateUtilizationVariablesWithThroughputAsDesignVariable(
-			MILPModel2TextUtils milpGen) {
-		ArrayList<String> variables = new ArrayList<String>();
-		
-		variables.add(milpGen.generateVariableDeclaration("TH", MILPVariableType.SDPVAR, "Throughput"));
-		
-		return variables;
+	public void generateUtilizationVariablesWithThroughputAsDesignVariable(
+			MILPModel milpModel) {
+		milpModel.declareVariable("TH", MILPVariableType.SDPVAR, "Throughput");
 	}
 	
 	/**
@@ -365,19 +382,20 @@ public class ProcessConstraintGenerator {
 	public ArrayList<String> generateUtilizationConstraintsWithThroughputAsDesignVariable(
 			ArrayList<Element> resources) {
 		int machineIndex = 0;
-		short[] startingPoint = new short[InternalCorrespondences.getActivityInstanceWPIDIndex().size()];
+		InternalCorrespondences correspondences = context.getCorrespondences();
+		short[] startingPoint = new short[correspondences.getNumColumns()];
 		ArrayList<String> constraints = new ArrayList<String>((int) Math.pow(2, startingPoint.length)*resources.size());
 		
 		// Pre-compute possible ActWP combinations (represented as binary numbers)
 		ArrayList<short[]> allCombinations = computeAllCombinations(startingPoint);
-		ArrayList<String> actWPIDs = new ArrayList<String>(InternalCorrespondences.getActivityInstanceWPIDIndex().keySet());
+		int[] actWPIndexes = correspondences.getColumnsInIDOrder();
 
 		// Bounds on throughput
 		constraints.add("0 <= TH <= 1");
 		
 		// Generate all possible combinations of working principles
 		for (Element resource : resources) {
-			for (int instanceID : InternalCorrespondences.getResourceTypeInstanceIDMapping().get(resource)) {
+			for (int instanceID : context.getCorrespondences().getResourceTypeInstanceIDMapping().get(resource)) {
 				machineIndex++;
 				
 				for (short[] currentCombination : allCombinations) {
@@ -385,8 +403,8 @@ public class ProcessConstraintGenerator {
 					String impliedConstraint = "";
 					int counter = 0;
 					
-					for (String currentActWPID : actWPIDs) {
-						int actWPIndex = InternalCorrespondences.getActivityNodeWPIndex().get(InternalCorrespondences.getActivityNodeWPIDToElementsMapping().get(currentActWPID));
+					for (int actWPIndex : actWPIndexes) {
+						String currentActWPID = correspondences.getColumnID(actWPIndex);
 						
 						if (!currentString.equals(""))
 							currentString += " & ";
@@ -44,7 +44,7 @@ import org.eclipse.uml2.uml.OutputPin;
 import org.eclipse.uml2.uml.ParameterDirectionKind;
 import org.eclipse.uml2.uml.Pin;
 
-import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
 
 /**
  * Generates a {@link Process} from an Eclipse UML2 Activity.
@@ -65,13 +65,15 @@ public class ProcessFlattener {
 	 * point.
 	 * 
 	 * @param startingPoint The starting activity.
+	 * @param context The transformation context (object flows, process IDs).
 	 * @return An internal process representation.
 	 */
-	public static Process toProcess(Activity startingPoint) {
+	public static Process toProcess(Activity startingPoint, TransformationContext context) {
 		// FIXME Ensure virtual process step for each parallel branch
 		
-		Process topLevelProcess = new Process();
-		topLevelProcess.globalID = 1;
+		// Process IDs of the steps restart at 1 after the top level process
+		Process topLevelProcess = new Process(context.nextProcessID());
+		context.resetProcessIDs();
 		
 		ArrayList<ActivityNode> nextNodes = new ArrayList<ActivityNode>();
 		
@@ -92,24 +94,24 @@ public class ProcessFlattener {
 				if (p.getParameter().getDirection() == ParameterDirectionKind.IN_LITERAL
 						|| p.getParameter().getDirection() == ParameterDirectionKind.INOUT_LITERAL
 						/*&& TransformationHelper.isWorkpiece(p.getType())*/) {
-					nextNodes = findNextActions(p);
+					nextNodes = findNextActions(p, context);
 					
 					// Starting point(s)
 					for (ActivityNode node : nextNodes) {
 						// FIXME Should probably surround by a virtual process if multiple starting points
 						
 						// Create corresponding process
-						Process subProcess = new Process();
+						Process subProcess = new Process(context.nextProcessID());
 						subProcess.setCorrespondingAction(node);
 						
 						// Add as sub process
 						topLevelProcess.addSubProcess(subProcess);
 						subProcess.setParentProcess(topLevelProcess);
 						
-						ActivityNode nextNode = handleProcessBranch(subProcess);
+						ActivityNode nextNode = handleProcessBranch(subProcess, context);
 						
 						while (nextNode != null) {
-							nextNode = handleProcessBranch(subProcess);
+							nextNode = handleProcessBranch(subProcess, context);
 						}
 					}
 				}
@@ -124,20 +126,21 @@ public class ProcessFlattener {
 	 * representing a point of joining / merging if it has been reached.
 	 * 
 	 * @param processStep The particular process step to handle.
+	 * @param context The transformation context.
 	 * @return The next action or a join or fork node.
 	 */
-	private static ActivityNode handleProcessBranch(Process processStep) {
+	private static ActivityNode handleProcessBranch(Process processStep, TransformationContext context) {
 		ActivityNode toReturn = null;
 		
 		// Recursively add subprocesses, and add successors
-		ArrayList<ActivityNode> nextN = findNextActions(processStep.getCorrespondingAction());
+		ArrayList<ActivityNode> nextN = findNextActions(processStep.getCorrespondingAction(), context);
 		
 		// If there is only one next node - no parallelization
 		if (nextN.size() == 1) {
 			// FIXME Since used in a couple of places, change to isMergePoint(ActivityNode)
 			if (!(nextN.get(0) instanceof JoinNode)) {
 				// Create a new process step as the successor
-				Process successor = new Process();
+				Process successor = new Process(context.nextProcessID());
 				successor.setCorrespondingAction(nextN.get(0));
 				
 				// Add this new process step as successor
@@ -145,14 +148,14 @@ public class ProcessFlattener {
 				successor.setPredecessor(processStep);
 				successor.setParentProcess(processStep.getParentProcess());
 				
-				handleProcessBranch(successor);
+				handleProcessBranch(successor, context);
 			}
 			else
 				return nextN.get(0);
 		}
 		else if (nextN.size() > 1) {
 			// Create a virtual process step, which contains multiple parallel tracks
-			Process virtual = new Process();
+			Process virtual = new Process(context.nextProcessID());
 			processStep.setSuccessor(virtual);
 			virtual.setPredecessor(processStep);
 			virtual.setParentProcess(processStep.getParentProcess());
@@ -163,7 +166,7 @@ public class ProcessFlattener {
 			for (ActivityNode n : nextN) {
 				// For each parallel process, create a chain of processes that are sub processes
 				// of the virtual one
-				Process subProcess = new Process();
+				Process subProcess = new Process(context.nextProcessID());
 				subProcess.setCorrespondingAction(n);
 				
 				// Add the chain of processes as a virtual sub-process
@@ -171,7 +174,7 @@ public class ProcessFlattener {
 				subProcess.setParentProcess(virtual);
 				
 				// Detail the sub-process
-				ActivityNode endPoint = handleProcessBranch(subProcess);
+				ActivityNode endPoint = handleProcessBranch(subProcess, context);
 				
 				if (endPoint != null
 						&& !endPoints.contains(endPoint))
@@ -180,9 +183,9 @@ public class ProcessFlattener {
 			
 			for (ActivityNode endPoint : endPoints) {
 				virtual.setCorrespondingAction(endPoint);
-				toReturn = handleProcessBranch(virtual);
+				toReturn = handleProcessBranch(virtual, context);
 				while (toReturn != null) {
-					toReturn = handleProcessBranch(virtual);
+					toReturn = handleProcessBranch(virtual, context);
 				}
 				virtual.setCorrespondingAction(null);
 			}
@@ -196,9 +199,10 @@ public class ProcessFlattener {
 	 * activity node.
 	 * 
 	 * @param sourceNode The source node to start from.
+	 * @param context The transformation context (object flows).
 	 * @return The next action, determined by following object flows.
 	 */
-	private static ArrayList<ActivityNode> findNextActions(NamedElement sourceNode) {
+	private static ArrayList<ActivityNode> findNextActions(NamedElement sourceNode, TransformationContext context) {
 		ArrayList<ActivityNode> targets = new ArrayList<ActivityNode>();
 		
 		//if (sourceNode instanceof JoinNode) {
@@ -212,19 +216,22 @@ public class ProcessFlattener {
 			// Extract pins with output
 			for (OutputPin pin : ((Action) sourceNode).getOutputs()) {
 				// Call findNextActions and add to targets array
-				targets.addAll(findNextActions((NamedElement) pin));
+				targets.addAll(findNextActions((NamedElement) pin, context));
 			}
 		}
 		else {
 			// Collect object flows that have sourceNode as source and return all targets
 			// FIXME Assumes object flow only
-			for (ObjectFlow flow : TransformationCache.getObjectFlowList()) {
-				if (flow.getSource() == sourceNode && flow.getTarget() != sourceNode && flow.getTarget() instanceof ActivityNode) {
+			if (!(sourceNode instanceof ActivityNode))
+				return targets;
+			
+			for (ObjectFlow flow : context.getCache().getObjectFlowIndex().getOutgoingFlows((ActivityNode) sourceNode)) {
+				if (flow.getTarget() != sourceNode && flow.getTarget() instanceof ActivityNode) {
 					// FIXME decision nodes not supported
 					// Skip any merge, fork, decision or joins
 					if (flow.getTarget() instanceof ForkNode
 							/*|| hasMultipleOutflows(flow.getTarget())*/) {
-						targets.addAll(findNextActions(flow.getTarget()));
+						targets.addAll(findNextActions(flow.getTarget(), context));
 					}
 					else if (flow.getTarget() instanceof JoinNode) {
 						targets.add(flow.getTarget());
@@ -301,9 +308,10 @@ public class ProcessFlattener {
 	 * in determining merge points.
 	 * 
 	 * @param node The node to check.
+	 * @param context The transformation context (object flows).
 	 * @return true if the ActivityNode has multiple inflows.
 	 */
-	public static boolean hasMultipleObjectInflows(ActivityNode node) {
+	public static boolean hasMultipleObjectInflows(ActivityNode node, TransformationContext context) {
 		if (!(node instanceof Action))
 			return false;
 		
@@ -316,8 +324,8 @@ public class ProcessFlattener {
 		
 		for (InputPin in : ((Action) node).getInputs()) {
 			// Check source - if not same, then has multiple (from different actions)
-			for (ObjectFlow flow : TransformationCache.getObjectFlowList()) {
-				if (flow.getTarget() == in && flow.getSource() != in) {
+			for (ObjectFlow flow : context.getCache().getObjectFlowIndex().getIncomingFlows(in)) {
+				if (flow.getSource() != in) {
 					if (!sources.contains(flow.getSource()))
 						numUniqueInflows++;
 					
@@ -337,9 +345,10 @@ public class ProcessFlattener {
 	 * Returns true if the given node has multiple output parameters.
 	 * 
 	 * @param node The ActivityNode to check.
+	 * @param context The transformation context (object flows).
 	 * @return true if the specified node has multiple outflows.
 	 */
-	public static boolean hasMultipleObjectOutflows(ActivityNode node) {
+	public static boolean hasMultipleObjectOutflows(ActivityNode node, TransformationContext context) {
 		if (!(node instanceof Action))
 			return false;
 		
@@ -352,8 +361,8 @@ public class ProcessFlattener {
 		
 		for (OutputPin out : ((Action) node).getOutputs()) {
 			// Check source - if not same, then has multiple (from different actions)
-			for (ObjectFlow flow : TransformationCache.getObjectFlowList()) {
-				if (flow.getSource() == out && flow.getTarget() != out) {
+			for (ObjectFlow flow : context.getCache().getObjectFlowIndex().getOutgoingFlows(out)) {
+				if (flow.getTarget() != out) {
 					if (!targets.contains(flow.getTarget()))
 						numUniqueOutflows++;
 					
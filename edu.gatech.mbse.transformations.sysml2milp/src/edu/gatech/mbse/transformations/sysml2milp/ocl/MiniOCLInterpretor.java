@@ -27,6 +27,7 @@ package edu.gatech.mbse.transformations.sysml2milp.ocl;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -43,9 +44,7 @@ import org.eclipse.uml2.uml.Namespace;
 import org.eclipse.uml2.uml.Property;
 import org.eclipse.uml2.uml.TypedElement;
 
-import edu.gatech.mbse.transformations.sysml2milp.InternalCorrespondences;
-import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
-import edu.gatech.mbse.transformations.sysml2milp.TransformationState;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
 import edu.gatech.mbse.transformations.sysml2milp.utils.DSEMLUtils;
 import edu.gatech.mbse.transformations.sysml2milp.utils.UMLModelUtils;
 
@@ -64,9 +63,6 @@ public class MiniOCLInterpretor {
 	/** Log4J object. */
 	private static final Logger logger = LogManager.getLogger(MiniOCLInterpretor.class.getName());
 	
-	/** Remove in future, if possible. */
-	public static Element rootModelElement = null;
-	
 	/**
 	 * Interpret a full expression.
 	 * <P>
@@ -77,9 +73,11 @@ public class MiniOCLInterpretor {
 	 * @param e The element associated with the expression (e.g., a Property or Constraint).
 	 * @param expression The expression to be interpreted in String form.
 	 * @param context The context in which the element lies (usually the parent of e).
+	 * @param transformationContext The context of the transformation run.
 	 * @return An interpreted expression.
 	 */
-	public static String interpretExpression(Element e, String expression, Element context) {
+	public static String interpretExpression(Element e, String expression, Element context,
+			TransformationContext transformationContext) {
 		if(expression == null)
 			return "";
 
@@ -111,15 +109,16 @@ public class MiniOCLInterpretor {
 		Pattern pattern = Pattern.compile("((\\+)|((\\>(\\=)*))|(\\<(\\=)*)|(\\=\\=)|(\\-((^\\\\>)))|(\\*)|(\\/)|(\\))|(\\()|(([a-zA-Z_:0-9.]+|\\-\\>|\\(\\))+)|\\-)");
 		Matcher m = pattern.matcher(expression.replace(" ", ""));
 		while (m.find()) {
-			milpCode += interpret(e, m.group(), context);
+			milpCode += interpret(e, m.group(), context, transformationContext);
 		}
 		
 		return milpCode;
 	}
 	
-	/** @see #interpretExpression(Element, String, Element) */
-	public static String interpretExpression(Element e, String expression) {
-		return interpretExpression(e, expression, null);
+	/** @see #interpretExpression(Element, String, Element, TransformationContext) */
+	public static String interpretExpression(Element e, String expression,
+			TransformationContext transformationContext) {
+		return interpretExpression(e, expression, null, transformationContext);
 	}
 	
 	/**
@@ -205,9 +204,12 @@ public class MiniOCLInterpretor {
 	 * @param e The element the expression originates from (typically a constraint
 	 * 		or property object).
 	 * @param expression The term to interpret and transform.
+	 * @param context The context in which the element lies (usually the parent of e).
+	 * @param transformationContext The context of the transformation run.
 	 * @return An interpreted (and transformed) expression.
 	 */
-	public static String interpret(Element e, String expression, Element context) {
+	public static String interpret(Element e, String expression, Element context,
+			TransformationContext transformationContext) {
 		boolean setSelected = false;
 		boolean classifierSelected = false;
 		
@@ -249,7 +251,7 @@ public class MiniOCLInterpretor {
 					// FIXME Set appropriate context here
 				}
 				else if (token.equals("{resources}.") && DSEMLUtils.isWorkingPrinciple(parent)) {
-					res = DSEMLUtils.getAssociatedConcreteResources((Activity) parent, TransformationCache.getResources());
+					res = DSEMLUtils.getAssociatedConcreteResources((Activity) parent, transformationContext.getCache().getResources());
 				}
 				else if (token.endsWith(".")) {		// A property common to all previous reference elements (or current) (path), or a Class
 					logger.trace("Just called " + token);
@@ -271,7 +273,7 @@ public class MiniOCLInterpretor {
 						}
 						else {
 							Element prevElement = currentElementInNavChain;
-							currentElementInNavChain = UMLModelUtils.findClassifierByQualifiedName(token.replace(".", ""), e.getModel());
+							currentElementInNavChain = transformationContext.getCache().getNameIndex(e.getModel()).findClassifierByQualifiedName(token.replace(".", ""));
 							
 							if (currentElementInNavChain == null) {
 								// Note: this happened when a parameter name and pin name were out of sync
@@ -294,20 +296,20 @@ public class MiniOCLInterpretor {
 
 						// FIXME Put this into a separate function
 						for (Element resource : res) {
-							String defaultValue = interpret(resource, UMLModelUtils.getDefaultValue(UMLModelUtils.getProperty(resource, quantifiedElement)));
+							String defaultValue = interpret(resource, UMLModelUtils.getDefaultValue(UMLModelUtils.getProperty(resource, quantifiedElement)), transformationContext);
 							
 							if (defaultValue != null && !defaultValue.equals("") && !defaultValue.equals("null")) {
 								if (!toRet.equals(""))
 									toRet += " + ";
 								
-								ArrayList<Integer> instances = InternalCorrespondences.getResourceTypeInstanceIDMapping().get(resource);
+								ArrayList<Integer> instances = transformationContext.getCorrespondences().getResourceTypeInstanceIDMapping().get(resource);
 								if (instances != null && instances.size() != 0) {
 									for (int i=0; i<instances.size(); i++) {
 										if (i > 0)
 											toRet += " + ";
 										
 										// Only for current activity considered
-										toRet += defaultValue + "*A(" + InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(resource, i+1) + "," + TransformationState.CURRENT_ACTION_WP_COUNT + ")"; 
+										toRet += defaultValue + "*A(" + transformationContext.getCorrespondences().getAllocationMatrixResourceInstanceIndex(resource, i+1) + "," + transformationContext.getState().currentActionWPCount + ")"; 
 									}
 								}
 								
@@ -332,7 +334,7 @@ public class MiniOCLInterpretor {
 						Element navigatedOwner = currentElementInNavChain;
 						currentElementInNavChain = UMLModelUtils.getProperty(currentElementInNavChain, quantifiedElement);
 						
-						String expr = oclBuildSetExpression(currentElementInNavChain, quantifiedElement, navigatedOwner, parent, ignoreComposites);
+						String expr = oclBuildSetExpression(currentElementInNavChain, quantifiedElement, navigatedOwner, parent, ignoreComposites, transformationContext);
 						
 						if (!expr.equals(""))
 							return expr;
@@ -355,14 +357,14 @@ public class MiniOCLInterpretor {
 							String toRet = "";
 							
 							// Get any related concrete types (if constraint is on an abstract type)
-							for (Element resource : TransformationCache.getResources()) {
+							for (Element resource : transformationContext.getCache().getResources()) {
 								if (DSEMLUtils.isTypeOfResource((Classifier) currentElementInNavChain, (Classifier) resource))
 									resourcesToConsider.add(resource);
 							}
 							
 							// Externalize this part: same thing is used below
 							for (Element resource : resourcesToConsider) {
-								int machineID = InternalCorrespondences.getResourceTypeMachineIDMapping().get(resource);
+								int machineID = transformationContext.getCorrespondences().getResourceTypeMachineIDMapping().get(resource);
 								
 								if (!toRet.equals(""))
 									toRet += " + sum(";
@@ -396,8 +398,8 @@ public class MiniOCLInterpretor {
 							
 							// Abstract resource types to consider
 							for (Element resourceType : DSEMLUtils.getImmediateResourceTypes(
-									TransformationCache.getAllWorkingPrinciples())) {
-								resourcesToConsider.addAll(DSEMLUtils.getConcreteResources(resourceType, TransformationCache.getResources()));		// Concrete types
+									transformationContext.getCache().getAllWorkingPrinciples())) {
+								resourcesToConsider.addAll(DSEMLUtils.getConcreteResources(resourceType, transformationContext.getCache().getResources()));		// Concrete types
 								
 								// Also add composites
 								if (DSEMLUtils.isCompositeResource(resourceType))
@@ -405,7 +407,7 @@ public class MiniOCLInterpretor {
 							}
 							
 							for (Element resource : resourcesToConsider) {
-								int machineID = InternalCorrespondences.getResourceTypeMachineIDMapping().get(resource);
+								int machineID = transformationContext.getCorrespondences().getResourceTypeMachineIDMapping().get(resource);
 								
 								if (!toRet.equals(""))
 									toRet += " + sum(";
@@ -453,26 +455,26 @@ public class MiniOCLInterpretor {
 								// If this is a special property, handle it accordingly
 								if (DSEMLUtils.isThroughputProperty((Property) currentElementInNavChain)) {
 									if(DSEMLUtils.isObjective(((Constraint) e)))
-										TransformationState.MUST_OPTIMIZE_THROUGHPUT = true;
+										transformationContext.getState().mustOptimizeThroughput = true;
 								}
 							}
 							
 							// If the resource is abstract, collect concrete ones
 							if (DSEMLUtils.isResource(navigatedOwner)) {
-								ArrayList<Element> concreteResources = new ArrayList<Element>();
+								List<Element> concreteResources = new ArrayList<Element>();
 								
 								if (UMLModelUtils.isAbstract((Classifier) navigatedOwner))
-									concreteResources = DSEMLUtils.getConcreteResourcesForAbstractResourceType(TransformationCache.getResources(), navigatedOwner);
+									concreteResources = transformationContext.getCorrespondences().getConcreteResourceTable().getConcreteResources(navigatedOwner);
 								else
 									concreteResources.add(navigatedOwner);
 								
 								// Each of these should have the same property (whether redefined or inherited)
 								String toRet = "";
 								for (Element conc : concreteResources) {
-									if (conc != null && InternalCorrespondences.getResourceTypeMachineIDMapping().get(conc) != null) {
-										int machineID = InternalCorrespondences.getResourceTypeMachineIDMapping().get(conc);
+									if (conc != null && transformationContext.getCorrespondences().getResourceTypeMachineIDMapping().get(conc) != null) {
+										int machineID = transformationContext.getCorrespondences().getResourceTypeMachineIDMapping().get(conc);
 										
-										ArrayList<Integer> instances = InternalCorrespondences.getResourceTypeInstanceIDMapping().get(conc);
+										ArrayList<Integer> instances = transformationContext.getCorrespondences().getResourceTypeInstanceIDMapping().get(conc);
 										
 										if (instances != null) {
 											for (int instance : instances) {
@@ -486,12 +488,12 @@ public class MiniOCLInterpretor {
 												if (DSEMLUtils.isCompositeResource(parent)) {
 													// compositeMachineInstances is incremented with every instance of a composite resource - since the
 													// lists are ordered, this should not pose a problem...
-													int compInstID = TransformationState.CURRENT_COMPOSITE_RESOURCE_INSTANCE_ID;
+													int compInstID = transformationContext.getState().currentCompositeResourceInstanceID;
 													
-													compositeAllocID = "C(" + InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + compInstID + ")*";
+													compositeAllocID = "C(" + transformationContext.getCorrespondences().getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + compInstID + ")*";
 												}
 												
-												String allocID = "A(" + InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + TransformationState.CURRENT_ACTION_WP_COUNT + ")";
+												String allocID = "A(" + transformationContext.getCorrespondences().getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + transformationContext.getState().currentActionWPCount + ")";
 										
 												// Need to now consider allocations
 												// FIXME Also this is somewhat of a weird hack... assumes that there is only 1 comp. resource per WP
@@ -502,7 +504,7 @@ public class MiniOCLInterpretor {
 													// Allocated resources
 													allocID = "min(1, sum(A(" + this.getAllocationMatrixResourceInstanceIndex(conc, instance) + ",:)))";
 												}
-												else */if (TransformationState.CURRENT_ACTION_WP_COUNT == 0)		// Not yet translating process...
+												else */if (transformationContext.getState().currentActionWPCount == 0)		// Not yet translating process...
 													allocID = instanceID;
 												
 												toRet += compositeAllocID + allocID + "*" + instanceID + "_" + token;
@@ -528,15 +530,15 @@ public class MiniOCLInterpretor {
 							}
 							
 							// Parameters of activities
-							if (DSEMLUtils.isWorkingPrincipleAtSomeLevel(navigatedOwner, TransformationCache.getAllWorkingPrinciples())) {
+							if (DSEMLUtils.isWorkingPrincipleAtSomeLevel(navigatedOwner, transformationContext.getCache().getWorkingPrincipleIndex())) {
 								//Parameter param = extractParameter((Activity) navigatedOwner, token);
 								
 								// In this case, we need to refer to activity "instances"
 								// TODO Analyze whether this is sensible - we're making a few assumptions here, I think...
 								String value = DSEMLUtils.getInterpretedParameterValue(
-										(CallBehaviorAction) TransformationState.CURRENT_ACTION,
+										(CallBehaviorAction) transformationContext.getState().currentAction,
 										token,
-										TransformationCache.getObjectFlowList());
+										transformationContext);
 								
 								if (value != null
 										&& !value.equals("")
@@ -545,7 +547,7 @@ public class MiniOCLInterpretor {
 								
 								// Otherwise return the declared variable
 								// FIXME For any level of activity connected to a WP
-								return "IA" + TransformationState.CURRENT_ACTION_COUNT + "W" + TransformationState.CURRENT_WORKING_PRINCIPLE_COUNT + "_" + token;
+								return "IA" + transformationContext.getState().currentActionCount + "W" + transformationContext.getState().currentWorkingPrincipleCount + "_" + token;
 							}
 							
 							// If this failed, check to see whether this is an abstract type
@@ -567,7 +569,7 @@ public class MiniOCLInterpretor {
 								//		 A way around it: secondary work pieces should NOT inherit from GenericWorkPiece
 								//		 --> Maybe rename GenericWorkPiece to GenericProduct or something?
 								
-								Classifier workpiece = DSEMLUtils.getFirstWorkpiece(rootModelElement);
+								Classifier workpiece = transformationContext.getCache().getFirstWorkpiece();
 								
 								if (workpiece != null) {
 									// Try to extract property from non-abstract workpiece
@@ -606,9 +608,10 @@ public class MiniOCLInterpretor {
 		return null;
 	}
 	
-	/** {@see #interpretExpression(Element, String, Element)} */
-	public static String interpret(Element e, String expression) {
-		return interpret(e, expression, null);
+	/** {@see #interpretExpression(Element, String, Element, TransformationContext)} */
+	public static String interpret(Element e, String expression,
+			TransformationContext transformationContext) {
+		return interpret(e, expression, null, transformationContext);
 	}
 	
 	/**
@@ -703,22 +706,24 @@ public class MiniOCLInterpretor {
 	 * @param navigatedOwner The owner of the navigated element.
 	 * @param parent The parent element of the property that the expression belongs to.
 	 * @param ignoreComposites Whether or not composite resources should be ignored.
+	 * @param transformationContext The context of the transformation run.
 	 * @return A string representation of the right hand side of a sum() set expression.
 	 */
 	private static String oclBuildSetExpression(Element currentElementInNavChain,
 			String quantifiedElement,
 			Element navigatedOwner,
 			Element parent,
-			boolean ignoreComposites) {
+			boolean ignoreComposites,
+			TransformationContext transformationContext) {
 		if (currentElementInNavChain != null)
 			logger.trace("Extracted property " + ((Property) currentElementInNavChain).getName());
 		
 		// If the resource is abstract, collect concrete ones
 		if (DSEMLUtils.isResource(navigatedOwner)) {
-			ArrayList<Element> concreteResources = new ArrayList<Element>();
+			List<Element> concreteResources = new ArrayList<Element>();
 			
 			if (UMLModelUtils.isAbstract((Classifier) navigatedOwner))
-				concreteResources = DSEMLUtils.getConcreteResourcesForAbstractResourceType(TransformationCache.getResources(), navigatedOwner);
+				concreteResources = transformationContext.getCorrespondences().getConcreteResourceTable().getConcreteResources(navigatedOwner);
 			else
 				concreteResources.add(navigatedOwner);
 			
@@ -729,10 +734,10 @@ public class MiniOCLInterpretor {
 				if (ignoreComposites && DSEMLUtils.isCompositeResource(conc))
 					continue;
 				
-				if (conc != null && InternalCorrespondences.getResourceTypeMachineIDMapping().get(conc) != null) {
-					int machineID = InternalCorrespondences.getResourceTypeMachineIDMapping().get(conc);
+				if (conc != null && transformationContext.getCorrespondences().getResourceTypeMachineIDMapping().get(conc) != null) {
+					int machineID = transformationContext.getCorrespondences().getResourceTypeMachineIDMapping().get(conc);
 					
-					ArrayList<Integer> instances = InternalCorrespondences.getResourceTypeInstanceIDMapping().get(conc);
+					ArrayList<Integer> instances = transformationContext.getCorrespondences().getResourceTypeInstanceIDMapping().get(conc);
 					
 					if (instances != null) {
 						for (int instance : instances) {
@@ -746,12 +751,12 @@ public class MiniOCLInterpretor {
 							if (DSEMLUtils.isCompositeResource(parent)) {
 								// compositeMachineInstances is incremented with every instance of a composite resource - since the
 								// lists are ordered, this should not pose a problem...
-								int compInstID = TransformationState.CURRENT_COMPOSITE_RESOURCE_INSTANCE_ID;
+								int compInstID = transformationContext.getState().currentCompositeResourceInstanceID;
 								
-								compositeAllocID = "C(" + InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + compInstID + ")*";
+								compositeAllocID = "C(" + transformationContext.getCorrespondences().getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + compInstID + ")*";
 							}
 							
-							String allocID = "A(" + InternalCorrespondences.getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + TransformationState.CURRENT_ACTION_WP_COUNT + ")";
+							String allocID = "A(" + transformationContext.getCorrespondences().getAllocationMatrixResourceInstanceIndex(conc, instance) + "," + transformationContext.getState().currentActionWPCount + ")";
 					
 							// Need to now consider allocations
 							// FIXME Also this is somewhat of a weird hack... assumes that there is only 1 comp. resource per WP
@@ -762,7 +767,7 @@ public class MiniOCLInterpretor {
 								// Allocated resources
 								allocID = "min(1, sum(A(" + this.getAllocationMatrixResourceInstanceIndex(conc, instance) + ",:)))";
 							}
-							else */if (TransformationState.CURRENT_ACTION_WP_COUNT == 0)		// Not yet translating process...
+							else */if (transformationContext.getState().currentActionWPCount == 0)		// Not yet translating process...
 								allocID = instanceID;
 							
 							if (!quantifiedElement.equals(""))
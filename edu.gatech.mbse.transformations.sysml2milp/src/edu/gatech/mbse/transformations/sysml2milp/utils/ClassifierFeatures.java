@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Constraint;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.NamedElement;
+import org.eclipse.uml2.uml.Parameter;
+import org.eclipse.uml2.uml.Property;
+
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+
+/**
+ * Features of classifiers that are derived by EMF / UML2 on every access (all
+ * attributes, inherited members), and the lookups built on them, remembered per
+ * classifier.
+ * <P>
+ * Each feature of a classifier is computed the first time it is queried for:
+ * the flattened attribute list, the inherited members, the properties and
+ * parameters by (case-insensitive) name as found by
+ * {@link UMLModelUtils#getProperty(Element, String)} and
+ * {@link UMLModelUtils#getParameter(Activity, String)}, and the owned and inherited
+ * constraints (see {@link UMLModelUtils#collectConstraints(Activity)}), and the direct
+ * and nested parts of resources (see {@link DSEMLUtils#getResourceParts(Element)}
+ * and {@link DSEMLUtils#getAllNestedResourceTypes(Element)}). The
+ * corresponding functions in {@link UMLModelUtils} use the features of the current
+ * thread's transformation run (see {@link TransformationContext#activate()}). As with
+ * {@link ElementRoles}, features are not updated if the model changes, and they are
+ * not thread-safe.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ClassifierFeatures {
+	
+	/**
+	 * The features of a single classifier (null until queried for).
+	 */
+	private static class Features {
+		
+		/** All attributes (owned and inherited). */
+		private List<Property> allAttributes = null;
+		
+		/** Inherited members. */
+		private List<NamedElement> inheritedMembers = null;
+		
+		/** Properties by lower case name. */
+		private HashMap<String, Property> propertiesByName = null;
+		
+		/** Parameters by lower case name, including names that were not found. */
+		private HashMap<String, Parameter> parametersByName = null;
+		
+		/** Owned and inherited constraints. */
+		private ArrayList<Constraint> constraints = null;
+		
+		/** Resource parts. */
+		private ArrayList<Element> resourceParts = null;
+		
+		/** Resource parts at any level. */
+		private HashSet<Element> nestedResourceTypes = null;
+		
+	}
+	
+	/** Features of the classifiers queried for so far. */
+	private final IdentityHashMap<Classifier, Features> features = new IdentityHashMap<Classifier, Features>();
+	
+	/**
+	 * Returns the features of a classifier, creating an (empty) entry if it has not
+	 * been queried for before.
+	 * 
+	 * @param c The classifier.
+	 * @return The features of c.
+	 */
+	private Features getFeatures(Classifier c) {
+		Features f = features.get(c);
+		
+		if (f == null) {
+			f = new Features();
+			features.put(c, f);
+		}
+		
+		return f;
+	}
+	
+	/**
+	 * @param c The classifier.
+	 * @return all attributes (owned and inherited) of c
+	 */
+	public List<Property> getAllAttributes(Classifier c) {
+		Features f = getFeatures(c);
+		
+		if (f.allAttributes == null)
+			f.allAttributes = new ArrayList<Property>(c.getAllAttributes());
+		
+		return f.allAttributes;
+	}
+	
+	/**
+	 * @param c The classifier.
+	 * @return the inherited members of c
+	 */
+	public List<NamedElement> getInheritedMembers(Classifier c) {
+		Features f = getFeatures(c);
+		
+		if (f.inheritedMembers == null)
+			f.inheritedMembers = new ArrayList<NamedElement>(c.getInheritedMembers());
+		
+		return f.inheritedMembers;
+	}
+	
+	/**
+	 * Find an owned or inherited property of a classifier by (case-insensitive) name.
+	 * Owned properties take precedence.
+	 * 
+	 * @param c The classifier.
+	 * @param propertyName The name of the property.
+	 * @return The property if found, null otherwise.
+	 */
+	public Property getProperty(Classifier c, String propertyName) {
+		Features f = getFeatures(c);
+		
+		if (f.propertiesByName == null) {
+			f.propertiesByName = new HashMap<String, Property>();
+			
+			if (c.getOwnedElements() != null)
+				for (Element e : c.getOwnedElements())
+					if (e instanceof Property)
+						addProperty(f.propertiesByName, (Property) e);
+			
+			for (NamedElement e : getInheritedMembers(c))
+				if (e instanceof Property)
+					addProperty(f.propertiesByName, (Property) e);
+		}
+		
+		return f.propertiesByName.get(propertyName.toLowerCase());
+	}
+	
+	/**
+	 * Add a property to a map by lower case name, unless a property of the same name
+	 * has been added before.
+	 * 
+	 * @param propertiesByName The map.
+	 * @param p The property.
+	 */
+	private static void addProperty(HashMap<String, Property> propertiesByName, Property p) {
+		if (p.getName() == null)
+			return;
+		
+		String key = p.getName().toLowerCase();
+		
+		if (!propertiesByName.containsKey(key))
+			propertiesByName.put(key, p);
+	}
+	
+	/**
+	 * Find a parameter of an activity (owned, inherited, or owned by a general) by
+	 * (case-insensitive) name.
+	 * 
+	 * @param parent The activity.
+	 * @param parameterName The name of the parameter.
+	 * @return The parameter if found, null otherwise.
+	 */
+	public Parameter getParameter(Activity parent, String parameterName) {
+		Features f = getFeatures(parent);
+		
+		if (f.parametersByName == null)
+			f.parametersByName = new HashMap<String, Parameter>();
+		
+		String key = parameterName.toLowerCase();
+		
+		// Names that were not found are remembered as well
+		if (!f.parametersByName.containsKey(key))
+			f.parametersByName.put(key, UMLModelUtils.searchParameter(parent, parameterName));
+		
+		return f.parametersByName.get(key);
+	}
+	
+	/**
+	 * @param workingPrinciple The activity.
+	 * @return the owned and inherited constraints of the activity
+	 */
+	public ArrayList<Constraint> getConstraints(Activity workingPrinciple) {
+		Features f = getFeatures(workingPrinciple);
+		
+		if (f.constraints == null)
+			f.constraints = UMLModelUtils.searchConstraints(workingPrinciple);
+		
+		return f.constraints;
+	}
+	
+	/**
+	 * @param resource The resource.
+	 * @return the (direct) resource parts of the resource
+	 */
+	public ArrayList<Element> getResourceParts(Classifier resource) {
+		Features f = getFeatures(resource);
+		
+		if (f.resourceParts == null)
+			f.resourceParts = DSEMLUtils.searchResourceParts(resource);
+		
+		return f.resourceParts;
+	}
+	
+	/**
+	 * @param resource The resource.
+	 * @return the resource parts of the resource at any level
+	 */
+	public HashSet<Element> getNestedResourceTypes(Classifier resource) {
+		Features f = getFeatures(resource);
+		
+		if (f.nestedResourceTypes == null) {
+			// Set before the parts are visited, which guards against resources that
+			// are (nested) parts of themselves
+			f.nestedResourceTypes = new HashSet<Element>();
+			
+			if (DSEMLUtils.isCompositeResource(resource)) {
+				for (Element part : getResourceParts(resource)) {
+					f.nestedResourceTypes.add(part);
+					
+					if (part instanceof Classifier)
+						f.nestedResourceTypes.addAll(getNestedResourceTypes((Classifier) part));
+				}
+			}
+		}
+		
+		return f.nestedResourceTypes;
+	}
+	
+}
@@ -27,6 +27,7 @@ package edu.gatech.mbse.transformations.sysml2milp.utils;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -47,6 +48,8 @@ import org.eclipse.uml2.uml.Stereotype;
 import org.eclipse.uml2.uml.Type;
 import org.eclipse.uml2.uml.ValueSpecificationAction;
 
+import edu.gatech.mbse.transformations.sysml2milp.ObjectFlowIndex;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
 import edu.gatech.mbse.transformations.sysml2milp.ocl.MiniOCLInterpretor;
 
 /**
@@ -153,6 +156,12 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * 		the specified aggregate resource.
 	 */
 	public static HashSet<Element> getAllNestedResourceTypes(Element resource) {
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null && resource instanceof Classifier)
+			return new HashSet<Element>(features.getNestedResourceTypes((Classifier) resource));
+		
 		HashSet<Element> parts = new HashSet<Element>();
 		
 		if (!isCompositeResource(resource))
@@ -177,23 +186,36 @@ public class DSEMLUtils extends UMLModelUtils {
 	public static ArrayList<Element> getAllResources(Element startingElement, 
 			Activity topLevelActivity,
 			Element rootElement) {
+		return getAllResources(startingElement,
+				new RelevantResources(topLevelActivity, getWorkingPrinciples(rootElement)));
+	}
+	
+	/**
+	 * Returns a list of all types of resources (abstract and non-abstract) that are
+	 * relevant.
+	 * 
+	 * @param startingElement The element to start from.
+	 * @param relevantResources The resources relevant to the functional specification.
+	 * @return A list of all types of resources found.
+	 */
+	private static ArrayList<Element> getAllResources(Element startingElement,
+			RelevantResources relevantResources) {
 		ArrayList<Element> resources = new ArrayList<Element>();
 		
 		// Iterate through owned elements to find resources
 		for (Element e : startingElement.getOwnedElements()) {
 			// Depth first search
 			if (e.getOwnedElements() != null)
-				resources.addAll(getAllResources(e, topLevelActivity, rootElement));
+				resources.addAll(getAllResources(e, relevantResources));
 			
 			// If model library...
 			if (isPackageImport(e))
-				resources.addAll(getAllResources(((PackageImport) e).getImportedPackage(), topLevelActivity, rootElement));
+				resources.addAll(getAllResources(((PackageImport) e).getImportedPackage(), relevantResources));
 			
-			// FIXME Fairly slow right now due to a repeated search through the model - pre-compute the relevant resources
 			if (e instanceof Classifier
 					//&& oneBaseClassifierIsResource(e)
 					&& isResource(e)
-					&& isResourceRelevant(e, topLevelActivity, rootElement)) {
+					&& relevantResources.isRelevant(e)) {
 				logger.trace("Looks like a resource: " + ((Classifier) e).getName());
 				
 				resources.add(e);
@@ -248,11 +270,11 @@ public class DSEMLUtils extends UMLModelUtils {
 			return null;
 		
 		// Return empty list if no associated resources
-		if (workingPrinciple.getAllAttributes() == null)
+		if (getAllAttributes(workingPrinciple) == null)
 			return res;
 		
 		// Look through the attributes of the working principle
-		for (Property p : workingPrinciple.getAllAttributes()) {
+		for (Property p : getAllAttributes(workingPrinciple)) {
 			if (isResource(p.getType())
 					&& !res.contains(p.getType()))
 				res.add(p.getType());
@@ -278,11 +300,11 @@ public class DSEMLUtils extends UMLModelUtils {
 		ArrayList<Element> res = new ArrayList<Element>();
 		
 		// Return empty list if no associated resources
-		if (workingPrinciple.getAllAttributes() == null)
+		if (getAllAttributes(workingPrinciple) == null)
 			return res;
 		
 		// Look through the attributes of the working principle
-		for (Property p : workingPrinciple.getAllAttributes()) {
+		for (Property p : getAllAttributes(workingPrinciple)) {
 			if (isResource(p.getType())
 					&& !res.contains(p.getType()))
 				res.add(p.getType());
@@ -314,8 +336,8 @@ public class DSEMLUtils extends UMLModelUtils {
 		for (Element res : allResources) {
 			Classifier resC = (Classifier) res;
 			
-			if (resC.getAllAttributes() != null) {
-				for (Property p : resC.getAllAttributes()) {
+			if (getAllAttributes(resC) != null) {
+				for (Property p : getAllAttributes(resC)) {
 					if (e == p.getType()) {
 						// Have a potential association
 						if (p.isComposite()
@@ -375,23 +397,36 @@ public class DSEMLUtils extends UMLModelUtils {
 	public static ArrayList<Element> getConcreteResources(Element startingElement, 
 			Activity topLevelActivity,
 			Element rootElement) {
+		return getConcreteResources(startingElement,
+				new RelevantResources(topLevelActivity, getWorkingPrinciples(rootElement)));
+	}
+	
+	/**
+	 * Collect concrete resources that are relevant.
+	 * 
+	 * @param startingElement The element to start the search from.
+	 * @param relevantResources The resources relevant to the functional specification.
+	 * @return A list of non-abstract and relevant resources.
+	 */
+	private static ArrayList<Element> getConcreteResources(Element startingElement,
+			RelevantResources relevantResources) {
 		ArrayList<Element> resources = new ArrayList<Element>();
 		
 		// Iterate through owned elements to find resources
 		for(Element e : startingElement.getOwnedElements()) {
 			// Depth first search
 			if(e.getOwnedElements() != null)
-				resources.addAll(getConcreteResources(e, topLevelActivity, rootElement));
+				resources.addAll(getConcreteResources(e, relevantResources));
 			
 			// If model library...
 			if (isPackageImport(e))			// Then add referenced elements
-				resources.addAll(getConcreteResources(((PackageImport) e).getImportedPackage(), topLevelActivity, rootElement));
+				resources.addAll(getConcreteResources(((PackageImport) e).getImportedPackage(), relevantResources));
 			
 			if(e instanceof Classifier
 					//&& oneBaseClassifierIsResource(e)
 					&& isResource(e)
 					&& !isAbstract((Classifier) e)
-					&& isResourceRelevant(e, topLevelActivity, rootElement)) {
+					&& relevantResources.isRelevant(e)) {
 				logger.trace("Looks like a concrete resource: " + ((Classifier) e).getName());
 				
 				resources.add(e);
@@ -450,6 +485,25 @@ public class DSEMLUtils extends UMLModelUtils {
 				&& !isAbstract((Classifier) abstractResource))
 			resources.add(abstractResource);
 		
+		TransformationContext context = TransformationContext.getActive();
+		
+		// Precomputed for all resource types whenever the relevant resources of the
+		// run are rebuilt
+		if (context != null
+				&& concreteResources == context.getCache().getResources()
+				&& abstractResource instanceof Classifier) {
+			List<Element> specifics = context.getGeneralizationClosure().getSpecifics(
+					concreteResources,
+					context.getCache().getResourcesVersion(),
+					(Classifier) abstractResource);
+			
+			for (Element e : specifics)
+				if (!e.equals(abstractResource))
+					resources.add(e);
+			
+			return resources;
+		}
+		
 		// Iterate through owned elements to find resources
 		for (Element e : concreteResources) {
 			// Depth first search
@@ -558,13 +612,14 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * @param action The action to handle.
 	 * @param parameterName The name of the parameter to extract the value for.
 	 * @param objectFlows A list of object flows in the model.
+	 * @param context The context of the transformation run (used when interpreting
+	 * 		the default value of a read structural feature).
 	 * @return A string representation of the value associated with the parameter.
 	 */
 	public static String getInterpretedParameterValue(CallBehaviorAction action,
 			String parameterName,
-			ArrayList<ObjectFlow> objectFlows) {
-		String value = "";
-		
+			ArrayList<ObjectFlow> objectFlows,
+			TransformationContext context) {
 		for (ObjectFlow o : objectFlows) {
 			// FIXME If object flow has no source or target, this will NOT be caught here! (weirdly)
 			if (o == null
@@ -572,7 +627,6 @@ public class DSEMLUtils extends UMLModelUtils {
 					|| o.getTarget() == null)
 				continue;
 			
-			ActivityNode source = o.getSource();
 			ActivityNode target = o.getTarget();
 			
 			// FIXME A bit of a hack, since it assumes that they have the same name... might want to
@@ -580,45 +634,90 @@ public class DSEMLUtils extends UMLModelUtils {
 			if (target != null && target.getName() != null && target.getOwner() != null
 					&& target.getName().equals(parameterName)
 					&& target.getOwner().equals(action)) {
-				// Then, extract value from source (if appropriate)
-				Element valueInput = source.getOwner();
+				String value = interpretParameterInput(o.getSource(), context);
 				
-				if (valueInput instanceof ValueSpecificationAction) {				// Input from a value specification action
-					//OpaqueExpression val = (OpaqueExpression) ((ValueSpecificationAction) valueInput).getValue().toString();
-					//LiteralString lit = (LiteralString) val.getExpression();
-					//OpaqueExpression expr = (OpaqueExpression) ((ValueSpecificationAction) valueInput).getValue();
-					String expression = getStringValue(((ValueSpecificationAction) valueInput).getValue());	//"";
-					// FIXME What happens if this is multi-line? Would break matlab script anyway...
-					//for (String body : expr.getBodies())
-					//	expression += body;
-					
-					if (!expression.equals(""))
-						return expression;
-					
-					// Common mistake: value = name
-					return ((ValueSpecificationAction) valueInput).getName();
-				}
-				else if (valueInput instanceof ReadStructuralFeatureAction) {		// Input from reading a structural feature
-					// Then need to navigate to object
-					if (((ReadStructuralFeatureAction) valueInput).getStructuralFeature() instanceof Property) {
-						Property structFeature = (Property) ((ReadStructuralFeatureAction) valueInput).getStructuralFeature();
-						
-						// Possibly more than one object...
-						// FIXME Is this already the correct property? Why is the read self necessary then?
-						
-						String expression = getDefaultValue(structFeature);
-						
-						if(!expression.equals(""))
-							expression = MiniOCLInterpretor.interpretExpression(structFeature, expression);
-						
-						return expression;
-					}
-					// Otherwise something is wrong...
-				}
+				if (value != null)
+					return value;
 			}
 		}
 		
-		return value;
+		return "";
+	}
+	
+	/**
+	 * Same as {@link #getInterpretedParameterValue(CallBehaviorAction, String, ArrayList, TransformationContext)}
+	 * for the object flows of the transformation run, which are looked up by action
+	 * and parameter name (see {@link ObjectFlowIndex#getParameterFlows(Element, String)})
+	 * instead of scanning all object flows.
+	 * 
+	 * @param action The action to handle.
+	 * @param parameterName The name of the parameter to extract the value for.
+	 * @param context The context of the transformation run.
+	 * @return A string representation of the value associated with the parameter.
+	 */
+	public static String getInterpretedParameterValue(CallBehaviorAction action,
+			String parameterName,
+			TransformationContext context) {
+		if (parameterName == null)
+			return "";
+		
+		for (ObjectFlow o : context.getCache().getObjectFlowIndex().getParameterFlows(action, parameterName)) {
+			String value = interpretParameterInput(o.getSource(), context);
+			
+			if (value != null)
+				return value;
+		}
+		
+		return "";
+	}
+	
+	/**
+	 * Extract the value provided by the source of an object flow into a parameter.
+	 * 
+	 * @param source The source of the object flow (a pin of the providing action).
+	 * @param context The context of the transformation run (used when interpreting
+	 * 		the default value of a read structural feature).
+	 * @return A string representation of the value, or null if the source is not
+	 * 		a pin of a ValueSpecificationAction or ReadStructuralFeatureAction.
+	 */
+	private static String interpretParameterInput(ActivityNode source, TransformationContext context) {
+		// Then, extract value from source (if appropriate)
+		Element valueInput = source.getOwner();
+		
+		if (valueInput instanceof ValueSpecificationAction) {				// Input from a value specification action
+			//OpaqueExpression val = (OpaqueExpression) ((ValueSpecificationAction) valueInput).getValue().toString();
+			//LiteralString lit = (LiteralString) val.getExpression();
+			//OpaqueExpression expr = (OpaqueExpression) ((ValueSpecificationAction) valueInput).getValue();
+			String expression = getStringValue(((ValueSpecificationAction) valueInput).getValue());	//"";
+			// FIXME What happens if this is multi-line? Would break matlab script anyway...
+			//for (String body : expr.getBodies())
+			//	expression += body;
+			
+			if (!expression.equals(""))
+				return expression;
+			
+			// Common mistake: value = name
+			return ((ValueSpecificationAction) valueInput).getName();
+		}
+		else if (valueInput instanceof ReadStructuralFeatureAction) {		// Input from reading a structural feature
+			// Then need to navigate to object
+			if (((ReadStructuralFeatureAction) valueInput).getStructuralFeature() instanceof Property) {
+				Property structFeature = (Property) ((ReadStructuralFeatureAction) valueInput).getStructuralFeature();
+				
+				// Possibly more than one object...
+				// FIXME Is this already the correct property? Why is the read self necessary then?
+				
+				String expression = getDefaultValue(structFeature);
+				
+				if(!expression.equals(""))
+					expression = MiniOCLInterpretor.interpretExpression(structFeature, expression, context);
+				
+				return expression;
+			}
+			// Otherwise something is wrong...
+		}
+		
+		return null;
 	}
 	
 	/**
@@ -636,8 +735,8 @@ public class DSEMLUtils extends UMLModelUtils {
 		
 		// Go through working principles and composite resources
 		for (Activity act : workingPrinciples) {
-			if (act.getAllAttributes() != null) {
-				for (Property p : act.getAllAttributes()) {
+			if (getAllAttributes(act) != null) {
+				for (Property p : getAllAttributes(act)) {
 					if (p.isComposite()
 							&& isResource(p.getType())
 							&& allRelevantResources.contains(p.getType())
@@ -654,8 +753,8 @@ public class DSEMLUtils extends UMLModelUtils {
 		for (Element compositeRes : compositeResources) {
 			Classifier compositeResource = (Classifier) compositeRes;
 			
-			if (compositeResource.getAllAttributes() != null) {
-				for (Property p : compositeResource.getAllAttributes()) {
+			if (getAllAttributes(compositeResource) != null) {
+				for (Property p : getAllAttributes(compositeResource)) {
 					if (p.isComposite()
 							&& isResource(p.getType())
 							&& allRelevantResources.contains(p.getType())
@@ -683,15 +782,33 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * 		input resource (in which case the input is an aggregate resource).
 	 */
 	public static ArrayList<Element> getResourceParts(Element e) {
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null && e instanceof Classifier)
+			return new ArrayList<Element>(features.getResourceParts((Classifier) e));
+		
+		return searchResourceParts(e);
+	}
+	
+	/**
+	 * Collects the composite / aggregate parts of a resource (see
+	 * {@link #getResourceParts(Element)}).
+	 * 
+	 * @param e The resource to analyzed.
+	 * @return A potentially empty list of resources that are a part of the
+	 * 		input resource.
+	 */
+	static ArrayList<Element> searchResourceParts(Element e) {
 		ArrayList<Element> composites = new ArrayList<Element>();
 		
 		// FIXME The way redefined properties are treated still seems a little shaky
 		ArrayList<Element> ownedAndInheritedProperties = new ArrayList<Element>();
 		ownedAndInheritedProperties.addAll(e.getOwnedElements());
-		ownedAndInheritedProperties.addAll(((Classifier) e).getInheritedMembers());
+		ownedAndInheritedProperties.addAll(getInheritedMembers((Classifier) e));
 		
 		// Skip redefined properties in inherited
-		ArrayList<Property> skip = new ArrayList<Property>();
+		HashSet<Property> skip = new HashSet<Property>();
 		
 		if (e.getOwnedElements() != null) {
 			for (Element o : ownedAndInheritedProperties) {
@@ -786,8 +903,8 @@ public class DSEMLUtils extends UMLModelUtils {
 		
 		// Go through working principles and composite resources
 		for (Activity act : workingPrinciples) {
-			if (act.getAllAttributes() != null) {
-				for (Property p : act.getAllAttributes()) {
+			if (getAllAttributes(act) != null) {
+				for (Property p : getAllAttributes(act)) {
 					if (!p.isComposite()
 							&& isResource(p.getType())
 							&& allRelevantResources.contains(p.getType())
@@ -804,8 +921,8 @@ public class DSEMLUtils extends UMLModelUtils {
 		for (Element compositeRes : compositeResources) {
 			Classifier compositeResource = (Classifier) compositeRes;
 			
-			if (compositeResource.getAllAttributes() != null) {
-				for (Property p : compositeResource.getAllAttributes()) {
+			if (getAllAttributes(compositeResource) != null) {
+				for (Property p : getAllAttributes(compositeResource)) {
 					if (!p.isComposite()
 							&& isResource(p.getType())
 							&& allRelevantResources.contains(p.getType())
@@ -919,13 +1036,7 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * @return true if the given resource is a composite resource, false otherwise.
 	 */
 	public static boolean isCompositeResource(Element e) {
-		if (!isResource(e))
-			return false;
-		
-		if (!getResourceParts(e).isEmpty())
-			return true;
-		
-		return false;
+		return ElementRoles.hasRole(e, ElementRoles.COMPOSITE_RESOURCE);
 	}
 	
 	/**
@@ -964,8 +1075,7 @@ public class DSEMLUtils extends UMLModelUtils {
 		if(p == null)
 			return false;
 		
-		// If any of the stereotypes applied to this element is of type modelcenter data model, return true
-		return isStereotypeApplied(p, "processDuration");
+		return ElementRoles.hasRole(p, ElementRoles.DURATION_PROPERTY);
 	}
 	
 	/**
@@ -978,8 +1088,7 @@ public class DSEMLUtils extends UMLModelUtils {
 		if(c == null)
 			return false;
 		
-		// If any of the stereotypes applied to this element is of type modelcenter data model, return true
-		return isStereotypeApplied(c, "Objective");
+		return ElementRoles.hasRole(c, ElementRoles.OBJECTIVE);
 	}
 	
 	/**
@@ -1021,7 +1130,7 @@ public class DSEMLUtils extends UMLModelUtils {
 			return false;
 		
 		// "Machine" still checked for for backwards compatibility
-		return (isStereotypeApplied(e, "Resource") || isStereotypeApplied(e, "Machine"));
+		return ElementRoles.hasRole(e, ElementRoles.RESOURCE);
 	}
 	
 	/**
@@ -1036,46 +1145,25 @@ public class DSEMLUtils extends UMLModelUtils {
 	public static boolean isResourceRelevant(Element resource,
 			Activity topLevelActivity,
 			Element rootElement) {
-		boolean found = false;
-		
-		ArrayList<Activity> allWPs = getWorkingPrinciples(rootElement);
-		
-		// TODO We can optimize this by caching the relevant resources and then checking whether the
-		//      resource queried for is a part of that set.
-		// TODO A little slow currently... goes through activities twice or more potentially
-		
-		// Collect activities - order is not important
-		ArrayList<Activity> activities = collectSubActivities(topLevelActivity);
-		
-		for (Activity act : activities) {
-		//for (Element cba : topLevelActivity.getOwnedElement()) {
-			//if (cba instanceof CallBehaviorAction) {
-				// TODO Nested activities
-				//Activity act = (Activity) ((CallBehaviorAction) cba).getBehavior();
-				
-			// Find working principles associated with it
-			ArrayList<Activity> workingPrinciples = getWorkingPrinciples(act, allWPs);
-			
-			// Find resources associated with it
-			HashSet<Element> resources = getResourceTypes(workingPrinciples);
-			
-			// Check whether it directly contains the resource
-			if (resources.contains(resource))
-				return true;
-			
-			// Otherwise do a check with the oneBaseClassifier function
-			for (Element r : resources) {
-				if (resource instanceof Classifier && r instanceof Classifier) {
-					if (oneBaseClassifierIsSpecificClassifier((Classifier) resource, (Classifier) r)
-							|| oneBaseClassifierIsSpecificClassifier((Classifier) r, (Classifier) resource))
-						return true;
-				}
-			}
-			//}
-		//}
-		}
-		
-		return found;
+		return isResourceRelevant(resource, topLevelActivity, getWorkingPrinciples(rootElement));
+	}
+	
+	/**
+	 * Same as {@link #isResourceRelevant(Element, Activity, Element)}, but with the list
+	 * of all working principles already collected (avoids a traversal of the model).
+	 * <P>
+	 * Use {@link RelevantResources} directly when querying for more than one resource.
+	 * 
+	 * @param resource The resource to query for
+	 * @param topLevelActivity The top level activity
+	 * @param allWPs All working principles in the model (see
+	 * 		{@link #getWorkingPrinciples(Element)})
+	 * @return true if the resource is relevant, false otherwise
+	 */
+	public static boolean isResourceRelevant(Element resource,
+			Activity topLevelActivity,
+			ArrayList<Activity> allWPs) {
+		return new RelevantResources(topLevelActivity, allWPs).isRelevant(resource);
 	}
 
 	/**
@@ -1085,31 +1173,11 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * @return true if the Element is a system under design, false otherwise.
 	 */
 	public static boolean isSystemUnderDesign(Element e) {
-		if (e == null)
-			return false;
-		
-		if (!(e instanceof Classifier))
-			return false;
-		
 		// CHANGE 2015-07-01: Changed from stereotype to model library approach
 		//return isStereotypeApplied(e, "SystemUnderDesign");
 		
-		boolean isSystemUnderDesign = false;
-		
-		// Library element
-		isSystemUnderDesign |= ((Classifier) e).isAbstract() && ((Classifier) e).getName().equals("GenericSystemUnderDesign");
-		
-		// Go through super types
-		if (!isSystemUnderDesign && ((Classifier) e).getGenerals() != null) {
-			for (Classifier c : ((Classifier) e).getGenerals()) {
-				isSystemUnderDesign |= isSystemUnderDesign(c);
-				
-				if (isSystemUnderDesign)
-					break;
-			}
-		}
-		
-		return isSystemUnderDesign;
+		// Classifiers specializing the library element "GenericSystemUnderDesign"
+		return ElementRoles.hasRole(e, ElementRoles.SYSTEM_UNDER_DESIGN);
 	}
 	
 	/**
@@ -1123,8 +1191,7 @@ public class DSEMLUtils extends UMLModelUtils {
 		if(p == null)
 			return false;
 		
-		// If any of the stereotypes applied to this element is of type modelcenter data model, return true
-		return isStereotypeApplied(p, "throughput");
+		return ElementRoles.hasRole(p, ElementRoles.THROUGHPUT_PROPERTY);
 	}
 	
 	/**
@@ -1147,23 +1214,10 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * 		otherwise.
 	 */
 	public static boolean isValueProperty(Element p) {
-		if (p == null)
-			return false;
-		
 		//if (!(p instanceof Property)) //isStereotypeApplied(p, "ValueProperty");
 		//	return false;
 		
-		if (!(p instanceof Property))
-			return false;
-		
-		// FIXME Need something better for this
-		if (((Property) p).getType() != null
-				&& !isResource(((Property) p).getType())
-				&& !isWorkingPrinciple(((Property) p).getType())
-				&& !isWorkpiece(((Property) p).getType()))
-			return true;
-		
-		return false;
+		return ElementRoles.hasRole(p, ElementRoles.VALUE_PROPERTY);
 	}
 
 	/**
@@ -1174,14 +1228,8 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * @return true if the given element is a working principle, false otherwise.
 	 */
 	public static boolean isWorkingPrinciple(Element e) {
-		if (e == null)
-			return false;
-		
 		// Updated profile: working principles have to be activities (by definition)
-		if (!(e instanceof Activity))
-			return false;
-		
-		return isStereotypeApplied(e, "WorkingPrinciple");
+		return ElementRoles.hasRole(e, ElementRoles.WORKING_PRINCIPLE);
 	}
 	
 	/**
@@ -1216,6 +1264,24 @@ public class DSEMLUtils extends UMLModelUtils {
 		return isWorkingPrinciple;
 	}
 	
+	/**
+	 * Same as {@link #isWorkingPrincipleAtSomeLevel(Element, ArrayList)}, with the
+	 * working principles of the activity looked up in an index.
+	 * 
+	 * @param e The element to check.
+	 * @param workingPrinciples The working principles of each activity.
+	 * @return true if the element is a working principle at
+	 * 		some level of inheritance, false otherwise.
+	 */
+	public static boolean isWorkingPrincipleAtSomeLevel(Element e,
+			WorkingPrincipleIndex workingPrinciples) {
+		// Cannot be a working principle if not an activity
+		if (!(e instanceof Activity))
+			return false;
+		
+		return workingPrinciples.getWorkingPrinciples((Activity) e).size() > 0;
+	}
+	
 	/**
 	 * Checks whether the given element is a workpiece.
 	 * 
@@ -1224,33 +1290,12 @@ public class DSEMLUtils extends UMLModelUtils {
 	 * 		false otherwise.
 	 */
 	public static boolean isWorkpiece(Element e) {
-		if (e == null)
-			return false;
-		
-		// Cannot be a workpiece if not a classifier
-		if (!(e instanceof Classifier))
-			return false;
-		
 		// CHANGE 2015-07-01: Changed from stereotype to model library approach
 		//if (isStereotypeApplied(e, "Workpiece"))
 			//return true;
 		
-		boolean isWorkpiece = false;
-		
-		// Library element
-		isWorkpiece |= ((Classifier) e).isAbstract() && ((Classifier) e).getName().equals("GenericWorkpiece");
-		
-		// Go through super types
-		if (!isWorkpiece && ((Classifier) e).getGenerals() != null) {
-			for (Classifier c : ((Classifier) e).getGenerals()) {
-				isWorkpiece |= isWorkpiece(c);
-				
-				if (isWorkpiece)
-					break;
-			}
-		}
-		
-		return isWorkpiece;
+		// Classifiers specializing the library element "GenericWorkpiece"
+		return ElementRoles.hasRole(e, ElementRoles.WORKPIECE);
 	}
 	
 	/**
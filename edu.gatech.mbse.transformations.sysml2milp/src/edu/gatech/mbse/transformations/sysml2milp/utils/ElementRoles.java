@@ -0,0 +1,216 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.util.IdentityHashMap;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Constraint;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.Property;
+import org.eclipse.uml2.uml.Stereotype;
+import org.eclipse.uml2.uml.Type;
+
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+
+/**
+ * The DSEML roles of model elements (resource, working principle, objective, ...),
+ * as a bitmask per element.
+ * <P>
+ * The roles of an element are determined the first time the element is queried
+ * for, with a single pass over its applied stereotypes, and are remembered from then
+ * on. The DSEML predicates (e.g., {@link DSEMLUtils#isResource(Element)}) use the
+ * roles of the current thread's transformation run (see
+ * {@link TransformationContext#activate()}), or determine them anew if no run is
+ * active.
+ * <P>
+ * Roles are not updated if the model changes, so a set of roles must only be used
+ * while the model is not modified (e.g., during a single transformation run). It is
+ * not thread-safe.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class ElementRoles {
+	
+	/** Stereotyped with "Resource" (or "Machine"). */
+	public static final int RESOURCE = 1;
+	
+	/** An activity stereotyped with "WorkingPrinciple". */
+	public static final int WORKING_PRINCIPLE = 1 << 1;
+	
+	/** A constraint stereotyped with "Objective". */
+	public static final int OBJECTIVE = 1 << 2;
+	
+	/** A property stereotyped with "processDuration". */
+	public static final int DURATION_PROPERTY = 1 << 3;
+	
+	/** A property stereotyped with "throughput". */
+	public static final int THROUGHPUT_PROPERTY = 1 << 4;
+	
+	/** A resource with resource parts. */
+	public static final int COMPOSITE_RESOURCE = 1 << 5;
+	
+	/** A classifier specializing "GenericWorkpiece" (or the library element itself). */
+	public static final int WORKPIECE = 1 << 6;
+	
+	/** A classifier specializing "GenericSystemUnderDesign" (or the library element itself). */
+	public static final int SYSTEM_UNDER_DESIGN = 1 << 7;
+	
+	/** A typed property that is neither a resource, working principle nor workpiece. */
+	public static final int VALUE_PROPERTY = 1 << 8;
+	
+	/** Roles given by stereotypes alone. */
+	private static final int STEREOTYPE_ROLES =
+			RESOURCE | WORKING_PRINCIPLE | OBJECTIVE | DURATION_PROPERTY | THROUGHPUT_PROPERTY;
+	
+	/** Roles of the elements queried for so far. */
+	private final IdentityHashMap<Element, Integer> roles = new IdentityHashMap<Element, Integer>();
+	
+	/**
+	 * Checks whether an element has a particular role, using the roles of the
+	 * transformation run on the current thread (if any).
+	 * 
+	 * @param e The element to check.
+	 * @param role The role (one of the constants of this class).
+	 * @return true if e has the given role, false otherwise (or if e is null).
+	 */
+	public static boolean hasRole(Element e, int role) {
+		if (e == null)
+			return false;
+		
+		TransformationContext context = TransformationContext.getActive();
+		ElementRoles elementRoles = context != null ? context.getElementRoles() : null;
+		
+		if (elementRoles == null) {
+			// Nothing to remember the roles in - only determine what is needed
+			if ((role & ~STEREOTYPE_ROLES) == 0)
+				return (getStereotypeRoles(e) & role) != 0;
+			
+			elementRoles = new ElementRoles();
+		}
+		
+		return (elementRoles.getRoles(e) & role) != 0;
+	}
+	
+	/**
+	 * Returns the roles of an element, determining them if it has not been queried
+	 * for before.
+	 * 
+	 * @param e The element.
+	 * @return The roles of e (a combination of the constants of this class).
+	 */
+	public int getRoles(Element e) {
+		Integer known = roles.get(e);
+		
+		if (known != null)
+			return known.intValue();
+		
+		// Roles given by stereotypes are remembered before the derived roles are
+		// determined, as these may query the element itself (e.g., a composite
+		// resource with a part of its own type)
+		int elementRoles = getStereotypeRoles(e);
+		roles.put(e, Integer.valueOf(elementRoles));
+		
+		elementRoles |= getDerivedRoles(e, elementRoles);
+		roles.put(e, Integer.valueOf(elementRoles));
+		
+		return elementRoles;
+	}
+	
+	/**
+	 * Determine the roles of an element given by its applied stereotypes.
+	 * 
+	 * @param e The element.
+	 * @return The roles given by stereotypes.
+	 */
+	private static int getStereotypeRoles(Element e) {
+		int stereotypeRoles = 0;
+		
+		for (Stereotype s : e.getAppliedStereotypes()) {
+			String name = s.getName();
+			
+			// "Machine" still checked for for backwards compatibility
+			if ("Resource".equals(name) || "Machine".equals(name))
+				stereotypeRoles |= RESOURCE;
+			else if ("WorkingPrinciple".equals(name) && e instanceof Activity)
+				stereotypeRoles |= WORKING_PRINCIPLE;
+			else if ("Objective".equals(name) && e instanceof Constraint)
+				stereotypeRoles |= OBJECTIVE;
+			else if ("processDuration".equals(name) && e instanceof Property)
+				stereotypeRoles |= DURATION_PROPERTY;
+			else if ("throughput".equals(name) && e instanceof Property)
+				stereotypeRoles |= THROUGHPUT_PROPERTY;
+		}
+		
+		return stereotypeRoles;
+	}
+	
+	/**
+	 * Determine the roles of an element that follow from its relations to other
+	 * elements (parts, generalizations, types).
+	 * 
+	 * @param e The element.
+	 * @param stereotypeRoles The roles given by stereotypes.
+	 * @return The derived roles.
+	 */
+	private int getDerivedRoles(Element e, int stereotypeRoles) {
+		int derivedRoles = 0;
+		
+		if (e instanceof Classifier) {
+			Classifier c = (Classifier) e;
+			
+			if ((stereotypeRoles & RESOURCE) != 0
+					&& !DSEMLUtils.getResourceParts(c).isEmpty())
+				derivedRoles |= COMPOSITE_RESOURCE;
+			
+			// Library elements
+			if (c.isAbstract() && "GenericWorkpiece".equals(c.getName()))
+				derivedRoles |= WORKPIECE;
+			
+			if (c.isAbstract() && "GenericSystemUnderDesign".equals(c.getName()))
+				derivedRoles |= SYSTEM_UNDER_DESIGN;
+			
+			// Go through super types
+			if (c.getGenerals() != null)
+				for (Classifier general : c.getGenerals())
+					derivedRoles |= getRoles(general) & (WORKPIECE | SYSTEM_UNDER_DESIGN);
+		}
+		
+		if (e instanceof Property) {
+			Type t = ((Property) e).getType();
+			
+			// FIXME Need something better for this
+			if (t != null
+					&& (getRoles(t) & (RESOURCE | WORKING_PRINCIPLE | WORKPIECE)) == 0)
+				derivedRoles |= VALUE_PROPERTY;
+		}
+		
+		return derivedRoles;
+	}
+	
+}
@@ -0,0 +1,181 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Element;
+
+import edu.gatech.mbse.transformations.sysml2milp.TransformationCache;
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+
+/**
+ * The transitive closure of the generalization relationships between classifiers.
+ * <P>
+ * Every classifier queried for is given a dense index, and its ancestors (the
+ * classifier itself and all its generals, at any level) are kept as a bit set over
+ * these indexes. The ancestors of a classifier are computed once, from those of its
+ * generals, so classifiers shared by several paths (diamond inheritance) are not
+ * visited again. Whether a classifier specializes another is then a single bit set
+ * lookup.
+ * <P>
+ * The specifics of a classifier among a list of candidates (e.g., the concrete
+ * resources of a run) are precomputed once for the whole list, by adding every
+ * candidate to the specifics of each of its ancestors, so that they can be returned
+ * without filtering the candidates again for each classifier. The list is identified
+ * by a version that changes whenever its contents change (see
+ * {@link TransformationCache#getResourcesVersion()}).
+ * <P>
+ * {@link UMLModelUtils#oneBaseClassifierIsSpecificClassifier(Classifier, Classifier)}
+ * uses the closure of the current thread's transformation run (see
+ * {@link TransformationContext#activate()}), or searches the generals if no run is
+ * active. As with {@link ElementRoles}, the closure is not updated if the model
+ * changes, and it is not thread-safe.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class GeneralizationClosure {
+	
+	/** Indexes of the classifiers queried for so far (and their generals). */
+	private final IdentityHashMap<Classifier, Integer> indexes = new IdentityHashMap<Classifier, Integer>();
+	
+	/** Ancestors of each classifier (including itself), by index. */
+	private final ArrayList<BitSet> ancestors = new ArrayList<BitSet>();
+	
+	/** Candidates the specifics have been computed for. */
+	private List<Element> indexedCandidates = null;
+	
+	/** Version of the candidates the specifics have been computed for. */
+	private int indexedCandidatesVersion = 0;
+	
+	/** Specifics among the indexed candidates of each classifier, by index. */
+	private final ArrayList<ArrayList<Element>> specifics = new ArrayList<ArrayList<Element>>();
+	
+	/**
+	 * Checks whether a classifier is, or specializes (at any level), another
+	 * classifier.
+	 * 
+	 * @param specific The (potentially) more specific classifier.
+	 * @param general The (potentially) more general classifier.
+	 * @return true if general is an ancestor of specific (or the same classifier),
+	 * 		false otherwise.
+	 */
+	public boolean isSpecific(Classifier specific, Classifier general) {
+		if (specific == null)
+			return false;
+		
+		BitSet specificAncestors = getAncestors(specific);
+		
+		// All ancestors of specific have been indexed by now
+		Integer generalIndex = indexes.get(general);
+		
+		return generalIndex != null && specificAncestors.get(generalIndex.intValue());
+	}
+	
+	/**
+	 * Returns the candidates that are, or specialize (at any level), a classifier.
+	 * <P>
+	 * The specifics of all classifiers are computed on the first call for a version
+	 * of the candidates; subsequent calls for the same version are a single lookup.
+	 * 
+	 * @param candidates The candidate classifiers (e.g., the concrete resources).
+	 * @param candidatesVersion The version of the candidates, which must be changed
+	 * 		whenever the candidates change, even if modified in place.
+	 * @param general The (potentially) more general classifier.
+	 * @return The (unmodifiable) list of candidates that general is an ancestor of,
+	 * 		in the order of the candidates.
+	 */
+	public List<Element> getSpecifics(List<Element> candidates, int candidatesVersion, Classifier general) {
+		if (candidates != indexedCandidates || candidatesVersion != indexedCandidatesVersion)
+			indexSpecifics(candidates, candidatesVersion);
+		
+		// All ancestors of the candidates have been indexed by now
+		Integer generalIndex = indexes.get(general);
+		
+		if (generalIndex == null || generalIndex.intValue() >= specifics.size())
+			return Collections.emptyList();
+		
+		return Collections.unmodifiableList(specifics.get(generalIndex.intValue()));
+	}
+	
+	/**
+	 * Computes the specifics of all classifiers among a list of candidates.
+	 * 
+	 * @param candidates The candidate classifiers.
+	 * @param candidatesVersion The version of the candidates.
+	 */
+	private void indexSpecifics(List<Element> candidates, int candidatesVersion) {
+		specifics.clear();
+		
+		for (Element candidate : candidates) {
+			BitSet bits = getAncestors((Classifier) candidate);
+			
+			for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+				while (specifics.size() <= i)
+					specifics.add(new ArrayList<Element>());
+				
+				specifics.get(i).add(candidate);
+			}
+		}
+		
+		indexedCandidates = candidates;
+		indexedCandidatesVersion = candidatesVersion;
+	}
+	
+	/**
+	 * Returns the ancestors of a classifier (including the classifier itself),
+	 * computing them if it has not been queried for before.
+	 * 
+	 * @param c The classifier.
+	 * @return The indexes of the ancestors of c.
+	 */
+	private BitSet getAncestors(Classifier c) {
+		Integer index = indexes.get(c);
+		
+		if (index != null)
+			return ancestors.get(index.intValue());
+		
+		// Indexed before the generals are visited, which guards against cycles in
+		// (invalid) generalization hierarchies
+		BitSet bits = new BitSet();
+		bits.set(ancestors.size());
+		indexes.put(c, Integer.valueOf(ancestors.size()));
+		ancestors.add(bits);
+		
+		if (c.getGenerals() != null)
+			for (Classifier general : c.getGenerals())
+				bits.or(getAncestors(general));
+		
+		return bits;
+	}
+	
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.io.IOException;
+
+/**
+ * Sink that generated MILP code is appended to.
+ * <P>
+ * The mappings append their output to a sink as it is produced rather than building
+ * up (potentially very large) strings first. A sink is attached to a
+ * {@link MILPModel2TextUtils} object, which is handed to all mappings anyway.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public interface MILPCodeSink {
+
+	/**
+	 * Append a fragment of MILP code to the sink.
+	 * <P>
+	 * Note that implementations should not throw an exception here: any error that
+	 * occurs while writing is to be reported by {@link #finish()}.
+	 * 
+	 * @param milpCode The MILP code to append. null and the empty string are ignored.
+	 * @return This sink (to allow for chaining).
+	 */
+	public MILPCodeSink append(String milpCode);
+	
+	/**
+	 * Flushes all buffered output and completes the generated output (e.g., writes
+	 * the trailer of a compressed stream). The underlying stream is not closed.
+	 * 
+	 * @throws IOException If writing to the underlying stream failed at any point.
+	 */
+	public void finish() throws IOException;
+	
+}
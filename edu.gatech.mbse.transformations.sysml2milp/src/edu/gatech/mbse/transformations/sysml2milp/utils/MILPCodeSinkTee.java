@@ -0,0 +1,86 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.io.IOException;
+
+/**
+ * {@link MILPCodeSink} that appends all MILP code to two sinks (e.g., to the output
+ * and to a copy that is kept in the result cache).
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class MILPCodeSinkTee implements MILPCodeSink {
+
+	/** First sink. */
+	private final MILPCodeSink first;
+	
+	/** Second sink. */
+	private final MILPCodeSink second;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param first The first sink.
+	 * @param second The second sink.
+	 */
+	public MILPCodeSinkTee(MILPCodeSink first, MILPCodeSink second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink#append(java.lang.String)
+	 *
+	 * @param milpCode
+	 * @return
+	 */
+	@Override
+	public MILPCodeSink append(String milpCode) {
+		first.append(milpCode);
+		second.append(milpCode);
+		
+		return this;
+	}
+
+	/**
+	 * Finishes both sinks (the second one even if finishing the first one failed).
+	 * 
+	 * @see edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink#finish()
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void finish() throws IOException {
+		try {
+			first.finish();
+		} finally {
+			second.finish();
+		}
+	}
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * {@link MILPCodeSink} that writes to a {@link Writer} (or, via
+ * {@link #forOutputStream(OutputStream, boolean)}, to an optionally gzip-compressed
+ * output stream).
+ * <P>
+ * Errors are deferred: the first {@link IOException} is recorded, further output is
+ * discarded, and the exception is re-thrown by {@link #finish()}.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class MILPCodeSinkWriter implements MILPCodeSink {
+
+	/** Character encoding used when writing to an output stream. */
+	public static final String ENCODING = "UTF-8";
+	
+	/** Writer that all output is forwarded to. */
+	private Writer writer = null;
+	
+	/** Compressing stream (if any) that has to be finished at the end. */
+	private GZIPOutputStream compressedStream = null;
+	
+	/** First error that occurred while writing (if any). */
+	private IOException error = null;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param writer The writer to forward all output to.
+	 */
+	public MILPCodeSinkWriter(Writer writer) {
+		this.writer = writer;
+	}
+	
+	/**
+	 * Create a sink that writes to a (buffered) output stream.
+	 * 
+	 * @param out The output stream to write to. It is not closed by the sink.
+	 * @param compress If true, the output is gzip-compressed.
+	 * @return A new sink.
+	 * @throws IOException If the compressed stream could not be set up.
+	 */
+	public static MILPCodeSinkWriter forOutputStream(OutputStream out, boolean compress) throws IOException {
+		GZIPOutputStream gzip = null;
+		
+		if (compress) {
+			gzip = new GZIPOutputStream(out);
+			out = gzip;
+		}
+		
+		MILPCodeSinkWriter sink = new MILPCodeSinkWriter(new BufferedWriter(new OutputStreamWriter(out, ENCODING)));
+		sink.compressedStream = gzip;
+		
+		return sink;
+	}
+
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink#append(java.lang.String)
+	 *
+	 * @param milpCode
+	 * @return
+	 */
+	@Override
+	public MILPCodeSink append(String milpCode) {
+		if (milpCode == null || milpCode.length() == 0 || error != null)
+			return this;
+		
+		try {
+			writer.write(milpCode);
+		} catch (IOException e) {
+			error = e;
+		}
+		
+		return this;
+	}
+
+	/**
+	 * @see edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink#finish()
+	 *
+	 * @throws IOException
+	 */
+	@Override
+	public void finish() throws IOException {
+		if (error != null)
+			throw error;
+		
+		writer.flush();
+		
+		if (compressedStream != null)
+			compressedStream.finish();
+	}
+
+}
@@ -28,13 +28,14 @@ package edu.gatech.mbse.transformations.sysml2milp.utils;
 import java.util.ArrayList;
 
 import edu.gatech.mbse.transformations.sysml2milp.MILPVariableType;
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPModel;
 
 /**
  * Interface for MILP model to text transformation.
  * <P>
  * Note that these functions are still specific to YALMIP in some sense. In future
- * versions, MILPVariableType should be generalized. In future versions, these
- * functions should also take Variable and Constraint objects as input.
+ * versions, MILPVariableType should be generalized. The mappings build a
+ * {@link MILPModel}, which is written by {@link #generateModel(MILPModel, MILPCodeSink)}.
  * 
  * @author Sebastian
  * @version 0.1
@@ -172,4 +173,13 @@ public interface MILPModel2TextUtils {
 	 */
 	public String generatePostamble(String visualizationOuput, int numSolutions, boolean writeResults);
 
+	/**
+	 * Serialize a MILP model, appending the code for its statements (in order) to the
+	 * given sink.
+	 * 
+	 * @param model The MILP model to serialize.
+	 * @param sink The sink to append MILP code to.
+	 */
+	public void generateModel(MILPModel model, MILPCodeSink sink);
+
 }
@@ -35,6 +35,7 @@ import edu.gatech.mbse.transformations.sysml2milp.SolverType;
 import edu.gatech.mbse.transformations.sysml2milp.StandardVariableNames;
 import edu.gatech.mbse.transformations.sysml2milp.SysML2MILPTransformation;
 import edu.gatech.mbse.transformations.sysml2milp.TransformationConfig;
+import edu.gatech.mbse.transformations.sysml2milp.model.MILPModel;
 
 /**
  * Collection of utilities for generating a textual representation of a MILP problem
@@ -299,29 +300,29 @@ public class MILPModel2TextUtilsYALMIP implements MILPModel2TextUtils {
 	public String generatePostamble(String visualizationOuput,
 			int numSolutions,
 			boolean testingMode) {
-		String milpCode = "";
+		StringBuilder milpCode = new StringBuilder();
 		
 		// Get configured solver
 		String solverString = SolverType.solverTypeToYALMIPString(TransformationConfig.CONFIG_SOLVER);
 		
 		// Write loop that will a) call the MILP solver b) output results c) Exclude solution from next iteration
-		milpCode += "\r\ncounter = " + numSolutions + ";\t\t% Number of solutions to generate\r\n";
-		milpCode += "\r\nwhile counter > 0\r\n";
-		milpCode += "\tcounter = counter - 1;\r\n";
-		milpCode += "\tsol = optimize(Constraints, Objective, sdpsettings('solver','" + solverString + "','debug','1'))\r\n";
-		milpCode += "\r\n\tif sol.problem ~= 0\r\n\t\tbreak;\r\n\tend\r\n";		// Catch error code from YALMIP
+		milpCode.append("\r\ncounter = " + numSolutions + ";\t\t% Number of solutions to generate\r\n");
+		milpCode.append("\r\nwhile counter > 0\r\n");
+		milpCode.append("\tcounter = counter - 1;\r\n");
+		milpCode.append("\tsol = optimize(Constraints, Objective, sdpsettings('solver','" + solverString + "','debug','1'))\r\n");
+		milpCode.append("\r\n\tif sol.problem ~= 0\r\n\t\tbreak;\r\n\tend\r\n");		// Catch error code from YALMIP
 		
 		// Visualization (tabulate for cleaner formatting)
-		milpCode += "\r\n\t" + visualizationOuput.replace("\r\n", "\r\n\t");
+		milpCode.append("\r\n\t" + visualizationOuput.replace("\r\n", "\r\n\t"));
 		
 		// If desired, also write output to file
 		if (testingMode) {
 			// Open file
-			milpCode += "\r\n";
-			milpCode += "\thome = '" + System.getProperty("java.io.tmpdir") + "';";
-			milpCode += "\r\n";
-			milpCode += "\tfID = fopen(strcat(home, '/tmp_milp_results.txt'), 'w');\r\n";
-			milpCode += "\r\n";
+			milpCode.append("\r\n");
+			milpCode.append("\thome = '" + System.getProperty("java.io.tmpdir") + "';");
+			milpCode.append("\r\n");
+			milpCode.append("\tfID = fopen(strcat(home, '/tmp_milp_results.txt'), 'w');\r\n");
+			milpCode.append("\r\n");
 			
 			// Write results
 			// This will convert all disp(sprintf(... statements into fprintf(... statements
@@ -334,26 +335,26 @@ public class MILPModel2TextUtilsYALMIP implements MILPModel2TextUtils {
 					line = line.replace(":", " =");
 					line = line.replace("',", "\\r\\n',");
 					line = line.substring(0, line.length() - 1) + ";";
-					milpCode += line + "\r\n";
+					milpCode.append(line + "\r\n");
 				}
 				
 				// Note: correspondence output will simply be skipped here
 			}
 			
 			// Close file
-			milpCode += "\r\n";
-			milpCode += "\tfclose(fID);\r\n";
+			milpCode.append("\r\n");
+			milpCode.append("\tfclose(fID);\r\n");
 		}
 		else {
 			// Add Excel output as well
-			milpCode += generateExcelOutput();
+			milpCode.append(generateExcelOutput());
 		}
 		
 		// Exclude solution from next iteration, and loop
-		milpCode += "\r\n\tConstraints = [Constraints, exclude(IM, round(value(IM)))];    % Exclude combination of values in association matrix (one unique solution)\r\n";
-		milpCode += "end\r\n";
+		milpCode.append("\r\n\tConstraints = [Constraints, exclude(IM, round(value(IM)))];    % Exclude combination of values in association matrix (one unique solution)\r\n");
+		milpCode.append("end\r\n");
 		
-		return milpCode;
+		return milpCode.toString();
 	}
 	
 	
@@ -469,4 +470,156 @@ public class MILPModel2TextUtilsYALMIP implements MILPModel2TextUtils {
 		return matlabCode;
 	}
 
+	/**
+	 * Linear constraint rows are written with all terms with positive coefficients on the
+	 * left hand side, and all terms with negative coefficients and the constant on the
+	 * right hand side (e.g., "endIA1W >= startIA1W + IA1W_Duration"). Logical rows are
+	 * written as is.
+	 * 
+	 * @see edu.gatech.mbse.transformations.sysml2milp.utils.MILPModel2TextUtils#generateModel(edu.gatech.mbse.transformations.sysml2milp.model.MILPModel, edu.gatech.mbse.transformations.sysml2milp.utils.MILPCodeSink)
+	 *
+	 * @param model
+	 * @param sink
+	 */
+	@Override
+	public void generateModel(MILPModel model, MILPCodeSink sink) {
+		for (int i = 0; i < model.getNumStatements(); i++) {
+			switch (model.getStatementKind(i)) {
+				case COMMENT:
+					sink.append(generateComment(model.getStatementText(i)));
+					break;
+				
+				case LINE_SEPARATOR:
+					sink.append(generateLineSeparator());
+					break;
+					
+				case VARIABLE_DECLARATION:
+					sink.append(generateVariableDeclaration(model, model.getStatementVariable(i), model.getStatementComment(i)));
+					break;
+					
+				case VARIABLE_DEFINITION:
+					sink.append(generateVariableDeclaration(
+							model.getVariableName(model.getStatementVariable(i)),
+							model.getStatementText(i),
+							model.getStatementComment(i)));
+					break;
+					
+				case CONSTRAINTS:
+					ArrayList<String> constraints = new ArrayList<String>(
+							model.getStatementEndConstraint(i) - model.getStatementFirstConstraint(i));
+					
+					for (int row = model.getStatementFirstConstraint(i); row < model.getStatementEndConstraint(i); row++)
+						constraints.add(generateConstraint(model, row));
+					
+					sink.append(generateConstraintDeclaration(constraints, model.getStatementComment(i)));
+					break;
+					
+				case OBJECTIVE:
+					sink.append(generateObjectiveDelaration(model.getStatementText(i)));
+					break;
+					
+				case TEXT_VISUALIZATION:
+					sink.append(generateTextVisualization(model.getStatementText(i)));
+					break;
+					
+				case CODE:
+					sink.append(model.getStatementText(i));
+					break;
+			}
+		}
+	}
+	
+	/**
+	 * Generate the declaration of a decision variable of a MILP model. Matrices are
+	 * declared with their dimensions (e.g., "A = binvar(3, 4);").
+	 * 
+	 * @param model The MILP model.
+	 * @param variableID The ID of the variable.
+	 * @param comment A comment to add to target MILP code.
+	 * @return MILP code.
+	 */
+	private String generateVariableDeclaration(MILPModel model, int variableID, String comment) {
+		String name = model.getVariableName(variableID);
+		MILPVariableType varType = model.getVariableType(variableID);
+		int rows = model.getVariableRows(variableID);
+		int columns = model.getVariableColumns(variableID);
+		
+		if (rows == 1 && columns == 1)
+			return generateVariableDeclaration(name, varType, comment);
+		
+		String dimensions = "(" + rows + ", " + columns + ")";
+		
+		switch (varType) {
+			case SDPVAR:
+				return generateVariableDeclaration(name, "sdpvar" + dimensions, comment);
+			
+			case INTVAR:
+				return generateVariableDeclaration(name, "intvar" + dimensions, comment);
+				
+			default:
+				// Fall through
+			case BINVAR:
+				return generateVariableDeclaration(name, "binvar" + dimensions, comment);
+		}
+	}
+	
+	/**
+	 * Generate a single constraint row of a MILP model (without the surrounding
+	 * constraint declaration).
+	 * 
+	 * @param model The MILP model.
+	 * @param row The index of the constraint row.
+	 * @return The constraint in YALMIP syntax.
+	 */
+	private String generateConstraint(MILPModel model, int row) {
+		if (!model.isLinearConstraint(row))
+			return model.getConstraintExpression(row);
+		
+		StringBuilder lhs = new StringBuilder();
+		StringBuilder rhs = new StringBuilder();
+		
+		for (int t = model.getConstraintTermsStart(row); t < model.getConstraintTermsEnd(row); t++) {
+			double coefficient = model.getTermCoefficient(t);
+			StringBuilder side = (coefficient < 0 ? rhs : lhs);
+			
+			if (coefficient == 0)
+				continue;
+			
+			if (side.length() > 0)
+				side.append(" + ");
+			
+			if (Math.abs(coefficient) != 1)
+				side.append(formatNumber(Math.abs(coefficient)) + "*");
+			
+			side.append(model.getVariableName(model.getTermVariable(t)));
+		}
+		
+		double constant = model.getConstraintRightHandSide(row);
+		
+		if (rhs.length() == 0)
+			rhs.append(formatNumber(constant));
+		else if (constant > 0)
+			rhs.append(" + " + formatNumber(constant));
+		else if (constant < 0)
+			rhs.append(" - " + formatNumber(-constant));
+		
+		if (lhs.length() == 0)
+			lhs.append("0");
+		
+		return lhs + " " + model.getConstraintSense(row).getOperator() + " " + rhs;
+	}
+	
+	/**
+	 * Format a number - integral values are written without a decimal point.
+	 * 
+	 * @param number The number to format.
+	 * @return The number in YALMIP syntax.
+	 */
+	private String formatNumber(double number) {
+		if (number == Math.rint(number) && Math.abs(number) < 1e15)
+			return Long.toString((long) number);
+		
+		return Double.toString(number);
+	}
+
 }
@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Element;
+import org.eclipse.uml2.uml.NamedElement;
+import org.eclipse.uml2.uml.Namespace;
+
+/**
+ * Index of the namespaces (packages, classifiers, ...) below a starting point by
+ * qualified name and, for classifiers, by simple name.
+ * <P>
+ * The lookups return the same elements as
+ * {@link UMLModelUtils#findElementByQualifiedName(String, Namespace)},
+ * {@link UMLModelUtils#findClassifierByQualifiedName(String, Namespace)} and
+ * {@link UMLModelUtils#findFirstClassifierByName(String, Namespace)}, i.e. the
+ * first match of a depth first search through the members of the starting point
+ * (which includes imported model libraries). The index is built on the first lookup,
+ * in a single traversal, and has to be invalidated (see {@link #invalidate()}) if
+ * elements are added, removed or renamed afterwards.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class NameIndex {
+	
+	/** The starting point of the search. */
+	private final Namespace startingPoint;
+	
+	/** Namespaces by qualified name (null if not built yet). */
+	private HashMap<String, Namespace> namespacesByQualifiedName = null;
+	
+	/** Classifiers by qualified name. */
+	private HashMap<String, Classifier> classifiersByQualifiedName = null;
+	
+	/** Classifiers by (simple) name. */
+	private HashMap<String, Classifier> classifiersByName = null;
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param startingPoint The starting point of the search (usually the root model
+	 * 		element).
+	 */
+	public NameIndex(Namespace startingPoint) {
+		this.startingPoint = startingPoint;
+	}
+	
+	/**
+	 * Find an element with the given qualified name.
+	 * 
+	 * @param qualifiedName The qualified name of the element to search for.
+	 * @return The element if found, null otherwise.
+	 */
+	public Element findElementByQualifiedName(String qualifiedName) {
+		build();
+		
+		return namespacesByQualifiedName.get(qualifiedName);
+	}
+	
+	/**
+	 * Find a classifier with the given qualified name.
+	 * 
+	 * @param qualifiedName The qualified name of the classifier to search for.
+	 * @return The classifier if found, null otherwise.
+	 */
+	public Classifier findClassifierByQualifiedName(String qualifiedName) {
+		build();
+		
+		return classifiersByQualifiedName.get(qualifiedName);
+	}
+	
+	/**
+	 * Find the first classifier with the given name.
+	 * 
+	 * @param name The name of the classifier to search for.
+	 * @return The classifier if found, null otherwise.
+	 */
+	public Classifier findFirstClassifierByName(String name) {
+		build();
+		
+		return classifiersByName.get(name);
+	}
+	
+	/**
+	 * Discard the index, such that it is built again on the next lookup. Call this
+	 * when the model has changed.
+	 */
+	public void invalidate() {
+		namespacesByQualifiedName = null;
+		classifiersByQualifiedName = null;
+		classifiersByName = null;
+	}
+	
+	/**
+	 * Build the index, if not built yet.
+	 */
+	private void build() {
+		if (namespacesByQualifiedName != null)
+			return;
+		
+		namespacesByQualifiedName = new HashMap<String, Namespace>();
+		classifiersByQualifiedName = new HashMap<String, Classifier>();
+		classifiersByName = new HashMap<String, Classifier>();
+		
+		if (startingPoint != null)
+			visit(startingPoint, new HashSet<Namespace>());
+	}
+	
+	/**
+	 * Depth first traversal of a namespace and its members. Only the first namespace
+	 * found for a name is kept. Namespaces that can be reached on several paths (e.g.,
+	 * imported packages) are visited once - on later visits, all names found would
+	 * already have been indexed.
+	 * 
+	 * @param ns The namespace to visit.
+	 * @param visited The namespaces visited so far.
+	 */
+	private void visit(Namespace ns, HashSet<Namespace> visited) {
+		if (!visited.add(ns))
+			return;
+		
+		String qualifiedName = ns.getQualifiedName();
+		
+		if (qualifiedName != null) {
+			if (!namespacesByQualifiedName.containsKey(qualifiedName))
+				namespacesByQualifiedName.put(qualifiedName, ns);
+			
+			if (ns instanceof Classifier
+					&& !classifiersByQualifiedName.containsKey(qualifiedName))
+				classifiersByQualifiedName.put(qualifiedName, (Classifier) ns);
+		}
+		
+		if (ns instanceof Classifier
+				&& ns.getName() != null
+				&& !classifiersByName.containsKey(ns.getName()))
+			classifiersByName.put(ns.getName(), (Classifier) ns);
+		
+		if (ns.getMembers() != null)
+			for (NamedElement ne : ns.getMembers())
+				if (ne instanceof Namespace)
+					visit((Namespace) ne, visited);
+	}
+	
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+import org.eclipse.uml2.uml.Element;
+
+/**
+ * The resource types that are relevant to a particular functional specification,
+ * computed once.
+ * <P>
+ * The activities of the functional specification are collected (see
+ * {@link DSEMLUtils#collectSubActivities(Activity)}), as are the working principles
+ * of these activities and the (nested) resource types of the working principles. The
+ * resource types are then expanded through generalization: a resource is relevant if
+ * it is one of these resource types, a general of one of them, or a specialization of
+ * one of them (the same rule as
+ * {@link DSEMLUtils#isResourceRelevant(Element, Activity, ArrayList)}, which
+ * recomputes all of this for every resource queried for).
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class RelevantResources {
+	
+	/** Resource types of the working principles of the functional specification. */
+	private final HashSet<Element> resourceTypes = new HashSet<Element>();
+	
+	/** Resource types and all their generals (at any level). */
+	private final HashSet<Element> resourceTypesAndGenerals = new HashSet<Element>();
+	
+	/** Classifiers for which it is known whether they specialize a resource type. */
+	private final HashMap<Classifier, Boolean> specializesResourceType = new HashMap<Classifier, Boolean>();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param topLevelActivity The functional specification.
+	 * @param allWPs All working principles in the model (see
+	 * 		{@link DSEMLUtils#getWorkingPrinciples(Element)}).
+	 */
+	public RelevantResources(Activity topLevelActivity, ArrayList<Activity> allWPs) {
+		this(topLevelActivity, new WorkingPrincipleIndex(allWPs));
+	}
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param topLevelActivity The functional specification.
+	 * @param workingPrinciples The working principles of each activity in the model.
+	 */
+	public RelevantResources(Activity topLevelActivity, WorkingPrincipleIndex workingPrinciples) {
+		// Activities may be called more than once - only look at them once
+		HashSet<Activity> activities = new HashSet<Activity>(DSEMLUtils.collectSubActivities(topLevelActivity));
+		
+		for (Activity act : activities)
+			resourceTypes.addAll(DSEMLUtils.getResourceTypes(workingPrinciples.getWorkingPrinciples(act)));
+		
+		for (Element r : resourceTypes)
+			addWithGenerals(r);
+	}
+	
+	/**
+	 * Add an element and, if it is a classifier, all of its generals (at any level)
+	 * to the set of resource types and their generals.
+	 * 
+	 * @param e The element to add.
+	 */
+	private void addWithGenerals(Element e) {
+		if (!resourceTypesAndGenerals.add(e))
+			return;
+		
+		if (e instanceof Classifier && ((Classifier) e).getGenerals() != null)
+			for (Classifier c : ((Classifier) e).getGenerals())
+				addWithGenerals(c);
+	}
+	
+	/**
+	 * Checks whether a particular resource is relevant to the functional specification.
+	 * 
+	 * @param resource The resource to query for.
+	 * @return true if the resource is relevant, false otherwise.
+	 */
+	public boolean isRelevant(Element resource) {
+		if (resourceTypesAndGenerals.contains(resource))
+			return true;
+		
+		if (resource instanceof Classifier)
+			return specializesResourceType((Classifier) resource);
+		
+		return false;
+	}
+	
+	/**
+	 * Checks whether a classifier specializes one of the resource types (at any level).
+	 * The result is remembered for the classifier and for all of its generals.
+	 * 
+	 * @param c The classifier to check.
+	 * @return true if c is or specializes one of the resource types, false otherwise.
+	 */
+	private boolean specializesResourceType(Classifier c) {
+		if (resourceTypes.contains(c))
+			return true;
+		
+		Boolean known = specializesResourceType.get(c);
+		
+		if (known != null)
+			return known.booleanValue();
+		
+		// Guards against cycles in (invalid) generalization hierarchies
+		specializesResourceType.put(c, Boolean.FALSE);
+		
+		boolean specializes = false;
+		
+		if (c.getGenerals() != null) {
+			for (Classifier general : c.getGenerals()) {
+				if (specializesResourceType(general)) {
+					specializes = true;
+					break;
+				}
+			}
+		}
+		
+		specializesResourceType.put(c, Boolean.valueOf(specializes));
+		
+		return specializes;
+	}
+	
+}
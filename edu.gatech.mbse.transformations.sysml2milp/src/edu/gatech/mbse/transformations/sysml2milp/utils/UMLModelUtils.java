@@ -64,6 +64,8 @@ import org.eclipse.uml2.uml.internal.impl.LiteralSpecificationImpl;
 import org.eclipse.uml2.uml.internal.impl.LiteralStringImpl;
 import org.eclipse.uml2.uml.internal.impl.UMLFactoryImpl;
 
+import edu.gatech.mbse.transformations.sysml2milp.TransformationContext;
+
 /**
  * Collection of functions to ease querying and computing sets of elements from a
  * UML model (e.g., retrieval of all constraints that are owned and inherited).
@@ -86,6 +88,23 @@ public class UMLModelUtils {
 	 * @return A set of inherited and owned constraints of an activity.
 	 */
 	public static ArrayList<Constraint> collectConstraints(Activity workingPrinciple) {
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null)
+			return new ArrayList<Constraint>(features.getConstraints(workingPrinciple));
+		
+		return searchConstraints(workingPrinciple);
+	}
+	
+	/**
+	 * Collects the owned and inherited constraints of an activity (see
+	 * {@link #collectConstraints(Activity)}).
+	 * 
+	 * @param workingPrinciple The working principle to collect constraints from.
+	 * @return A set of inherited and owned constraints of an activity.
+	 */
+	static ArrayList<Constraint> searchConstraints(Activity workingPrinciple) {
 		ArrayList<Constraint> constraints = new ArrayList<Constraint>();
 		
 		// Owned constraints
@@ -96,7 +115,7 @@ public class UMLModelUtils {
 		}
 		
 		// Inherited constraints
-		for (NamedElement n : workingPrinciple.getInheritedMembers()) {
+		for (NamedElement n : getInheritedMembers(workingPrinciple)) {
 			if (n instanceof Constraint) {
 				constraints.add((Constraint) n);
 			}
@@ -237,6 +256,8 @@ public class UMLModelUtils {
 	
 	/**
 	 * Performs a depth first search to try and find an element with the given qualified name.
+	 * <P>
+	 * Use a {@link NameIndex} when searching for several elements.
 	 * 
 	 * @param qualifiedName The qualified name of the element to search for.
 	 * @param startingPoint The starting point (usually the root model element).
@@ -274,7 +295,7 @@ public class UMLModelUtils {
 	 * <P>
 	 * This function is similar to {@link #findElementByQualifiedName(String, Namespace)}
 	 * but specifically searches for an instance of a UML classifier rather than an
-	 * element.
+	 * element. Use a {@link NameIndex} when searching for several classifiers.
 	 * 
 	 * @param qualifiedName The qualified name of the element.
 	 * @param startingPoint The starting point from which to start the search on.
@@ -319,6 +340,8 @@ public class UMLModelUtils {
 	
 	/**
 	 * Performs a depth first search to try and find an element with the given qualified name.
+	 * <P>
+	 * Use a {@link NameIndex} when searching for several classifiers.
 	 * 
 	 * @param qualifiedName The qualified name of the element to search for.
 	 * @param startingPoint Starting point to start the search from.
@@ -437,6 +460,12 @@ public class UMLModelUtils {
 		if (parent.getOwnedElements() == null)
 			return null;
 		
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null && parent instanceof Classifier)
+			return features.getProperty((Classifier) parent, propertyName);
+		
 		for (Element e : parent.getOwnedElements()) {
 			if (e instanceof Property
 					&& ((Property) e).getName().toLowerCase().equals(propertyName.toLowerCase())) {
@@ -447,7 +476,7 @@ public class UMLModelUtils {
 		// If the property is not owned, check whether it was inherited
 		// FIXME This may return duplicates - check this
 		if (parent instanceof Classifier) {
-			for (Element e : ((Classifier) parent).getInheritedMembers()) {
+			for (Element e : getInheritedMembers((Classifier) parent)) {
 				if (e instanceof Property
 						&& ((Property) e).getName().toLowerCase().equals(propertyName.toLowerCase())) {
 					logger.trace("Returning property " + ((Property) e).getName());
@@ -470,6 +499,23 @@ public class UMLModelUtils {
 	 * @return The parameter object or null if not found.
 	 */
 	public static Parameter getParameter(Activity parent, String parameterName) {
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null)
+			return features.getParameter(parent, parameterName);
+		
+		return searchParameter(parent, parameterName);
+	}
+	
+	/**
+	 * Searches for a parameter of an activity (see {@link #getParameter(Activity, String)}).
+	 * 
+	 * @param parent The parent activity.
+	 * @param parameterName The name of the parameter.
+	 * @return The parameter object or null if not found.
+	 */
+	static Parameter searchParameter(Activity parent, String parameterName) {
 		for (Parameter e : parent.getOwnedParameters()) {
 			if (e.getName().toLowerCase().equals(parameterName.toLowerCase())) {
 				logger.trace("Returning parameter " + e.getName());
@@ -478,7 +524,7 @@ public class UMLModelUtils {
 		}
 		
 		// If not owned, then maybe inherited
-		for (NamedElement e : parent.getInheritedMembers()) {
+		for (NamedElement e : getInheritedMembers(parent)) {
 			if (e instanceof Parameter
 					&& e.getName().toLowerCase().equals(parameterName.toLowerCase())) {
 				logger.trace("Returning inherited parameter " + e.getName());
@@ -526,6 +572,42 @@ public class UMLModelUtils {
 		return null;
 	}
 	
+	/**
+	 * Wrapper function for {@link Classifier#getAllAttributes()}. During a
+	 * transformation run, the attributes are only collected once per classifier (see
+	 * {@link ClassifierFeatures}).
+	 * 
+	 * @param c The classifier.
+	 * @return All attributes (owned and inherited) of the classifier.
+	 */
+	public static List<Property> getAllAttributes(Classifier c) {
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null)
+			return features.getAllAttributes(c);
+		
+		return c.getAllAttributes();
+	}
+	
+	/**
+	 * Wrapper function for {@link Classifier#getInheritedMembers()}. During a
+	 * transformation run, the members are only collected once per classifier (see
+	 * {@link ClassifierFeatures}).
+	 * 
+	 * @param c The classifier.
+	 * @return The inherited members of the classifier.
+	 */
+	public static List<NamedElement> getInheritedMembers(Classifier c) {
+		TransformationContext context = TransformationContext.getActive();
+		ClassifierFeatures features = context != null ? context.getClassifierFeatures() : null;
+		
+		if (features != null)
+			return features.getInheritedMembers(c);
+		
+		return c.getInheritedMembers();
+	}
+	
 	/** Wrapper function for {@link Classifier#isAbstract()}. */
 	public static boolean isAbstract(Classifier c) {
 		return c.isAbstract();
@@ -581,6 +663,9 @@ public class UMLModelUtils {
 	/**
 	 * Performs a depth first search to identify whether a particular classifier 'specific' inherits
 	 * from a classifier 'general' at some level.
+	 * <P>
+	 * During a transformation run, the generalization closure of the run is used instead
+	 * (see {@link GeneralizationClosure}).
 	 * 
 	 * @param specific The specific classifier.
 	 * @param general The general classifier.
@@ -596,6 +681,11 @@ public class UMLModelUtils {
 		if (specific == general)
 			return true;
 		
+		TransformationContext context = TransformationContext.getActive();
+		
+		if (context != null)
+			return context.getGeneralizationClosure().isSpecific(specific, general);
+		
 		if (((Classifier) specific).getGenerals() == null)
 			return false;
 		
@@ -0,0 +1,132 @@
+/**
+ * Copyright (c) 2015, Model-Based Systems Engineering Center, Georgia Institute of Technology.
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided
+ * that the following conditions are met:
+ * 
+ *    Redistributions of source code must retain the above copyright notice, this list of conditions and the
+ *    following disclaimer.
+ * 
+ *    Redistributions in binary form must reproduce the above copyright notice, this list of conditions and
+ *    the following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   
+ *    Neither the name of salesforce.com, inc. nor the names of its contributors may be used to endorse or
+ *    promote products derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED
+ * WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A
+ * PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED
+ * TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package edu.gatech.mbse.transformations.sysml2milp.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import org.eclipse.uml2.uml.Activity;
+import org.eclipse.uml2.uml.Classifier;
+
+/**
+ * Index from each (abstract) activity to the working principles that implement it.
+ * <P>
+ * For every activity, the index holds the same list as
+ * {@link DSEMLUtils#getWorkingPrinciples(Activity, ArrayList)} returns for the list
+ * of working principles the index is built from: the activity itself if it is a
+ * working principle, followed by the working principles that are, or specialize at
+ * some level, the activity (in the order of the list). The lists are computed
+ * once, by walking the generals of each working principle, instead of checking
+ * every working principle for every activity.
+ * <P>
+ * An index is read-only once built and may be shared by several transformation runs
+ * on the same model. The lists it returns must not be modified.
+ * 
+ * @author Sebastian
+ * @version 0.1
+ */
+public class WorkingPrincipleIndex {
+	
+	/** The working principles of each activity that has at least one. */
+	private final HashMap<Classifier, ArrayList<Activity>> workingPrinciples = new HashMap<Classifier, ArrayList<Activity>>();
+	
+	/**
+	 * Constructor.
+	 * 
+	 * @param allWPs All working principles in the model (see
+	 * 		{@link DSEMLUtils#getWorkingPrinciples(org.eclipse.uml2.uml.Element)}).
+	 */
+	public WorkingPrincipleIndex(List<Activity> allWPs) {
+		// Implementing working principles by general (in the order of allWPs)
+		HashMap<Classifier, ArrayList<Activity>> implementations = new HashMap<Classifier, ArrayList<Activity>>();
+		
+		for (Activity wp : allWPs) {
+			HashSet<Classifier> generals = new HashSet<Classifier>();
+			collectGenerals(wp, generals);
+			
+			for (Classifier general : generals) {
+				ArrayList<Activity> wps = implementations.get(general);
+				
+				if (wps == null) {
+					wps = new ArrayList<Activity>();
+					implementations.put(general, wps);
+				}
+				
+				wps.add(wp);
+			}
+		}
+		
+		for (Classifier general : implementations.keySet()) {
+			ArrayList<Activity> wps = new ArrayList<Activity>();
+			
+			if (DSEMLUtils.isWorkingPrinciple(general))
+				wps.add((Activity) general);
+			
+			wps.addAll(implementations.get(general));
+			workingPrinciples.put(general, wps);
+		}
+	}
+	
+	/**
+	 * Collect a classifier and its generals (at any level).
+	 * 
+	 * @param c The classifier.
+	 * @param generals The classifiers collected so far.
+	 */
+	private static void collectGenerals(Classifier c, HashSet<Classifier> generals) {
+		if (c == null || !generals.add(c))
+			return;
+		
+		if (c.getGenerals() != null)
+			for (Classifier general : c.getGenerals())
+				collectGenerals(general, generals);
+	}
+	
+	/**
+	 * Returns the working principles associated with a particular activity (see
+	 * {@link DSEMLUtils#getWorkingPrinciples(Activity, ArrayList)}).
+	 * 
+	 * @param act The (abstract) activity (function definition).
+	 * @return The list of working principles that specialize the given activity act.
+	 */
+	public ArrayList<Activity> getWorkingPrinciples(Activity act) {
+		ArrayList<Activity> wps = workingPrinciples.get(act);
+		
+		if (wps != null)
+			return wps;
+		
+		// Not implemented by any of the working principles
+		wps = new ArrayList<Activity>();
+		
+		if (DSEMLUtils.isWorkingPrinciple(act))
+			wps.add(act);
+		
+		return wps;
+	}
+	
+}